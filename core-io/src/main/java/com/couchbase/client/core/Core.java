@@ -39,6 +39,7 @@ import com.couchbase.client.core.config.GlobalConfig;
 import com.couchbase.client.core.diagnostics.EndpointDiagnostics;
 import com.couchbase.client.core.env.Authenticator;
 import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.IoConfig;
 import com.couchbase.client.core.env.SeedNode;
 import com.couchbase.client.core.error.ConfigException;
 import com.couchbase.client.core.error.GlobalConfigNotFoundException;
@@ -58,6 +59,7 @@ import com.couchbase.client.core.node.ViewLocator;
 import com.couchbase.client.core.service.ServiceScope;
 import com.couchbase.client.core.service.ServiceState;
 import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.service.kv.ObserveCoalescer;
 import com.couchbase.client.core.util.HostAndPort;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -114,28 +116,24 @@ public class Core {
     new RoundRobinLocator(ServiceType.MANAGER);
 
   /**
-   * Locates the right node for the query service.
+   * Locates the right node for the query service, based on the configured load balancing strategy.
    */
-  private static final RoundRobinLocator QUERY_LOCATOR =
-    new RoundRobinLocator(ServiceType.QUERY);
+  private final RoundRobinLocator queryLocator;
 
   /**
-   * Locates the right node for the analytics service.
+   * Locates the right node for the analytics service, based on the configured load balancing strategy.
    */
-  private static final RoundRobinLocator ANALYTICS_LOCATOR =
-    new RoundRobinLocator(ServiceType.ANALYTICS);
+  private final RoundRobinLocator analyticsLocator;
 
   /**
-   * Locates the right node for the search service.
+   * Locates the right node for the search service, based on the configured load balancing strategy.
    */
-  private static final RoundRobinLocator SEARCH_LOCATOR =
-    new RoundRobinLocator(ServiceType.SEARCH);
+  private final RoundRobinLocator searchLocator;
 
   /**
-   * Locates the right node for the view service.
+   * Locates the right node for the view service, based on the configured load balancing strategy.
    */
-  private static final RoundRobinLocator VIEWS_LOCATOR =
-    new ViewLocator();
+  private final RoundRobinLocator viewsLocator;
 
   /**
    * Holds the current core context.
@@ -190,6 +188,22 @@ public class Core {
    */
   private final Map<ResponseMetricIdentifier, ValueRecorder> responseMetrics = new ConcurrentHashMap<>();
 
+  /**
+   * Holds the per-stage latency breakdown metrics.
+   */
+  private final Map<RequestStageMetricIdentifier, ValueRecorder> requestStageMetrics = new ConcurrentHashMap<>();
+
+  /**
+   * Holds the value recorders for the time spent completing requests, per service and node.
+   */
+  private final Map<CallbackOccupancyMetricIdentifier, ValueRecorder> callbackOccupancyMetrics =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Coalesces the observe polling of legacy durability requirements per vbucket.
+   */
+  private final ObserveCoalescer observeCoalescer;
+
   /**
    * Creates a new {@link Core} with the given environment.
    *
@@ -213,11 +227,20 @@ public class Core {
     }
 
     this.seedNodes = seedNodes;
+    IoConfig ioConfig = environment.ioConfig();
+    this.queryLocator = new RoundRobinLocator(ServiceType.QUERY, ioConfig.loadBalancingStrategy(ServiceType.QUERY));
+    this.analyticsLocator = new RoundRobinLocator(
+      ServiceType.ANALYTICS,
+      ioConfig.loadBalancingStrategy(ServiceType.ANALYTICS)
+    );
+    this.searchLocator = new RoundRobinLocator(ServiceType.SEARCH, ioConfig.loadBalancingStrategy(ServiceType.SEARCH));
+    this.viewsLocator = new ViewLocator(ioConfig.loadBalancingStrategy(ServiceType.VIEWS));
     this.coreContext = new CoreContext(this, createInstanceId(), environment, authenticator);
     this.configurationProvider = createConfigurationProvider();
     this.nodes = new CopyOnWriteArrayList<>();
     this.eventBus = environment.eventBus();
     this.timer = environment.timer();
+    this.observeCoalescer = new ObserveCoalescer(this);
     this.currentConfig = configurationProvider.config();
     this.configurationProvider.configs().subscribe(c -> {
       currentConfig = c;
@@ -261,6 +284,16 @@ public class Core {
     return configurationProvider;
   }
 
+  /**
+   * Returns the coalescer which polls observe-based durability requirements.
+   *
+   * <p>Internal API, use with care!</p>
+   */
+  @Stability.Internal
+  public ObserveCoalescer observeCoalescer() {
+    return observeCoalescer;
+  }
+
   /**
    * Sends a command into the core layer and registers the request with the timeout timer.
    *
@@ -454,6 +487,40 @@ public class Core {
     });
   }
 
+  /**
+   * Returns (and lazily creates) the value recorder for an interval of the per-stage latency breakdown.
+   *
+   * @param request the request which has been sampled.
+   * @param stage the name of the interval between two request stages.
+   * @return the value recorder for the interval.
+   */
+  @Stability.Internal
+  public ValueRecorder requestStageMetric(final Request<?> request, final String stage) {
+    return requestStageMetrics.computeIfAbsent(new RequestStageMetricIdentifier(request, stage), key -> {
+      Map<String, String> tags = new HashMap<>(4);
+      tags.put("cb.service", key.serviceType.ident());
+      tags.put("cb.request_type", key.requestName);
+      tags.put("cb.stage", key.stage);
+      return coreContext.environment().meter().valueRecorder("cb.request_stages", tags);
+    });
+  }
+
+  /**
+   * Returns (and lazily creates) the value recorder for the time it takes to complete a request from the IO layer,
+   * which includes all continuations which run inline.
+   *
+   * @param request the request which has been completed.
+   * @return the value recorder for the service and node the request was dispatched to.
+   */
+  @Stability.Internal
+  public ValueRecorder callbackOccupancyMetric(final Request<?> request) {
+    return callbackOccupancyMetrics.computeIfAbsent(new CallbackOccupancyMetricIdentifier(request), key -> {
+      Map<String, String> tags = new HashMap<>(4);
+      tags.put("cb.service", key.serviceType.ident());
+      tags.put("cb.remote_hostname", key.lastDispatchedTo.hostname());
+      return coreContext.environment().meter().valueRecorder("cb.endpoint.callback_occupancy", tags);
+    });
+  }
 
   /**
    * Create a {@link Node} from the given identifier.
@@ -804,20 +871,20 @@ public class Core {
    * @param serviceType the service type for which a locator should be returned.
    * @return the locator for the service type, or an exception if unknown.
    */
-  private static Locator locator(final ServiceType serviceType) {
+  private Locator locator(final ServiceType serviceType) {
     switch (serviceType) {
       case KV:
         return KEY_VALUE_LOCATOR;
       case MANAGER:
         return MANAGER_LOCATOR;
       case QUERY:
-        return QUERY_LOCATOR;
+        return queryLocator;
       case ANALYTICS:
-        return ANALYTICS_LOCATOR;
+        return analyticsLocator;
       case SEARCH:
-        return SEARCH_LOCATOR;
+        return searchLocator;
       case VIEWS:
-        return VIEWS_LOCATOR;
+        return viewsLocator;
       default:
         throw new IllegalStateException("Unsupported ServiceType: " + serviceType);
     }
@@ -851,4 +918,56 @@ public class Core {
     }
   }
 
+  private static class RequestStageMetricIdentifier {
+
+    private final ServiceType serviceType;
+    private final String requestName;
+    private final String stage;
+
+    RequestStageMetricIdentifier(final Request<?> request, final String stage) {
+      this.serviceType = request.serviceType();
+      this.requestName = request.name();
+      this.stage = stage;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      RequestStageMetricIdentifier that = (RequestStageMetricIdentifier) o;
+      return serviceType == that.serviceType &&
+        Objects.equals(requestName, that.requestName) &&
+        Objects.equals(stage, that.stage);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(serviceType, requestName, stage);
+    }
+  }
+
+  private static class CallbackOccupancyMetricIdentifier {
+
+    private final ServiceType serviceType;
+    private final HostAndPort lastDispatchedTo;
+
+    CallbackOccupancyMetricIdentifier(final Request<?> request) {
+      this.serviceType = request.serviceType();
+      this.lastDispatchedTo = request.context().lastDispatchedTo();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      CallbackOccupancyMetricIdentifier that = (CallbackOccupancyMetricIdentifier) o;
+      return serviceType == that.serviceType && Objects.equals(lastDispatchedTo, that.lastDispatchedTo);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(serviceType, lastDispatchedTo);
+    }
+  }
+
 }
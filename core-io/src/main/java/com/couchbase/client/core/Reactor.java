@@ -16,10 +16,14 @@
 
 package com.couchbase.client.core;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.RequestCanceledException;
+import com.couchbase.client.core.msg.BaseRequest;
 import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestCompletionListener;
 import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.Response;
 import reactor.core.CoreSubscriber;
 import reactor.core.Exceptions;
 import reactor.core.Fuseable;
@@ -28,6 +32,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Operators;
 import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
 import reactor.util.context.Context;
 
 import java.util.Objects;
@@ -35,6 +40,7 @@ import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 /**
@@ -75,6 +81,32 @@ public class Reactor {
     });
   }
 
+  /**
+   * Returns a {@link Mono} which is completed directly by the (already dispatched) request.
+   * <p>
+   * In contrast to {@link #wrap(Request, CompletableFuture, boolean)}, no dependent stages are chained onto the
+   * response future: the subscriber is registered as the completion listener of the request, and the converter
+   * runs once the request completes. After conversion (or failure) the request is logically completed, so the
+   * converter must not do that on its own.
+   *
+   * @param request the dispatched request to complete the mono from.
+   * @param converter converts the response into the emitted value, may throw to signal an error.
+   * @param propagateCancellation if a cancelled/unsubscribed mono should also cancel the request.
+   * @return the mono which completes once the request completes.
+   */
+  @Stability.Internal
+  public static <R extends Response, T> Mono<T> fromRequest(final Request<R> request,
+                                                            final Function<R, T> converter,
+                                                            final boolean propagateCancellation) {
+    if (!(request instanceof BaseRequest)) {
+      return wrap(request, request.response().thenApply(converter), propagateCancellation)
+        .doFinally(st -> request.context().logicallyComplete());
+    }
+    return MyLittleAssemblyFactory.callOnAssembly(
+      new RequestMono<>((BaseRequest<R>) request, converter, propagateCancellation)
+    );
+  }
+
   /**
    * Helper method to wrap an async call into a reactive one and translate
    * exceptions appropriately.
@@ -98,6 +130,64 @@ public class Reactor {
     return toMono(input).flux().flatMap(Flux::fromIterable);
   }
 
+  /**
+   * Maps every element of the flux, running up to {@code window} mappings in parallel on the given scheduler.
+   * <p>
+   * The mapped elements are emitted in the original order, and at most {@code window} elements are requested
+   * ahead of the downstream demand. If the mapper fails for an element, the error is signaled in place of that
+   * element, after all elements before it. With a window of 0 or 1 the elements are mapped inline on the emitting
+   * thread.
+   *
+   * @param input the flux to map.
+   * @param mapper the function to apply to each element.
+   * @param scheduler the scheduler to run the mappings on.
+   * @param window the maximum number of elements mapped in parallel.
+   * @return the flux of mapped elements.
+   */
+  @Stability.Internal
+  public static <T, R> Flux<R> mapOrdered(final Flux<T> input, final Function<? super T, ? extends R> mapper,
+                                          final Scheduler scheduler, final int window) {
+    if (window <= 1) {
+      return input.map(mapper);
+    }
+    return input
+      .flatMapSequential(
+        element -> Mono.fromCallable(() -> mapCapturingError(mapper, element)).subscribeOn(scheduler),
+        window,
+        1
+      )
+      .map(Mapped::get);
+  }
+
+  private static <T, R> Mapped<R> mapCapturingError(final Function<? super T, ? extends R> mapper, final T element) {
+    try {
+      return new Mapped<>(mapper.apply(element), null);
+    } catch (RuntimeException ex) {
+      return new Mapped<>(null, ex);
+    }
+  }
+
+  /**
+   * Holds either the result of a mapping or its failure, so failures stay in order with the results.
+   */
+  private static final class Mapped<R> {
+
+    private final R value;
+    private final RuntimeException error;
+
+    Mapped(final R value, final RuntimeException error) {
+      this.value = value;
+      this.error = error;
+    }
+
+    R get() {
+      if (error != null) {
+        throw error;
+      }
+      return value;
+    }
+  }
+
   /**
    * Emits the value or error produced by the wrapped CompletionStage.
    * <p>
@@ -194,6 +284,129 @@ public class Reactor {
     }
   }
 
+  /**
+   * Emits the converted response of a {@link BaseRequest}, completed directly through its
+   * {@link RequestCompletionListener}.
+   * <p>
+   * Only the first subscriber is registered as the listener of the request, and it is the one which logically
+   * completes the request. Concurrent and later subscribers fall back to the response future.
+   *
+   * @param <R> the response type.
+   * @param <T> the value type.
+   */
+  private static final class RequestMono<R extends Response, T> extends Mono<T> implements Scannable {
+
+    private final BaseRequest<R> request;
+    private final Function<R, T> converter;
+    private final boolean propagateCancellation;
+
+    RequestMono(final BaseRequest<R> request, final Function<R, T> converter, final boolean propagateCancellation) {
+      this.request = request;
+      this.converter = converter;
+      this.propagateCancellation = propagateCancellation;
+    }
+
+    @Override
+    public void subscribe(final CoreSubscriber<? super T> actual) {
+      RequestSubscription<R, T> subscription = new RequestSubscription<>(actual, this);
+      actual.onSubscribe(subscription);
+      if (subscription.isCancelled()) {
+        return;
+      }
+
+      if (!request.completionListener(subscription)) {
+        // Another subscription is the registered listener and logically completes the request, so it is not done here
+        request.response().whenComplete((response, error) -> subscription.emit(
+          response,
+          error instanceof CompletionException ? error.getCause() : error
+        ));
+      }
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+      return null;
+    }
+  }
+
+  /**
+   * The subscription handed to the subscriber of a {@link RequestMono}, which also listens for the completion
+   * of the request.
+   */
+  private static final class RequestSubscription<R extends Response, T> extends Operators.MonoSubscriber<T, T>
+    implements RequestCompletionListener<R> {
+
+    private final RequestMono<R, T> parent;
+
+    RequestSubscription(final CoreSubscriber<? super T> actual, final RequestMono<R, T> parent) {
+      super(actual);
+      this.parent = parent;
+    }
+
+    @Override
+    public void cancel() {
+      super.cancel();
+      if (parent.propagateCancellation) {
+        parent.request.cancel(CancellationReason.STOPPED_LISTENING);
+      }
+    }
+
+    @Override
+    public void onCompletion(final R response, final Throwable error) {
+      try {
+        emit(response, error);
+      } finally {
+        parent.request.context().logicallyComplete();
+      }
+    }
+
+    /**
+     * Converts the response and signals the result to the subscriber, unless it cancelled in the meantime.
+     */
+    void emit(final R response, final Throwable error) {
+      T value = null;
+      Throwable failure = error;
+      if (failure == null) {
+        try {
+          value = parent.converter.apply(response);
+        } catch (Throwable t) {
+          failure = t;
+        }
+      }
+
+      if (isCancelled()) {
+        Context ctx = currentContext();
+        if (failure != null && !(failure instanceof CancellationException) && !stoppedListening(failure)) {
+          Operators.onErrorDropped(failure, ctx);
+        }
+        if (value != null) {
+          Operators.onDiscard(value, ctx);
+        }
+        return;
+      }
+
+      try {
+        if (failure != null) {
+          actual.onError(failure);
+        } else if (value != null) {
+          complete(value);
+        } else {
+          actual.onComplete();
+        }
+      } catch (Throwable t) {
+        Operators.onErrorDropped(t, actual.currentContext());
+      }
+    }
+
+    /**
+     * The request is cancelled with STOPPED_LISTENING when this subscription is cancelled, so this is expected.
+     */
+    private boolean stoppedListening(final Throwable failure) {
+      return failure instanceof RequestCanceledException
+        && parent.request.cancellationReason() == CancellationReason.STOPPED_LISTENING;
+    }
+  }
+
   /**
    * We have or own little pony eeeh factory because onAssembly is protected inside the mono, so we need to expose it!
    */
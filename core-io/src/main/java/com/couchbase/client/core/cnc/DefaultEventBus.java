@@ -16,6 +16,7 @@
 
 package com.couchbase.client.core.cnc;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.deps.org.jctools.queues.QueueFactory;
 import com.couchbase.client.core.deps.org.jctools.queues.spec.ConcurrentQueueSpec;
 import reactor.core.publisher.Flux;
@@ -28,6 +29,7 @@ import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
 
 /**
@@ -98,6 +100,11 @@ public class DefaultEventBus implements EventBus {
    */
   private volatile Thread runningThread;
 
+  /**
+   * Counts the events which have been dropped because the queue was full.
+   */
+  private final LongAdder overloadedEvents = new LongAdder();
+
   public static DefaultEventBus.Builder builder(final Scheduler scheduler) {
     return new Builder(scheduler);
   }
@@ -137,6 +144,7 @@ public class DefaultEventBus implements EventBus {
     } else if (eventQueue.offer(event)) {
       return PublishResult.SUCCESS;
     } else {
+      overloadedEvents.increment();
       if (errorLogging != null) {
         errorLogging.println("Could not publish Event because the queue is full. " + event);
       }
@@ -144,6 +152,14 @@ public class DefaultEventBus implements EventBus {
     }
   }
 
+  /**
+   * Returns the total number of events which could not be published because the queue was full.
+   */
+  @Stability.Internal
+  public long overloadedEvents() {
+    return overloadedEvents.sum();
+  }
+
   /**
    * Starts the {@link DefaultEventBus}.
    */
@@ -20,9 +20,11 @@ import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.events.tracing.OrphanRecordDroppedEvent;
 import com.couchbase.client.core.cnc.events.tracing.OrphanReporterFailureDetectedEvent;
 import com.couchbase.client.core.cnc.events.tracing.OrphansRecordedEvent;
-import com.couchbase.client.core.deps.org.jctools.queues.MpscUnboundedArrayQueue;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import com.couchbase.client.core.deps.org.jctools.queues.MpscArrayQueue;
 import com.couchbase.client.core.env.OrphanReporterConfig;
 import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
 import com.couchbase.client.core.msg.UnmonitoredRequest;
 import com.couchbase.client.core.msg.kv.KeyValueRequest;
 import com.couchbase.client.core.msg.view.ViewRequest;
@@ -36,14 +38,27 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.PriorityQueue;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.couchbase.client.core.logging.RedactableArgument.redactSystem;
 
+/**
+ * The orphan reporter collects responses which arrived after their request has already been completed (i.e. because
+ * of a timeout) and periodically emits the slowest of them per service on the event bus.
+ * <p>
+ * Only a compact {@link OrphanRecord} snapshot is retained per orphan and the queue between the IO threads and the
+ * worker is bounded by {@link OrphanReporterConfig#queueLength()}, so that a burst of timeouts (which usually
+ * happens exactly when the cluster is struggling) does not keep the full requests and their payloads on the heap.
+ * The total number of orphans is always counted per service, even if the individual record has been dropped, and
+ * is also exported through the {@link Meter} per service and remote node.
+ */
 @Stability.Internal
 public class OrphanReporter {
 
@@ -64,14 +79,26 @@ public class OrphanReporter {
   private static final String KEY_LAST_LOCAL_ID = "last_local_id";
   private static final String KEY_TIMEOUT = "timeout_ms";
 
+  private static final String METRIC_ORPHANS = "cb.orphans";
+
   private final AtomicBoolean running = new AtomicBoolean(false);
   private volatile Thread worker = null;
-  private final Queue<Request<?>> orphanQueue;
+  private final Queue<OrphanRecord> orphanQueue;
   private final long emitIntervalNanos;
   private final int sampleSize;
   private final EventBus eventBus;
+  private final Meter meter;
   private final boolean enabled;
 
+  /**
+   * Holds the total number of orphans per service, indexed by {@link ServiceType#ordinal()}.
+   * <p>
+   * These are counted independently of the queue so that the totals stay correct even if records are dropped.
+   */
+  private final LongAdder[] orphanCounts;
+
+  private final Map<OrphanMetricIdentifier, Counter> orphanMetrics = new ConcurrentHashMap<>();
+
   /**
    * Creates a new {@link OrphanReporter}.
    * <p>
@@ -83,11 +110,31 @@ public class OrphanReporter {
    */
   @Stability.Internal
   public OrphanReporter(final EventBus eventBus, final OrphanReporterConfig config) {
+    this(eventBus, new NoopMeter(), config);
+  }
+
+  /**
+   * Creates a new {@link OrphanReporter} which also records the number of orphans on the given {@link Meter}.
+   * <p>
+   * Please do not instantiate this class directly, but rather let it be handled through the environment and
+   * customize it through the {@link OrphanReporterConfig} which can also be provided on the environment.
+   *
+   * @param eventBus the event bus where the messages should be emitted on.
+   * @param meter the meter where the total orphan counts are recorded.
+   * @param config the configuration for this reporter.
+   */
+  @Stability.Internal
+  public OrphanReporter(final EventBus eventBus, final Meter meter, final OrphanReporterConfig config) {
     this.eventBus = eventBus;
-    this.orphanQueue = new MpscUnboundedArrayQueue<>(config.queueLength());
+    this.meter = meter;
+    this.orphanQueue = new MpscArrayQueue<>(config.queueLength());
     this.emitIntervalNanos = config.emitInterval().toNanos();
     this.sampleSize = config.sampleSize();
     this.enabled = config.enabled();
+    this.orphanCounts = new LongAdder[ServiceType.values().length];
+    for (int i = 0; i < orphanCounts.length; i++) {
+      orphanCounts[i] = new LongAdder();
+    }
 
     // Spawn a thread only if the reporter is enabled.
     if (enabled) {
@@ -127,8 +174,9 @@ public class OrphanReporter {
   /**
    * Reports an orphaned {@link Request}.
    * <p>
-   * If the orphan could not be recorded because the buffer is full, a {@link OrphanRecordDroppedEvent} will
-   * be raised on the event bus.
+   * Only a compact snapshot of the request is retained, the request itself is not referenced after this method
+   * returns. If the orphan could not be recorded because the buffer is full, a {@link OrphanRecordDroppedEvent} will
+   * be raised on the event bus (it is still accounted for in the total counts).
    * <p>
    * If you wish to ignore certain requests as being considered in the orphan reporting, make sure they implement
    * the {@link UnmonitoredRequest} marker interface.
@@ -136,13 +184,34 @@ public class OrphanReporter {
    * @param request the request to report as orphan.
    */
   public void report(final Request<?> request) {
-      if (request instanceof UnmonitoredRequest) {
-        return;
-      }
+    if (request instanceof UnmonitoredRequest) {
+      return;
+    }
 
-      if (!orphanQueue.offer(request)) {
-        eventBus.publish(new OrphanRecordDroppedEvent(request.getClass()));
+    orphanMetric(request).incrementBy(1);
+
+    if (!enabled) {
+      return;
+    }
+
+    orphanCounts[request.serviceType().ordinal()].increment();
+    if (!orphanQueue.offer(new OrphanRecord(request))) {
+      eventBus.publish(new OrphanRecordDroppedEvent(request.getClass()));
+    }
+  }
+
+  /**
+   * Returns (and lazily creates) the counter which tracks the orphans for the service and node of the request.
+   */
+  private Counter orphanMetric(final Request<?> request) {
+    return orphanMetrics.computeIfAbsent(new OrphanMetricIdentifier(request), key -> {
+      Map<String, String> tags = new HashMap<>(4);
+      tags.put("cb.service", key.serviceType.ident());
+      if (key.hostname != null) {
+        tags.put("cb.remote_hostname", key.hostname);
       }
+      return meter.counter(METRIC_ORPHANS, tags);
+    });
   }
 
   /**
@@ -164,20 +233,20 @@ public class OrphanReporter {
     );
 
     /**
-     * Compares request by their logical request latency for the priority threshold queues.
+     * Compares records by their logical request latency for the priority threshold queues.
      */
-    private final Comparator<Request<?>> THRESHOLD_COMPARATOR = Comparator.comparingLong(
-      o -> o.context().logicalRequestLatency()
+    private final Comparator<OrphanRecord> THRESHOLD_COMPARATOR = Comparator.comparingLong(
+      o -> o.logicalRequestLatency
     );
 
     private long lastThresholdLog;
     private boolean hasThresholdWritten;
 
-    private final Queue<Request<?>> kvOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> queryOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> viewOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> searchOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
-    private final Queue<Request<?>> analyticsOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
+    private final Queue<OrphanRecord> kvOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
+    private final Queue<OrphanRecord> queryOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
+    private final Queue<OrphanRecord> viewOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
+    private final Queue<OrphanRecord> searchOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
+    private final Queue<OrphanRecord> analyticsOrphans = new PriorityQueue<>(THRESHOLD_COMPARATOR);
 
     private long kvOrphanCount = 0;
     private long queryOrphanCount = 0;
@@ -214,36 +283,48 @@ public class OrphanReporter {
       }
 
       while (true) {
-        Request<?> request = orphanQueue.poll();
-        if (request == null) {
-          return;
+        OrphanRecord record = orphanQueue.poll();
+        if (record == null) {
+          break;
         }
-        final ServiceType serviceType = request.serviceType();
+        final ServiceType serviceType = record.serviceType;
         if (serviceType == ServiceType.KV) {
-          updateSet(kvOrphans, request);
-          kvOrphanCount += 1;
+          updateSet(kvOrphans, record);
         } else if (serviceType == ServiceType.QUERY) {
-          updateSet(queryOrphans, request);
-          queryOrphanCount += 1;
+          updateSet(queryOrphans, record);
         } else if (serviceType == ServiceType.VIEWS) {
-          updateSet(viewOrphans, request);
-          viewOrphanCount += 1;
+          updateSet(viewOrphans, record);
         } else if (serviceType == ServiceType.SEARCH) {
-          updateSet(searchOrphans, request);
-          searchOrphanCount += 1;
+          updateSet(searchOrphans, record);
         } else if (serviceType == ServiceType.ANALYTICS) {
-          updateSet(analyticsOrphans, request);
-          analyticsOrphanCount += 1;
+          updateSet(analyticsOrphans, record);
         }
       }
+
+      kvOrphanCount += drainCount(ServiceType.KV);
+      queryOrphanCount += drainCount(ServiceType.QUERY);
+      viewOrphanCount += drainCount(ServiceType.VIEWS);
+      searchOrphanCount += drainCount(ServiceType.SEARCH);
+      analyticsOrphanCount += drainCount(ServiceType.ANALYTICS);
+    }
+
+    /**
+     * Grabs and resets the total count for the given service, including records which have been dropped.
+     */
+    private long drainCount(final ServiceType serviceType) {
+      long count = orphanCounts[serviceType.ordinal()].sumThenReset();
+      if (count > 0) {
+        hasThresholdWritten = true;
+      }
+      return count;
     }
 
     /**
-     * Helper method which updates the list with the span and ensures that the sample
+     * Helper method which updates the list with the record and ensures that the sample
      * size is respected.
      */
-    private void updateSet(final Queue<Request<?>> set, final Request<?> request) {
-      set.add(request);
+    private void updateSet(final Queue<OrphanRecord> set, final OrphanRecord record) {
+      set.add(record);
       // Remove the element with the lowest duration, so we only keep the highest ones consistently
       while(set.size() > sampleSize) {
         set.remove();
@@ -258,27 +339,27 @@ public class OrphanReporter {
       hasThresholdWritten = false;
 
       Map<String, Object> output = new HashMap<>();
-      if (!kvOrphans.isEmpty()) {
+      if (kvOrphanCount > 0) {
         output.put(TracingIdentifiers.SERVICE_KV, convertOrphanMetadataNew(kvOrphans, kvOrphanCount));
         kvOrphans.clear();
         kvOrphanCount = 0;
       }
-      if (!queryOrphans.isEmpty()) {
+      if (queryOrphanCount > 0) {
         output.put(TracingIdentifiers.SERVICE_QUERY, convertOrphanMetadataNew(queryOrphans, queryOrphanCount));
         queryOrphans.clear();
         queryOrphanCount = 0;
       }
-      if (!viewOrphans.isEmpty()) {
+      if (viewOrphanCount > 0) {
         output.put(TracingIdentifiers.SERVICE_VIEWS, convertOrphanMetadataNew(viewOrphans, viewOrphanCount));
         viewOrphans.clear();
         viewOrphanCount = 0;
       }
-      if (!searchOrphans.isEmpty()) {
+      if (searchOrphanCount > 0) {
         output.put(TracingIdentifiers.SERVICE_SEARCH, convertOrphanMetadataNew(searchOrphans, searchOrphanCount));
         searchOrphans.clear();
         searchOrphanCount = 0;
       }
-      if (!analyticsOrphans.isEmpty()) {
+      if (analyticsOrphanCount > 0) {
         output.put(TracingIdentifiers.SERVICE_ANALYTICS, convertOrphanMetadataNew(analyticsOrphans, analyticsOrphanCount));
         analyticsOrphans.clear();
         analyticsOrphanCount = 0;
@@ -293,27 +374,27 @@ public class OrphanReporter {
       hasThresholdWritten = false;
 
       List<Map<String, Object>> output = new ArrayList<>();
-      if (!kvOrphans.isEmpty()) {
+      if (kvOrphanCount > 0) {
         output.add(convertOrphanMetadataOld(kvOrphans, kvOrphanCount, TracingIdentifiers.SERVICE_KV));
         kvOrphans.clear();
         kvOrphanCount = 0;
       }
-      if (!queryOrphans.isEmpty()) {
+      if (queryOrphanCount > 0) {
         output.add(convertOrphanMetadataOld(queryOrphans, queryOrphanCount, TracingIdentifiers.SERVICE_QUERY));
         queryOrphans.clear();
         queryOrphanCount = 0;
       }
-      if (!viewOrphans.isEmpty()) {
+      if (viewOrphanCount > 0) {
         output.add(convertOrphanMetadataOld(viewOrphans, viewOrphanCount, TracingIdentifiers.SERVICE_VIEWS));
         viewOrphans.clear();
         viewOrphanCount = 0;
       }
-      if (!searchOrphans.isEmpty()) {
+      if (searchOrphanCount > 0) {
         output.add(convertOrphanMetadataOld(searchOrphans, searchOrphanCount, TracingIdentifiers.SERVICE_SEARCH));
         searchOrphans.clear();
         searchOrphanCount = 0;
       }
-      if (!analyticsOrphans.isEmpty()) {
+      if (analyticsOrphanCount > 0) {
         output.add(convertOrphanMetadataOld(analyticsOrphans, analyticsOrphanCount, TracingIdentifiers.SERVICE_ANALYTICS));
         analyticsOrphans.clear();
         analyticsOrphanCount = 0;
@@ -321,60 +402,51 @@ public class OrphanReporter {
       logOrphans(null,  output);
     }
 
-    private Map<String, Object> convertOrphanMetadataNew(Queue<Request<?>> requests, long count) {
+    private Map<String, Object> convertOrphanMetadataNew(Queue<OrphanRecord> records, long count) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (OrphanRecord record : records) {
         HashMap<String, Object> fieldMap = new HashMap<>();
 
-        if (request != null) {
-          fieldMap.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(request.context().logicalRequestLatency()));
+        if (record != null) {
+          fieldMap.put(KEY_TOTAL_MICROS, TimeUnit.NANOSECONDS.toMicros(record.logicalRequestLatency));
 
-          fieldMap.put(KEY_OPERATION_NAME, request.name());
+          fieldMap.put(KEY_OPERATION_NAME, record.name);
 
-          String operationId = request.operationId();
-          if (operationId != null) {
-            fieldMap.put(KEY_OPERATION_ID, operationId);
+          if (record.operationId != null) {
+            fieldMap.put(KEY_OPERATION_ID, record.operationId);
           }
 
-          String localId = request.context().lastChannelId();
-          if (localId != null) {
-            fieldMap.put(KEY_LAST_LOCAL_ID, redactSystem(localId));
+          if (record.lastChannelId != null) {
+            fieldMap.put(KEY_LAST_LOCAL_ID, redactSystem(record.lastChannelId));
           }
 
-          long encodeDuration = request.context().encodeLatency();
-          if (encodeDuration > 0) {
-            fieldMap.put(KEY_ENCODE_MICROS, encodeDuration);
+          if (record.encodeLatency > 0) {
+            fieldMap.put(KEY_ENCODE_MICROS, record.encodeLatency);
           }
 
-          long dispatchDuration = request.context().dispatchLatency();
-          if (dispatchDuration > 0) {
-            fieldMap.put(KEY_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(dispatchDuration));
+          if (record.dispatchLatency > 0) {
+            fieldMap.put(KEY_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(record.dispatchLatency));
           }
-          long totalDispatchDuration = request.context().totalDispatchLatency();
-          if (totalDispatchDuration > 0) {
-            fieldMap.put(KEY_TOTAL_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(totalDispatchDuration));
+          if (record.totalDispatchLatency > 0) {
+            fieldMap.put(KEY_TOTAL_DISPATCH_MICROS, TimeUnit.NANOSECONDS.toMicros(record.totalDispatchLatency));
           }
 
-          HostAndPort local = request.context().lastDispatchedFrom();
-          HostAndPort peer = request.context().lastDispatchedTo();
-          if (local != null) {
-            fieldMap.put(KEY_LAST_LOCAL_SOCKET, redactSystem(local.toString()));
+          if (record.lastDispatchedFrom != null) {
+            fieldMap.put(KEY_LAST_LOCAL_SOCKET, redactSystem(record.lastDispatchedFrom.toString()));
           }
-          if (peer != null) {
-            fieldMap.put(KEY_LAST_REMOTE_SOCKET, redactSystem(peer.toString()));
+          if (record.lastDispatchedTo != null) {
+            fieldMap.put(KEY_LAST_REMOTE_SOCKET, redactSystem(record.lastDispatchedTo.toString()));
           }
 
-          long serverDuration = request.context().serverLatency();
-          if (serverDuration > 0) {
-            fieldMap.put(KEY_SERVER_MICROS, serverDuration);
+          if (record.serverLatency > 0) {
+            fieldMap.put(KEY_SERVER_MICROS, record.serverLatency);
           }
-          long totalServerDuration = request.context().totalServerLatency();
-          if (totalServerDuration > 0) {
-            fieldMap.put(KEY_TOTAL_SERVER_MICROS, TimeUnit.NANOSECONDS.toMicros(totalServerDuration));
+          if (record.totalServerLatency > 0) {
+            fieldMap.put(KEY_TOTAL_SERVER_MICROS, TimeUnit.NANOSECONDS.toMicros(record.totalServerLatency));
           }
 
-          fieldMap.put(KEY_TIMEOUT, request.timeout().toMillis());
+          fieldMap.put(KEY_TIMEOUT, record.timeoutMillis);
         }
 
         top.add(fieldMap);
@@ -384,46 +456,38 @@ public class OrphanReporter {
       return output;
     }
 
-    private Map<String, Object> convertOrphanMetadataOld(Queue<Request<?>> requests, long count, String serviceType) {
+    private Map<String, Object> convertOrphanMetadataOld(Queue<OrphanRecord> records, long count, String serviceType) {
       Map<String, Object> output = new HashMap<>();
       List<Map<String, Object>> top = new ArrayList<>();
-      for (Request<?> request : requests) {
+      for (OrphanRecord record : records) {
         HashMap<String, Object> fieldMap = new HashMap<>();
 
-        if (request != null) {
-          String name = request.getClass().getSimpleName().replace("Request", "").toLowerCase();
+        if (record != null) {
+          String name = record.requestClass.getSimpleName().replace("Request", "").toLowerCase();
           fieldMap.put("s", name);
 
-          String operationId = request.operationId();
-          if (operationId != null) {
-            fieldMap.put("i", operationId);
+          if (record.operationId != null) {
+            fieldMap.put("i", record.operationId);
           }
-          if (request instanceof KeyValueRequest) {
-            fieldMap.put("b", ((KeyValueRequest<?>) request).bucket());
-          } else if (request instanceof ViewRequest) {
-            fieldMap.put("b", ((ViewRequest) request).bucket());
+          if (record.bucket != null) {
+            fieldMap.put("b", record.bucket);
           }
-          String localId = request.context().lastChannelId();
-          if (localId != null) {
-            fieldMap.put("c", redactSystem(localId));
+          if (record.lastChannelId != null) {
+            fieldMap.put("c", redactSystem(record.lastChannelId));
           }
 
-          HostAndPort local = request.context().lastDispatchedFrom();
-          HostAndPort peer = request.context().lastDispatchedTo();
-          if (local != null) {
-            fieldMap.put("l", redactSystem(local.toString()));
+          if (record.lastDispatchedFrom != null) {
+            fieldMap.put("l", redactSystem(record.lastDispatchedFrom.toString()));
           }
-          if (peer != null) {
-            fieldMap.put("r", redactSystem(peer.toString()));
+          if (record.lastDispatchedTo != null) {
+            fieldMap.put("r", redactSystem(record.lastDispatchedTo.toString()));
           }
 
-          long serverDuration = request.context().serverLatency();
-          if (serverDuration > 0) {
-            fieldMap.put("d", serverDuration);
+          if (record.serverLatency > 0) {
+            fieldMap.put("d", record.serverLatency);
           }
 
-          long timeout = request.timeout().toMillis();
-          fieldMap.put("t", timeout);
+          fieldMap.put("t", record.timeoutMillis);
         }
 
         top.add(fieldMap);
@@ -444,4 +508,83 @@ public class OrphanReporter {
 
   }
 
-}
\ No newline at end of file
+  /**
+   * A compact, immutable snapshot of an orphaned request.
+   * <p>
+   * Only the properties which are needed for reporting are copied out of the request and its context, so that
+   * neither the request itself nor its (potentially large) payload stays reachable while waiting to be reported.
+   */
+  static final class OrphanRecord {
+
+    final ServiceType serviceType;
+    final Class<?> requestClass;
+    final String name;
+    final String operationId;
+    final String bucket;
+    final String lastChannelId;
+    final HostAndPort lastDispatchedFrom;
+    final HostAndPort lastDispatchedTo;
+    final long logicalRequestLatency;
+    final long encodeLatency;
+    final long dispatchLatency;
+    final long totalDispatchLatency;
+    final long serverLatency;
+    final long totalServerLatency;
+    final long timeoutMillis;
+
+    OrphanRecord(final Request<?> request) {
+      this.serviceType = request.serviceType();
+      this.requestClass = request.getClass();
+      this.name = request.name();
+      this.operationId = request.operationId();
+      if (request instanceof KeyValueRequest) {
+        this.bucket = ((KeyValueRequest<?>) request).bucket();
+      } else if (request instanceof ViewRequest) {
+        this.bucket = ((ViewRequest) request).bucket();
+      } else {
+        this.bucket = null;
+      }
+
+      final RequestContext ctx = request.context();
+      this.lastChannelId = ctx.lastChannelId();
+      this.lastDispatchedFrom = ctx.lastDispatchedFrom();
+      this.lastDispatchedTo = ctx.lastDispatchedTo();
+      this.logicalRequestLatency = ctx.logicalRequestLatency();
+      this.encodeLatency = ctx.encodeLatency();
+      this.dispatchLatency = ctx.dispatchLatency();
+      this.totalDispatchLatency = ctx.totalDispatchLatency();
+      this.serverLatency = ctx.serverLatency();
+      this.totalServerLatency = ctx.totalServerLatency();
+      this.timeoutMillis = request.timeout().toMillis();
+    }
+  }
+
+  /**
+   * Identifies the orphan counter for a service on a specific remote node.
+   */
+  private static class OrphanMetricIdentifier {
+
+    private final ServiceType serviceType;
+    private final String hostname;
+
+    OrphanMetricIdentifier(final Request<?> request) {
+      this.serviceType = request.serviceType();
+      HostAndPort lastDispatchedTo = request.context().lastDispatchedTo();
+      this.hostname = lastDispatchedTo == null ? null : lastDispatchedTo.hostname();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      OrphanMetricIdentifier that = (OrphanMetricIdentifier) o;
+      return serviceType == that.serviceType && Objects.equals(hostname, that.hostname);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(serviceType, hostname);
+    }
+  }
+
+}
@@ -19,15 +19,56 @@ package com.couchbase.client.core.cnc.metrics;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.Counter;
 
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
- * At the moment this is a NOOP implementation because we do not perform any aggregations
- * on the counters.
+ * Aggregates the increments of a counter until they are emitted.
  */
 @Stability.Volatile
 public class AggregatingCounter implements Counter {
 
-  static final AggregatingCounter INSTANCE = new AggregatingCounter();
+  /**
+   * Returned for counters which are not aggregated.
+   */
+  static final AggregatingCounter NOOP = new AggregatingCounter(null, null) {
+    @Override
+    public void incrementBy(long number) { }
+  };
+
+  private final String name;
+
+  private final Map<String, String> tags;
+
+  private final LongAdder count = new LongAdder();
+
+  public AggregatingCounter(final String name, final Map<String, String> tags) {
+    this.name = name;
+    this.tags = tags;
+  }
+
+  @Override
+  public void incrementBy(long number) {
+    count.add(number);
+  }
+
+  long clearCount() {
+    return count.sumThenReset();
+  }
+
+  String name() {
+    return name;
+  }
+
+  Map<String, String> tags() {
+    return tags;
+  }
 
   @Override
-  public void incrementBy(long number) { }
+  public String toString() {
+    return "AggregatingCounter{" +
+      "name='" + name + '\'' +
+      ", tags=" + tags +
+      '}';
+  }
 }
@@ -22,6 +22,7 @@ import com.couchbase.client.core.cnc.EventBus;
 import com.couchbase.client.core.cnc.Meter;
 import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.cnc.events.metrics.LatencyMetricsAggregatedEvent;
+import com.couchbase.client.core.cnc.events.metrics.MetricsAggregatedEvent;
 import com.couchbase.client.core.deps.org.HdrHistogram.Histogram;
 import com.couchbase.client.core.env.AggregatingMeterConfig;
 import reactor.core.publisher.Mono;
@@ -30,10 +31,15 @@ import java.time.Duration;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.couchbase.client.core.util.CbCollections.setOf;
 
 /**
  * The default metrics implementation which aggregates latency information and emits it at a regular interval.
@@ -43,11 +49,19 @@ public class AggregatingMeter implements Meter {
 
   private static final AtomicInteger METER_ID = new AtomicInteger();
 
+  private static final String RESPONSES_VALUE_RECORDER = "cb.responses";
+
+  /**
+   * Counters which are not aggregated because they are incremented for every single request.
+   */
+  private static final Set<String> NON_AGGREGATED_COUNTERS = setOf("cb.requests");
+
   private final EventBus eventBus;
   private final Thread worker;
   private final AtomicBoolean running = new AtomicBoolean(false);
 
   private final Map<NameAndTags, AggregatingValueRecorder> valueRecorders = new ConcurrentHashMap<>();
+  private final Map<NameAndTags, AggregatingCounter> counters = new ConcurrentHashMap<>();
 
   private final long emitIntervalMs;
 
@@ -64,23 +78,34 @@ public class AggregatingMeter implements Meter {
   }
 
   /**
-   * Note that since we are not performing any aggregations on the counter type, this pretty much
-   * is a NOOP for performance reasons.
+   * Note that the per-request counter ({@code cb.requests}) is not aggregated and returns a NOOP instance for
+   * performance reasons.
    *
-   * @param name the name of the counter (unused).
-   * @param tags the tags to apply (unused).
-   * @return a cached noop instance of the counter.
+   * @param name the name of the counter.
+   * @param tags the tags to apply.
+   * @return the aggregating counter or a noop instance if not aggregated.
    */
   @Override
   public Counter counter(String name, Map<String, String> tags) {
-    return AggregatingCounter.INSTANCE;
+    if (NON_AGGREGATED_COUNTERS.contains(name)) {
+      return AggregatingCounter.NOOP;
+    }
+    return counters.computeIfAbsent(new NameAndTags(name, tags), key -> new AggregatingCounter(name, tags));
   }
 
+  /**
+   * Note that the sampled per-stage request latencies ({@code cb.request_stages}) are aggregated as well, since
+   * their tags (service, request type and stage) are bounded. They are emitted in nanoseconds.
+   *
+   * @param name the name of the value recorder.
+   * @param tags the tags to apply.
+   * @return the aggregating value recorder.
+   */
   @Override
   public synchronized ValueRecorder valueRecorder(String name, Map<String, String> tags) {
     return valueRecorders.computeIfAbsent(
       new NameAndTags(name, tags),
-      key -> new AggregatingValueRecorder(name, tags)
+      key -> new AggregatingValueRecorder(name, tags, RESPONSES_VALUE_RECORDER.equals(name))
     );
   }
 
@@ -104,6 +129,109 @@ public class AggregatingMeter implements Meter {
     });
   }
 
+  /**
+   * Collects and resets the response latencies aggregated since the last call, grouped by service and remote node
+   * in microseconds.
+   *
+   * @return the aggregated latencies, or null if nothing has been recorded.
+   */
+  synchronized Map<String, Map<String, Object>> collectLatencyMetrics() {
+    Map<String,  Map<String, Object>> output = new HashMap<>();
+
+    Map<String, Object> meta = new HashMap<>();
+    meta.put("emit_interval_s", TimeUnit.MILLISECONDS.toSeconds(emitIntervalMs));
+    output.put("meta", meta);
+
+    boolean wroteRow = false;
+    for (AggregatingValueRecorder avr : valueRecorders.values()) {
+      if (!RESPONSES_VALUE_RECORDER.equals(avr.name())) {
+        continue;
+      }
+      Histogram histogram = avr.clearStats();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      wroteRow = true;
+
+      String service = avr.tags().get("cb.service");
+      String hostname = avr.tags().get("cb.remote_hostname");
+      Map<String, Object> serviceMap = output.computeIfAbsent(service, k -> new HashMap<>());
+      Map<String, Object> hostMap = (Map<String, Object>) serviceMap.computeIfAbsent(hostname, k -> new HashMap<>());
+      writeHistogram(hostMap, histogram, 1000.0, "percentiles_us");
+    }
+
+    return wroteRow ? output : null;
+  }
+
+  /**
+   * Collects and resets all other value recorders and counters aggregated since the last call, grouped by their
+   * name and tags with the values as recorded.
+   *
+   * @return the aggregated metrics, or null if nothing has been recorded.
+   */
+  synchronized Map<String, Map<String, Object>> collectMetrics() {
+    Map<String,  Map<String, Object>> output = new HashMap<>();
+
+    Map<String, Object> meta = new HashMap<>();
+    meta.put("emit_interval_s", TimeUnit.MILLISECONDS.toSeconds(emitIntervalMs));
+    output.put("meta", meta);
+
+    boolean wroteRow = false;
+    for (AggregatingValueRecorder avr : valueRecorders.values()) {
+      if (RESPONSES_VALUE_RECORDER.equals(avr.name())) {
+        continue;
+      }
+      Histogram histogram = avr.clearStats();
+      if (histogram.getTotalCount() == 0) {
+        continue;
+      }
+      wroteRow = true;
+
+      Map<String, Object> row = new HashMap<>();
+      output.computeIfAbsent(avr.name(), k -> new HashMap<>()).put(formatTags(avr.tags()), row);
+      writeHistogram(row, histogram, 1.0, "percentiles");
+    }
+
+    for (AggregatingCounter counter : counters.values()) {
+      long count = counter.clearCount();
+      if (count == 0) {
+        continue;
+      }
+      wroteRow = true;
+      output.computeIfAbsent(counter.name(), k -> new HashMap<>()).put(formatTags(counter.tags()), count);
+    }
+
+    return wroteRow ? output : null;
+  }
+
+  /**
+   * Writes the total count and the percentiles of the histogram, divided by the given scale, into the row.
+   */
+  private static void writeHistogram(final Map<String, Object> row, final Histogram histogram, final double scale,
+                                     final String percentilesName) {
+    row.put("total_count", histogram.getTotalCount());
+
+    Map<String, Object> percentiles = new LinkedHashMap<>();
+    percentiles.put("50.0", histogram.getValueAtPercentile(50.0) / scale);
+    percentiles.put("90.0", histogram.getValueAtPercentile(90.0) / scale);
+    percentiles.put("99.0", histogram.getValueAtPercentile(99.0) / scale);
+    percentiles.put("99.9", histogram.getValueAtPercentile(99.9) / scale);
+    percentiles.put("100.0", histogram.getMaxValue() / scale);
+
+    row.put(percentilesName, percentiles);
+  }
+
+  /**
+   * Formats the tags in a stable order, like {@code cb.remote_hostname=127.0.0.1,cb.service=kv}.
+   */
+  private static String formatTags(final Map<String, String> tags) {
+    return new TreeMap<>(tags)
+      .entrySet()
+      .stream()
+      .map(e -> e.getKey() + "=" + e.getValue())
+      .collect(Collectors.joining(","));
+  }
+
   private class Worker implements Runnable {
 
     @Override
@@ -127,41 +255,17 @@ public class AggregatingMeter implements Meter {
       }
     }
 
-    private synchronized void dumpMetrics() {
-      Map<String,  Map<String, Object>> output = new HashMap<>();
-
-      Map<String, Object> meta = new HashMap<>();
-      meta.put("emit_interval_s", TimeUnit.MILLISECONDS.toSeconds(emitIntervalMs));
-      output.put("meta", meta);
-
-      boolean wroteRow = false;
-      for (AggregatingValueRecorder avr : valueRecorders.values()) {
-        Histogram histogram = avr.clearStats();
-        if (histogram.getTotalCount() == 0) {
-          continue;
-        }
-        wroteRow = true;
-
-        String service = avr.tags().get("cb.service");
-        String hostname = avr.tags().get("cb.remote_hostname");
-
-        Map<String, Object> serviceMap = output.computeIfAbsent(service, k -> new HashMap<>());
-        Map<String, Object> hostMap = (Map<String, Object>) serviceMap.computeIfAbsent(hostname, k -> new HashMap<>());
-
-        hostMap.put("total_count", histogram.getTotalCount());
-
-        Map<String, Object> percentiles = new LinkedHashMap<>();
-        percentiles.put("50.0", histogram.getValueAtPercentile(50.0) / 1000.0);
-        percentiles.put("90.0", histogram.getValueAtPercentile(90.0) / 1000.0);
-        percentiles.put("99.0", histogram.getValueAtPercentile(99.0) / 1000.0);
-        percentiles.put("99.9", histogram.getValueAtPercentile(99.9) / 1000.0);
-        percentiles.put("100.0", histogram.getMaxValue() / 1000.0);
+    private void dumpMetrics() {
+      Duration interval = Duration.ofMillis(emitIntervalMs);
 
-        hostMap.put("percentiles_us", percentiles);
+      Map<String, Map<String, Object>> latencies = collectLatencyMetrics();
+      if (latencies != null) {
+        eventBus.publish(new LatencyMetricsAggregatedEvent(interval, latencies));
       }
 
-      if (wroteRow) {
-        eventBus.publish(new LatencyMetricsAggregatedEvent(Duration.ofMillis(emitIntervalMs), output));
+      Map<String, Map<String, Object>> metrics = collectMetrics();
+      if (metrics != null) {
+        eventBus.publish(new MetricsAggregatedEvent(interval, metrics));
       }
     }
   }
@@ -19,6 +19,7 @@ package com.couchbase.client.core.cnc.metrics;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.deps.org.HdrHistogram.Histogram;
+import com.couchbase.client.core.deps.org.HdrHistogram.Recorder;
 import com.couchbase.client.core.deps.org.LatencyUtils.LatencyStats;
 
 import java.util.Map;
@@ -26,6 +27,8 @@ import java.util.Objects;
 
 /**
  * Aggregates value information in a histogram.
+ * <p>
+ * Latencies are recorded with pause compensation, all other values (like sizes or counts) are recorded as-is.
  */
 @Stability.Volatile
 public class AggregatingValueRecorder implements ValueRecorder {
@@ -34,20 +37,36 @@ public class AggregatingValueRecorder implements ValueRecorder {
 
   private final Map<String, String> tags;
 
-  private final LatencyStats recorderStats = new LatencyStats();
+  private final LatencyStats recorderStats;
+
+  private final Recorder valueRecorder;
 
   public AggregatingValueRecorder(final String name, final Map<String, String> tags) {
+    this(name, tags, true);
+  }
+
+  public AggregatingValueRecorder(final String name, final Map<String, String> tags, final boolean latency) {
     this.name = name;
     this.tags = tags;
+    this.recorderStats = latency ? new LatencyStats() : null;
+    this.valueRecorder = latency ? null : new Recorder(3);
   }
 
   @Override
   public void recordValue(long value) {
-    recorderStats.recordLatency(value);
+    if (recorderStats != null) {
+      recorderStats.recordLatency(value);
+    } else {
+      valueRecorder.recordValue(Math.max(0, value));
+    }
   }
 
   Histogram clearStats() {
-    return recorderStats.getIntervalHistogram();
+    return recorderStats != null ? recorderStats.getIntervalHistogram() : valueRecorder.getIntervalHistogram();
+  }
+
+  String name() {
+    return name;
   }
 
   Map<String, String> tags() {
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.EventExecutor;
+import com.couchbase.client.core.env.IoEnvironment;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Periodically measures the scheduling lag of every event loop in the {@link IoEnvironment}.
+ * <p>
+ * At every interval a no-op task is submitted to each event loop and the time between submission and execution
+ * is recorded (in nanoseconds) on the {@code cb.event_loop.lag} value recorder. If an event loop is saturated
+ * (i.e. because user callbacks run on it or it handles too many channels) this value goes up long before the
+ * request latencies show where the time is spent.
+ */
+@Stability.Internal
+public class EventLoopLagProbe {
+
+  public static final String METRIC_EVENT_LOOP_LAG = "cb.event_loop.lag";
+
+  private final Duration interval;
+  private final Scheduler scheduler;
+  private final List<ProbedExecutor> executors;
+
+  private volatile Disposable probes;
+
+  public EventLoopLagProbe(final IoEnvironment ioEnvironment, final Meter meter, final Scheduler scheduler,
+                           final Duration interval) {
+    this.interval = interval;
+    this.scheduler = scheduler;
+    this.executors = new ArrayList<>();
+
+    for (Map.Entry<String, EventLoopGroup> group : ioEnvironment.eventLoopGroups().entrySet()) {
+      int i = 0;
+      for (EventExecutor executor : group.getValue()) {
+        Map<String, String> tags = new HashMap<>(4);
+        tags.put("cb.event_loop_group", group.getKey());
+        tags.put("cb.event_loop", Integer.toString(i++));
+        executors.add(new ProbedExecutor(executor, meter.valueRecorder(METRIC_EVENT_LOOP_LAG, tags)));
+      }
+    }
+  }
+
+  /**
+   * Starts probing the event loops at the configured interval.
+   */
+  public synchronized void start() {
+    if (probes == null && !interval.isZero()) {
+      probes = Flux.interval(interval, scheduler).subscribe(i -> probe());
+    }
+  }
+
+  /**
+   * Stops probing the event loops.
+   */
+  public synchronized void stop() {
+    if (probes != null) {
+      probes.dispose();
+      probes = null;
+    }
+  }
+
+  /**
+   * Submits one probe task to every event loop.
+   */
+  void probe() {
+    for (ProbedExecutor executor : executors) {
+      executor.probe();
+    }
+  }
+
+  private static class ProbedExecutor {
+
+    private final EventExecutor executor;
+    private final ValueRecorder lag;
+
+    ProbedExecutor(final EventExecutor executor, final ValueRecorder lag) {
+      this.executor = executor;
+      this.lag = lag;
+    }
+
+    void probe() {
+      if (executor.isShuttingDown()) {
+        return;
+      }
+      final long submittedAt = System.nanoTime();
+      try {
+        executor.execute(() -> lag.recordValue(System.nanoTime() - submittedAt));
+      } catch (RejectedExecutionException ex) {
+        // The event loop has been shut down in the meantime, nothing to measure.
+      }
+    }
+  }
+
+}
@@ -148,4 +148,15 @@ public interface ConfigurationProvider  {
    */
   boolean collectionMapRefreshInProgress();
 
+  /**
+   * Returns true if the ID of the given collection is currently being looked up (on its own or as part of the
+   * manifest of its bucket).
+   *
+   * @param identifier the collection to check.
+   * @return true if in progress, false if not.
+   */
+  default boolean collectionRefreshInProgress(CollectionIdentifier identifier) {
+    return collectionMapRefreshInProgress();
+  }
+
 }
@@ -20,6 +20,7 @@ import com.couchbase.client.core.Core;
 import com.couchbase.client.core.cnc.EventBus;
 import com.couchbase.client.core.cnc.events.config.BucketConfigUpdatedEvent;
 import com.couchbase.client.core.cnc.events.config.BucketOpenRetriedEvent;
+import com.couchbase.client.core.cnc.events.config.CollectionMapDecodingFailedEvent;
 import com.couchbase.client.core.cnc.events.config.CollectionMapRefreshFailedEvent;
 import com.couchbase.client.core.cnc.events.config.CollectionMapRefreshSucceededEvent;
 import com.couchbase.client.core.cnc.events.config.ConfigIgnoredEvent;
@@ -59,11 +60,13 @@ import reactor.core.publisher.ReplayProcessor;
 import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -129,7 +132,16 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
 
   private volatile boolean globalConfigLoadInProgress = false;
   private final AtomicInteger bucketConfigLoadInProgress = new AtomicInteger();
-  private final AtomicInteger collectionMapRefreshInProgress = new AtomicInteger();
+
+  /**
+   * The collections whose ID is currently being looked up, so concurrent lookups for the same one are not repeated.
+   */
+  private final Set<CollectionIdentifier> collectionRefreshesInFlight = ConcurrentHashMap.newKeySet();
+
+  /**
+   * The buckets whose collection manifest is currently being loaded.
+   */
+  private final Set<String> manifestLoadsInFlight = ConcurrentHashMap.newKeySet();
 
   /**
    * Stores the current seed nodes used to bootstrap buckets and global configs.
@@ -247,6 +259,11 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
             return ctx;
           })
           .then(registerRefresher(name))
+          .doOnSuccess(v -> {
+            if (core.context().environment().ioConfig().prefetchCollectionManifest()) {
+              refreshCollectionManifest(name);
+            }
+          })
           .doOnTerminate(bucketConfigLoadInProgress::decrementAndGet)
           .onErrorResume(t -> closeBucketIgnoreShutdown(name).then(Mono.error(t)));
       } else {
@@ -501,7 +518,10 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
 
   @Override
   public void refreshCollectionId(final CollectionIdentifier identifier) {
-    collectionMapRefreshInProgress.incrementAndGet();
+    if (!collectionRefreshesInFlight.add(identifier)) {
+      // Another request already triggered the lookup for this collection, it is going to be retried until done.
+      return;
+    }
     long start = System.nanoTime();
     GetCollectionIdRequest request = new GetCollectionIdRequest(
       core.context().environment().timeoutConfig().kvTimeout(),
@@ -539,39 +559,104 @@ public class DefaultConfigurationProvider implements ConfigurationProvider {
             ));
           }
         } else {
-          Throwable cause = null;
-          CollectionMapRefreshFailedEvent.Reason reason;
-
-          if (response.status() == ResponseStatus.UNKNOWN) {
-            reason = CollectionMapRefreshFailedEvent.Reason.NOT_SUPPORTED;
-          } else if (response.status() == ResponseStatus.UNKNOWN_COLLECTION) {
-            reason = CollectionMapRefreshFailedEvent.Reason.UNKNOWN_COLLECTION;
-          } else if (response.status() == ResponseStatus.NO_COLLECTIONS_MANIFEST) {
-            reason = CollectionMapRefreshFailedEvent.Reason.SERVER_HAS_NO_MANIFEST;
-          } else if (response.status() == ResponseStatus.INVALID_REQUEST) {
-            reason = CollectionMapRefreshFailedEvent.Reason.INVALID_REQUEST;
-          } else {
-            cause = new CouchbaseException(response.toString());
-            reason = CollectionMapRefreshFailedEvent.Reason.UNKNOWN;
-          }
+          publishRefreshFailed(duration, identifier, response.status(), response.toString());
+        }
+      } finally {
+        collectionRefreshesInFlight.remove(identifier);
+      }
+    });
+  }
 
+  /**
+   * Loads the collection manifest of the given bucket and stores the IDs of all its collections at once.
+   *
+   * @param bucket the name of the bucket to load the manifest for.
+   */
+  void refreshCollectionManifest(final String bucket) {
+    if (!manifestLoadsInFlight.add(bucket)) {
+      return;
+    }
+    final CollectionIdentifier identifier = CollectionIdentifier.fromDefault(bucket);
+    long start = System.nanoTime();
+    GetCollectionManifestRequest request = new GetCollectionManifestRequest(
+      core.context().environment().timeoutConfig().kvTimeout(),
+      core.context(),
+      BestEffortRetryStrategy.INSTANCE,
+      identifier
+    );
+    core.send(request);
+    request.response().whenComplete((response, throwable) -> {
+      try {
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        if (throwable != null) {
           eventBus.publish(new CollectionMapRefreshFailedEvent(
             duration,
             core.context(),
             identifier,
-            cause,
-            reason
+            throwable,
+            CollectionMapRefreshFailedEvent.Reason.FAILED
           ));
+          return;
         }
+
+        if (response.status().success() && response.manifest().isPresent()) {
+          CollectionsManifest manifest = Mapper.decodeInto(response.manifest().get(), CollectionsManifest.class);
+          Map<CollectionIdentifier, byte[]> ids = new HashMap<>();
+          for (CollectionsManifestScope scope : manifest.scopes()) {
+            for (CollectionsManifestCollection collection : scope.collections()) {
+              ids.put(
+                new CollectionIdentifier(bucket, Optional.of(scope.name()), Optional.of(collection.name())),
+                UnsignedLEB128.encode(Long.parseLong(collection.uid(), 16))
+              );
+            }
+          }
+          collectionMap.putAll(ids);
+        } else {
+          publishRefreshFailed(duration, identifier, response.status(), response.toString());
+        }
+      } catch (Exception ex) {
+        eventBus.publish(new CollectionMapDecodingFailedEvent(core.context(), ex));
       } finally {
-        collectionMapRefreshInProgress.decrementAndGet();
+        manifestLoadsInFlight.remove(bucket);
       }
     });
   }
 
+  private void publishRefreshFailed(final Duration duration, final CollectionIdentifier identifier,
+                                    final ResponseStatus status, final String response) {
+    Throwable cause = null;
+    CollectionMapRefreshFailedEvent.Reason reason;
+
+    if (status == ResponseStatus.UNKNOWN) {
+      reason = CollectionMapRefreshFailedEvent.Reason.NOT_SUPPORTED;
+    } else if (status == ResponseStatus.UNKNOWN_COLLECTION) {
+      reason = CollectionMapRefreshFailedEvent.Reason.UNKNOWN_COLLECTION;
+    } else if (status == ResponseStatus.NO_COLLECTIONS_MANIFEST) {
+      reason = CollectionMapRefreshFailedEvent.Reason.SERVER_HAS_NO_MANIFEST;
+    } else if (status == ResponseStatus.INVALID_REQUEST) {
+      reason = CollectionMapRefreshFailedEvent.Reason.INVALID_REQUEST;
+    } else {
+      cause = new CouchbaseException(response);
+      reason = CollectionMapRefreshFailedEvent.Reason.UNKNOWN;
+    }
+
+    eventBus.publish(new CollectionMapRefreshFailedEvent(
+      duration,
+      core.context(),
+      identifier,
+      cause,
+      reason
+    ));
+  }
+
   @Override
   public boolean collectionMapRefreshInProgress() {
-    return collectionMapRefreshInProgress.get() > 0;
+    return !collectionRefreshesInFlight.isEmpty() || !manifestLoadsInFlight.isEmpty();
+  }
+
+  @Override
+  public boolean collectionRefreshInProgress(final CollectionIdentifier identifier) {
+    return collectionRefreshesInFlight.contains(identifier) || manifestLoadsInFlight.contains(identifier.bucket());
   }
 
   /**
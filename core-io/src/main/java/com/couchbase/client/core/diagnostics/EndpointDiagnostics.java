@@ -69,10 +69,34 @@ public class EndpointDiagnostics {
      */
     private final Optional<String> namespace;
 
+    /**
+     * If connected, the number of bytes pending in the outbound buffer of the channel.
+     */
+    private final Optional<Long> pendingOutboundBytes;
+
+    /**
+     * The number of requests which have been written but not completed yet.
+     */
+    private final long inFlight;
+
+    /**
+     * The number of times the writability of the channel changed.
+     */
+    private final long writabilityChanges;
+
     @Stability.Internal
     public EndpointDiagnostics(final ServiceType type, final EndpointState state, final String local,
                                final String remote, final Optional<String> namespace,
                                final Optional<Long> lastActivityUs, final Optional<String> id) {
+        this(type, state, local, remote, namespace, lastActivityUs, id, Optional.empty(), 0, 0);
+    }
+
+    @Stability.Internal
+    public EndpointDiagnostics(final ServiceType type, final EndpointState state, final String local,
+                               final String remote, final Optional<String> namespace,
+                               final Optional<Long> lastActivityUs, final Optional<String> id,
+                               final Optional<Long> pendingOutboundBytes, final long inFlight,
+                               final long writabilityChanges) {
         this.type = type;
         this.state = state;
         this.id = id;
@@ -80,6 +104,9 @@ public class EndpointDiagnostics {
         this.remote = remote;
         this.lastActivityUs = lastActivityUs;
         this.namespace = namespace;
+        this.pendingOutboundBytes = pendingOutboundBytes;
+        this.inFlight = inFlight;
+        this.writabilityChanges = writabilityChanges;
     }
 
     /**
@@ -131,6 +158,32 @@ public class EndpointDiagnostics {
         return namespace;
     }
 
+    /**
+     * If connected, the number of bytes which are waiting in the outbound buffer to be written to the socket.
+     */
+    @Stability.Volatile
+    public Optional<Long> pendingOutboundBytes() {
+        return pendingOutboundBytes;
+    }
+
+    /**
+     * The number of requests which have been sent but not completed yet.
+     */
+    @Stability.Volatile
+    public long inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * The number of times the channel flipped between writable and not writable.
+     * <p>
+     * A steadily increasing number indicates that requests are written faster than the socket can drain them.
+     */
+    @Stability.Volatile
+    public long writabilityChanges() {
+        return writabilityChanges;
+    }
+
     Map<String, Object> toMap() {
         Map<String, Object> map = new HashMap<>();
         if (remote != null) {
@@ -143,6 +196,9 @@ public class EndpointDiagnostics {
         lastActivityUs.ifPresent(a -> map.put("last_activity_us", a));
         id.ifPresent(id -> map.put("id", id));
         namespace.ifPresent(n -> map.put("namespace", n));
+        pendingOutboundBytes.ifPresent(p -> map.put("pending_outbound_bytes", p));
+        map.put("in_flight", inFlight);
+        map.put("writability_changes", writabilityChanges);
         return map;
     }
 
@@ -156,6 +212,9 @@ public class EndpointDiagnostics {
           ", lastActivityUs=" + lastActivityUs +
           ", id='" + id + '\'' +
           ", namespace=" + namespace +
+          ", pendingOutboundBytes=" + pendingOutboundBytes +
+          ", inFlight=" + inFlight +
+          ", writabilityChanges=" + writabilityChanges +
           '}';
     }
 
@@ -170,11 +229,15 @@ public class EndpointDiagnostics {
           Objects.equals(remote, that.remote) &&
           Objects.equals(lastActivityUs, that.lastActivityUs) &&
           Objects.equals(id, that.id) &&
-          Objects.equals(namespace, that.namespace);
+          Objects.equals(namespace, that.namespace) &&
+          Objects.equals(pendingOutboundBytes, that.pendingOutboundBytes) &&
+          inFlight == that.inFlight &&
+          writabilityChanges == that.writabilityChanges;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, state, local, remote, lastActivityUs, id, namespace);
+        return Objects.hash(type, state, local, remote, lastActivityUs, id, namespace, pendingOutboundBytes, inFlight,
+          writabilityChanges);
     }
 }
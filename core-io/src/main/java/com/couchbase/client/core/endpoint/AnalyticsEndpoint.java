@@ -18,6 +18,8 @@ package com.couchbase.client.core.endpoint;
 
 import com.couchbase.client.core.deps.io.netty.channel.ChannelPipeline;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpClientCodec;
+import com.couchbase.client.core.env.HttpCompressionConfig;
+import com.couchbase.client.core.io.netty.HttpCompressionHandler;
 import com.couchbase.client.core.io.netty.analytics.AnalyticsHandlerSwitcher;
 import com.couchbase.client.core.service.ServiceContext;
 import com.couchbase.client.core.service.ServiceType;
@@ -46,6 +48,10 @@ public class AnalyticsEndpoint extends BaseEndpoint {
     @Override
     public void init(BaseEndpoint endpoint, ChannelPipeline pipeline) {
       pipeline.addLast(new HttpClientCodec());
+      HttpCompressionConfig compression = endpointContext.environment().ioConfig().httpCompressionConfig();
+      if (compression.enabled(ServiceType.ANALYTICS)) {
+        pipeline.addLast(new HttpCompressionHandler());
+      }
       pipeline.addLast(AnalyticsHandlerSwitcher.SWITCHER_IDENTIFIER, new AnalyticsHandlerSwitcher(endpoint, endpointContext));
     }
   }
@@ -19,6 +19,7 @@ package com.couchbase.client.core.endpoint;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.Counter;
 import com.couchbase.client.core.cnc.Event;
+import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectionAbortedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectionFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectedEvent;
@@ -29,6 +30,8 @@ import com.couchbase.client.core.cnc.events.endpoint.EndpointStateChangedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointWriteFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.UnexpectedEndpointConnectionFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.UnexpectedEndpointDisconnectedEvent;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelOutboundBuffer;
 import com.couchbase.client.core.deps.io.netty.channel.DefaultEventLoopGroup;
 import com.couchbase.client.core.deps.io.netty.channel.epoll.EpollChannelOption;
 import com.couchbase.client.core.deps.io.netty.channel.local.LocalChannel;
@@ -44,6 +47,7 @@ import com.couchbase.client.core.io.netty.kv.ChannelAttributes;
 import com.couchbase.client.core.io.netty.kv.ConnectTimings;
 import com.couchbase.client.core.msg.CancellationReason;
 import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestStage;
 import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.retry.RetryOrchestrator;
 import com.couchbase.client.core.retry.RetryReason;
@@ -64,6 +68,7 @@ import com.couchbase.client.core.deps.io.netty.channel.kqueue.KQueueEventLoopGro
 import com.couchbase.client.core.deps.io.netty.channel.kqueue.KQueueSocketChannel;
 import com.couchbase.client.core.deps.io.netty.channel.nio.NioEventLoopGroup;
 import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioSocketChannel;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.ScheduledFuture;
 import com.couchbase.client.core.diagnostics.EndpointDiagnostics;
 import com.couchbase.client.core.util.SingleStateful;
 import com.couchbase.client.core.util.HostAndPort;
@@ -104,6 +109,10 @@ import static com.couchbase.client.core.logging.RedactableArgument.redactMeta;
  */
 public abstract class BaseEndpoint implements Endpoint {
 
+  private static final String METRIC_PENDING_OUTBOUND_BYTES = "cb.endpoint.pending_outbound_bytes";
+  private static final String METRIC_IN_FLIGHT = "cb.endpoint.in_flight";
+  private static final String METRIC_WRITABILITY_CHANGES = "cb.endpoint.writability_changes";
+
   /**
    * Holds the current state of this endpoint.
    */
@@ -130,6 +139,11 @@ public abstract class BaseEndpoint implements Endpoint {
    */
   private final boolean circuitBreakerEnabled;
 
+  /**
+   * If the outcomes are recorded on the circuit breaker by the pipeline handler instead of a callback per request.
+   */
+  private final boolean circuitBreakerRecordedByHandler;
+
   /**
    * If the current endpoint is free or not.
    *
@@ -158,6 +172,16 @@ public abstract class BaseEndpoint implements Endpoint {
 
   private final Map<Class<?>, Counter> requestCounters = new ConcurrentHashMap<>();
 
+  /**
+   * Counts the number of times the writability of the underlying channel changed.
+   */
+  private final AtomicLong writabilityChanges = new AtomicLong();
+
+  /**
+   * Lazily created counter which exports the writability changes through the meter.
+   */
+  private volatile Counter writabilityChangesCounter;
+
   /**
    * Once connected, contains the channel to work with.
    */
@@ -173,6 +197,21 @@ public abstract class BaseEndpoint implements Endpoint {
    */
   private volatile long lastConnectedAt;
 
+  /**
+   * The number of requests written but not yet answered on a pipelined endpoint, as reported by its handler.
+   */
+  private volatile int pipelinedRequestsInFlight;
+
+  /**
+   * Exponentially weighted moving average of the dispatch latency in nanoseconds (0 if not sampled yet).
+   */
+  private volatile long latencyEstimate;
+
+  /**
+   * The timestamp when this endpoint went from no requests in flight to at least one (0 if none in flight).
+   */
+  private volatile long busySince;
+
   /**
    * Constructor to create a new endpoint, usually called by subclasses.
    *
@@ -190,12 +229,17 @@ public abstract class BaseEndpoint implements Endpoint {
     this.port = port;
     this.pipelined = pipelined;
     if (circuitBreakerConfig.enabled()) {
-      this.circuitBreaker = new LazyCircuitBreaker(circuitBreakerConfig);
+      this.circuitBreaker = circuitBreakerConfig.striped()
+        ? new StripedCircuitBreaker(circuitBreakerConfig)
+        : new LazyCircuitBreaker(circuitBreakerConfig);
       this.circuitBreakerEnabled = true;
     } else {
       this.circuitBreaker = NoopCircuitBreaker.INSTANCE;
       this.circuitBreakerEnabled = false;
     }
+    this.circuitBreakerRecordedByHandler = circuitBreakerEnabled
+      && circuitBreakerConfig.striped()
+      && serviceType == ServiceType.KV;
     this.circuitBreakerCallback = circuitBreakerConfig.completionCallback();
 
     this.endpointContext = new AtomicReference<>(
@@ -417,6 +461,7 @@ public abstract class BaseEndpoint implements Endpoint {
             this.endpointContext.set(newContext);
             this.circuitBreaker.reset();
             lastConnectedAt = now;
+            scheduleIoMetrics(channel, endpointContext.environment());
             state.transition(EndpointState.CONNECTED);
           }
         },
@@ -478,6 +523,8 @@ public abstract class BaseEndpoint implements Endpoint {
   @Stability.Internal
   public void notifyChannelInactive() {
     outstandingRequests.set(0);
+    pipelinedRequestsInFlight = 0;
+    busySince = 0;
     if (disconnect.get()) {
       // We don't need to do anything if we've been already instructed to disconnect.
       return;
@@ -543,11 +590,13 @@ public abstract class BaseEndpoint implements Endpoint {
         .lastDispatchedTo(ctx.remoteSocket())
         .lastChannelId(ctx.channelId().orElse(null));
 
-      if (!pipelined) {
-        outstandingRequests.incrementAndGet();
+      if (!pipelined && outstandingRequests.incrementAndGet() == 1) {
+        busySince = System.nanoTime();
       }
       if (circuitBreakerEnabled) {
         circuitBreaker.track();
+      }
+      if (circuitBreakerEnabled && !circuitBreakerRecordedByHandler) {
         request.response().whenComplete((response, throwable) -> {
           if (circuitBreakerCallback.apply(response, throwable)) {
             circuitBreaker.markSuccess();
@@ -558,10 +607,13 @@ public abstract class BaseEndpoint implements Endpoint {
       }
 
       incrementRequestCounter(request);
+      request.context().markStage(RequestStage.DISPATCHED);
       channel
         .writeAndFlush(request)
         .addListener(f -> {
-          if (!f.isSuccess()) {
+          if (f.isSuccess()) {
+            request.context().markStage(RequestStage.WRITTEN);
+          } else {
             EndpointContext context = endpointContext.get();
             Event.Severity severity = disconnect.get() ? Event.Severity.DEBUG : Event.Severity.WARN;
             context.environment().eventBus().publish(new EndpointWriteFailedEvent(severity, context, f.cause()));
@@ -576,6 +628,61 @@ public abstract class BaseEndpoint implements Endpoint {
     }
   }
 
+  /**
+   * Periodically samples the outbound bytes pending and the in-flight requests of the channel on its own
+   * event loop and records them on the meter, until the channel is closed.
+   *
+   * @param channel the channel to sample.
+   * @param env the environment which holds the meter and the sample interval.
+   */
+  private void scheduleIoMetrics(final Channel channel, final CoreEnvironment env) {
+    final Duration interval = env.ioConfig().ioMetricsInterval();
+    if (interval.isZero() || env.meter() instanceof NoopMeter) {
+      return;
+    }
+
+    final ValueRecorder pendingBytes = env.meter().valueRecorder(METRIC_PENDING_OUTBOUND_BYTES, metricTags());
+    final ValueRecorder inFlight = env.meter().valueRecorder(METRIC_IN_FLIGHT, metricTags());
+    final long intervalNanos = interval.toNanos();
+    final ScheduledFuture<?> sampler = channel.eventLoop().scheduleAtFixedRate(() -> {
+      pendingBytes.recordValue(pendingOutboundBytes(channel));
+      inFlight.recordValue(outstandingRequests());
+    }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    channel.closeFuture().addListener(f -> sampler.cancel(false));
+  }
+
+  /**
+   * Called from the pipeline when the writability of the channel changes.
+   *
+   * @param writable true if the channel is now writable, false otherwise.
+   */
+  @Stability.Internal
+  public void notifyChannelWritabilityChanged(final boolean writable) {
+    writabilityChanges.incrementAndGet();
+
+    Counter counter = writabilityChangesCounter;
+    if (counter == null) {
+      counter = context().environment().meter().counter(METRIC_WRITABILITY_CHANGES, metricTags());
+      writabilityChangesCounter = counter;
+    }
+    counter.incrementBy(1);
+  }
+
+  /**
+   * Returns the number of bytes pending in the outbound buffer of the given channel.
+   */
+  private static long pendingOutboundBytes(final Channel channel) {
+    final ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    return buffer == null ? 0 : buffer.totalPendingWriteBytes();
+  }
+
+  private Map<String, String> metricTags() {
+    Map<String, String> tags = new HashMap<>(4);
+    tags.put("cb.service", serviceType.ident());
+    tags.put("cb.remote_hostname", hostname);
+    return tags;
+  }
+
   private <R extends Request<? extends Response>> void incrementRequestCounter(final R request) {
     final Counter counter = requestCounters.computeIfAbsent(request.getClass(), key -> {
       Map<String, String> tags = new HashMap<>(4);
@@ -594,7 +701,53 @@ public abstract class BaseEndpoint implements Endpoint {
 
   @Override
   public long outstandingRequests() {
-    return outstandingRequests.get();
+    return pipelined ? pipelinedRequestsInFlight : outstandingRequests.get();
+  }
+
+  /**
+   * Called from the event loop handler of a pipelined endpoint whenever its number of in-flight requests changes.
+   *
+   * @param inFlight the number of requests written but not yet answered.
+   */
+  @Stability.Internal
+  public void pipelinedRequestsInFlight(final int inFlight) {
+    if (inFlight == 0) {
+      busySince = 0;
+    } else if (pipelinedRequestsInFlight == 0) {
+      busySince = System.nanoTime();
+    }
+    pipelinedRequestsInFlight = inFlight;
+  }
+
+  @Override
+  public long latencyEstimate() {
+    return latencyEstimate;
+  }
+
+  @Override
+  public long inFlightAge() {
+    final long since = busySince;
+    return since == 0 ? 0 : System.nanoTime() - Math.max(since, lastResponseTimestamp);
+  }
+
+  /**
+   * Called from the event loop handlers to feed the dispatch latency of a request into the latency estimate.
+   * <p>
+   * Every sample moves the estimate by 1/8 of its distance, so older samples decay exponentially. Since only the
+   * event loop of the channel records samples, the update does not need to be atomic.
+   *
+   * @param latency the dispatch latency in nanoseconds.
+   */
+  @Stability.Internal
+  public void recordLatency(final long latency) {
+    long current = latencyEstimate;
+    latencyEstimate = current == 0 ? Math.max(1, latency) : Math.max(1, current + ((latency - current) >> 3));
+  }
+
+  @Override
+  public long pendingOutboundBytes() {
+    final Channel channel = this.channel;
+    return channel == null ? 0 : pendingOutboundBytes(channel);
   }
 
   @Override
@@ -619,8 +772,8 @@ public abstract class BaseEndpoint implements Endpoint {
    */
   @Stability.Internal
   public void decrementOutstandingRequests() {
-    if (!pipelined) {
-      outstandingRequests.decrementAndGet();
+    if (!pipelined && outstandingRequests.decrementAndGet() <= 0) {
+      busySince = 0;
     }
   }
 
@@ -713,8 +866,9 @@ public abstract class BaseEndpoint implements Endpoint {
 
 
     final Optional<String> id = Optional.ofNullable(channel).map(c -> "0x" + c.id().asShortText());
+    final Optional<Long> pendingBytes = Optional.ofNullable(channel).map(BaseEndpoint::pendingOutboundBytes);
     return new EndpointDiagnostics(context().serviceType(), state(), local, remote, context().bucket(),
-      lastActivity, id);
+      lastActivity, id, pendingBytes, outstandingRequests(), writabilityChanges.get());
   }
 
 }
@@ -37,6 +37,7 @@ public class CircuitBreakerConfig {
   public static final int DEFAULT_ERROR_THRESHOLD_PERCENTAGE = 50;
   public static final Duration DEFAULT_SLEEP_WINDOW = Duration.ofSeconds(5);
   public static final Duration DEFAULT_ROLLING_WINDOW = Duration.ofMinutes(1);
+  public static final boolean DEFAULT_STRIPED = false;
   public static final CircuitBreaker.CompletionCallback DEFAULT_COMPLETION_CALLBACK =
     (response, throwable) -> !(throwable instanceof TimeoutException);
 
@@ -46,6 +47,7 @@ public class CircuitBreakerConfig {
   private final Duration sleepWindow;
   private final Duration rollingWindow;
   private final CircuitBreaker.CompletionCallback completionCallback;
+  private final boolean striped;
 
   /**
    * Creates a new builder to customize the configuration properties.
@@ -79,6 +81,10 @@ public class CircuitBreakerConfig {
     return builder().completionCallback(completionCallback);
   }
 
+  public static Builder striped(final boolean striped) {
+    return builder().striped(striped);
+  }
+
   private CircuitBreakerConfig(final Builder builder) {
     this.enabled = builder.enabled;
     this.volumeThreshold = builder.volumeThreshold;
@@ -86,6 +92,7 @@ public class CircuitBreakerConfig {
     this.sleepWindow = builder.sleepWindow;
     this.rollingWindow = builder.rollingWindow;
     this.completionCallback = builder.completionCallback;
+    this.striped = builder.striped;
   }
 
   /**
@@ -127,6 +134,13 @@ public class CircuitBreakerConfig {
     return completionCallback;
   }
 
+  /**
+   * Returns true if the low-contention circuit breaker with striped counters should be used.
+   */
+  public boolean striped() {
+    return striped;
+  }
+
   @Stability.Volatile
   public Map<String, Object> exportAsMap() {
     Map<String, Object> export = new LinkedHashMap<>();
@@ -136,6 +150,7 @@ public class CircuitBreakerConfig {
     export.put("sleepWindowMs", sleepWindow.toMillis());
     export.put("rollingWindowMs", rollingWindow.toMillis());
     export.put("completionCallback", completionCallback.getClass().getSimpleName());
+    export.put("striped", striped);
     return export;
   }
 
@@ -147,6 +162,7 @@ public class CircuitBreakerConfig {
     private Duration sleepWindow = DEFAULT_SLEEP_WINDOW;
     private Duration rollingWindow = DEFAULT_ROLLING_WINDOW;
     private CircuitBreaker.CompletionCallback completionCallback = DEFAULT_COMPLETION_CALLBACK;
+    private boolean striped = DEFAULT_STRIPED;
 
     /**
      * Enables or disables this circuit breaker.
@@ -228,6 +244,21 @@ public class CircuitBreakerConfig {
       return this;
     }
 
+    /**
+     * Uses a circuit breaker which counts in striped cells and slides its rolling window in buckets.
+     *
+     * <p>This keeps the shared cache lines to a minimum when a single endpoint completes operations at high rates
+     * from many threads. For the key-value service, outcomes are also recorded straight from the response
+     * handler instead of through a callback registered on every request. The default is false.</p>
+     *
+     * @param striped true if the striped circuit breaker should be used.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder striped(final boolean striped) {
+      this.striped = striped;
+      return this;
+    }
+
     /**
      * Creates a new {@link CircuitBreakerConfig} out of the configured properties.
      *
@@ -69,11 +69,43 @@ public interface Endpoint extends Stateful<EndpointState> {
 
   /**
    * If this endpoint has one or more outstanding requests.
+   * <p>
+   * For pipelined endpoints, these are the requests written to the channel and not yet answered.
    *
    * @return the number of outstanding requests
    */
   long outstandingRequests();
 
+  /**
+   * Returns the number of bytes which are written to this endpoint but not yet flushed to the socket.
+   *
+   * @return the pending outbound bytes, or 0 if not connected (or not tracked by this endpoint).
+   */
+  default long pendingOutboundBytes() {
+    return 0;
+  }
+
+  /**
+   * Returns a decaying estimate of the time it takes until a response is received for a dispatched request.
+   *
+   * @return the latency estimate in nanoseconds, or 0 if no response has been received yet.
+   */
+  default long latencyEstimate() {
+    return 0;
+  }
+
+  /**
+   * Returns for how long this endpoint has been waiting for a response while it has requests in flight.
+   * <p>
+   * For endpoints which serve one request at a time, this is the age of the in-flight request. Pipelined endpoints
+   * report the time since the last response was received or since they became busy, whichever is later.
+   *
+   * @return the time in nanoseconds, or 0 if no request is in flight.
+   */
+  default long inFlightAge() {
+    return 0;
+  }
+
   /**
    * Holds the timestamp of the last response received (or 0 if no request ever sent).
    *
@@ -18,6 +18,8 @@ package com.couchbase.client.core.endpoint;
 
 import com.couchbase.client.core.deps.io.netty.channel.ChannelPipeline;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpClientCodec;
+import com.couchbase.client.core.env.HttpCompressionConfig;
+import com.couchbase.client.core.io.netty.HttpCompressionHandler;
 import com.couchbase.client.core.io.netty.query.QueryHandlerSwitcher;
 import com.couchbase.client.core.io.netty.query.QueryMessageHandler;
 import com.couchbase.client.core.service.ServiceContext;
@@ -46,6 +48,10 @@ public class QueryEndpoint extends BaseEndpoint {
     @Override
     public void init(BaseEndpoint endpoint, ChannelPipeline pipeline) {
       pipeline.addLast(new HttpClientCodec());
+      HttpCompressionConfig compression = endpointContext.environment().ioConfig().httpCompressionConfig();
+      if (compression.enabled(ServiceType.QUERY)) {
+        pipeline.addLast(new HttpCompressionHandler());
+      }
       pipeline.addLast(QueryHandlerSwitcher.SWITCHER_IDENTIFIER, new QueryHandlerSwitcher(endpoint, endpointContext));
     }
   }
@@ -16,6 +16,8 @@
 
 package com.couchbase.client.core.endpoint;
 
+import com.couchbase.client.core.env.HttpCompressionConfig;
+import com.couchbase.client.core.io.netty.HttpCompressionHandler;
 import com.couchbase.client.core.io.netty.search.SearchHandlerSwitcher;
 import com.couchbase.client.core.service.ServiceContext;
 import com.couchbase.client.core.service.ServiceType;
@@ -45,6 +47,10 @@ public class SearchEndpoint extends BaseEndpoint {
     @Override
     public void init(final BaseEndpoint endpoint, final ChannelPipeline pipeline) {
       pipeline.addLast(new HttpClientCodec());
+      HttpCompressionConfig compression = endpointContext.environment().ioConfig().httpCompressionConfig();
+      if (compression.enabled(ServiceType.SEARCH)) {
+        pipeline.addLast(new HttpCompressionHandler());
+      }
       pipeline.addLast(SearchHandlerSwitcher.SWITCHER_IDENTIFIER, new SearchHandlerSwitcher(endpoint, endpointContext));
     }
   }
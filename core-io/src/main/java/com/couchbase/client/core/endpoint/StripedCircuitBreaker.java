@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.endpoint;
+
+import com.couchbase.client.core.error.InvalidArgumentException;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This {@link CircuitBreaker} follows the same states as the {@link LazyCircuitBreaker}, but is built to keep
+ * contention low when many threads record outcomes on the same endpoint at high rates.
+ *
+ * <p>It differs in the following ways:</p>
+ *
+ * <ul>
+ *   <li>Successes and failures are counted in {@link LongAdder LongAdders}, which spread concurrent increments
+ *    over striped cells instead of a single shared counter.</li>
+ *   <li>The rolling window is split into {@link #NUM_BUCKETS} buckets which are reused in a ring. Old buckets
+ *    are cleared lazily once their time slot comes around again, so the window slides instead of being cleared
+ *    all at once.</li>
+ *   <li>The state is only read (and not written) in the common case that the circuit is closed.</li>
+ * </ul>
+ *
+ * <p>Clearing a bucket races with concurrent increments into it, so a few outcomes can get lost at the bucket
+ * boundaries. This is fine since the counts only need to be accurate enough to compare against the thresholds.</p>
+ */
+class StripedCircuitBreaker implements CircuitBreaker {
+
+  /**
+   * The number of buckets the rolling window is split into.
+   */
+  static final int NUM_BUCKETS = 10;
+
+  /**
+   * Current configuration.
+   */
+  private final CircuitBreakerConfig config;
+
+  /**
+   * Duration in nanoseconds of a single bucket.
+   */
+  private final long bucketWidth;
+
+  /**
+   * Time of the sleeping window in nanoseconds.
+   */
+  private final long sleepingWindow;
+
+  /**
+   * The origin from which the bucket indexes are computed, so they stay positive.
+   */
+  private final long origin;
+
+  /**
+   * The ring of buckets which make up the rolling window.
+   */
+  private final Bucket[] buckets;
+
+  /**
+   * Current state of this breaker.
+   */
+  private final AtomicReference<State> state;
+
+  /**
+   * Time in nanos when the circuit opened.
+   */
+  private volatile long circuitOpened;
+
+  /**
+   * Creates a new {@link StripedCircuitBreaker}.
+   *
+   * @param config the config for this circuit breaker.
+   */
+  StripedCircuitBreaker(final CircuitBreakerConfig config) {
+    if (!config.enabled()) {
+      throw InvalidArgumentException.fromMessage("This CircuitBreaker always needs to be enabled");
+    }
+
+    this.config = config;
+    this.state = new AtomicReference<>();
+    this.bucketWidth = Math.max(1, config.rollingWindow().toNanos() / NUM_BUCKETS);
+    this.sleepingWindow = config.sleepWindow().toNanos();
+    this.origin = System.nanoTime();
+    this.buckets = new Bucket[NUM_BUCKETS];
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      buckets[i] = new Bucket();
+    }
+    reset();
+  }
+
+  @Override
+  public void track() {
+    if (state.get() == State.OPEN) {
+      state.compareAndSet(State.OPEN, State.HALF_OPEN);
+    }
+  }
+
+  @Override
+  public void reset() {
+    state.set(State.CLOSED);
+    circuitOpened = System.nanoTime() - sleepingWindow;
+    for (Bucket bucket : buckets) {
+      bucket.clear();
+    }
+  }
+
+  @Override
+  public boolean allowsRequest() {
+    State state = state();
+    if (state == State.CLOSED) {
+      return true;
+    }
+    boolean sleepingWindowElapsed = (System.nanoTime() - circuitOpened) > sleepingWindow;
+    return state == State.OPEN && sleepingWindowElapsed;
+  }
+
+  @Override
+  public State state() {
+    return state.get();
+  }
+
+  @Override
+  public void markFailure() {
+    long now = System.nanoTime();
+    if (state.get() == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.OPEN)) {
+      circuitOpened = now;
+    } else {
+      Bucket bucket = bucket(now);
+      bucket.total.increment();
+      bucket.failures.increment();
+      checkIfTripped(now);
+    }
+  }
+
+  @Override
+  public void markSuccess() {
+    long now = System.nanoTime();
+    if (state.get() == State.HALF_OPEN && state.compareAndSet(State.HALF_OPEN, State.CLOSED)) {
+      reset();
+    } else {
+      bucket(now).total.increment();
+    }
+  }
+
+  /**
+   * Returns the bucket for the given point in time, clearing it first if it still holds an older slot.
+   */
+  private Bucket bucket(final long now) {
+    long index = (now - origin) / bucketWidth;
+    Bucket bucket = buckets[(int) (index % NUM_BUCKETS)];
+    if (bucket.index != index) {
+      bucket.roll(index);
+    }
+    return bucket;
+  }
+
+  /**
+   * Sums up the buckets which are still part of the rolling window and opens the circuit if the thresholds
+   * are exceeded.
+   */
+  private void checkIfTripped(final long now) {
+    long current = (now - origin) / bucketWidth;
+    long total = 0;
+    long failures = 0;
+    for (Bucket bucket : buckets) {
+      long index = bucket.index;
+      if (index > current - NUM_BUCKETS && index <= current) {
+        total += bucket.total.sum();
+        failures += bucket.failures.sum();
+      }
+    }
+
+    if (total < config.volumeThreshold()) {
+      return;
+    }
+
+    int percentThreshold = config.errorThresholdPercentage();
+    long currentThreshold = (long) ((failures * 1.0f / total) * 100);
+    if (currentThreshold >= percentThreshold) {
+      state.set(State.OPEN);
+      circuitOpened = now;
+    }
+  }
+
+  /**
+   * Holds the counts of one time slot in the rolling window.
+   */
+  private static class Bucket {
+
+    final LongAdder total = new LongAdder();
+    final LongAdder failures = new LongAdder();
+
+    /**
+     * The time slot this bucket currently counts for.
+     */
+    volatile long index = -1;
+
+    synchronized void roll(final long newIndex) {
+      if (index < newIndex) {
+        total.reset();
+        failures.reset();
+        index = newIndex;
+      }
+    }
+
+    synchronized void clear() {
+      total.reset();
+      failures.reset();
+      index = -1;
+    }
+  }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.couchbase.client.core.util.Validators.notNull;
+
+/**
+ * Decides on which thread a request is completed once its response arrived (or it failed).
+ * <p>
+ * Completing a request runs everything which is attached to its response: dependent stages of the future, the
+ * conversion and decoding in the accessors and reactive subscribers. By default this happens {@link #inline()} on
+ * the IO event loop, which has the lowest latency but means that slow user callbacks delay every other request on
+ * the same connection. The {@code cb.endpoint.callback_occupancy} value recorder shows how long completions occupy
+ * the event loop, per service and node.
+ * <p>
+ * Note that requests which are awaited through the blocking APIs are always completed inline, since there is
+ * nothing running on the event loop but waking up the waiting thread.
+ */
+@Stability.Volatile
+public abstract class CompletionDispatch {
+
+  /**
+   * The default number of threads for the {@link #dedicated()} dispatch.
+   */
+  public static final int DEFAULT_DEDICATED_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  /**
+   * The default number of completions each thread of the {@link #dedicated()} dispatch can queue.
+   */
+  public static final int DEFAULT_DEDICATED_QUEUE_CAPACITY = 8192;
+
+  /**
+   * Completes requests directly on the thread which completes them (usually the IO event loop).
+   * <p>
+   * This is the default.
+   */
+  public static CompletionDispatch inline() {
+    return Inline.INSTANCE;
+  }
+
+  /**
+   * Completes requests on a dedicated, bounded set of threads owned by the environment.
+   * <p>
+   * Uses {@link #DEFAULT_DEDICATED_THREADS} threads and a queue capacity of
+   * {@link #DEFAULT_DEDICATED_QUEUE_CAPACITY} per thread.
+   */
+  public static CompletionDispatch dedicated() {
+    return dedicated(DEFAULT_DEDICATED_THREADS, DEFAULT_DEDICATED_QUEUE_CAPACITY);
+  }
+
+  /**
+   * Completes requests on a dedicated, bounded set of threads owned by the environment.
+   * <p>
+   * Each event loop always hands its completions to the same thread, which preserves their order per connection.
+   * Completions are handed off in batches: a thread is only woken up if it ran out of work, so a burst of
+   * responses decoded in one read only costs a single wakeup. If the queue of a thread is full, the completion
+   * runs inline instead, which pushes back on the event loop rather than queueing without bounds.
+   *
+   * @param threads the number of completion threads.
+   * @param queueCapacity the maximum number of completions queued per thread.
+   */
+  public static CompletionDispatch dedicated(final int threads, final int queueCapacity) {
+    if (threads < 1) {
+      throw InvalidArgumentException.fromMessage("The number of completion threads must be at least 1");
+    }
+    if (queueCapacity < 1) {
+      throw InvalidArgumentException.fromMessage("The completion queue capacity must be at least 1");
+    }
+    return new Dedicated(threads, queueCapacity);
+  }
+
+  /**
+   * Completes requests on an executor supplied (and owned) by the caller.
+   * <p>
+   * This allows to complete requests on the threads of the application, i.e. on a virtual thread per completion
+   * (through {@code Executors.newVirtualThreadPerTaskExecutor()} on JDK 21+) or on the executor of a
+   * thread-per-core framework. If the executor rejects a completion, it runs inline instead.
+   *
+   * @param executor the executor to complete requests on.
+   */
+  public static CompletionDispatch callerAffinity(final Executor executor) {
+    notNull(executor, "Executor");
+    return new CallerAffinity(executor);
+  }
+
+  /**
+   * Returns true if requests are completed on the completing thread itself.
+   */
+  @Stability.Internal
+  public boolean isInline() {
+    return false;
+  }
+
+  /**
+   * Runs the completion of a request according to this dispatch policy.
+   *
+   * @param completion the completion to run.
+   */
+  @Stability.Internal
+  public abstract void dispatch(Runnable completion);
+
+  /**
+   * Releases the resources owned by this policy, if any.
+   * <p>
+   * Completions which are dispatched afterwards run inline.
+   */
+  @Stability.Internal
+  public void shutdown() {
+  }
+
+  private static final class Inline extends CompletionDispatch {
+
+    static final Inline INSTANCE = new Inline();
+
+    @Override
+    public boolean isInline() {
+      return true;
+    }
+
+    @Override
+    public void dispatch(final Runnable completion) {
+      completion.run();
+    }
+
+    @Override
+    public String toString() {
+      return "inline";
+    }
+  }
+
+  private static final class CallerAffinity extends CompletionDispatch {
+
+    private final Executor executor;
+
+    CallerAffinity(final Executor executor) {
+      this.executor = executor;
+    }
+
+    @Override
+    public void dispatch(final Runnable completion) {
+      try {
+        executor.execute(completion);
+      } catch (RejectedExecutionException ex) {
+        completion.run();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "callerAffinity(" + executor.getClass().getSimpleName() + ")";
+    }
+  }
+
+  private static final class Dedicated extends CompletionDispatch {
+
+    private final Worker[] workers;
+    private final int queueCapacity;
+
+    Dedicated(final int threads, final int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+      this.workers = new Worker[threads];
+      for (int i = 0; i < threads; i++) {
+        workers[i] = new Worker(queueCapacity, "cb-completion-" + i);
+      }
+    }
+
+    @Override
+    public void dispatch(final Runnable completion) {
+      final Worker worker = workers.length == 1
+        ? workers[0]
+        : workers[(int) (Thread.currentThread().getId() % workers.length)];
+      if (!worker.offer(completion)) {
+        completion.run();
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      for (Worker worker : workers) {
+        worker.shutdown();
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "dedicated(threads=" + workers.length + ", queueCapacity=" + queueCapacity + ")";
+    }
+  }
+
+  /**
+   * A single completion thread with its own bounded queue.
+   */
+  private static final class Worker implements Runnable {
+
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean sleeping = new AtomicBoolean();
+    private final int capacity;
+    private final Thread thread;
+
+    private volatile boolean running = true;
+    private volatile boolean terminated;
+
+    Worker(final int capacity, final String name) {
+      this.capacity = capacity;
+      this.thread = new Thread(this, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    /**
+     * Queues the completion, returns false if it needs to be run by the caller.
+     */
+    boolean offer(final Runnable completion) {
+      if (!running) {
+        return false;
+      }
+      if (queued.incrementAndGet() > capacity) {
+        queued.decrementAndGet();
+        return false;
+      }
+      queue.offer(completion);
+
+      if (terminated) {
+        // The worker might have finished its last drain before the completion got queued.
+        drain();
+      } else if (sleeping.get() && sleeping.compareAndSet(true, false)) {
+        LockSupport.unpark(thread);
+      }
+      return true;
+    }
+
+    @Override
+    public void run() {
+      while (running) {
+        drain();
+        sleeping.set(true);
+        if (queue.isEmpty() && running) {
+          LockSupport.park(this);
+        }
+        sleeping.set(false);
+      }
+      terminated = true;
+      drain();
+    }
+
+    void shutdown() {
+      running = false;
+      LockSupport.unpark(thread);
+    }
+
+    /**
+     * Runs all queued completions, called by the worker and (once terminated) by the dispatching threads.
+     */
+    private void drain() {
+      Runnable completion;
+      while ((completion = queue.poll()) != null) {
+        queued.decrementAndGet();
+        try {
+          completion.run();
+        } catch (Throwable t) {
+          // Completions must not throw, but the worker needs to survive if they do.
+        }
+      }
+    }
+  }
+
+}
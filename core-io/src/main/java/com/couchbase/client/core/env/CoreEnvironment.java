@@ -27,6 +27,7 @@ import com.couchbase.client.core.cnc.OrphanReporter;
 import com.couchbase.client.core.cnc.RequestTracer;
 import com.couchbase.client.core.cnc.events.config.HighIdleHttpConnectionTimeoutConfiguredEvent;
 import com.couchbase.client.core.cnc.metrics.AggregatingMeter;
+import com.couchbase.client.core.cnc.metrics.EventLoopLagProbe;
 import com.couchbase.client.core.cnc.metrics.NoopMeter;
 import com.couchbase.client.core.cnc.events.config.InsecureSecurityConfigDetectedEvent;
 import com.couchbase.client.core.cnc.tracing.ThresholdRequestTracer;
@@ -69,6 +70,21 @@ public class CoreEnvironment {
    * Default maximum requests being queued in retry before performing backpressure cancellations.
    */
   public static final long DEFAULT_MAX_NUM_REQUESTS_IN_RETRY = 32768;
+
+  /**
+   * Default ratio of requests which are sampled for the per-stage latency breakdown (if a meter is enabled).
+   */
+  public static final double DEFAULT_REQUEST_STAGE_SAMPLE_RATE = 0.01;
+
+  /**
+   * KV status exceptions carry a stack trace by default.
+   */
+  public static final boolean DEFAULT_STACKLESS_KEY_VALUE_ERRORS = false;
+
+  /**
+   * Rows of streaming responses are decoded inline by default.
+   */
+  public static final int DEFAULT_ROW_DECODING_WINDOW = 0;
   private static final Map<String, Attributes> MANIFEST_INFOS = new ConcurrentHashMap<>();
 
   static {
@@ -116,7 +132,12 @@ public class CoreEnvironment {
   private final RetryStrategy retryStrategy;
   private final Supplier<Scheduler> scheduler;
   private final OrphanReporter orphanReporter;
+  private final EventLoopLagProbe eventLoopLagProbe;
   private final long maxNumRequestsInRetry;
+  private final double requestStageSampleRate;
+  private final boolean stacklessKeyValueErrors;
+  private final CompletionDispatch completionDispatch;
+  private final int rowDecodingWindow;
 
   public static CoreEnvironment create() {
     return builder().build();
@@ -178,9 +199,21 @@ public class CoreEnvironment {
       meter.get().start().block();
     }
 
-    orphanReporter = new OrphanReporter(eventBus.get(), orphanReporterConfig);
+    this.requestStageSampleRate = meter.get() instanceof NoopMeter ? 0 : builder.requestStageSampleRate;
+    this.stacklessKeyValueErrors = builder.stacklessKeyValueErrors;
+    this.completionDispatch = builder.completionDispatch;
+    this.rowDecodingWindow = builder.rowDecodingWindow;
+
+    orphanReporter = new OrphanReporter(eventBus.get(), meter.get(), orphanReporterConfig);
     orphanReporter.start().block();
 
+    if (meter.get() instanceof NoopMeter) {
+      eventLoopLagProbe = null;
+    } else {
+      eventLoopLagProbe = new EventLoopLagProbe(ioEnvironment, meter.get(), scheduler.get(), ioConfig.ioMetricsInterval());
+      eventLoopLagProbe.start();
+    }
+
     if (ioConfig.idleHttpConnectionTimeout().toMillis() > AbstractPooledEndpointServiceConfig.DEFAULT_IDLE_TIME.toMillis()) {
       eventBus.get().publish(new HighIdleHttpConnectionTimeoutConfiguredEvent());
     }
@@ -355,6 +388,40 @@ public class CoreEnvironment {
     return meter.get();
   }
 
+  /**
+   * Returns the ratio of requests which are sampled for the per-stage latency breakdown.
+   * <p>
+   * Note that this is always 0 if no meter is enabled, since the values would be discarded anyways.
+   */
+  @Stability.Volatile
+  public double requestStageSampleRate() {
+    return requestStageSampleRate;
+  }
+
+  /**
+   * Returns true if the exceptions mapped from KV response status codes are created without a stack trace.
+   */
+  @Stability.Volatile
+  public boolean stacklessKeyValueErrors() {
+    return stacklessKeyValueErrors;
+  }
+
+  /**
+   * Returns the policy which decides on which thread requests are completed.
+   */
+  @Stability.Volatile
+  public CompletionDispatch completionDispatch() {
+    return completionDispatch;
+  }
+
+  /**
+   * Returns the maximum number of rows of a streaming response which are decoded in parallel (0 if inline).
+   */
+  @Stability.Volatile
+  public int rowDecodingWindow() {
+    return rowDecodingWindow;
+  }
+
   /**
    * Returns the timer used to schedule timeouts and retries amongst other tasks.
    */
@@ -420,9 +487,13 @@ public class CoreEnvironment {
     return Mono.defer(() -> eventBus instanceof OwnedSupplier ? eventBus.get().stop(timeout) : Mono.empty())
       .then(Mono.defer(() -> {
         timer.stop();
+        if (eventLoopLagProbe != null) {
+          eventLoopLagProbe.stop();
+        }
         return Mono.empty();
       }))
       .then(ioEnvironment.shutdown(timeout))
+      .then(Mono.fromRunnable(completionDispatch::shutdown))
       .then(Mono.defer(() -> {
         if (requestTracer instanceof OwnedSupplier) {
           return requestTracer.get().stop(timeout);
@@ -478,6 +549,10 @@ public class CoreEnvironment {
 
     input.put("userAgent", userAgent.formattedLong());
     input.put("maxNumRequestsInRetry", maxNumRequestsInRetry);
+    input.put("requestStageSampleRate", requestStageSampleRate);
+    input.put("stacklessKeyValueErrors", stacklessKeyValueErrors);
+    input.put("completionDispatch", completionDispatch.toString());
+    input.put("rowDecodingWindow", rowDecodingWindow);
 
     input.put("ioEnvironment", ioEnvironment.exportAsMap());
     input.put("ioConfig", ioConfig.exportAsMap());
@@ -518,6 +593,10 @@ public class CoreEnvironment {
     private Supplier<Meter> meter = null;
     private RetryStrategy retryStrategy = null;
     private long maxNumRequestsInRetry = DEFAULT_MAX_NUM_REQUESTS_IN_RETRY;
+    private double requestStageSampleRate = DEFAULT_REQUEST_STAGE_SAMPLE_RATE;
+    private boolean stacklessKeyValueErrors = DEFAULT_STACKLESS_KEY_VALUE_ERRORS;
+    private CompletionDispatch completionDispatch = CompletionDispatch.inline();
+    private int rowDecodingWindow = DEFAULT_ROW_DECODING_WINDOW;
 
     protected Builder() { }
 
@@ -544,6 +623,83 @@ public class CoreEnvironment {
       return self();
     }
 
+    /**
+     * Allows to customize the ratio of requests which are sampled for the per-stage latency breakdown.
+     * <p>
+     * For every sampled request, the time spent between creation, first dispatch, write to the socket, response
+     * read, decode, completion and logical completion is recorded on the {@code cb.request_stages} value
+     * recorder of the {@link Meter}, tagged per service, request type and stage (in nanoseconds). The default
+     * {@link AggregatingMeter} aggregates and emits them alongside its other metrics. Sampling is always disabled
+     * if no meter is enabled.
+     *
+     * @param requestStageSampleRate the ratio between 0 (disabled) and 1 (every request is sampled).
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF requestStageSampleRate(final double requestStageSampleRate) {
+      if (requestStageSampleRate < 0 || requestStageSampleRate > 1) {
+        throw InvalidArgumentException.fromMessage("requestStageSampleRate must be between 0 and 1");
+      }
+      this.requestStageSampleRate = requestStageSampleRate;
+      return self();
+    }
+
+    /**
+     * Allows to create the exceptions which are mapped from KV response status codes without a stack trace.
+     * <p>
+     * Filling in the stack trace is by far the most expensive part of creating an exception. Workloads where
+     * failures like {@link com.couchbase.client.core.error.DocumentNotFoundException} are an expected outcome
+     * (i.e. when used as a cache with a high miss ratio) can enable this to reduce CPU and garbage, at the cost of
+     * less helpful exceptions when debugging. This is disabled by default.
+     *
+     * @param stacklessKeyValueErrors true if the KV status exceptions should not carry a stack trace.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF stacklessKeyValueErrors(final boolean stacklessKeyValueErrors) {
+      this.stacklessKeyValueErrors = stacklessKeyValueErrors;
+      return self();
+    }
+
+    /**
+     * Allows to customize on which thread requests are completed once their response arrived.
+     * <p>
+     * By default requests are completed {@link CompletionDispatch#inline() inline} on the IO event loop. If the
+     * continuations attached to the results are slow (which the {@code cb.endpoint.callback_occupancy} metric
+     * shows), they can be moved to {@link CompletionDispatch#dedicated() dedicated} threads owned by the
+     * environment, or to an executor {@link CompletionDispatch#callerAffinity(java.util.concurrent.Executor)
+     * supplied by the application}.
+     *
+     * @param completionDispatch the completion dispatch policy.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF completionDispatch(final CompletionDispatch completionDispatch) {
+      this.completionDispatch = notNull(completionDispatch, "CompletionDispatch");
+      return self();
+    }
+
+    /**
+     * Allows to decode the rows of streaming (query, analytics, search and view) results in parallel.
+     * <p>
+     * By default each row is decoded inline on the thread which emits it, which is usually the IO event loop. If
+     * rows are large or map into complex types, this can make decoding the bottleneck and delay other responses on
+     * the same event loop. With a window larger than 1, up to that many rows are decoded in parallel on the
+     * {@link #scheduler(Scheduler) scheduler} of the environment. The rows are still emitted in their original
+     * order and backpressure is preserved, since no more than the window is requested ahead of the subscriber.
+     *
+     * @param rowDecodingWindow the number of rows decoded in parallel, 0 to decode inline.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    @Stability.Volatile
+    public SELF rowDecodingWindow(final int rowDecodingWindow) {
+      if (rowDecodingWindow < 0) {
+        throw InvalidArgumentException.fromMessage("The row decoding window must not be negative");
+      }
+      this.rowDecodingWindow = rowDecodingWindow;
+      return self();
+    }
+
     /**
      * Immediately loads the properties from the given loader into the environment.
      *
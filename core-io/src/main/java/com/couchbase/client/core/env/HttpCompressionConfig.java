@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.core.service.ServiceType;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Allows configuring if responses of the query, analytics and search services are requested in compressed form.
+ * <p>
+ * If enabled for a service, its requests advertise {@code Accept-Encoding: gzip, deflate} and compressed responses
+ * are decompressed chunk by chunk as they are read, so rows are still streamed to the subscriber as they arrive.
+ * This trades some CPU on both ends for less traffic, which pays off for large results over slow or metered links.
+ * Small responses hardly shrink though, so it is best enabled only for services which return large results.
+ */
+@Stability.Volatile
+public class HttpCompressionConfig {
+
+  private static final Set<ServiceType> SUPPORTED_SERVICES = Collections.unmodifiableSet(
+    EnumSet.of(ServiceType.QUERY, ServiceType.ANALYTICS, ServiceType.SEARCH)
+  );
+
+  private final Set<ServiceType> services;
+
+  /**
+   * Creates a new builder to customize the configuration properties.
+   *
+   * @return a {@link Builder} to customize.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a config with all the default values (compression disabled).
+   */
+  public static HttpCompressionConfig create() {
+    return builder().build();
+  }
+
+  public static Builder enable(final ServiceType... services) {
+    return builder().enable(services);
+  }
+
+  private HttpCompressionConfig(final Builder builder) {
+    this.services = Collections.unmodifiableSet(
+      builder.services.isEmpty() ? EnumSet.noneOf(ServiceType.class) : EnumSet.copyOf(builder.services)
+    );
+  }
+
+  /**
+   * Returns true if compressed responses are requested from the given service.
+   *
+   * @param serviceType the service to check.
+   */
+  public boolean enabled(final ServiceType serviceType) {
+    return services.contains(serviceType);
+  }
+
+  /**
+   * Returns the services compressed responses are requested from.
+   */
+  public Set<ServiceType> services() {
+    return services;
+  }
+
+  @Stability.Volatile
+  public Map<String, Object> exportAsMap() {
+    Map<String, Object> export = new LinkedHashMap<>();
+    export.put("services", services.stream().map(ServiceType::ident).collect(Collectors.toSet()));
+    return export;
+  }
+
+  public static class Builder {
+
+    private final Set<ServiceType> services = EnumSet.noneOf(ServiceType.class);
+
+    /**
+     * Requests compressed responses from the given services.
+     * <p>
+     * Only the query, analytics and search services are supported. Disabled for all services by default.
+     *
+     * @param services the services to enable compression for.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder enable(final ServiceType... services) {
+      for (ServiceType service : services) {
+        if (!SUPPORTED_SERVICES.contains(service)) {
+          throw InvalidArgumentException.fromMessage("HTTP compression is not supported for " + service);
+        }
+        this.services.add(service);
+      }
+      return this;
+    }
+
+    public HttpCompressionConfig build() {
+      return new HttpCompressionConfig(this);
+    }
+  }
+
+}
@@ -19,18 +19,23 @@ package com.couchbase.client.core.env;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.endpoint.CircuitBreaker;
 import com.couchbase.client.core.endpoint.CircuitBreakerConfig;
+import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.service.AbstractPooledEndpointServiceConfig;
 import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.service.strategy.LoadBalancingStrategy;
 
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.couchbase.client.core.util.Validators.notNull;
+
 public class IoConfig {
 
   public static final boolean DEFAULT_MUTATION_TOKENS_ENABLED = true;
@@ -40,9 +45,14 @@ public class IoConfig {
   public static final Duration DEFAULT_CONFIG_POLL_INTERVAL = Duration.ofMillis(2500);
   public static final NetworkResolution DEFAULT_NETWORK_RESOLUTION = NetworkResolution.AUTO;
   public static final int DEFAULT_NUM_KV_CONNECTIONS = 1;
+  public static final Duration DEFAULT_IDLE_KV_CONNECTION_TIMEOUT = Duration.ofSeconds(60);
+  public static final boolean DEFAULT_KV_PARTITION_AFFINITY = false;
   public static final int DEFAULT_MAX_HTTP_CONNECTIONS = AbstractPooledEndpointServiceConfig.DEFAULT_MAX_ENDPOINTS;
   public static final Duration DEFAULT_IDLE_HTTP_CONNECTION_TIMEOUT = AbstractPooledEndpointServiceConfig.DEFAULT_IDLE_TIME;
   public static final Duration DEFAULT_CONFIG_IDLE_REDIAL_TIMEOUT = Duration.ofMinutes(5);
+  public static final Duration DEFAULT_IO_METRICS_INTERVAL = Duration.ofSeconds(1);
+  public static final LoadBalancingStrategy DEFAULT_LOAD_BALANCING_STRATEGY = LoadBalancingStrategy.ROUND_ROBIN;
+  public static final boolean DEFAULT_PREFETCH_COLLECTION_MANIFEST = false;
 
   private final boolean mutationTokensEnabled;
   private final Duration configPollInterval;
@@ -58,9 +68,17 @@ public class IoConfig {
   private final boolean tcpKeepAlivesEnabled;
   private final Duration tcpKeepAliveTime;
   private final int numKvConnections;
+  private final int maxKvConnections;
+  private final Duration idleKvConnectionTimeout;
+  private final boolean kvPartitionAffinity;
   private final int maxHttpConnections;
   private final Duration idleHttpConnectionTimeout;
   private final Duration configIdleRedialTimeout;
+  private final Duration ioMetricsInterval;
+  private final Map<ServiceType, LoadBalancingStrategy> loadBalancingStrategies;
+  private final RowPrefetchConfig rowPrefetchConfig;
+  private final HttpCompressionConfig httpCompressionConfig;
+  private final boolean prefetchCollectionManifest;
 
   private IoConfig(Builder builder) {
     mutationTokensEnabled = builder.mutationTokensEnabled;
@@ -81,9 +99,17 @@ public class IoConfig {
     tcpKeepAlivesEnabled = builder.tcpKeepAlivesEnabled;
     tcpKeepAliveTime = builder.tcpKeepAliveTime;
     numKvConnections = builder.numKvConnections;
+    maxKvConnections = Math.max(builder.numKvConnections, builder.maxKvConnections);
+    idleKvConnectionTimeout = builder.idleKvConnectionTimeout;
+    kvPartitionAffinity = builder.kvPartitionAffinity;
     maxHttpConnections = builder.maxHttpConnections;
     idleHttpConnectionTimeout = builder.idleHttpConnectionTimeout;
     configIdleRedialTimeout = builder.configIdleRedialTimeout;
+    ioMetricsInterval = builder.ioMetricsInterval;
+    loadBalancingStrategies = Collections.unmodifiableMap(new EnumMap<>(builder.loadBalancingStrategies));
+    rowPrefetchConfig = builder.rowPrefetchConfig.build();
+    httpCompressionConfig = builder.httpCompressionConfig.build();
+    prefetchCollectionManifest = builder.prefetchCollectionManifest;
   }
 
   public static IoConfig create() {
@@ -161,6 +187,24 @@ public class IoConfig {
     return builder().numKvConnections(numKvConnections);
   }
 
+  /**
+   * Allows the key-value connection pool of each node to grow up to the given number of connections.
+   *
+   * @param maxKvConnections the maximum number of connections, larger than {@link #numKvConnections()} to enable.
+   * @return this {@link Builder} for chaining purposes.
+   */
+  public static Builder maxKvConnections(int maxKvConnections) {
+    return builder().maxKvConnections(maxKvConnections);
+  }
+
+  public static Builder idleKvConnectionTimeout(Duration idleKvConnectionTimeout) {
+    return builder().idleKvConnectionTimeout(idleKvConnectionTimeout);
+  }
+
+  public static Builder kvPartitionAffinity(boolean kvPartitionAffinity) {
+    return builder().kvPartitionAffinity(kvPartitionAffinity);
+  }
+
   public static Builder maxHttpConnections(int maxHttpConnections) {
     return builder().maxHttpConnections(maxHttpConnections);
   }
@@ -173,6 +217,39 @@ public class IoConfig {
     return builder().configIdleRedialTimeout(configIdleRedialTimeout);
   }
 
+  /**
+   * Customizes the interval at which event loop lag and per-endpoint IO metrics are sampled.
+   *
+   * @param ioMetricsInterval the sample interval, {@link Duration#ZERO} disables sampling.
+   * @return this {@link Builder} for chaining purposes.
+   */
+  public static Builder ioMetricsInterval(Duration ioMetricsInterval) {
+    return builder().ioMetricsInterval(ioMetricsInterval);
+  }
+
+  /**
+   * Customizes how requests are spread across the nodes (and the endpoints in each node) of an HTTP-based service.
+   *
+   * @param serviceType the service to configure (query, analytics, search or views).
+   * @param strategy the load balancing strategy to use.
+   * @return this {@link Builder} for chaining purposes.
+   */
+  public static Builder loadBalancingStrategy(ServiceType serviceType, LoadBalancingStrategy strategy) {
+    return builder().loadBalancingStrategy(serviceType, strategy);
+  }
+
+  public static Builder rowPrefetchConfig(RowPrefetchConfig.Builder rowPrefetchConfig) {
+    return builder().rowPrefetchConfig(rowPrefetchConfig);
+  }
+
+  public static Builder httpCompressionConfig(HttpCompressionConfig.Builder httpCompressionConfig) {
+    return builder().httpCompressionConfig(httpCompressionConfig);
+  }
+
+  public static Builder prefetchCollectionManifest(boolean prefetchCollectionManifest) {
+    return builder().prefetchCollectionManifest(prefetchCollectionManifest);
+  }
+
   public CircuitBreakerConfig kvCircuitBreakerConfig() {
     return kvCircuitBreakerConfig;
   }
@@ -234,6 +311,24 @@ public class IoConfig {
     return numKvConnections;
   }
 
+  /**
+   * Returns the maximum number of key-value connections per node.
+   * <p>
+   * If this is larger than {@link #numKvConnections()}, the pool is adaptive: it grows with the load and idle
+   * connections above {@link #numKvConnections()} are closed after the {@link #idleKvConnectionTimeout()}.
+   */
+  public int maxKvConnections() {
+    return maxKvConnections;
+  }
+
+  public Duration idleKvConnectionTimeout() {
+    return idleKvConnectionTimeout;
+  }
+
+  public boolean kvPartitionAffinity() {
+    return kvPartitionAffinity;
+  }
+
   public int maxHttpConnections() {
     return maxHttpConnections;
   }
@@ -246,6 +341,46 @@ public class IoConfig {
     return configIdleRedialTimeout;
   }
 
+  /**
+   * Returns the interval at which event loop lag and per-endpoint IO metrics are sampled.
+   * <p>
+   * If {@link Duration#ZERO}, no sampling is performed.
+   */
+  public Duration ioMetricsInterval() {
+    return ioMetricsInterval;
+  }
+
+  /**
+   * Returns the load balancing strategy for the given service.
+   *
+   * @param serviceType the service type.
+   * @return the configured strategy, or {@link #DEFAULT_LOAD_BALANCING_STRATEGY} if not customized.
+   */
+  public LoadBalancingStrategy loadBalancingStrategy(final ServiceType serviceType) {
+    return loadBalancingStrategies.getOrDefault(serviceType, DEFAULT_LOAD_BALANCING_STRATEGY);
+  }
+
+  /**
+   * Returns the watermarks which bound the rows buffered for a streaming response.
+   */
+  public RowPrefetchConfig rowPrefetchConfig() {
+    return rowPrefetchConfig;
+  }
+
+  /**
+   * Returns the services which are asked for compressed responses.
+   */
+  public HttpCompressionConfig httpCompressionConfig() {
+    return httpCompressionConfig;
+  }
+
+  /**
+   * Returns true if the collection manifest is loaded when a bucket is opened.
+   */
+  public boolean prefetchCollectionManifest() {
+    return prefetchCollectionManifest;
+  }
+
   /**
    * Returns this config as a map so it can be exported into i.e. JSON for display.
    */
@@ -266,9 +401,21 @@ public class IoConfig {
     export.put("analyticsCircuitBreakerConfig", analyticsCircuitBreakerConfig.enabled() ? analyticsCircuitBreakerConfig.exportAsMap() : "disabled");
     export.put("managerCircuitBreakerConfig", managerCircuitBreakerConfig.enabled() ? managerCircuitBreakerConfig.exportAsMap() : "disabled");
     export.put("numKvConnections", numKvConnections);
+    export.put("maxKvConnections", maxKvConnections);
+    export.put("idleKvConnectionTimeoutMs", idleKvConnectionTimeout.toMillis());
+    export.put("kvPartitionAffinity", kvPartitionAffinity);
     export.put("maxHttpConnections", maxHttpConnections);
     export.put("idleHttpConnectionTimeoutMs", idleHttpConnectionTimeout.toMillis());
     export.put("configIdleRedialTimeoutMs", configIdleRedialTimeout.toMillis());
+    export.put("ioMetricsIntervalMs", ioMetricsInterval.toMillis());
+    export.put("rowPrefetchConfig", rowPrefetchConfig.exportAsMap());
+    export.put("httpCompressionConfig", httpCompressionConfig.exportAsMap());
+    export.put("prefetchCollectionManifest", prefetchCollectionManifest);
+    if (!loadBalancingStrategies.isEmpty()) {
+      Map<String, String> strategies = new LinkedHashMap<>();
+      loadBalancingStrategies.forEach((type, strategy) -> strategies.put(type.ident(), strategy.name()));
+      export.put("loadBalancingStrategies", strategies);
+    }
     return export;
   }
 
@@ -288,9 +435,17 @@ public class IoConfig {
     private boolean tcpKeepAlivesEnabled = DEFAULT_TCP_KEEPALIVE_ENABLED;
     private Duration tcpKeepAliveTime = DEFAULT_TCP_KEEPALIVE_TIME;
     private int numKvConnections = DEFAULT_NUM_KV_CONNECTIONS;
+    private int maxKvConnections = DEFAULT_NUM_KV_CONNECTIONS;
+    private Duration idleKvConnectionTimeout = DEFAULT_IDLE_KV_CONNECTION_TIMEOUT;
+    private boolean kvPartitionAffinity = DEFAULT_KV_PARTITION_AFFINITY;
     private int maxHttpConnections = DEFAULT_MAX_HTTP_CONNECTIONS;
     private Duration idleHttpConnectionTimeout = DEFAULT_IDLE_HTTP_CONNECTION_TIMEOUT;
     private Duration configIdleRedialTimeout = DEFAULT_CONFIG_IDLE_REDIAL_TIMEOUT;
+    private Duration ioMetricsInterval = DEFAULT_IO_METRICS_INTERVAL;
+    private final Map<ServiceType, LoadBalancingStrategy> loadBalancingStrategies = new EnumMap<>(ServiceType.class);
+    private RowPrefetchConfig.Builder rowPrefetchConfig = RowPrefetchConfig.builder();
+    private HttpCompressionConfig.Builder httpCompressionConfig = HttpCompressionConfig.builder();
+    private boolean prefetchCollectionManifest = DEFAULT_PREFETCH_COLLECTION_MANIFEST;
 
     public IoConfig build() {
       return new IoConfig(this);
@@ -448,6 +603,108 @@ public class IoConfig {
       return this;
     }
 
+    /**
+     * Allows the key-value connection pool of each node to grow up to the given number of connections.
+     * <p>
+     * By default the pool is fixed at {@link #numKvConnections(int)} connections. If the maximum is larger, the
+     * pool becomes adaptive: once the least loaded of two sampled connections has too many requests in flight (or
+     * too many bytes waiting to be flushed), another connection is opened. Connections above
+     * {@link #numKvConnections(int)} which are idle for longer than {@link #idleKvConnectionTimeout(Duration)} are
+     * closed again.
+     * <p>
+     * Note that in adaptive mode, requests are no longer pinned to one connection per partition unless
+     * {@link #kvPartitionAffinity(boolean)} is enabled (or they use synchronous durability), so two requests
+     * against the same document which are in flight at the same time might be executed in any order.
+     *
+     * @param maxKvConnections the maximum number of connections.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder maxKvConnections(int maxKvConnections) {
+      this.maxKvConnections = maxKvConnections;
+      return this;
+    }
+
+    /**
+     * Customizes the time after which an idle key-value connection above the minimum is closed.
+     * <p>
+     * This is only used if {@link #maxKvConnections(int)} is larger than {@link #numKvConnections(int)}.
+     *
+     * @param idleKvConnectionTimeout the idle timeout.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder idleKvConnectionTimeout(Duration idleKvConnectionTimeout) {
+      if (idleKvConnectionTimeout == null || idleKvConnectionTimeout.isNegative()) {
+        throw InvalidArgumentException.fromMessage("The idleKvConnectionTimeout must not be null or negative");
+      }
+      this.idleKvConnectionTimeout = idleKvConnectionTimeout;
+      return this;
+    }
+
+    /**
+     * Keeps every key-value request pinned to the connection of its partition.
+     * <p>
+     * Enable this if the application relies on the order of concurrently dispatched operations against the same
+     * document. Since partitions are mapped to connections based on the size of the pool, this also keeps the pool
+     * fixed at {@link #numKvConnections(int)}, and {@link #maxKvConnections(int)} is ignored.
+     *
+     * @param kvPartitionAffinity true if requests should always be pinned to their partition's connection.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder kvPartitionAffinity(boolean kvPartitionAffinity) {
+      this.kvPartitionAffinity = kvPartitionAffinity;
+      return this;
+    }
+
+    /**
+     * Configures how many rows of a streaming query, analytics, search or view response are buffered.
+     * <p>
+     * Once the rows which have been read but not yet consumed reach one of the high watermarks, reading from the
+     * socket is paused until they are back at the low watermarks. By default, up to 4MiB are buffered per response.
+     *
+     * @param rowPrefetchConfig the watermarks to use.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder rowPrefetchConfig(final RowPrefetchConfig.Builder rowPrefetchConfig) {
+      this.rowPrefetchConfig = notNull(rowPrefetchConfig, "RowPrefetchConfig");
+      return this;
+    }
+
+    public RowPrefetchConfig.Builder rowPrefetchConfig() {
+      return rowPrefetchConfig;
+    }
+
+    /**
+     * Configures which services are asked for compressed (gzip or deflate) responses.
+     * <p>
+     * Compressed responses are decompressed as they are read, so rows are still streamed. This reduces the traffic
+     * of large query, analytics and search results at the cost of some CPU. Disabled by default.
+     *
+     * @param httpCompressionConfig the services and minimum size to use.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder httpCompressionConfig(final HttpCompressionConfig.Builder httpCompressionConfig) {
+      this.httpCompressionConfig = notNull(httpCompressionConfig, "HttpCompressionConfig");
+      return this;
+    }
+
+    public HttpCompressionConfig.Builder httpCompressionConfig() {
+      return httpCompressionConfig;
+    }
+
+    /**
+     * Loads the full collection manifest of a bucket when it is opened and resolves all collection IDs at once.
+     * <p>
+     * Without it, the ID of each collection is looked up the first time an operation targets it, which delays the
+     * first operations against many different collections. Defaults to false.
+     *
+     * @param prefetchCollectionManifest true if the manifest should be loaded when the bucket is opened.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder prefetchCollectionManifest(boolean prefetchCollectionManifest) {
+      this.prefetchCollectionManifest = prefetchCollectionManifest;
+      return this;
+    }
+
     public Builder maxHttpConnections(int maxHttpConnections) {
       this.maxHttpConnections = maxHttpConnections;
       return this;
@@ -462,5 +719,51 @@ public class IoConfig {
       this.configIdleRedialTimeout = configIdleRedialTimeout;
       return this;
     }
+
+    /**
+     * Customizes the interval at which event loop lag and per-endpoint IO metrics are sampled.
+     * <p>
+     * Every interval, a probe task is submitted to each event loop to measure how long it takes until it
+     * gets executed, and the outbound bytes pending as well as the in-flight requests are sampled for every
+     * connected endpoint. All values are recorded on the configured {@link com.couchbase.client.core.cnc.Meter}.
+     * Note that no sampling is performed if the meter is not enabled.
+     *
+     * @param ioMetricsInterval the sample interval, {@link Duration#ZERO} disables sampling.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder ioMetricsInterval(final Duration ioMetricsInterval) {
+      if (ioMetricsInterval == null || ioMetricsInterval.isNegative()) {
+        throw InvalidArgumentException.fromMessage("The ioMetricsInterval must not be null or negative");
+      }
+      this.ioMetricsInterval = ioMetricsInterval;
+      return this;
+    }
+
+    /**
+     * Customizes how requests are spread across the nodes (and the endpoints in each node) of an HTTP-based service.
+     * <p>
+     * By default, {@link LoadBalancingStrategy#ROUND_ROBIN} is used which does not consider the load. With
+     * {@link LoadBalancingStrategy#LEAST_OUTSTANDING} or {@link LoadBalancingStrategy#POWER_OF_TWO_CHOICES}, the
+     * outstanding requests and a decaying latency estimate are tracked per node and per endpoint, so that a slow
+     * node receives less traffic instead of building up a queue.
+     * <p>
+     * Key-value requests are always routed to the node which hosts the partition, and manager requests are not
+     * latency sensitive, so only query, analytics, search and views can be configured.
+     *
+     * @param serviceType the service to configure.
+     * @param strategy the load balancing strategy to use.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder loadBalancingStrategy(final ServiceType serviceType, final LoadBalancingStrategy strategy) {
+      if (serviceType == null || strategy == null) {
+        throw InvalidArgumentException.fromMessage("The serviceType and the strategy must not be null");
+      }
+      if (serviceType == ServiceType.KV || serviceType == ServiceType.MANAGER) {
+        throw InvalidArgumentException.fromMessage("The load balancing strategy cannot be customized for "
+          + serviceType);
+      }
+      this.loadBalancingStrategies.put(serviceType, strategy);
+      return this;
+    }
   }
 }
@@ -360,6 +360,38 @@ public class IoEnvironment {
     return viewEventLoopGroup;
   }
 
+  /**
+   * Returns all distinct {@link EventLoopGroup EventLoopGroups} of this environment.
+   * <p>
+   * Since the same group might be used for different types of traffic (i.e. all HTTP services share one group
+   * by default), each group is only contained once and keyed by the first type of traffic it has been
+   * found for.
+   *
+   * @return the distinct event loop groups, keyed by traffic type.
+   */
+  @Stability.Internal
+  public Map<String, EventLoopGroup> eventLoopGroups() {
+    final Map<String, EventLoopGroup> groups = new LinkedHashMap<>();
+    addDistinctGroup(groups, "manager", managerEventLoopGroup);
+    addDistinctGroup(groups, "kv", kvEventLoopGroup);
+    addDistinctGroup(groups, "query", queryEventLoopGroup);
+    addDistinctGroup(groups, "analytics", analyticsEventLoopGroup);
+    addDistinctGroup(groups, "search", searchEventLoopGroup);
+    addDistinctGroup(groups, "views", viewEventLoopGroup);
+    return groups;
+  }
+
+  private static void addDistinctGroup(final Map<String, EventLoopGroup> groups, final String name,
+                                       final Supplier<EventLoopGroup> group) {
+    final EventLoopGroup candidate = group.get();
+    for (EventLoopGroup existing : groups.values()) {
+      if (existing == candidate) {
+        return;
+      }
+    }
+    groups.put(name, candidate);
+  }
+
   /**
    * Returns true if native IO is enabled and can be used if supported.
    *
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Allows configuring how many rows of a streaming (query, analytics, search or view) response are buffered.
+ * <p>
+ * Rows which have been read from the socket but not yet consumed by the subscriber are buffered in memory. Once
+ * either the buffered bytes or the buffered rows reach their high watermark, reading from the socket is paused until
+ * both are back at or below their low watermark. As a result, the memory held by one open streaming response is
+ * bounded by the high watermark plus the rows decoded from a single socket read.
+ * <p>
+ * If spooling to disk is enabled, reading is not paused at the high watermark. Instead, further rows are appended to
+ * a memory-mapped temporary file and handed to the subscriber in order once the buffered rows are back at the low
+ * watermarks. This allows the response to be read at full speed, releasing the connection (and the server side
+ * resources) early even if the subscriber is slow, at the cost of disk space. The file is deleted once the subscriber
+ * has consumed all rows or cancelled.
+ */
+@Stability.Volatile
+public class RowPrefetchConfig {
+
+  public static final long DEFAULT_HIGH_WATERMARK_BYTES = 4 * 1024 * 1024;
+  public static final long DEFAULT_LOW_WATERMARK_BYTES = 1024 * 1024;
+  public static final int DEFAULT_HIGH_WATERMARK_ROWS = 0;
+  public static final int DEFAULT_LOW_WATERMARK_ROWS = 0;
+  public static final boolean DEFAULT_SPOOL_TO_DISK = false;
+
+  private final long highWatermarkBytes;
+  private final long lowWatermarkBytes;
+  private final int highWatermarkRows;
+  private final int lowWatermarkRows;
+  private final boolean spoolToDisk;
+  private final Path spoolDirectory;
+
+  /**
+   * Creates a new builder to customize the configuration properties.
+   *
+   * @return a {@link Builder} to customize.
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Creates a config with all the default values.
+   */
+  public static RowPrefetchConfig create() {
+    return builder().build();
+  }
+
+  public static Builder bytes(final long lowWatermark, final long highWatermark) {
+    return builder().bytes(lowWatermark, highWatermark);
+  }
+
+  public static Builder rows(final int lowWatermark, final int highWatermark) {
+    return builder().rows(lowWatermark, highWatermark);
+  }
+
+  public static Builder spoolToDisk(final boolean spoolToDisk) {
+    return builder().spoolToDisk(spoolToDisk);
+  }
+
+  public static Builder spoolDirectory(final Path spoolDirectory) {
+    return builder().spoolDirectory(spoolDirectory);
+  }
+
+  private RowPrefetchConfig(final Builder builder) {
+    this.highWatermarkBytes = builder.highWatermarkBytes;
+    this.lowWatermarkBytes = builder.lowWatermarkBytes;
+    this.highWatermarkRows = builder.highWatermarkRows;
+    this.lowWatermarkRows = builder.lowWatermarkRows;
+    this.spoolToDisk = builder.spoolToDisk;
+    this.spoolDirectory = builder.spoolDirectory;
+  }
+
+  /**
+   * Returns the buffered bytes at which reading is paused (0 if not bounded by bytes).
+   */
+  public long highWatermarkBytes() {
+    return highWatermarkBytes;
+  }
+
+  /**
+   * Returns the buffered bytes at or below which reading is resumed.
+   */
+  public long lowWatermarkBytes() {
+    return lowWatermarkBytes;
+  }
+
+  /**
+   * Returns the buffered rows at which reading is paused (0 if not bounded by rows).
+   */
+  public int highWatermarkRows() {
+    return highWatermarkRows;
+  }
+
+  /**
+   * Returns the buffered rows at or below which reading is resumed.
+   */
+  public int lowWatermarkRows() {
+    return lowWatermarkRows;
+  }
+
+  /**
+   * Returns true if rows above the high watermarks are spooled to disk instead of pausing reads.
+   */
+  public boolean spoolToDisk() {
+    return spoolToDisk;
+  }
+
+  /**
+   * Returns the directory of the spool files, or null if the default temporary-file directory is used.
+   */
+  public Path spoolDirectory() {
+    return spoolDirectory;
+  }
+
+  @Stability.Volatile
+  public Map<String, Object> exportAsMap() {
+    Map<String, Object> export = new LinkedHashMap<>();
+    export.put("highWatermarkBytes", highWatermarkBytes);
+    export.put("lowWatermarkBytes", lowWatermarkBytes);
+    export.put("highWatermarkRows", highWatermarkRows);
+    export.put("lowWatermarkRows", lowWatermarkRows);
+    export.put("spoolToDisk", spoolToDisk);
+    if (spoolDirectory != null) {
+      export.put("spoolDirectory", spoolDirectory.toString());
+    }
+    return export;
+  }
+
+  public static class Builder {
+
+    private long highWatermarkBytes = DEFAULT_HIGH_WATERMARK_BYTES;
+    private long lowWatermarkBytes = DEFAULT_LOW_WATERMARK_BYTES;
+    private int highWatermarkRows = DEFAULT_HIGH_WATERMARK_ROWS;
+    private int lowWatermarkRows = DEFAULT_LOW_WATERMARK_ROWS;
+    private boolean spoolToDisk = DEFAULT_SPOOL_TO_DISK;
+    private Path spoolDirectory;
+
+    /**
+     * Bounds the buffered rows by their size in bytes.
+     *
+     * @param lowWatermark the buffered bytes at or below which reading is resumed.
+     * @param highWatermark the buffered bytes at which reading is paused, 0 to not bound by bytes.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder bytes(final long lowWatermark, final long highWatermark) {
+      checkWatermarks(lowWatermark, highWatermark);
+      this.lowWatermarkBytes = lowWatermark;
+      this.highWatermarkBytes = highWatermark;
+      return this;
+    }
+
+    /**
+     * Bounds the buffered rows by their number.
+     *
+     * @param lowWatermark the buffered rows at or below which reading is resumed.
+     * @param highWatermark the buffered rows at which reading is paused, 0 to not bound by rows.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder rows(final int lowWatermark, final int highWatermark) {
+      checkWatermarks(lowWatermark, highWatermark);
+      this.lowWatermarkRows = lowWatermark;
+      this.highWatermarkRows = highWatermark;
+      return this;
+    }
+
+    /**
+     * Enables or disables spooling rows above the high watermarks to a temporary file instead of pausing reads.
+     * <p>
+     * This is useful for very large results consumed slower than they are read, since it frees the connection as
+     * soon as the response has been received. The rows are still handed to the subscriber with backpressure and
+     * in order. Disabled by default.
+     *
+     * @param spoolToDisk true to spool rows to disk.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder spoolToDisk(final boolean spoolToDisk) {
+      this.spoolToDisk = spoolToDisk;
+      return this;
+    }
+
+    /**
+     * Sets the directory in which the spool files are created (the default temporary-file directory if not set).
+     *
+     * @param spoolDirectory the directory for spool files, or null to use the default.
+     * @return this {@link Builder} for chaining purposes.
+     */
+    public Builder spoolDirectory(final Path spoolDirectory) {
+      this.spoolDirectory = spoolDirectory;
+      return this;
+    }
+
+    private static void checkWatermarks(final long lowWatermark, final long highWatermark) {
+      if (lowWatermark < 0 || highWatermark < 0) {
+        throw InvalidArgumentException.fromMessage("Watermarks must not be negative");
+      }
+      if (highWatermark > 0 && lowWatermark >= highWatermark) {
+        throw InvalidArgumentException.fromMessage("The low watermark (" + lowWatermark
+          + ") must be smaller than the high watermark (" + highWatermark + ")");
+      }
+    }
+
+    public RowPrefetchConfig build() {
+      return new RowPrefetchConfig(this);
+    }
+  }
+
+}
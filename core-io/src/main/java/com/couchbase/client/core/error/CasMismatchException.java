@@ -36,4 +36,8 @@ public class CasMismatchException extends CouchbaseException {
     super("Document has been concurrently modified on the server", ctx);
   }
 
+  CasMismatchException(final ErrorContext ctx, final boolean writableStackTrace) {
+    super("Document has been concurrently modified on the server", ctx, writableStackTrace);
+  }
+
 }
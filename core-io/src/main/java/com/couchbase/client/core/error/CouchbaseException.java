@@ -55,6 +55,19 @@ public class CouchbaseException extends RuntimeException {
     this.ctx = ctx;
   }
 
+  /**
+   * Creates an exception which skips filling in its stack trace if {@code writableStackTrace} is false.
+   *
+   * @param message the message of the exception.
+   * @param ctx the error context, if available.
+   * @param writableStackTrace false if the stack trace should not be filled in.
+   */
+  @Stability.Internal
+  protected CouchbaseException(final String message, final ErrorContext ctx, final boolean writableStackTrace) {
+    super(message, null, true, writableStackTrace);
+    this.ctx = ctx;
+  }
+
   public CouchbaseException(final String message, final Throwable cause) {
     this(message, cause, null);
   }
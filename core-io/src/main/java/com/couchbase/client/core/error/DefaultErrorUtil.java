@@ -17,6 +17,7 @@
 package com.couchbase.client.core.error;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.context.KeyValueErrorContext;
 import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.msg.kv.KeyValueRequest;
@@ -29,6 +30,9 @@ public class DefaultErrorUtil {
 
     /**
      * Maps common KV response status codes to their corresponding user-level exceptions.
+     * <p>
+     * If {@link CoreEnvironment#stacklessKeyValueErrors()} is enabled, the exceptions are created without filling
+     * in their stack trace.
      *
      * @param request the kv request.
      * @param response th response of the kv request.
@@ -37,24 +41,27 @@ public class DefaultErrorUtil {
     public static CouchbaseException keyValueStatusToException(final KeyValueRequest<? extends Response> request,
                                                                final Response response) {
         final KeyValueErrorContext ctx = KeyValueErrorContext.completedRequest(request, response.status());
+        final CoreEnvironment env = request.context().environment();
+        final boolean stackTrace = env == null || !env.stacklessKeyValueErrors();
         switch (response.status()) {
-            case DURABILITY_INVALID_LEVEL: return new DurabilityLevelNotAvailableException(ctx);
-            case DURABILITY_IMPOSSIBLE: return new DurabilityImpossibleException(ctx);
-            case EXISTS: return new CasMismatchException(ctx);
-            case LOCKED: return new DocumentLockedException(ctx);
-            case NOT_FOUND: return new DocumentNotFoundException(ctx);
-            case NOT_STORED: return new DocumentNotFoundException(ctx);
-            case OUT_OF_MEMORY: return new ServerOutOfMemoryException(ctx);
-            case SERVER_BUSY: return new TemporaryFailureException(ctx);
-            case SYNC_WRITE_AMBIGUOUS: return new DurabilityAmbiguousException(ctx);
-            case SYNC_WRITE_IN_PROGRESS: return new DurableWriteInProgressException(ctx);
-            case SYNC_WRITE_RE_COMMIT_IN_PROGRESS: return new DurableWriteReCommitInProgressException(ctx);
-            case TEMPORARY_FAILURE: return new TemporaryFailureException(ctx);
-            case TOO_BIG: return new ValueTooLargeException(ctx);
-            case INTERNAL_SERVER_ERROR: return new InternalServerFailureException(ctx);
+            case DURABILITY_INVALID_LEVEL: return new DurabilityLevelNotAvailableException(ctx, stackTrace);
+            case DURABILITY_IMPOSSIBLE: return new DurabilityImpossibleException(ctx, stackTrace);
+            case EXISTS: return new CasMismatchException(ctx, stackTrace);
+            case LOCKED: return new DocumentLockedException(ctx, stackTrace);
+            case NOT_FOUND: return new DocumentNotFoundException(ctx, stackTrace);
+            case NOT_STORED: return new DocumentNotFoundException(ctx, stackTrace);
+            case OUT_OF_MEMORY: return new ServerOutOfMemoryException(ctx, stackTrace);
+            case SERVER_BUSY: return new TemporaryFailureException(ctx, stackTrace);
+            case SYNC_WRITE_AMBIGUOUS: return new DurabilityAmbiguousException(ctx, stackTrace);
+            case SYNC_WRITE_IN_PROGRESS: return new DurableWriteInProgressException(ctx, stackTrace);
+            case SYNC_WRITE_RE_COMMIT_IN_PROGRESS: return new DurableWriteReCommitInProgressException(ctx, stackTrace);
+            case TEMPORARY_FAILURE: return new TemporaryFailureException(ctx, stackTrace);
+            case TOO_BIG: return new ValueTooLargeException(ctx, stackTrace);
+            case INTERNAL_SERVER_ERROR: return new InternalServerFailureException(ctx, stackTrace);
             default: return new CouchbaseException(
               request.getClass().getSimpleName() + " failed with unexpected status code " + response.status(),
-              ctx
+              ctx,
+              stackTrace
             );
         }
     }
@@ -34,4 +34,8 @@ public class DocumentLockedException extends CouchbaseException {
     super("Server indicates the document is (already) locked", ctx);
   }
 
+  DocumentLockedException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+    super("Server indicates the document is (already) locked", ctx, writableStackTrace);
+  }
+
 }
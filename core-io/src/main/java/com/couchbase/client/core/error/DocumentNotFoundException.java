@@ -28,4 +28,8 @@ public class DocumentNotFoundException extends CouchbaseException {
     super("Document with the given id not found", ctx);
   }
 
+  DocumentNotFoundException(final ErrorContext ctx, final boolean writableStackTrace) {
+    super("Document with the given id not found", ctx, writableStackTrace);
+  }
+
 }
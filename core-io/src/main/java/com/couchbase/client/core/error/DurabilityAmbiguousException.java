@@ -28,4 +28,8 @@ public class DurabilityAmbiguousException extends CouchbaseException {
     public DurabilityAmbiguousException(final KeyValueErrorContext ctx) {
         super("The server returned with a durability ambiguous response on this request", ctx);
     }
+
+    DurabilityAmbiguousException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+        super("The server returned with a durability ambiguous response on this request", ctx, writableStackTrace);
+    }
 }
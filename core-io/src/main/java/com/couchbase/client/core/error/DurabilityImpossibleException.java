@@ -29,4 +29,12 @@ public class DurabilityImpossibleException extends CouchbaseException {
     public DurabilityImpossibleException(final KeyValueErrorContext ctx) {
         super("With the current cluster configuration, the requested durability guarantees are impossible", ctx);
     }
+
+    DurabilityImpossibleException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+        super(
+            "With the current cluster configuration, the requested durability guarantees are impossible",
+            ctx,
+            writableStackTrace
+        );
+    }
 }
@@ -29,4 +29,8 @@ public class DurabilityLevelNotAvailableException extends CouchbaseException {
     super("Durability level is not supported by this version of the server", ctx);
   }
 
+  DurabilityLevelNotAvailableException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+    super("Durability level is not supported by this version of the server", ctx, writableStackTrace);
+  }
+
 }
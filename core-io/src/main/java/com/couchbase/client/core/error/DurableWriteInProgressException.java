@@ -29,4 +29,12 @@ public class DurableWriteInProgressException extends CouchbaseException {
         super("The server cannot serve the request document because a durable write is in progress", ctx);
     }
 
+    DurableWriteInProgressException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+        super(
+            "The server cannot serve the request document because a durable write is in progress",
+            ctx,
+            writableStackTrace
+        );
+    }
+
 }
@@ -28,4 +28,12 @@ public class DurableWriteReCommitInProgressException extends CouchbaseException
         super("The server cannot serve the request document because a durable write re-commit is in progress", ctx);
     }
 
+    DurableWriteReCommitInProgressException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+        super(
+            "The server cannot serve the request document because a durable write re-commit is in progress",
+            ctx,
+            writableStackTrace
+        );
+    }
+
 }
@@ -28,4 +28,8 @@ public class InternalServerFailureException extends CouchbaseException {
     super("Internal Couchbase Server error", ctx);
   }
 
+  InternalServerFailureException(final ErrorContext ctx, final boolean writableStackTrace) {
+    super("Internal Couchbase Server error", ctx, writableStackTrace);
+  }
+
 }
@@ -29,4 +29,8 @@ public class ServerOutOfMemoryException extends CouchbaseException {
         super("The server is currently out of memory and cannot service the request", ctx);
     }
 
+    ServerOutOfMemoryException(final KeyValueErrorContext ctx, final boolean writableStackTrace) {
+        super("The server is currently out of memory and cannot service the request", ctx, writableStackTrace);
+    }
+
 }
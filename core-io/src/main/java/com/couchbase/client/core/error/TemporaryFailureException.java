@@ -31,4 +31,8 @@ public class TemporaryFailureException extends CouchbaseException {
         super("The document is temporarily not accessible on the server", ctx);
     }
 
+    TemporaryFailureException(final ErrorContext ctx, final boolean writableStackTrace) {
+        super("The document is temporarily not accessible on the server", ctx, writableStackTrace);
+    }
+
 }
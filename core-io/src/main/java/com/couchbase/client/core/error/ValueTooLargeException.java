@@ -28,4 +28,8 @@ public class ValueTooLargeException extends CouchbaseException {
     super("The document value is too large to be stored", ctx);
   }
 
+  ValueTooLargeException(final ErrorContext ctx, final boolean writableStackTrace) {
+    super("The document value is too large to be stored", ctx, writableStackTrace);
+  }
+
 }
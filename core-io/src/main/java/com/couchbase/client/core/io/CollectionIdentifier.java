@@ -37,6 +37,11 @@ public class CollectionIdentifier {
   private final Optional<String> scope;
   private final Optional<String> collection;
 
+  /**
+   * The encoded ID last resolved for this identifier, see {@link CollectionMap#get(CollectionIdentifier)}.
+   */
+  private volatile EncodedId encodedId;
+
   public static CollectionIdentifier fromDefault(String bucket) {
     return new CollectionIdentifier(bucket, Optional.of(DEFAULT_SCOPE), Optional.of(DEFAULT_COLLECTION));
   }
@@ -68,6 +73,14 @@ public class CollectionIdentifier {
     return isDefault;
   }
 
+  EncodedId encodedId() {
+    return encodedId;
+  }
+
+  void encodedId(final EncodedId encodedId) {
+    this.encodedId = encodedId;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) return true;
@@ -92,4 +105,21 @@ public class CollectionIdentifier {
       ", isDefault=" + redactMeta(isDefault) +
       '}';
   }
+
+  /**
+   * An encoded collection ID together with the map and the epoch of the map it was read at.
+   */
+  static class EncodedId {
+
+    final CollectionMap map;
+    final long epoch;
+    final byte[] id;
+
+    EncodedId(final CollectionMap map, final long epoch, final byte[] id) {
+      this.map = map;
+      this.epoch = epoch;
+      this.id = id;
+    }
+  }
+
 }
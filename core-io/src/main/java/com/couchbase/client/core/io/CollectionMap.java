@@ -18,10 +18,16 @@ package com.couchbase.client.core.io;
 
 import com.couchbase.client.core.util.UnsignedLEB128;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The {@link CollectionMap} maps a locator to the encoded collection ID representation.
+ * <p>
+ * Every change to the map bumps its epoch. The last ID looked up for an identifier is cached on the identifier
+ * itself together with the epoch it was read at, so as long as the map does not change, encoding a request for the
+ * same collection handle does not need to go through the map.
  */
 public class CollectionMap {
 
@@ -35,6 +41,11 @@ public class CollectionMap {
    */
   private static final byte[] DEFAULT_ID = UnsignedLEB128.encode(0);
 
+  /**
+   * Incremented after every change to the inner map.
+   */
+  private final AtomicLong epoch = new AtomicLong();
+
   /**
    * Retrieves the collection id for the given identifier.
    *
@@ -47,7 +58,18 @@ public class CollectionMap {
     if (key.isDefault()) {
       return DEFAULT_ID;
     }
-    return inner.get(key);
+
+    // The epoch is read before the map, so a concurrent put always invalidates what is cached here.
+    final long current = epoch.get();
+    final CollectionIdentifier.EncodedId cached = key.encodedId();
+    if (cached != null && cached.map == this && cached.epoch == current) {
+      return cached.id;
+    }
+    final byte[] id = inner.get(key);
+    if (id != null) {
+      key.encodedId(new CollectionIdentifier.EncodedId(this, current, id));
+    }
+    return id;
   }
 
   /**
@@ -58,6 +80,24 @@ public class CollectionMap {
    */
   public void put(final CollectionIdentifier key, byte[] value) {
     inner.put(key, value);
+    epoch.incrementAndGet();
+  }
+
+  /**
+   * Stores all the given collection IDs and bumps the epoch only once.
+   *
+   * @param ids the identifiers and their encoded IDs to store.
+   */
+  public void putAll(final Map<CollectionIdentifier, byte[]> ids) {
+    inner.putAll(ids);
+    epoch.incrementAndGet();
+  }
+
+  /**
+   * Returns the current epoch of this map, which changes whenever an ID is added or replaced.
+   */
+  public long epoch() {
+    return epoch.get();
   }
 
   /**
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty;
+
+import com.couchbase.client.core.deps.io.netty.channel.ChannelDuplexHandler;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelPromise;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpContentDecompressor;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderNames;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderValues;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpRequest;
+
+/**
+ * Asks for compressed responses and decompresses them before they reach the message handlers.
+ * <p>
+ * When added to the pipeline, this handler also adds a {@link HttpContentDecompressor} in front of it, which inflates
+ * each chunk as it is read. The message handlers therefore see the decompressed content in the same chunked form as
+ * before and can keep streaming rows out of it.
+ * <p>
+ * Every request advertises {@code Accept-Encoding: gzip, deflate}, so whether a response is compressed only depends
+ * on the request and the server, not on what has been read on the same pooled connection before.
+ */
+public class HttpCompressionHandler extends ChannelDuplexHandler {
+
+  /**
+   * Identifier of the decompressor added in front of this handler.
+   */
+  public static final String DECOMPRESSOR_IDENTIFIER = HttpContentDecompressor.class.getSimpleName();
+
+  @Override
+  public void handlerAdded(final ChannelHandlerContext ctx) {
+    ctx.pipeline().addBefore(ctx.name(), DECOMPRESSOR_IDENTIFIER, new HttpContentDecompressor());
+  }
+
+  @Override
+  public void handlerRemoved(final ChannelHandlerContext ctx) {
+    ctx.pipeline().remove(DECOMPRESSOR_IDENTIFIER);
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise) {
+    if (msg instanceof HttpRequest) {
+      ((HttpRequest) msg).headers().set(HttpHeaderNames.ACCEPT_ENCODING, HttpHeaderValues.GZIP_DEFLATE);
+    }
+    ctx.write(msg, promise);
+  }
+
+}
@@ -39,6 +39,7 @@ import com.couchbase.client.core.io.netty.chunk.ChunkedMessageHandler;
 import com.couchbase.client.core.io.netty.kv.ChannelAttributes;
 import com.couchbase.client.core.msg.NonChunkedHttpRequest;
 import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestStage;
 import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.retry.RetryOrchestrator;
@@ -220,7 +221,11 @@ public abstract class NonChunkedHttpMessageHandler extends ChannelDuplexHandler
     try {
       if (msg instanceof FullHttpResponse) {
         try {
-          currentRequest.context().dispatchLatency(System.nanoTime() - dispatchTimingStart);
+          long dispatchLatency = System.nanoTime() - dispatchTimingStart;
+          currentRequest.context()
+            .markStage(RequestStage.RESPONSE_READ)
+            .dispatchLatency(dispatchLatency);
+          endpoint.recordLatency(dispatchLatency);
           if (currentDispatchSpan != null) {
             currentDispatchSpan.end();
           }
@@ -229,6 +234,7 @@ public abstract class NonChunkedHttpMessageHandler extends ChannelDuplexHandler
             if (!currentRequest.completed()) {
               if (responseStatus == ResponseStatus.SUCCESS) {
                 Response response = currentRequest.decode(httpResponse, channelContext);
+                currentRequest.context().markStage(RequestStage.DECODED);
                 currentRequest.succeed(response);
               } else {
                 String body = httpResponse.content().toString(StandardCharsets.UTF_8);
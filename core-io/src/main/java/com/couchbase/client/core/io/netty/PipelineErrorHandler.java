@@ -59,6 +59,12 @@ public class PipelineErrorHandler extends ChannelInboundHandlerAdapter {
     }
   }
 
+  @Override
+  public void channelWritabilityChanged(final ChannelHandlerContext ctx) {
+    endpoint.notifyChannelWritabilityChanged(ctx.channel().isWritable());
+    ctx.fireChannelWritabilityChanged();
+  }
+
   @Override
   public void channelInactive(ChannelHandlerContext ctx) {
     endpoint.notifyChannelInactive();
@@ -90,6 +90,11 @@ public class AnalyticsChunkResponseParser
     return parserBuilder;
   }
 
+  @Override
+  protected AnalyticsChunkRow rowFromSpool(final byte[] data) {
+    return new AnalyticsChunkRow(data);
+  }
+
   @Override
   public Optional<AnalyticsChunkHeader> header(boolean lastChunk) {
     return isHeaderComplete()
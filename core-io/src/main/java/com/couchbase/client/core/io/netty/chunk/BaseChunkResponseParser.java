@@ -16,10 +16,16 @@
 
 package com.couchbase.client.core.io.netty.chunk;
 
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelConfig;
 import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponse;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.RowPrefetchConfig;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.DecodingFailureException;
 import com.couchbase.client.core.json.stream.CopyingStreamWindow;
@@ -35,15 +41,34 @@ import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * Provides a common, abstract implementation of the {@link ChunkResponseParser} interface.
+ * <p>
+ * Rows which have been parsed but not yet consumed by the subscriber are tracked by count and size. Once one of the
+ * high watermarks of the {@link RowPrefetchConfig} is reached, auto-read is paused on the channel until the buffered
+ * rows are back at the low watermarks. The peak number of buffered rows and bytes of every response is recorded on
+ * the {@code cb.response.buffered_rows} and {@code cb.response.buffered_bytes} value recorders.
+ * <p>
+ * If spooling is enabled, rows above the high watermarks are written to a {@link RowSpool} instead of pausing
+ * auto-read and are emitted in order once the subscriber has consumed the buffered rows down to the low watermarks.
+ * Completion (or failure) of the rows is deferred until the spool has been drained.
  */
 public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends ChunkRow,
   T extends ChunkTrailer> implements ChunkResponseParser<H, ROW, T> {
 
+  public static final String METRIC_BUFFERED_ROWS = "cb.response.buffered_rows";
+  public static final String METRIC_BUFFERED_BYTES = "cb.response.buffered_bytes";
+
   /**
    * Holds the current stream parser created by the child.
    */
@@ -85,15 +110,32 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
   private FluxSink<ROW> rowSink;
 
   /**
-   * Holds the currently user-requested rows for backpressure handling.
+   * The rows flux handed out to the subscriber, which marks the rows as consumed.
+   */
+  private Flux<ROW> trackedRows;
+
+  /**
+   * Tracks the buffered rows of the current response.
    */
-  private final AtomicLong requested = new AtomicLong(0);
+  private RowBuffer<ROW> rowBuffer;
+
+  /**
+   * Lazily created value recorders for the buffered rows and bytes (null if not initialized or disabled).
+   */
+  private ValueRecorder bufferedRowsRecorder;
+  private ValueRecorder bufferedBytesRecorder;
+  private boolean recordersInitialized;
 
   /**
    * Subclass implements this to return the "meat" of the decoding, the chunk parser.
    */
   protected abstract JsonStreamParser.Builder parserBuilder();
 
+  /**
+   * Subclass implements this to recreate a row from its raw data after it has been spooled.
+   */
+  protected abstract ROW rowFromSpool(byte[] data);
+
   private volatile RequestContext requestContext;
 
   private volatile HttpResponse responseHeader;
@@ -102,6 +144,11 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
     if (parser != null) {
       parser.close();
     }
+    if (rowBuffer != null) {
+      rowBuffer.detach();
+      recordBufferPeaks(rowBuffer);
+      rowBuffer = null;
+    }
     parser = null;
     decodingFailure = null;
     headerComplete = false;
@@ -170,22 +217,77 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
     parser = parserBuilder().build(scratchBuffer, new CopyingStreamWindow(channelConfig.getAllocator()));
     this.channelConfig = channelConfig;
     this.trailer = MonoProcessor.create();
-    this.requested.set(0);
+    final RowBuffer<ROW> buffer = new RowBuffer<>(channelConfig, prefetchConfig(), this::rowFromSpool);
+    this.rowBuffer = buffer;
     this.rows = EmitterProcessor.create();
     this.rowSink = this.rows
       .sink(FluxSink.OverflowStrategy.BUFFER)
-      .onRequest(v -> {
-        requested.addAndGet(v);
-        if (!channelConfig.isAutoRead()) {
-          channelConfig.setAutoRead(true);
-        }
-      })
-      .onDispose(() -> channelConfig.setAutoRead(true));
+      .onDispose(buffer::dispose);
+    buffer.sink = this.rowSink;
+    this.trackedRows = this.rows.doOnNext(row -> buffer.consumed(row.data().length));
+  }
+
+  /**
+   * Returns the prefetch config from the environment of the current request, or the defaults if not available.
+   */
+  private RowPrefetchConfig prefetchConfig() {
+    RequestContext ctx = requestContext;
+    CoreEnvironment env = ctx == null ? null : ctx.environment();
+    return env == null ? RowPrefetchConfig.create() : env.ioConfig().rowPrefetchConfig();
+  }
+
+  /**
+   * Records the peak buffered rows and bytes of a finished response.
+   */
+  private void recordBufferPeaks(final RowBuffer<ROW> buffer) {
+    if (!recordersInitialized) {
+      recordersInitialized = true;
+      RequestContext ctx = requestContext;
+      CoreEnvironment env = ctx == null ? null : ctx.environment();
+      Meter meter = env == null ? null : env.meter();
+      if (meter != null && !(meter instanceof NoopMeter)) {
+        Map<String, String> tags = new HashMap<>(2);
+        tags.put("cb.service", ctx.request().serviceType().ident());
+        bufferedRowsRecorder = meter.valueRecorder(METRIC_BUFFERED_ROWS, tags);
+        bufferedBytesRecorder = meter.valueRecorder(METRIC_BUFFERED_BYTES, tags);
+      }
+    }
+    if (bufferedRowsRecorder != null && buffer.peakRows > 0) {
+      bufferedRowsRecorder.recordValue(buffer.peakRows);
+      bufferedBytesRecorder.recordValue(buffer.peakBytes);
+    }
   }
 
   @Override
   public Flux<ROW> rows() {
-    return rows;
+    return trackedRows;
+  }
+
+  /**
+   * Returns the number of rows of the current response which are parsed but not yet consumed.
+   */
+  @Stability.Internal
+  public int bufferedRows() {
+    RowBuffer<ROW> buffer = rowBuffer;
+    return buffer == null ? 0 : buffer.rows.get();
+  }
+
+  /**
+   * Returns the size in bytes of the rows of the current response which are parsed but not yet consumed.
+   */
+  @Stability.Internal
+  public long bufferedBytes() {
+    RowBuffer<ROW> buffer = rowBuffer;
+    return buffer == null ? 0 : buffer.bytes.get();
+  }
+
+  /**
+   * Returns the number of rows of the current response which are spooled to disk.
+   */
+  @Stability.Internal
+  public int spooledRows() {
+    RowBuffer<ROW> buffer = rowBuffer;
+    return buffer == null ? 0 : buffer.spooledRows();
   }
 
   @Override
@@ -226,16 +328,21 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
    * Emits a single row into the rows flux.
    *
    * <p>Note that this method also handles the backpressure stalling side. If we find that someone
-   * is subscribed to this flux but has not requested any further rows, the channel auto-read
-   * is going to be paused until further rows are requested or the subscriber unsubscribes.</p>
+   * is subscribed to this flux but has not consumed enough rows to stay below the high watermarks,
+   * the channel auto-read is going to be paused until the buffered rows are back at the low watermarks
+   * or the subscriber unsubscribes. If spooling is enabled, the row is spooled instead.</p>
    *
    * @param row the row to emit.
    */
   protected void emitRow(final ROW row) {
+    if (rowBuffer.spoolEnabled) {
+      rowBuffer.emitOrSpool(row);
+      return;
+    }
+    rowBuffer.buffered(row.data().length);
     rowSink.next(row);
-    requested.decrementAndGet();
-    if (requested.get() <= 0 && channelConfig.isAutoRead() && rows.downstreamCount() > 0) {
-      channelConfig.setAutoRead(false);
+    if (rows.downstreamCount() > 0) {
+      rowBuffer.maybePause();
     }
   }
 
@@ -245,14 +352,14 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
    * @param t the throwable with which to fail the rows.
    */
   protected void failRows(Throwable t) {
-    rowSink.error(t);
+    rowBuffer.terminate(t);
   }
 
   /**
    * Completes the row flux.
    */
   protected void completeRows() {
-    rowSink.complete();
+    rowBuffer.terminate(null);
   }
 
   /**
@@ -272,4 +379,289 @@ public abstract class BaseChunkResponseParser<H extends ChunkHeader, ROW extends
     this.trailer.onComplete();
   }
 
+  /**
+   * Tracks the rows of a single response which have been emitted but not yet consumed, and pauses or resumes
+   * auto-read on the channel based on the configured watermarks (or spools the rows above them).
+   * <p>
+   * Rows are buffered on the event loop, but consumed on whatever thread the subscriber requests from. To not miss
+   * a resume, the event loop checks the low watermarks again after pausing. When spooling, the rows (and the
+   * terminal signal) are queued in order while holding the lock of the buffer, and emitted by one thread at a time
+   * after releasing it, so the subscriber is never called with the lock held.
+   */
+  private static class RowBuffer<R extends ChunkRow> {
+
+    private final ChannelConfig channelConfig;
+    private final long highWatermarkBytes;
+    private final long lowWatermarkBytes;
+    private final int highWatermarkRows;
+    private final int lowWatermarkRows;
+
+    final boolean spoolEnabled;
+    private final Path spoolDirectory;
+    private final Function<byte[], R> rowFromSpool;
+
+    FluxSink<R> sink;
+
+    final AtomicInteger rows = new AtomicInteger();
+    final AtomicLong bytes = new AtomicLong();
+
+    /**
+     * Peak values, only written from the event loop (or while holding the lock when spooling).
+     */
+    int peakRows;
+    long peakBytes;
+
+    /**
+     * Set once the response has been read completely or the subscriber went away.
+     */
+    private volatile boolean detached;
+
+    /**
+     * The spool, created on first use and closed once disposed (guarded by this).
+     */
+    private RowSpool spool;
+    private volatile int spooledRows;
+    private boolean disposed;
+
+    /**
+     * The deferred terminal signal while rows are still spooled, a null error for completion (guarded by this).
+     */
+    private boolean terminationPending;
+    private Throwable pendingError;
+
+    /**
+     * The rows (or raw data of spooled rows) ready to be emitted in order, followed by the terminal signal once
+     * terminated, and if a thread is currently emitting them (guarded by this).
+     */
+    private final ArrayDeque<Object> pending = new ArrayDeque<>();
+    private boolean emitting;
+    private boolean terminated;
+    private boolean signaled;
+    private Throwable terminalError;
+
+    RowBuffer(final ChannelConfig channelConfig, final RowPrefetchConfig config,
+              final Function<byte[], R> rowFromSpool) {
+      this.channelConfig = channelConfig;
+      this.highWatermarkBytes = config.highWatermarkBytes();
+      this.lowWatermarkBytes = config.lowWatermarkBytes();
+      this.highWatermarkRows = config.highWatermarkRows();
+      this.lowWatermarkRows = config.lowWatermarkRows();
+      this.spoolEnabled = config.spoolToDisk() && (highWatermarkBytes > 0 || highWatermarkRows > 0);
+      this.spoolDirectory = config.spoolDirectory();
+      this.rowFromSpool = rowFromSpool;
+    }
+
+    void buffered(final int size) {
+      int currentRows = rows.incrementAndGet();
+      long currentBytes = bytes.addAndGet(size);
+      if (currentRows > peakRows) {
+        peakRows = currentRows;
+      }
+      if (currentBytes > peakBytes) {
+        peakBytes = currentBytes;
+      }
+    }
+
+    void maybePause() {
+      if (detached || !channelConfig.isAutoRead() || !aboveHighWatermark()) {
+        return;
+      }
+      channelConfig.setAutoRead(false);
+      if (atOrBelowLowWatermark() || detached) {
+        channelConfig.setAutoRead(true);
+      }
+    }
+
+    void consumed(final int size) {
+      rows.decrementAndGet();
+      bytes.addAndGet(-size);
+      if (spoolEnabled) {
+        if (spooledRows > 0 && atOrBelowLowWatermark()) {
+          replay();
+        }
+      } else if (!detached && !channelConfig.isAutoRead() && atOrBelowLowWatermark()) {
+        channelConfig.setAutoRead(true);
+      }
+    }
+
+    /**
+     * Emits the row right away if nothing is spooled and the buffer is below the high watermarks, or spools it.
+     */
+    void emitOrSpool(final R row) {
+      synchronized (this) {
+        if (disposed || terminated) {
+          return;
+        }
+        if (spooledRows == 0 && !aboveHighWatermark()) {
+          buffered(row.data().length);
+          pending.add(row);
+        } else {
+          try {
+            if (spool == null) {
+              spool = RowSpool.create(spoolDirectory);
+            }
+            spool.write(row.data());
+            spooledRows = spool.rows();
+          } catch (IOException ex) {
+            fail(new CouchbaseException("Could not spool the rows of the response to disk", ex));
+          }
+        }
+      }
+      drain();
+    }
+
+    /**
+     * Moves spooled rows back into the buffer until it reaches the high watermarks or the spool is empty.
+     */
+    private void replay() {
+      synchronized (this) {
+        try {
+          while (!disposed && spool != null && spool.rows() > 0 && !aboveHighWatermark()) {
+            byte[] data = spool.read();
+            spooledRows = spool.rows();
+            buffered(data.length);
+            pending.add(data);
+          }
+        } catch (IOException ex) {
+          fail(new CouchbaseException("Could not read the spooled rows of the response", ex));
+        }
+        if (!disposed && spooledRows == 0 && terminationPending) {
+          terminationPending = false;
+          terminated = true;
+          terminalError = pendingError;
+        }
+      }
+      drain();
+    }
+
+    /**
+     * Completes (if null) or fails the rows, once all spooled rows have been emitted.
+     */
+    void terminate(final Throwable error) {
+      synchronized (this) {
+        if (terminated) {
+          return;
+        }
+        if (spooledRows == 0) {
+          terminated = true;
+          terminalError = error;
+        } else if (!terminationPending) {
+          terminationPending = true;
+          pendingError = error;
+        }
+      }
+      drain();
+    }
+
+    /**
+     * Emits the pending rows and then the terminal signal (if terminated), unless another thread already does.
+     */
+    @SuppressWarnings("unchecked")
+    private void drain() {
+      synchronized (this) {
+        if (emitting) {
+          return;
+        }
+        emitting = true;
+      }
+      while (true) {
+        Object next;
+        Throwable error = null;
+        synchronized (this) {
+          next = pending.poll();
+          if (next == null) {
+            emitting = false;
+            if (!terminated || signaled) {
+              return;
+            }
+            signaled = true;
+            error = terminalError;
+          }
+        }
+        if (next == null) {
+          signal(error);
+          return;
+        }
+
+        R row;
+        try {
+          row = next instanceof byte[] ? rowFromSpool.apply((byte[]) next) : (R) next;
+        } catch (RuntimeException ex) {
+          synchronized (this) {
+            fail(ex);
+          }
+          continue;
+        }
+        sink.next(row);
+      }
+    }
+
+    private void signal(final Throwable error) {
+      if (error == null) {
+        sink.complete();
+      } else {
+        sink.error(error);
+      }
+    }
+
+    /**
+     * Drops the spooled and pending rows and fails the rows right away (must hold the lock, and drain afterwards).
+     */
+    private void fail(final Throwable error) {
+      closeSpool();
+      pending.clear();
+      terminationPending = false;
+      terminated = true;
+      terminalError = error;
+    }
+
+    int spooledRows() {
+      return spooledRows;
+    }
+
+    /**
+     * Stops tracking, the rows still buffered are not going to be followed by more reads for this response.
+     */
+    void detach() {
+      detached = true;
+      if (!channelConfig.isAutoRead()) {
+        channelConfig.setAutoRead(true);
+      }
+    }
+
+    /**
+     * Called once the subscriber went away or the rows terminated, which also deletes the spool.
+     */
+    void dispose() {
+      detach();
+      synchronized (this) {
+        disposed = true;
+        closeSpool();
+        pending.clear();
+      }
+    }
+
+    private void closeSpool() {
+      spooledRows = 0;
+      if (spool != null) {
+        try {
+          spool.close();
+        } catch (IOException ex) {
+          // The file is deleted on close, there is nothing else left to clean up.
+        }
+        spool = null;
+      }
+    }
+
+    private boolean aboveHighWatermark() {
+      return (highWatermarkBytes > 0 && bytes.get() >= highWatermarkBytes)
+        || (highWatermarkRows > 0 && rows.get() >= highWatermarkRows);
+    }
+
+    private boolean atOrBelowLowWatermark() {
+      return (highWatermarkBytes == 0 || bytes.get() <= lowWatermarkBytes)
+        && (highWatermarkRows == 0 || rows.get() <= lowWatermarkRows);
+    }
+  }
+
 }
@@ -37,6 +37,7 @@ import com.couchbase.client.core.io.IoContext;
 import com.couchbase.client.core.io.netty.HttpProtocol;
 import com.couchbase.client.core.io.netty.kv.ChannelAttributes;
 import com.couchbase.client.core.msg.HttpRequest;
+import com.couchbase.client.core.msg.RequestStage;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.chunk.ChunkHeader;
 import com.couchbase.client.core.msg.chunk.ChunkRow;
@@ -241,7 +242,11 @@ public abstract class ChunkedMessageHandler
   }
 
   private void handleHttpResponse(final ChannelHandlerContext ctx, final HttpResponse msg) {
-    currentRequest.context().dispatchLatency(System.nanoTime() - dispatchTimingStart);
+    long dispatchLatency = System.nanoTime() - dispatchTimingStart;
+    currentRequest.context()
+      .markStage(RequestStage.RESPONSE_READ)
+      .dispatchLatency(dispatchLatency);
+    endpoint.recordLatency(dispatchLatency);
     if (currentDispatchSpan != null) {
       currentDispatchSpan.end();
     }
@@ -268,6 +273,7 @@ public abstract class ChunkedMessageHandler
     currentResponse = currentRequest.decode(
       convertedResponseStatus, header, chunkResponseParser.rows(), chunkResponseParser.trailer()
     );
+    currentRequest.context().markStage(RequestStage.DECODED);
     if (!currentRequest.completed()) {
       currentRequest.succeed(currentResponse);
     } else {
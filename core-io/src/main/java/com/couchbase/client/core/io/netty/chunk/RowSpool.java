@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.chunk;
+
+import com.couchbase.client.core.deps.io.netty.util.internal.PlatformDependent;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A first-in, first-out queue of rows backed by a memory-mapped temporary file.
+ * <p>
+ * Every row is stored as its length followed by its raw bytes. The file is mapped in segments, one for appending and
+ * one for reading, so that neither side needs a system call per row. Once all rows have been read, the positions
+ * are reset and the file is reused, which keeps it at the size of the largest backlog instead of the whole
+ * response. The segments at the start of the file are kept mapped across such resets, so a backlog that fits into
+ * one segment never maps again. Segments are unmapped explicitly as soon as they are replaced and when the spool is
+ * closed, instead of waiting for the garbage collector to release them. The file is deleted when the spool is closed
+ * (on most platforms it is unlinked right after opening, so it does not outlive the process either).
+ * <p>
+ * This class is not thread safe, the caller needs to synchronize access.
+ */
+class RowSpool implements Closeable {
+
+  /**
+   * The size of a mapped segment (a single row larger than this gets its own segment).
+   */
+  static final int SEGMENT_SIZE = 8 * 1024 * 1024;
+
+  private static final int LENGTH_SIZE = 4;
+
+  private final FileChannel channel;
+
+  private MappedByteBuffer writeSegment;
+  private long writeSegmentStart;
+  private MappedByteBuffer readSegment;
+  private long readSegmentStart;
+  private int mappings;
+  private long writePosition;
+  private long readPosition;
+  private int rows;
+  private long bytes;
+
+  private RowSpool(final FileChannel channel) {
+    this.channel = channel;
+  }
+
+  /**
+   * Creates a new spool in the given directory.
+   *
+   * @param directory the directory for the temporary file, or null for the default temporary-file directory.
+   * @return the created spool.
+   * @throws IOException if the temporary file cannot be created.
+   */
+  static RowSpool create(final Path directory) throws IOException {
+    Path file = directory == null
+      ? Files.createTempFile("couchbase-rows-", ".spool")
+      : Files.createTempFile(directory, "couchbase-rows-", ".spool");
+    try {
+      return new RowSpool(FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE));
+    } catch (IOException ex) {
+      Files.deleteIfExists(file);
+      throw ex;
+    }
+  }
+
+  /**
+   * Appends a row to the end of the spool.
+   *
+   * @param data the raw row data.
+   * @throws IOException if the file cannot be extended or mapped.
+   */
+  void write(final byte[] data) throws IOException {
+    int size = LENGTH_SIZE + data.length;
+    if (writeSegment == null || writeSegment.remaining() < size) {
+      unmap(writeSegment);
+      writeSegment = null;
+      writeSegment = map(FileChannel.MapMode.READ_WRITE, writePosition, Math.max(SEGMENT_SIZE, size));
+      writeSegmentStart = writePosition;
+    }
+    writeSegment.putInt(data.length);
+    writeSegment.put(data);
+    writePosition += size;
+    rows++;
+    bytes += data.length;
+  }
+
+  /**
+   * Removes the first row from the spool and returns it.
+   *
+   * @return the raw row data, or null if the spool is empty.
+   * @throws IOException if the file cannot be mapped.
+   */
+  byte[] read() throws IOException {
+    if (rows == 0) {
+      return null;
+    }
+    if (readSegment == null || readSegment.remaining() < LENGTH_SIZE) {
+      remapReadSegment(LENGTH_SIZE);
+    }
+    int length = readSegment.getInt(readSegment.position());
+    if (readSegment.remaining() < LENGTH_SIZE + length) {
+      remapReadSegment(LENGTH_SIZE + length);
+    }
+    readSegment.getInt();
+    byte[] data = new byte[length];
+    readSegment.get(data);
+    readPosition += LENGTH_SIZE + length;
+    rows--;
+    bytes -= length;
+
+    if (rows == 0) {
+      writePosition = 0;
+      readPosition = 0;
+      writeSegment = rewind(writeSegment, writeSegmentStart);
+      readSegment = rewind(readSegment, readSegmentStart);
+    }
+    return data;
+  }
+
+  /**
+   * Replaces the read segment with one which starts at the read position and contains at least the given number of
+   * bytes.
+   */
+  private void remapReadSegment(final int minSize) throws IOException {
+    unmap(readSegment);
+    readSegment = null;
+    long size = Math.min(Math.max(SEGMENT_SIZE, minSize), channel.size() - readPosition);
+    readSegment = map(FileChannel.MapMode.READ_ONLY, readPosition, size);
+    readSegmentStart = readPosition;
+  }
+
+  private MappedByteBuffer map(final FileChannel.MapMode mode, final long position, final long size)
+    throws IOException {
+    MappedByteBuffer segment = channel.map(mode, position, size);
+    mappings++;
+    return segment;
+  }
+
+  /**
+   * Keeps a segment which maps the start of the file for reuse after a reset, or unmaps it.
+   *
+   * @return the rewound segment, or null if it got unmapped.
+   */
+  private static MappedByteBuffer rewind(final MappedByteBuffer segment, final long start) {
+    if (segment != null && start == 0) {
+      segment.clear();
+      return segment;
+    }
+    unmap(segment);
+    return null;
+  }
+
+  /**
+   * Releases the mapping right away, the segment must not be accessed afterwards.
+   */
+  private static void unmap(final MappedByteBuffer segment) {
+    if (segment != null) {
+      PlatformDependent.freeDirectBuffer(segment);
+    }
+  }
+
+  /**
+   * Returns the number of rows in the spool.
+   */
+  int rows() {
+    return rows;
+  }
+
+  /**
+   * Returns the size of all rows in the spool, in bytes.
+   */
+  long bytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns how many segments have been mapped since the spool was created.
+   */
+  int mappings() {
+    return mappings;
+  }
+
+  /**
+   * Closes and deletes the underlying file.
+   */
+  @Override
+  public void close() throws IOException {
+    rows = 0;
+    bytes = 0;
+    unmap(writeSegment);
+    writeSegment = null;
+    unmap(readSegment);
+    readSegment = null;
+    channel.close();
+  }
+
+}
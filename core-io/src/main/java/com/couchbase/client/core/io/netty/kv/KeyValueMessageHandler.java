@@ -26,6 +26,7 @@ import com.couchbase.client.core.cnc.events.io.KeyValueErrorMapCodeHandledEvent;
 import com.couchbase.client.core.cnc.events.io.UnknownResponseReceivedEvent;
 import com.couchbase.client.core.cnc.events.io.UnknownResponseStatusReceivedEvent;
 import com.couchbase.client.core.cnc.events.io.UnsupportedResponseTypeReceivedEvent;
+import com.couchbase.client.core.config.ConfigurationProvider;
 import com.couchbase.client.core.config.ProposedBucketConfigContext;
 import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelDuplexHandler;
@@ -34,14 +35,20 @@ import com.couchbase.client.core.deps.io.netty.channel.ChannelPromise;
 import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
 import com.couchbase.client.core.deps.io.netty.util.collection.IntObjectHashMap;
 import com.couchbase.client.core.deps.io.netty.util.collection.IntObjectMap;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.ScheduledFuture;
 import com.couchbase.client.core.endpoint.BaseEndpoint;
+import com.couchbase.client.core.endpoint.CircuitBreaker;
+import com.couchbase.client.core.endpoint.CircuitBreakerConfig;
 import com.couchbase.client.core.endpoint.EndpointContext;
+import com.couchbase.client.core.env.CompletionDispatch;
 import com.couchbase.client.core.env.CompressionConfig;
 import com.couchbase.client.core.error.CollectionNotFoundException;
 import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.io.CollectionIdentifier;
 import com.couchbase.client.core.io.IoContext;
 import com.couchbase.client.core.io.netty.TracingUtils;
 import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestStage;
 import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.KeyValueRequest;
@@ -50,8 +57,12 @@ import com.couchbase.client.core.retry.RetryOrchestrator;
 import com.couchbase.client.core.retry.RetryReason;
 import com.couchbase.client.core.service.ServiceType;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.couchbase.client.core.io.netty.HandlerUtils.closeChannelWithReason;
 import static com.couchbase.client.core.io.netty.TracingUtils.setCommonDispatchSpanAttributes;
@@ -72,6 +83,12 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class KeyValueMessageHandler extends ChannelDuplexHandler {
 
+  /**
+   * How often written requests are checked for having completed without a response, if the handler records
+   * the outcomes on the circuit breaker.
+   */
+  private static final Duration CIRCUIT_BREAKER_SWEEP_INTERVAL = Duration.ofMillis(100);
+
   /**
    * Stores the {@link CoreContext} for use.
    */
@@ -112,6 +129,39 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
    */
   private final BaseEndpoint endpoint;
 
+  /**
+   * If outcomes are recorded on the circuit breaker right here instead of through a callback on every request.
+   */
+  private final boolean recordCircuitBreaker;
+
+  /**
+   * The circuit breaker of the endpoint, only set if {@link #recordCircuitBreaker} is true.
+   */
+  private final CircuitBreaker circuitBreaker;
+
+  /**
+   * Decides if a completed request counts as a success or failure on the circuit breaker.
+   */
+  private final CircuitBreaker.CompletionCallback circuitBreakerCallback;
+
+  /**
+   * The opaques of the written requests which completed (i.e. timed out) before their response arrived and have
+   * already been recorded on the circuit breaker.
+   */
+  private final IntObjectMap<Boolean> recordedBeforeResponse;
+
+  /**
+   * Periodically records the written requests which completed without a response, while the channel is active.
+   */
+  private ScheduledFuture<?> circuitBreakerSweep;
+
+  /**
+   * The earliest timeout of the written requests which have not been recorded yet (or an earlier time), if
+   * {@link #sweepTimeoutSet} is true. No written request can have timed out before it, so the sweep skips them.
+   */
+  private long sweepTimeout;
+  private boolean sweepTimeoutSet;
+
   /**
    * Stores the current IO context.
    */
@@ -142,6 +192,12 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
     this.compressionConfig = endpointContext.environment().compressionConfig();
     this.eventBus = endpointContext.environment().eventBus();
     this.bucketName = bucketName;
+
+    CircuitBreakerConfig circuitBreakerConfig = endpointContext.environment().ioConfig().kvCircuitBreakerConfig();
+    this.recordCircuitBreaker = circuitBreakerConfig.enabled() && circuitBreakerConfig.striped();
+    this.circuitBreaker = recordCircuitBreaker ? endpointContext.circuitBreaker() : null;
+    this.circuitBreakerCallback = circuitBreakerConfig.completionCallback();
+    this.recordedBeforeResponse = new IntObjectHashMap<>();
   }
 
   /**
@@ -191,6 +247,16 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
       createAsDeleted
     );
 
+    if (recordCircuitBreaker) {
+      long interval = CIRCUIT_BREAKER_SWEEP_INTERVAL.toNanos();
+      circuitBreakerSweep = ctx.executor().scheduleAtFixedRate(
+        this::recordCompletedWithoutResponse,
+        interval,
+        interval,
+        TimeUnit.NANOSECONDS
+      );
+    }
+
     ctx.fireChannelActive();
   }
 
@@ -202,6 +268,10 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
 
       int opaque = request.opaque();
       writtenRequests.put(opaque, request);
+      reportInFlight();
+      if (recordCircuitBreaker) {
+        trackSweepTimeout(request.absoluteTimeout());
+      }
       try {
         ctx.write(request.encode(ctx.alloc(), opaque, channelContext), promise);
         writtenRequestDispatchTimings.put(opaque, (Long) System.nanoTime());
@@ -226,17 +296,28 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
 
       } catch (Throwable err) {
         writtenRequests.remove(opaque);
+        reportInFlight();
         if (err instanceof CollectionNotFoundException) {
           if (channelContext.collectionsEnabled()) {
-            if (ioContext.core().configurationProvider().collectionMapRefreshInProgress()) {
+            ConfigurationProvider provider = ioContext.core().configurationProvider();
+            CollectionIdentifier identifier = request.collectionIdentifier();
+            // If the lookup finished since the request was encoded, the ID is in the map by now and there is no
+            // need to look it up again.
+            if (provider.collectionRefreshInProgress(identifier) || provider.collectionMap().get(identifier) != null) {
               RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.COLLECTION_MAP_REFRESH_IN_PROGRESS);
             } else {
               handleOutdatedCollection(request, RetryReason.COLLECTION_NOT_FOUND);
             }
+            if (recordCircuitBreaker) {
+              recordOutcome(request);
+            }
             return;
           }
         }
         request.fail(err);
+        if (recordCircuitBreaker) {
+          recordOutcome(request);
+        }
       }
     } else {
       eventBus.publish(new InvalidRequestDetectedEvent(ioContext, ServiceType.KV, msg));
@@ -266,11 +347,27 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
     }
   }
 
+  /**
+   * Reports the number of written but not yet answered requests to the endpoint, so it can be used for selection.
+   */
+  private void reportInFlight() {
+    if (endpoint != null) {
+      endpoint.pipelinedRequestsInFlight(writtenRequests.size());
+    }
+  }
+
   @Override
   public void channelInactive(final ChannelHandlerContext ctx) {
-    for (KeyValueRequest<Response> request : writtenRequests.values()) {
-      RetryOrchestrator.maybeRetry(ioContext, request, RetryReason.CHANNEL_CLOSED_WHILE_IN_FLIGHT);
+    if (recordCircuitBreaker && circuitBreakerSweep != null) {
+      circuitBreakerSweep.cancel(false);
+    }
+    for (IntObjectMap.PrimitiveEntry<KeyValueRequest<Response>> entry : writtenRequests.entries()) {
+      RetryOrchestrator.maybeRetry(ioContext, entry.value(), RetryReason.CHANNEL_CLOSED_WHILE_IN_FLIGHT);
+      if (recordCircuitBreaker && !recordedBeforeResponse.containsKey(entry.key())) {
+        recordOutcome(entry.value());
+      }
     }
+    recordedBeforeResponse.clear();
     ctx.fireChannelInactive();
   }
 
@@ -288,12 +385,37 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
       handleUnknownResponseReceived(ctx, response);
       return;
     }
+    reportInFlight();
+    request.context().markStage(RequestStage.RESPONSE_READ);
+    boolean notYetRecorded = recordCircuitBreaker && recordedBeforeResponse.remove(opaque) == null;
+    try {
+      handleResponse(ctx, request, opaque, response);
+    } finally {
+      if (notYetRecorded) {
+        recordOutcome(request);
+      }
+    }
+  }
 
+  /**
+   * Handles the response once its request has been removed from the written requests.
+   *
+   * @param ctx the channel handler context from netty.
+   * @param request the request the response belongs to.
+   * @param opaque the opaque of the request.
+   * @param response the response to decode and handle.
+   */
+  private void handleResponse(final ChannelHandlerContext ctx, final KeyValueRequest<Response> request,
+                              final int opaque, final ByteBuf response) {
     long serverTime = MemcacheProtocol.parseServerDurationFromResponse(response);
     request.context().serverLatency(serverTime);
 
     long start = writtenRequestDispatchTimings.remove(opaque);
-    request.context().dispatchLatency(System.nanoTime() - start);
+    long dispatchLatency = System.nanoTime() - start;
+    request.context().dispatchLatency(dispatchLatency);
+    if (endpoint != null) {
+      endpoint.recordLatency(dispatchLatency);
+    }
 
     RequestSpan dispatchSpan = writtenRequestDispatchSpans.remove(opaque);
     if (dispatchSpan != null) {
@@ -347,12 +469,98 @@ public class KeyValueMessageHandler extends ChannelDuplexHandler {
   private void decodeAndComplete(final KeyValueRequest<Response> request, final ByteBuf response) {
     try {
       Response decoded = request.decode(response, channelContext);
+      request.context().markStage(RequestStage.DECODED);
       request.succeed(decoded);
     } catch (Throwable t) {
       request.fail(new DecodingFailureException(t));
     }
   }
 
+  /**
+   * Records the written requests which timed out while waiting for their response, so the circuit breaker notices
+   * an endpoint which stopped responding.
+   * <p>
+   * Only requests past their timeout are checked, and the written requests are only walked once the earliest of
+   * their timeouts has passed. Runs periodically on the event loop, visible for testing.
+   */
+  void recordCompletedWithoutResponse() {
+    if (!sweepTimeoutSet) {
+      return;
+    }
+    long now = System.nanoTime();
+    if (now - sweepTimeout < 0) {
+      return;
+    }
+
+    sweepTimeoutSet = false;
+    for (IntObjectMap.PrimitiveEntry<KeyValueRequest<Response>> entry : writtenRequests.entries()) {
+      if (recordedBeforeResponse.containsKey(entry.key())) {
+        continue;
+      }
+      KeyValueRequest<Response> request = entry.value();
+      if (now - request.absoluteTimeout() >= 0 && request.completed()) {
+        recordedBeforeResponse.put(entry.key(), Boolean.TRUE);
+        recordOutcome(request);
+      } else {
+        trackSweepTimeout(request.absoluteTimeout());
+      }
+    }
+  }
+
+  private void trackSweepTimeout(final long timeout) {
+    if (!sweepTimeoutSet || timeout - sweepTimeout < 0) {
+      sweepTimeout = timeout;
+      sweepTimeoutSet = true;
+    }
+  }
+
+  /**
+   * Records the outcome of a request this handler is done with on the circuit breaker.
+   * <p>
+   * If the request is still pending because it has been handed to the {@link RetryOrchestrator} (for example after a
+   * not my vbucket response), its final outcome is recorded once it completes, like the per-request callback of the
+   * other circuit breakers does. If the orchestrator cancelled it right away, that cancellation is recorded.
+   * <p>
+   * The outcome is always taken from the response future, never from the state of the request: with a
+   * {@link CompletionDispatch} other than inline, a request is marked as completed before its future is completed
+   * on another thread.
+   *
+   * @param request the request which is no longer written on this channel.
+   */
+  private void recordOutcome(final KeyValueRequest<Response> request) {
+    if (request.response().isDone()) {
+      recordCompletion(request);
+    } else {
+      request.response().whenComplete(this::recordOutcome);
+    }
+  }
+
+  /**
+   * Records the outcome of a request whose response future is already completed on the circuit breaker.
+   *
+   * @param request the completed request.
+   */
+  private void recordCompletion(final KeyValueRequest<Response> request) {
+    Response response = null;
+    Throwable cause = null;
+    try {
+      response = request.response().getNow(null);
+    } catch (CompletionException ex) {
+      cause = ex.getCause();
+    } catch (CancellationException ex) {
+      cause = ex;
+    }
+    recordOutcome(response, cause);
+  }
+
+  private void recordOutcome(final Response response, final Throwable cause) {
+    if (circuitBreakerCallback.apply(response, cause)) {
+      circuitBreaker.markSuccess();
+    } else {
+      circuitBreaker.markFailure();
+    }
+  }
+
   /**
    * If certain status codes are returned from the server, there is a clear indication that the channel is
    * invalid and needs to be closed in order to avoid any further trouble.
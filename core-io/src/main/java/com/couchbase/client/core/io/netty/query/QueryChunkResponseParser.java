@@ -105,6 +105,11 @@ public class QueryChunkResponseParser
     return parserBuilder;
   }
 
+  @Override
+  protected QueryChunkRow rowFromSpool(final byte[] data) {
+    return new QueryChunkRow(data);
+  }
+
   @Override
   public Optional<QueryChunkHeader> header(boolean lastChunk) {
     return isHeaderComplete()
@@ -69,6 +69,11 @@ public class SearchChunkResponseParser
     return parserBuilder;
   }
 
+  @Override
+  protected SearchChunkRow rowFromSpool(final byte[] data) {
+    return new SearchChunkRow(data);
+  }
+
   @Override
   public Optional<SearchChunkHeader> header(boolean lastChunk) {
     return Optional.ofNullable(status).map(SearchChunkHeader::new);
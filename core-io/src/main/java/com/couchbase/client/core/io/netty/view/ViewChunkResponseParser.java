@@ -80,6 +80,11 @@ public class ViewChunkResponseParser
     return parserBuilder;
   }
 
+  @Override
+  protected ViewChunkRow rowFromSpool(final byte[] data) {
+    return new ViewChunkRow(data);
+  }
+
   @Override
   protected void doCleanup() {
     totalRows = 0;
@@ -16,10 +16,15 @@
 
 package com.couchbase.client.core.msg;
 
+import com.couchbase.client.core.Core;
 import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.metrics.NoopMeter;
 import com.couchbase.client.core.cnc.tracing.ThresholdRequestSpan;
+import com.couchbase.client.core.env.CompletionDispatch;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.AmbiguousTimeoutException;
 import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.core.error.RequestCanceledException;
@@ -29,7 +34,9 @@ import com.couchbase.client.core.retry.RetryStrategy;
 
 import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
@@ -51,6 +58,24 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
   private static final AtomicReferenceFieldUpdater<BaseRequest, State> STATE_UPDATER =
     AtomicReferenceFieldUpdater.newUpdater(BaseRequest.class, State.class, "state");
 
+  /**
+   * Atomic updater for the {@link #completionListener} field.
+   */
+  @SuppressWarnings("rawtypes")
+  private static final AtomicReferenceFieldUpdater<BaseRequest, RequestCompletionListener> LISTENER_UPDATER =
+    AtomicReferenceFieldUpdater.newUpdater(BaseRequest.class, RequestCompletionListener.class, "completionListener");
+
+  /**
+   * Marks the {@link #completionListener} as used, because the registered listener has been notified.
+   */
+  private static final RequestCompletionListener<?> NOTIFIED = (response, error) -> { };
+
+  /**
+   * Marks that the request completed before any {@link #completionListener} has been registered, so the first
+   * listener registering afterwards is notified right away.
+   */
+  private static final RequestCompletionListener<?> UNCLAIMED = (response, error) -> { };
+
   /**
    * Holds the unique ID for this request.
    */
@@ -103,6 +128,13 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
    */
   private volatile CancellationReason cancellationReason;
 
+  /**
+   * If set, the listener which is notified once this request completes.
+   *
+   * <p>Do not rename this field without updating the {@link #LISTENER_UPDATER}!</p>
+   */
+  private volatile RequestCompletionListener<R> completionListener;
+
   public BaseRequest(final Duration timeout, final CoreContext ctx,
                      final RetryStrategy retryStrategy) {
     this(timeout, ctx, retryStrategy, null);
@@ -147,20 +179,23 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
   @Override
   public void succeed(R result) {
     if (STATE_UPDATER.compareAndSet(this, State.INCOMPLETE, State.SUCCEEDED)) {
-      response.complete(result);
+      ctx.markStage(RequestStage.COMPLETED);
+      completeFromIo(result, null);
     }
   }
 
   @Override
   public void fail(Throwable error) {
     if (STATE_UPDATER.compareAndSet(this, State.INCOMPLETE, State.FAILED)) {
-      response.completeExceptionally(error);
+      ctx.markStage(RequestStage.COMPLETED);
+      completeFromIo(null, error);
     }
   }
 
   @Override
   public void cancel(final CancellationReason reason) {
     if (STATE_UPDATER.compareAndSet(this, State.INCOMPLETE, State.CANCELLED)) {
+      ctx.markStage(RequestStage.COMPLETED);
       cancellationReason = reason;
       final Exception exception;
 
@@ -172,8 +207,122 @@ public abstract class BaseRequest<R extends Response> implements Request<R> {
         exception = new RequestCanceledException(msg, reason, ctx);
       }
 
-      response.completeExceptionally(exception);
+      dispatchCompletion(null, exception);
+    }
+  }
+
+  /**
+   * Completes the request from the IO layer and records how long this occupied the calling thread (usually an
+   * event loop), if a meter is enabled.
+   */
+  private void completeFromIo(final R result, final Throwable error) {
+    final CoreEnvironment env = ctx.environment();
+    final Core core = ctx.core();
+    if (env == null || core == null || ctx.lastDispatchedTo() == null || env.meter() instanceof NoopMeter) {
+      dispatchCompletion(result, error);
+      return;
+    }
+
+    final long start = System.nanoTime();
+    dispatchCompletion(result, error);
+    core.callbackOccupancyMetric(this).recordValue(System.nanoTime() - start);
+  }
+
+  /**
+   * Completes the response and notifies the listener, on the thread decided by the {@link CompletionDispatch} of
+   * the environment.
+   */
+  private void dispatchCompletion(final R result, final Throwable error) {
+    final CoreEnvironment env = ctx.environment();
+    final CompletionDispatch dispatch = env == null ? null : env.completionDispatch();
+    if (dispatch == null || dispatch.isInline()) {
+      complete(result, error);
+    } else {
+      dispatch.dispatch(() -> complete(result, error));
+    }
+  }
+
+  private void complete(final R result, final Throwable error) {
+    if (error == null) {
+      response.complete(result);
+    } else {
+      response.completeExceptionally(error);
+    }
+    notifyListener(result, error);
+  }
+
+  /**
+   * Registers a listener which is notified once this request completes (or immediately, if it already did).
+   * <p>
+   * This allows to complete reactive subscribers directly, without dependent stages on the response future. Only
+   * one listener can ever be registered, so it is notified exactly once per request: a listener registering after
+   * another one (even if that one has already been notified) is rejected and needs to use the response future. If
+   * the request completed before any listener has been registered, the first one to register is notified right away.
+   *
+   * @param listener the listener to notify.
+   * @return false if another listener has already been registered (and this one will not be notified), true otherwise.
+   */
+  @Stability.Internal
+  @SuppressWarnings("unchecked")
+  public boolean completionListener(final RequestCompletionListener<R> listener) {
+    while (true) {
+      final RequestCompletionListener<R> current = LISTENER_UPDATER.get(this);
+      if (current == UNCLAIMED) {
+        if (LISTENER_UPDATER.compareAndSet(this, UNCLAIMED, NOTIFIED)) {
+          notifyFromResponse(listener);
+          return true;
+        }
+      } else if (current != null) {
+        return false;
+      } else if (LISTENER_UPDATER.compareAndSet(this, null, listener)) {
+        if (response.isDone()) {
+          final RequestCompletionListener<R> registered = LISTENER_UPDATER.getAndSet(this, NOTIFIED);
+          if (registered == listener) {
+            notifyFromResponse(registered);
+          }
+        }
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Notifies the registered listener (if any) and makes sure it is not notified again.
+   * <p>
+   * If no listener has been registered yet, the slot is left {@link #UNCLAIMED} for the first one to come.
+   */
+  @SuppressWarnings("unchecked")
+  private void notifyListener(final R result, final Throwable error) {
+    while (true) {
+      final RequestCompletionListener<R> current = LISTENER_UPDATER.get(this);
+      if (current == NOTIFIED || current == UNCLAIMED) {
+        return;
+      }
+      if (current == null) {
+        if (LISTENER_UPDATER.compareAndSet(this, null, UNCLAIMED)) {
+          return;
+        }
+      } else if (LISTENER_UPDATER.compareAndSet(this, current, NOTIFIED)) {
+        current.onCompletion(result, error);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Notifies the given listener from the already completed response future.
+   */
+  private void notifyFromResponse(final RequestCompletionListener<R> listener) {
+    R result = null;
+    Throwable error = null;
+    try {
+      result = response.join();
+    } catch (CompletionException ex) {
+      error = ex.getCause();
+    } catch (CancellationException ex) {
+      error = ex;
     }
+    listener.onCompletion(result, error);
   }
 
   @Override
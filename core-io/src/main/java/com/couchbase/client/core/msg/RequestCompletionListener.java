@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Gets notified once a {@link BaseRequest} is completed, without going through its response future.
+ *
+ * @param <R> the type of the response.
+ */
+@Stability.Internal
+@FunctionalInterface
+public interface RequestCompletionListener<R extends Response> {
+
+  /**
+   * Called exactly once when the request is completed.
+   * <p>
+   * Note that this is called on the thread which completes the request (usually an event loop), so the
+   * implementation must not block and must not throw.
+   *
+   * @param response the response if the request succeeded, null otherwise.
+   * @param error the failure if the request failed or has been cancelled, null otherwise.
+   */
+  void onCompletion(R response, Throwable error);
+
+}
@@ -25,8 +25,10 @@ import com.couchbase.client.core.util.HostAndPort;
 import java.time.Duration;
 import java.util.EnumSet;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,6 +45,16 @@ import static com.couchbase.client.core.util.Validators.notNull;
  */
 public class RequestContext extends CoreContext {
 
+  /**
+   * The name of the interval between the completion of the request and its logical completion.
+   */
+  private static final String STAGE_CONTINUATION = "completed_to_continuation";
+
+  /**
+   * Marker for requests which have not been sampled for the stage breakdown.
+   */
+  private static final long[] NOT_SAMPLED = new long[0];
+
   /**
    * Holds the last dispatch latency if set already (or at all).
    */
@@ -118,6 +130,14 @@ public class RequestContext extends CoreContext {
    */
   private volatile Duration lastRetryDuration;
 
+  /**
+   * If this request has been sampled, holds the nano timestamps for each {@link RequestStage}.
+   * <p>
+   * The sampling decision is made when the request is dispatched for the first time, before that it is null
+   * and afterwards it is {@link #NOT_SAMPLED} if the request is not part of the sample.
+   */
+  private volatile long[] stageTimestamps;
+
   /**
    * Creates a new {@link RequestContext}.
    *
@@ -195,6 +215,43 @@ public class RequestContext extends CoreContext {
     return this;
   }
 
+  /**
+   * Records the current time for the given stage if this request is sampled for the stage breakdown.
+   * <p>
+   * Note that {@link RequestStage#DISPATCHED} is only recorded the first time, all other stages are overridden
+   * if the request is retried.
+   *
+   * @param stage the stage which has been reached.
+   * @return this context for chaining purposes.
+   */
+  @Stability.Internal
+  public RequestContext markStage(final RequestStage stage) {
+    long[] timestamps = stageTimestamps;
+    if (stage == RequestStage.DISPATCHED) {
+      if (timestamps != null) {
+        return this;
+      }
+      final double sampleRate = environment() == null ? 0 : environment().requestStageSampleRate();
+      timestamps = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate
+        ? new long[RequestStage.values().length]
+        : NOT_SAMPLED;
+      stageTimestamps = timestamps;
+    }
+    if (timestamps != null && timestamps != NOT_SAMPLED) {
+      timestamps[stage.ordinal()] = System.nanoTime();
+    }
+    return this;
+  }
+
+  /**
+   * Returns true if this request has been sampled for the per-stage latency breakdown.
+   */
+  @Stability.Internal
+  public boolean stagesSampled() {
+    final long[] timestamps = stageTimestamps;
+    return timestamps != null && timestamps != NOT_SAMPLED;
+  }
+
   /**
    * Signals that this request is completed fully, including streaming sections or logical sub-requests also being
    * completed (i.e. observe polling).
@@ -208,9 +265,55 @@ public class RequestContext extends CoreContext {
     if (lastDispatchedTo() != null) {
       core().responseMetric(request).recordValue(logicalRequestLatency());
     }
+    if (stagesSampled() && core() != null) {
+      recordStages();
+    }
     return this;
   }
 
+  /**
+   * Records the latency between each pair of consecutive stages which have been reached.
+   * <p>
+   * The first interval starts when the request is created, the last one ends when it is logically completed (so
+   * it includes all the response conversion and continuation stages after the core completed the request). Stages
+   * which have not been reached are skipped, so the interval is measured from (and named after) the last stage
+   * which has been reached before.
+   */
+  private void recordStages() {
+    final long[] timestamps = stageTimestamps;
+    long previous = request.createdAt();
+    RequestStage previousStage = null;
+    boolean skipped = false;
+    for (RequestStage stage : RequestStage.values()) {
+      final long current = timestamps[stage.ordinal()];
+      if (current == 0) {
+        skipped = true;
+        continue;
+      }
+      if (previous != 0 && current >= previous) {
+        String interval = skipped ? intervalName(previousStage, stage.name()) : stage.interval();
+        core().requestStageMetric(request, interval).recordValue(current - previous);
+      }
+      previous = current;
+      previousStage = stage;
+      skipped = false;
+    }
+    if (previous != 0) {
+      String interval = previousStage == RequestStage.COMPLETED
+        ? STAGE_CONTINUATION
+        : intervalName(previousStage, "continuation");
+      core().requestStageMetric(request, interval).recordValue(logicallyCompletedAt - previous);
+    }
+  }
+
+  /**
+   * Names the interval between two stages which are not adjacent, in the same format as
+   * {@link RequestStage#interval()}.
+   */
+  private static String intervalName(final RequestStage from, final String to) {
+    return (from == null ? "created" : from.name().toLowerCase(Locale.ROOT)) + "_to_" + to.toLowerCase(Locale.ROOT);
+  }
+
   public int retryAttempts() {
     return retryAttempts.get();
   }
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * The individual stages of the request lifecycle which are timestamped on sampled requests.
+ * <p>
+ * The creation of the request and its logical completion are not part of this enum, since they are always
+ * tracked through {@link Request#createdAt()} and {@link RequestContext#logicallyCompletedAt()}.
+ */
+@Stability.Internal
+public enum RequestStage {
+
+  /**
+   * The request has been handed to an endpoint for the first time.
+   */
+  DISPATCHED("created_to_dispatched"),
+
+  /**
+   * The request has been written and flushed to the socket (the last time, if retried).
+   */
+  WRITTEN("dispatched_to_written"),
+
+  /**
+   * The response for the request has been read from the socket.
+   */
+  RESPONSE_READ("written_to_response_read"),
+
+  /**
+   * The response has been decoded.
+   */
+  DECODED("response_read_to_decoded"),
+
+  /**
+   * The request has been completed (successfully or not).
+   */
+  COMPLETED("decoded_to_completed");
+
+  /**
+   * The name of the interval between the previous stage and this one.
+   */
+  private final String interval;
+
+  RequestStage(final String interval) {
+    this.interval = interval;
+  }
+
+  /**
+   * Returns the name of the interval which ends with this stage.
+   */
+  public String interval() {
+    return interval;
+  }
+
+}
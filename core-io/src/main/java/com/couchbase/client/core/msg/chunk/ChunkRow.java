@@ -20,4 +20,10 @@ package com.couchbase.client.core.msg.chunk;
  * Marker interface to describe a row emitted from a chunked response.
  */
 public interface ChunkRow {
+
+  /**
+   * Returns the raw encoded data of this row.
+   */
+  byte[] data();
+
 }
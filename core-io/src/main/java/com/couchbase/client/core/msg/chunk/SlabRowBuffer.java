@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg.chunk;
+
+import com.couchbase.client.core.annotation.Stability;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the raw data of many rows compactly in a few large byte arrays ("slabs").
+ * <p>
+ * Holding a fully buffered result as a list of rows costs an object, an array and a list slot per row, which for
+ * results with millions of rows adds up to a significant amount of heap and GC work. This buffer instead copies the
+ * rows back to back into slabs and keeps one packed position and one length per row, so the per-row rows and arrays
+ * become garbage right away. Rows are decoded straight from the slabs through a {@link RowDecoder}.
+ * <p>
+ * Adding rows is not thread safe, but once filled the buffer can be read concurrently.
+ */
+@Stability.Internal
+public class SlabRowBuffer {
+
+  /**
+   * The default size of a slab, rows larger than this get a slab of their own.
+   */
+  public static final int DEFAULT_SLAB_SIZE = 256 * 1024;
+
+  private static final int INITIAL_INDEX_SIZE = 16;
+
+  private final int slabSize;
+  private final List<byte[]> slabs = new ArrayList<>();
+
+  /**
+   * The slab index (upper 32 bits) and offset in the slab (lower 32 bits) of every row.
+   */
+  private long[] positions = new long[INITIAL_INDEX_SIZE];
+  private int[] lengths = new int[INITIAL_INDEX_SIZE];
+  private int size;
+
+  private byte[] currentSlab;
+  private int currentOffset;
+  private long totalBytes;
+
+  public SlabRowBuffer() {
+    this(DEFAULT_SLAB_SIZE);
+  }
+
+  public SlabRowBuffer(final int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  /**
+   * Collects all rows of the given flux into a compacted buffer.
+   *
+   * @param rows the rows to collect.
+   * @return a mono completing with the buffer once all rows have been received.
+   */
+  public static Mono<SlabRowBuffer> collect(final Flux<? extends ChunkRow> rows) {
+    return rows
+      .collect(SlabRowBuffer::new, (buffer, row) -> buffer.add(row.data()))
+      .map(SlabRowBuffer::compact);
+  }
+
+  /**
+   * Appends the data of a row.
+   *
+   * @param data the raw row data.
+   */
+  public void add(final byte[] data) {
+    if (currentSlab == null || currentSlab.length - currentOffset < data.length) {
+      currentSlab = new byte[Math.max(slabSize, data.length)];
+      currentOffset = 0;
+      slabs.add(currentSlab);
+    }
+    System.arraycopy(data, 0, currentSlab, currentOffset, data.length);
+
+    if (size == positions.length) {
+      positions = Arrays.copyOf(positions, size * 2);
+      lengths = Arrays.copyOf(lengths, size * 2);
+    }
+    positions[size] = ((long) (slabs.size() - 1) << 32) | currentOffset;
+    lengths[size] = data.length;
+    size++;
+
+    currentOffset += data.length;
+    totalBytes += data.length;
+  }
+
+  /**
+   * Trims the last slab and the index to their used size, to be called once all rows have been added.
+   *
+   * @return this buffer for chaining purposes.
+   */
+  public SlabRowBuffer compact() {
+    if (currentSlab != null && currentOffset < currentSlab.length) {
+      currentSlab = Arrays.copyOf(currentSlab, currentOffset);
+      slabs.set(slabs.size() - 1, currentSlab);
+    }
+    if (size < positions.length) {
+      positions = Arrays.copyOf(positions, size);
+      lengths = Arrays.copyOf(lengths, size);
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of rows.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns the size of all rows, in bytes.
+   */
+  public long totalBytes() {
+    return totalBytes;
+  }
+
+  /**
+   * Decodes a single row.
+   *
+   * @param index the index of the row.
+   * @param decoder the decoder to apply to the row data.
+   * @return the decoded row.
+   */
+  public <T> T decode(final int index, final RowDecoder<T> decoder) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    long position = positions[index];
+    return decoder.decode(slabs.get((int) (position >>> 32)), (int) position, lengths[index]);
+  }
+
+  /**
+   * Decodes all rows in order.
+   *
+   * @param decoder the decoder to apply to the data of every row.
+   * @return the decoded rows.
+   */
+  public <T> List<T> decodeAll(final RowDecoder<T> decoder) {
+    List<T> decoded = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      decoded.add(decode(i, decoder));
+    }
+    return decoded;
+  }
+
+  /**
+   * Returns a copy of the data of a single row.
+   *
+   * @param index the index of the row.
+   * @return the raw row data.
+   */
+  public byte[] get(final int index) {
+    return decode(index, (slab, offset, length) -> Arrays.copyOfRange(slab, offset, offset + length));
+  }
+
+  @Override
+  public String toString() {
+    return "SlabRowBuffer{" +
+      "rows=" + size +
+      ", bytes=" + totalBytes +
+      ", slabs=" + slabs.size() +
+      '}';
+  }
+
+  /**
+   * Decodes the data of a single row, which is found in the given range of the slab.
+   */
+  @FunctionalInterface
+  public interface RowDecoder<T> {
+    T decode(byte[] slab, int offset, int length);
+  }
+
+}
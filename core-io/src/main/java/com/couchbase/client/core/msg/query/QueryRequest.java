@@ -97,12 +97,10 @@ public class QueryRequest
     ByteBuf content = Unpooled.wrappedBuffer(query);
     FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST,
       URI, content);
+    // the user agent and host are set by the channel handler for every request
     request.headers()
-      .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
-    request.headers()
-      .set(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
-    request.headers()
-      .set(HttpHeaderNames.USER_AGENT, context().environment().userAgent().formattedLong());
+      .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+      .setInt(HttpHeaderNames.CONTENT_LENGTH, content.readableBytes());
     authenticator.authHttpRequest(serviceType(), request);
     return request;
   }
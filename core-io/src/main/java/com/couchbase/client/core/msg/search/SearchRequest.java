@@ -63,8 +63,9 @@ public class SearchRequest extends BaseRequest<SearchResponse>
         ByteBuf c = Unpooled.wrappedBuffer(content);
         String uri = "/api/index/" + indexName + "/query";
         FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, uri, c);
-        request.headers().set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON);
-        request.headers().set(HttpHeaderNames.CONTENT_LENGTH, c.readableBytes());
+        request.headers()
+          .set(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+          .setInt(HttpHeaderNames.CONTENT_LENGTH, c.readableBytes());
         authenticator.authHttpRequest(serviceType(), request);
         return request;
     }
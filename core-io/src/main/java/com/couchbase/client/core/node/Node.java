@@ -415,6 +415,44 @@ public class Node implements Stateful<NodeState> {
     return enabledServices.get() != 0;
   }
 
+  /**
+   * Returns the number of outstanding requests of the given cluster-scoped service on this node.
+   *
+   * @param type the service type to check.
+   * @return the outstanding requests, or 0 if the service is not enabled.
+   */
+  public long outstandingRequests(final ServiceType type) {
+    Service service = globalService(type);
+    return service == null ? 0 : service.outstandingRequests();
+  }
+
+  /**
+   * Returns the latency estimate of the given cluster-scoped service on this node.
+   *
+   * @param type the service type to check.
+   * @return the latency estimate in nanoseconds, or 0 if unknown.
+   */
+  public long latencyEstimate(final ServiceType type) {
+    Service service = globalService(type);
+    return service == null ? 0 : service.latencyEstimate();
+  }
+
+  /**
+   * Returns the longest time the given cluster-scoped service on this node has been waiting for a response.
+   *
+   * @param type the service type to check.
+   * @return the time in nanoseconds, or 0 if no request is in flight.
+   */
+  public long inFlightAge(final ServiceType type) {
+    Service service = globalService(type);
+    return service == null ? 0 : service.inFlightAge();
+  }
+
+  private Service globalService(final ServiceType type) {
+    Map<ServiceType, Service> scope = services.get(GLOBAL_SCOPE);
+    return scope == null ? null : scope.get(type);
+  }
+
   /**
    * Helper method to create the {@link Service} based on the service type provided.
    *
@@ -430,8 +468,13 @@ public class Node implements Stateful<NodeState> {
 
     switch (serviceType) {
       case KV:
-        return new KeyValueService(
-          KeyValueServiceConfig.endpoints(env.ioConfig().numKvConnections()).build(), ctx, address, port, bucket, authenticator);
+        return new KeyValueService(KeyValueServiceConfig
+          .minEndpoints(env.ioConfig().numKvConnections())
+          .maxEndpoints(env.ioConfig().maxKvConnections())
+          .idleTime(env.ioConfig().idleKvConnectionTimeout())
+          .partitionAffinity(env.ioConfig().kvPartitionAffinity())
+          .build(),
+          ctx, address, port, bucket, authenticator);
       case MANAGER:
         return new ManagerService(ctx, address, port);
       case QUERY:
@@ -32,9 +32,12 @@ import com.couchbase.client.core.msg.TargetedRequest;
 import com.couchbase.client.core.retry.RetryOrchestrator;
 import com.couchbase.client.core.retry.RetryReason;
 import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.service.strategy.LeastLoadedSelectionStrategy;
+import com.couchbase.client.core.service.strategy.LoadBalancingStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -45,6 +48,10 @@ import java.util.concurrent.atomic.AtomicLong;
  * nodes provided. The list of nodes is filtered to make sure that only nodes with the specific
  * service are taken into account.</p>
  *
+ * <p>If configured with a load-aware {@link LoadBalancingStrategy}, the counter is not used and the node with
+ * the lowest outstanding requests (weighted by its latency estimate) for the service is picked instead, see
+ * {@link LeastLoadedSelectionStrategy}.</p>
+ *
  * @since 1.0.0
  */
 public class RoundRobinLocator implements Locator {
@@ -59,13 +66,48 @@ public class RoundRobinLocator implements Locator {
    */
   private final ServiceType serviceType;
 
+  /**
+   * Holds the load balancing strategy to pick the node for untargeted requests.
+   */
+  private final LoadBalancingStrategy strategy;
+
+  /**
+   * Provides the load of a node for the configured service type.
+   */
+  private final LeastLoadedSelectionStrategy.Load<Node> load;
+
   public RoundRobinLocator(final ServiceType serviceType) {
-    this(serviceType, new Random().nextInt(1024));
+    this(serviceType, LoadBalancingStrategy.ROUND_ROBIN);
+  }
+
+  public RoundRobinLocator(final ServiceType serviceType, final LoadBalancingStrategy strategy) {
+    this(serviceType, strategy, new Random().nextInt(1024));
   }
 
   RoundRobinLocator(final ServiceType serviceType, final long initialValue) {
+    this(serviceType, LoadBalancingStrategy.ROUND_ROBIN, initialValue);
+  }
+
+  RoundRobinLocator(final ServiceType serviceType, final LoadBalancingStrategy strategy, final long initialValue) {
     counter = new AtomicLong(initialValue);
     this.serviceType = serviceType;
+    this.strategy = strategy;
+    this.load = new LeastLoadedSelectionStrategy.Load<Node>() {
+      @Override
+      public long outstandingRequests(final Node node) {
+        return node.outstandingRequests(serviceType);
+      }
+
+      @Override
+      public long latencyEstimate(final Node node) {
+        return node.latencyEstimate(serviceType);
+      }
+
+      @Override
+      public long inFlightAge(final Node node) {
+        return node.inFlightAge(serviceType);
+      }
+    };
   }
 
   @Override
@@ -198,9 +240,19 @@ public class RoundRobinLocator implements Locator {
 
   private void dispatchUntargeted(final Request<? extends Response> request, final List<Node> nodes,
                                   final CoreContext ctx) {
-    int nodeSize = nodes.size();
-    int offset = (int) Math.floorMod(counter.getAndIncrement(), (long) nodeSize);
-    Node node = nodes.get(offset);
+    Node node;
+    if (strategy == LoadBalancingStrategy.ROUND_ROBIN) {
+      int nodeSize = nodes.size();
+      int offset = (int) Math.floorMod(counter.getAndIncrement(), (long) nodeSize);
+      node = nodes.get(offset);
+    } else {
+      node = LeastLoadedSelectionStrategy.select(
+        nodes,
+        Objects::nonNull,
+        load,
+        strategy == LoadBalancingStrategy.POWER_OF_TWO_CHOICES
+      );
+    }
     if (node != null) {
       node.send(request);
     } else {
@@ -25,6 +25,7 @@ import com.couchbase.client.core.msg.Request;
 import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.msg.ScopedRequest;
 import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.service.strategy.LoadBalancingStrategy;
 
 /**
  * The {@link ViewLocator} extends the round-robin locator with some custom checks.
@@ -35,6 +36,10 @@ public class ViewLocator extends RoundRobinLocator {
     super(ServiceType.VIEWS);
   }
 
+  public ViewLocator(final LoadBalancingStrategy strategy) {
+    super(ServiceType.VIEWS, strategy);
+  }
+
   @Override
   protected boolean checkServiceNotAvailable(Request<? extends Response> request, final ClusterConfig config) {
     if (request instanceof ScopedRequest) {
@@ -16,20 +16,24 @@
 
 package com.couchbase.client.core.projections;
 
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ArrayNode;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ContainerNode;
-import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
-import com.couchbase.client.core.json.Mapper;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.couchbase.client.core.msg.kv.SubDocumentField;
 import com.couchbase.client.core.msg.kv.SubDocumentOpResponseStatus;
 import com.couchbase.client.core.msg.kv.SubdocGetResponse;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Helper functions to aid with parsing get-with-projections calls.
  * Largely a port of Scala's ProjectionsApplier.
+ * <p>
+ * The fields are merged into a lightweight tree which only holds their raw JSON bytes, and the document is
+ * then written out in one pass. Field values are never decoded.
  *
  * @since 2.1.2
  */
@@ -37,6 +41,19 @@ public class ProjectionsApplier {
 
   private static final String MACRO_PREFIX = "$document";
 
+  /**
+   * The maximum number of parsed projection paths that are kept around.
+   */
+  private static final int PATH_CACHE_SIZE = 1024;
+
+  /**
+   * Holds the parsed paths, since the same projections are usually fetched over and over again.
+   * <p>
+   * Lookups are lock-free. Once the cache is full it is cleared instead of evicting single entries, so a changing set
+   * of projections is picked up again without keeping track of the access order.
+   */
+  private static final Map<String, List<PathElement>> PATH_CACHE = new ConcurrentHashMap<>();
+
   private ProjectionsApplier() {
     throw new AssertionError("not instantiable");
   }
@@ -46,7 +63,8 @@ public class ProjectionsApplier {
    * subdoc response fields into the object structure.
    */
   public static byte[] reconstructDocument(SubdocGetResponse subdocGetResponse) {
-    ObjectNode result = Mapper.createObjectNode();
+    ObjectEntry result = new ObjectEntry();
+    int size = 2;
 
     for (SubDocumentField field : subdocGetResponse.values()) {
       if (field == null
@@ -56,26 +74,35 @@ public class ProjectionsApplier {
         continue;
       }
 
-      insert(result, field);
+      insertRecursive(result, parse(field.path()), new RawEntry(field.value()));
+      size += field.path().length() + field.value().length + 4;
     }
 
-    return Mapper.encodeAsBytes(result);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+    result.writeTo(out);
+    return out.toByteArray();
   }
 
-  private static void insert(ObjectNode document, SubDocumentField field) {
-    List<PathElement> path = JsonPathParser.parse(field.path());
-    JsonNode content = Mapper.decodeIntoTree(field.value());
-    insertRecursive(document, path, content);
+  private static List<PathElement> parse(final String path) {
+    List<PathElement> parsed = PATH_CACHE.get(path);
+    if (parsed == null) {
+      parsed = JsonPathParser.parse(path);
+      if (PATH_CACHE.size() >= PATH_CACHE_SIZE) {
+        PATH_CACHE.clear();
+      }
+      PATH_CACHE.put(path, parsed);
+    }
+    return parsed;
   }
 
   /**
    * Will follow `path`, constructing JSON as it does into `out`, and inserting `content` at the leaf
    *
-   * @param out must be either a ObjectNode or ArrayNode, and the JSON will be constructed into it
+   * @param out must be either a ObjectEntry or ArrayEntry, and the JSON will be constructed into it
    */
-  private static void insertRecursive(final ContainerNode<?> out,
+  private static void insertRecursive(final Entry out,
                                       final List<PathElement> path,
-                                      final JsonNode content) {
+                                      final Entry content) {
     if (path.isEmpty()) {
       // Recursion is done
       return;
@@ -88,22 +115,23 @@ public class ProjectionsApplier {
       if (leaf instanceof PathArray) {
         PathArray v = (PathArray) leaf;
 
-        ArrayNode toInsert = out.arrayNode().add(content);
+        ArrayEntry toInsert = new ArrayEntry();
+        toInsert.add(content);
 
-        if (out.isObject()) {
-          ((ObjectNode) out).set(v.str(), toInsert);
+        if (out instanceof ObjectEntry) {
+          ((ObjectEntry) out).set(v.str(), toInsert);
         } else {
-          ((ArrayNode) out).add(toInsert);
+          ((ArrayEntry) out).add(toInsert);
         }
       } else {
         PathObjectOrField v = (PathObjectOrField) leaf;
 
-        if (out.isObject()) {
-          ((ObjectNode) out).set(v.str(), content);
+        if (out instanceof ObjectEntry) {
+          ((ObjectEntry) out).set(v.str(), content);
         } else {
-          ObjectNode toInsert = out.objectNode();
+          ObjectEntry toInsert = new ObjectEntry();
           toInsert.set(v.str(), content);
-          ((ArrayNode) out).add(toInsert);
+          ((ArrayEntry) out).add(toInsert);
         }
       }
     } else {
@@ -113,35 +141,102 @@ public class ProjectionsApplier {
 
       if (next instanceof PathArray) {
         PathArray v = (PathArray) next;
-        ArrayNode toInsert = out.arrayNode();
+        ArrayEntry toInsert = new ArrayEntry();
 
-        if (out.isObject()) {
-          ((ObjectNode) out).set(v.str(), toInsert);
+        if (out instanceof ObjectEntry) {
+          ((ObjectEntry) out).set(v.str(), toInsert);
           insertRecursive(toInsert, remaining, content);
         } else {
-          ((ArrayNode) out).add(toInsert);
+          ((ArrayEntry) out).add(toInsert);
           insertRecursive(out, remaining, content);
         }
       } else {
         PathObjectOrField v = (PathObjectOrField) next;
 
-        if (out.isObject()) {
-          ObjectNode createIn = (ObjectNode) out.get(v.str());
-          if (createIn == null) {
-            createIn = out.objectNode();
-          }
-          ((ObjectNode) out).set(v.str(), createIn);
+        if (out instanceof ObjectEntry) {
+          Entry existing = ((ObjectEntry) out).get(v.str());
+          ObjectEntry createIn = existing instanceof ObjectEntry ? (ObjectEntry) existing : new ObjectEntry();
+          ((ObjectEntry) out).set(v.str(), createIn);
           insertRecursive(createIn, remaining, content);
         } else {
-          ObjectNode toCreate = out.objectNode();
-          ObjectNode nextToCreate = out.objectNode();
+          ObjectEntry toCreate = new ObjectEntry();
+          ObjectEntry nextToCreate = new ObjectEntry();
           toCreate.set(v.str(), nextToCreate);
-          ((ArrayNode) out).add(toCreate);
+          ((ArrayEntry) out).add(toCreate);
           insertRecursive(nextToCreate, remaining, content);
         }
       }
     }
   }
-}
 
+  /**
+   * A node of the reconstructed document, which knows how to write itself as JSON.
+   */
+  private interface Entry {
+    void writeTo(ByteArrayOutputStream out);
+  }
+
+  private static class RawEntry implements Entry {
+    private final byte[] value;
+
+    RawEntry(final byte[] value) {
+      this.value = value;
+    }
+
+    @Override
+    public void writeTo(final ByteArrayOutputStream out) {
+      out.write(value, 0, value.length);
+    }
+  }
+
+  private static class ObjectEntry implements Entry {
+    private final Map<String, Entry> fields = new LinkedHashMap<>();
+
+    Entry get(final String name) {
+      return fields.get(name);
+    }
+
+    void set(final String name, final Entry entry) {
+      fields.put(name, entry);
+    }
+
+    @Override
+    public void writeTo(final ByteArrayOutputStream out) {
+      out.write('{');
+      boolean first = true;
+      for (Map.Entry<String, Entry> field : fields.entrySet()) {
+        if (!first) {
+          out.write(',');
+        }
+        first = false;
+        byte[] name = JsonStringEncoder.getInstance().quoteAsUTF8(field.getKey());
+        out.write('"');
+        out.write(name, 0, name.length);
+        out.write('"');
+        out.write(':');
+        field.getValue().writeTo(out);
+      }
+      out.write('}');
+    }
+  }
+
+  private static class ArrayEntry implements Entry {
+    private final List<Entry> elements = new ArrayList<>();
 
+    void add(final Entry entry) {
+      elements.add(entry);
+    }
+
+    @Override
+    public void writeTo(final ByteArrayOutputStream out) {
+      out.write('[');
+      for (int i = 0; i < elements.size(); i++) {
+        if (i > 0) {
+          out.write(',');
+        }
+        elements.get(i).writeTo(out);
+      }
+      out.write(']');
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.endpoint.Endpoint;
 import com.couchbase.client.core.endpoint.KeyValueEndpoint;
 import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.service.strategy.LoadAwareSelectionStrategy;
 import com.couchbase.client.core.service.strategy.PartitionSelectionStrategy;
 
 import java.util.Optional;
@@ -35,6 +36,8 @@ public class KeyValueService extends PooledService {
   private final int port;
   private final Optional<String> bucketname;
   private final Authenticator authenticator;
+  private final EndpointSelectionStrategy strategy;
+  private final int growthThreshold;
 
   public KeyValueService(final ServiceConfig serviceConfig, final CoreContext coreContext,
                          final String hostname, final int port, final Optional<String> bucketname,
@@ -44,6 +47,15 @@ public class KeyValueService extends PooledService {
     this.port = port;
     this.bucketname = bucketname;
     this.authenticator = authenticator;
+
+    if (serviceConfig instanceof KeyValueServiceConfig && ((KeyValueServiceConfig) serviceConfig).adaptive()) {
+      KeyValueServiceConfig config = (KeyValueServiceConfig) serviceConfig;
+      this.strategy = new LoadAwareSelectionStrategy(config.partitionAffinity());
+      this.growthThreshold = config.growthThreshold();
+    } else {
+      this.strategy = STRATEGY;
+      this.growthThreshold = Integer.MAX_VALUE;
+    }
   }
 
   @Override
@@ -53,7 +65,15 @@ public class KeyValueService extends PooledService {
 
   @Override
   protected EndpointSelectionStrategy selectionStrategy() {
-    return STRATEGY;
+    return strategy;
+  }
+
+  /**
+   * An adaptive pool grows once even the endpoint picked by the load-aware strategy is above the threshold.
+   */
+  @Override
+  protected boolean shouldGrow(final Endpoint selected) {
+    return LoadAwareSelectionStrategy.load(selected) >= growthThreshold;
   }
 
   @Override
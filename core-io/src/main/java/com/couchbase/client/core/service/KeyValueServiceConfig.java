@@ -16,13 +16,26 @@
 
 package com.couchbase.client.core.service;
 
+import com.couchbase.client.core.error.InvalidArgumentException;
+
 import java.time.Duration;
 
+import static com.couchbase.client.core.util.Validators.notNull;
+
 public class KeyValueServiceConfig implements ServiceConfig {
 
   public static final int DEFAULT_ENDPOINTS = 1;
 
-  private final int endpoints;
+  /**
+   * The number of in-flight requests on the least loaded connection after which an adaptive pool opens another one.
+   */
+  public static final int DEFAULT_GROWTH_THRESHOLD = 64;
+
+  private final int minEndpoints;
+  private final int maxEndpoints;
+  private final Duration idleTime;
+  private final int growthThreshold;
+  private final boolean partitionAffinity;
 
   public static Builder builder() {
     return new Builder().endpoints(DEFAULT_ENDPOINTS);
@@ -32,23 +45,40 @@ public class KeyValueServiceConfig implements ServiceConfig {
     return builder().endpoints(endpoints);
   }
 
+  public static Builder minEndpoints(int minEndpoints) {
+    return builder().minEndpoints(minEndpoints);
+  }
+
   private KeyValueServiceConfig(Builder builder) {
-    this.endpoints = builder.endpoints;
+    if (builder.maxEndpoints < builder.minEndpoints) {
+      throw InvalidArgumentException.fromMessage("maxEndpoints (" + builder.maxEndpoints
+        + ") must not be smaller than minEndpoints (" + builder.minEndpoints + ")");
+    }
+    this.minEndpoints = builder.minEndpoints;
+    // The partition to endpoint mapping changes with the size of the pool, so pinned pools need to stay fixed.
+    this.maxEndpoints = builder.partitionAffinity ? builder.minEndpoints : builder.maxEndpoints;
+    this.idleTime = adaptive(minEndpoints, maxEndpoints) ? builder.idleTime : Duration.ZERO;
+    this.growthThreshold = builder.growthThreshold;
+    this.partitionAffinity = builder.partitionAffinity;
+  }
+
+  private static boolean adaptive(int minEndpoints, int maxEndpoints) {
+    return minEndpoints != maxEndpoints;
   }
 
   @Override
   public int minEndpoints() {
-    return endpoints;
+    return minEndpoints;
   }
 
   @Override
   public int maxEndpoints() {
-    return endpoints;
+    return maxEndpoints;
   }
 
   @Override
   public Duration idleTime() {
-    return Duration.ZERO;
+    return idleTime;
   }
 
   @Override
@@ -56,11 +86,83 @@ public class KeyValueServiceConfig implements ServiceConfig {
     return true;
   }
 
-  public static class Builder {
-    private int endpoints;
+  /**
+   * Returns true if the pool grows and shrinks between {@link #minEndpoints()} and {@link #maxEndpoints()}.
+   */
+  public boolean adaptive() {
+    return adaptive(minEndpoints, maxEndpoints);
+  }
+
+  /**
+   * Returns the number of in-flight requests on the selected connection after which an adaptive pool grows.
+   */
+  public int growthThreshold() {
+    return growthThreshold;
+  }
 
+  /**
+   * Returns true if every request is pinned to the connection of its partition, which keeps the pool fixed at
+   * {@link #minEndpoints()}.
+   */
+  public boolean partitionAffinity() {
+    return partitionAffinity;
+  }
+
+  public static class Builder {
+    private int minEndpoints;
+    private int maxEndpoints;
+    private Duration idleTime = Duration.ZERO;
+    private int growthThreshold = DEFAULT_GROWTH_THRESHOLD;
+    private boolean partitionAffinity = false;
+
+    /**
+     * Sets a fixed number of endpoints (both the minimum and the maximum).
+     */
     public Builder endpoints(int endpoints) {
-      this.endpoints = endpoints;
+      this.minEndpoints = endpoints;
+      this.maxEndpoints = endpoints;
+      return this;
+    }
+
+    public Builder minEndpoints(int minEndpoints) {
+      this.minEndpoints = minEndpoints;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of endpoints - if larger than the minimum, the pool becomes adaptive.
+     */
+    public Builder maxEndpoints(int maxEndpoints) {
+      this.maxEndpoints = maxEndpoints;
+      return this;
+    }
+
+    /**
+     * Sets the time after which an idle endpoint above the minimum is closed (only used by an adaptive pool).
+     */
+    public Builder idleTime(Duration idleTime) {
+      notNull(idleTime, "IdleTime");
+      if (idleTime.isNegative()) {
+        throw InvalidArgumentException.fromMessage("idleTime must be non-negative but got " + idleTime);
+      }
+      this.idleTime = idleTime;
+      return this;
+    }
+
+    public Builder growthThreshold(int growthThreshold) {
+      if (growthThreshold < 1) {
+        throw InvalidArgumentException.fromMessage("growthThreshold must be greater than 0 but got " + growthThreshold);
+      }
+      this.growthThreshold = growthThreshold;
+      return this;
+    }
+
+    /**
+     * Pins every request to the connection of its partition - if enabled, the maximum is ignored and the pool is
+     * fixed at the minimum number of endpoints.
+     */
+    public Builder partitionAffinity(boolean partitionAffinity) {
+      this.partitionAffinity = partitionAffinity;
       return this;
     }
 
@@ -72,7 +174,11 @@ public class KeyValueServiceConfig implements ServiceConfig {
   @Override
   public String toString() {
     return "KeyValueServiceConfig{" +
-      "endpoints=" + endpoints +
+      "minEndpoints=" + minEndpoints +
+      ", maxEndpoints=" + maxEndpoints +
+      ", idleTime=" + idleTime +
+      ", growthThreshold=" + growthThreshold +
+      ", partitionAffinity=" + partitionAffinity +
       '}';
   }
 }
@@ -273,6 +273,19 @@ abstract class PooledService implements Service {
    */
   protected abstract EndpointSelectionStrategy selectionStrategy();
 
+  /**
+   * Allows a subclass to open another endpoint even though one has been selected, i.e. because it is overloaded.
+   * <p>
+   * This is only consulted if the pool is not fixed and no other endpoint is currently connecting. The request is
+   * still sent to the selected endpoint, the new one is used by the selection strategy once connected.
+   *
+   * @param selected the endpoint selected for the current request.
+   * @return true if the pool should grow, false otherwise.
+   */
+  protected boolean shouldGrow(final Endpoint selected) {
+    return false;
+  }
+
   @Override
   public <R extends Request<? extends Response>> void send(final R request) {
     if (request.completed()) {
@@ -282,6 +295,9 @@ abstract class PooledService implements Service {
     Endpoint found = endpoints.isEmpty() ? null : selectionStrategy().select(request, endpoints);
 
     if (found != null) {
+      if (!fixedPool && reservedEndpoints.isEmpty() && shouldGrow(found)) {
+        growPool();
+      }
       found.send(request);
       return;
     }
@@ -293,13 +309,22 @@ abstract class PooledService implements Service {
     }
   }
 
+  /**
+   * Connects another endpoint without a request waiting for it, if the pool still has room.
+   */
+  private synchronized void growPool() {
+    if (reservedEndpoints.isEmpty() && (endpoints.size() + reservedEndpoints.size()) < serviceConfig.maxEndpoints()) {
+      connectReservedEndpoint(null);
+    }
+  }
+
   /**
    * Connect the reserved endpoint and dispatch the request into it if possible.
    * <p>
    * Note that there are two synchronized sections in this method, because the subscription callback works on
    * a different thread.
    *
-   * @param request the request that needs to bee dispatched.
+   * @param request the request that needs to bee dispatched, or null if the pool is grown ahead of time.
    */
   private synchronized <R extends Request<? extends Response>> void connectReservedEndpoint(final R request) {
     if (!disconnected.get()) {
@@ -323,11 +348,15 @@ abstract class PooledService implements Service {
             if (disconnected.get()) {
               endpoint.disconnect();
               endpointStates.deregister(endpoint);
-              RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+              if (request != null) {
+                RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
+              }
             } else {
               endpoints.add(endpoint);
 
-              if (s == EndpointState.CONNECTED) {
+              if (request == null) {
+                return;
+              } else if (s == EndpointState.CONNECTED) {
                 endpoint.send(request);
               } else if (s == EndpointState.DISCONNECTED) {
                 RetryOrchestrator.maybeRetry(serviceContext, request, RetryReason.ENDPOINT_NOT_AVAILABLE);
@@ -394,6 +423,38 @@ abstract class PooledService implements Service {
     return endpointStates.states();
   }
 
+  @Override
+  public long outstandingRequests() {
+    long outstanding = 0;
+    for (Endpoint endpoint : endpoints) {
+      outstanding += endpoint.outstandingRequests();
+    }
+    return outstanding;
+  }
+
+  @Override
+  public long latencyEstimate() {
+    long sum = 0;
+    int sampled = 0;
+    for (Endpoint endpoint : endpoints) {
+      long estimate = endpoint.latencyEstimate();
+      if (estimate > 0) {
+        sum += estimate;
+        sampled++;
+      }
+    }
+    return sampled == 0 ? 0 : sum / sampled;
+  }
+
+  @Override
+  public long inFlightAge() {
+    long oldest = 0;
+    for (Endpoint endpoint : endpoints) {
+      oldest = Math.max(oldest, endpoint.inFlightAge());
+    }
+    return oldest;
+  }
+
   @Override
   public Stream<EndpointDiagnostics> diagnostics() {
     return Stream
@@ -19,7 +19,7 @@ package com.couchbase.client.core.service;
 import com.couchbase.client.core.CoreContext;
 import com.couchbase.client.core.endpoint.Endpoint;
 import com.couchbase.client.core.endpoint.QueryEndpoint;
-import com.couchbase.client.core.service.strategy.RoundRobinSelectionStrategy;
+import com.couchbase.client.core.service.strategy.LeastLoadedSelectionStrategy;
 
 import java.util.Optional;
 
@@ -27,12 +27,16 @@ public class QueryService extends PooledService {
 
   private final String hostname;
   private final int port;
+  private final EndpointSelectionStrategy selectionStrategy;
 
   public QueryService(final QueryServiceConfig config, final CoreContext context,
                       final String hostname, final int port) {
     super(config, new ServiceContext(context, hostname, port, ServiceType.QUERY, Optional.empty()));
     this.hostname = hostname;
     this.port = port;
+    this.selectionStrategy = LeastLoadedSelectionStrategy.create(
+      context.environment().ioConfig().loadBalancingStrategy(ServiceType.QUERY)
+    );
   }
 
   @Override
@@ -42,7 +46,7 @@ public class QueryService extends PooledService {
 
   @Override
   protected EndpointSelectionStrategy selectionStrategy() {
-    return new RoundRobinSelectionStrategy();
+    return selectionStrategy;
   }
 
   @Override
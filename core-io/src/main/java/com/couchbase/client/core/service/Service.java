@@ -76,4 +76,29 @@ public interface Service extends Stateful<ServiceState> {
    * Returns diagnostics information for this service.
    */
   Stream<EndpointDiagnostics> diagnostics();
+
+  /**
+   * Returns the number of outstanding requests across all endpoints of this service.
+   */
+  default long outstandingRequests() {
+    return 0;
+  }
+
+  /**
+   * Returns the average latency estimate of all endpoints of this service which have one.
+   *
+   * @return the latency estimate in nanoseconds, or 0 if no endpoint has one yet.
+   */
+  default long latencyEstimate() {
+    return 0;
+  }
+
+  /**
+   * Returns the longest time any endpoint of this service has been waiting for a response.
+   *
+   * @return the time in nanoseconds, or 0 if no request is in flight.
+   */
+  default long inFlightAge() {
+    return 0;
+  }
 }
@@ -16,24 +16,13 @@
 
 package com.couchbase.client.core.service.kv;
 
-import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.cnc.RequestSpan;
-import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.config.BucketConfig;
 import com.couchbase.client.core.config.CouchbaseBucketConfig;
 import com.couchbase.client.core.error.FeatureNotAvailableException;
 import com.couchbase.client.core.error.ReplicaNotConfiguredException;
-import com.couchbase.client.core.msg.kv.MutationToken;
-import com.couchbase.client.core.msg.kv.ObserveViaSeqnoRequest;
-import com.couchbase.client.core.retry.RetryStrategy;
-import com.couchbase.client.core.retry.reactor.Repeat;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Implements traditional observe-based durability requirements.
  *
@@ -58,61 +47,12 @@ public class Observe {
       .requestTracer()
       .requestSpan("observe", ctx.parentSpan());
 
-    Flux<ObserveItem> observed = Flux.defer(() -> {
+    Mono<Void> observed = Mono.defer(() -> {
       BucketConfig config = ctx.core().clusterConfig().bucketConfig(ctx.collectionIdentifier().bucket());
-      return Flux.just(validateReplicas(config, ctx.persistTo(), ctx.replicateTo()));
-    })
-    .flatMap(replicas -> viaMutationToken(replicas, ctx, parentSpan));
-    return maybeRetry(observed, ctx).timeout(ctx.timeout(), ctx.environment().scheduler()).doFinally(t -> parentSpan.end());
-  }
-
-  private static Flux<ObserveItem> viaMutationToken(final int bucketReplicas, final ObserveContext ctx,
-                                                    final RequestSpan parent) {
-    if (!ctx.mutationToken().isPresent()) {
-      throw new IllegalStateException("MutationToken is not present, this is a bug!");
-    }
-
-    Duration timeout = ctx.timeout();
-    RetryStrategy retryStrategy = ctx.retryStrategy();
-    MutationToken mutationToken = ctx.mutationToken().get();
-    String id = ctx.key();
-
-    List<ObserveViaSeqnoRequest> requests = new ArrayList<>();
-    if (ctx.persistTo() != ObservePersistTo.NONE) {
-      final RequestSpan span = ctx.environment().requestTracer()
-        .requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_OBSERVE, parent);
-      requests.add(new ObserveViaSeqnoRequest(timeout, ctx, ctx.collectionIdentifier(), retryStrategy, 0, true,
-        mutationToken.partitionUUID(), id, span));
-    }
-
-    if (ctx.persistTo().touchesReplica() || ctx.replicateTo().touchesReplica()) {
-      for (short i = 1; i <= bucketReplicas; i++) {
-        final RequestSpan span = ctx.environment().requestTracer()
-          .requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_OBSERVE, parent);
-        requests.add(new ObserveViaSeqnoRequest(timeout, ctx, ctx.collectionIdentifier(), retryStrategy, i, false,
-          mutationToken.partitionUUID(), id, span));
-      }
-    }
-
-    return Flux.fromIterable(requests)
-      .flatMap(request -> {
-        ctx.core().send(request);
-        return Reactor
-          .wrap(request, request.response(), true)
-          .onErrorResume(t-> Mono.empty())
-          .doFinally(signalType -> request.context().logicallyComplete());
-      })
-      .map(response -> ObserveItem.fromMutationToken(mutationToken, response));
-  }
-
-
-  private static Mono<Void> maybeRetry(Flux<ObserveItem> observedItems, final ObserveContext ctx) {
-    return observedItems
-      .scan(ObserveItem.empty(), ObserveItem::add)
-      .repeatWhen(Repeat.times(Long.MAX_VALUE).exponentialBackoff(Duration.ofNanos(10000), Duration.ofMillis(100)))
-      .skipWhile(status -> !status.check(ctx.persistTo(), ctx.replicateTo()))
-      .take(1)
-      .then();
+      int replicas = validateReplicas(config, ctx.persistTo(), ctx.replicateTo());
+      return ctx.core().observeCoalescer().observe(ctx, replicas, parentSpan);
+    });
+    return observed.timeout(ctx.timeout(), ctx.environment().scheduler()).doFinally(t -> parentSpan.end());
   }
 
   private static int validateReplicas(final BucketConfig bucketConfig, final ObservePersistTo persistTo,
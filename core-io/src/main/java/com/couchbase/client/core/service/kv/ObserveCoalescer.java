@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.events.request.ObservePollFailedEvent;
+import com.couchbase.client.core.msg.kv.MutationToken;
+import com.couchbase.client.core.msg.kv.ObserveViaSeqnoRequest;
+import com.couchbase.client.core.msg.kv.ObserveViaSeqnoResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the observe polling of many mutations into one polling loop per vbucket and node.
+ * <p>
+ * An observe response carries the current and persisted sequence numbers of the whole vbucket, so there is no need
+ * to poll for every mutation on its own. Every mutation which is observed registers its sequence number as a
+ * waiter with the loops of its vbucket (one for the active and one for each replica which needs to be checked). Each
+ * loop sends one request at a time and hands the response to all of its waiters, releasing the ones whose
+ * durability requirements are met. Every waiter backs off exponentially from {@link #MIN_BACKOFF} up to
+ * {@link #MAX_BACKOFF} with the polls it has seen, as if it was polling on its own, and a loop polls as often as its
+ * fastest waiter needs. It stops once it has no waiters left.
+ * <p>
+ * Each poll uses the retry strategy, timeout and parent span of the waiter with the latest deadline, so it lives as
+ * long as any of its waiters needs it to.
+ */
+@Stability.Internal
+public class ObserveCoalescer {
+
+  static final Duration MIN_BACKOFF = Duration.ofNanos(10000);
+  static final Duration MAX_BACKOFF = Duration.ofMillis(100);
+
+  private final Core core;
+  private final Map<PollKey, PollLoop> loops = new ConcurrentHashMap<>();
+
+  public ObserveCoalescer(final Core core) {
+    this.core = core;
+  }
+
+  /**
+   * Observes a mutation until its durability requirements are met.
+   *
+   * @param ctx the observe context of the mutation, which must carry a mutation token.
+   * @param bucketReplicas the number of replicas configured on the bucket.
+   * @param parentSpan the span of the observe operation, parent of the polls sent on its behalf.
+   * @return a mono which completes once the requirements are met, and stops observing once cancelled.
+   */
+  public Mono<Void> observe(final ObserveContext ctx, final int bucketReplicas, final RequestSpan parentSpan) {
+    final MutationToken token = ctx.mutationToken().orElseThrow(
+      () -> new IllegalStateException("MutationToken is not present, this is a bug!")
+    );
+
+    final List<PollKey> targets = new ArrayList<>();
+    if (ctx.persistTo() != Observe.ObservePersistTo.NONE) {
+      targets.add(new PollKey(ctx.collectionIdentifier().bucket(), token.partitionID(), 0, token.partitionUUID()));
+    }
+    if (ctx.persistTo().touchesReplica() || ctx.replicateTo().touchesReplica()) {
+      for (int i = 1; i <= bucketReplicas; i++) {
+        targets.add(new PollKey(ctx.collectionIdentifier().bucket(), token.partitionID(), i, token.partitionUUID()));
+      }
+    }
+
+    return Mono.create(sink -> {
+      Waiter waiter = new Waiter(ctx, token, parentSpan, targets.size(), sink);
+      sink.onDispose(waiter::unregister);
+      for (int i = 0; i < targets.size(); i++) {
+        register(targets.get(i), waiter, i);
+      }
+    });
+  }
+
+  private void register(final PollKey key, final Waiter waiter, final int target) {
+    while (true) {
+      PollLoop loop = loops.computeIfAbsent(key, PollLoop::new);
+      if (loop.register(waiter, target)) {
+        if (!waiter.track(loop)) {
+          loop.unregister(waiter);
+        }
+        return;
+      }
+      // The loop stopped concurrently and removed itself, try again with a fresh one.
+      loops.remove(key, loop);
+    }
+  }
+
+  /**
+   * Returns the number of polling loops currently running.
+   */
+  int activeLoops() {
+    return loops.size();
+  }
+
+  /**
+   * A single mutation which waits for its durability requirements, across all of its targets.
+   */
+  private static class Waiter {
+
+    private final ObserveContext ctx;
+    private final MutationToken token;
+    private final RequestSpan parentSpan;
+    private final long deadline;
+    private final ObserveItem[] items;
+    private final MonoSink<Void> sink;
+    private final List<PollLoop> loops = new ArrayList<>();
+    private boolean done;
+
+    Waiter(final ObserveContext ctx, final MutationToken token, final RequestSpan parentSpan, final int targets,
+           final MonoSink<Void> sink) {
+      this.ctx = ctx;
+      this.token = token;
+      this.parentSpan = parentSpan;
+      this.deadline = System.nanoTime() + ctx.timeout().toNanos();
+      this.sink = sink;
+      this.items = new ObserveItem[targets];
+      for (int i = 0; i < targets; i++) {
+        items[i] = ObserveItem.empty();
+      }
+    }
+
+    void update(final int target, final ObserveViaSeqnoResponse response) {
+      synchronized (this) {
+        if (done) {
+          return;
+        }
+        items[target] = ObserveItem.fromMutationToken(token, response);
+        ObserveItem total = ObserveItem.empty();
+        for (ObserveItem item : items) {
+          total = total.add(item);
+        }
+        if (!total.check(ctx.persistTo(), ctx.replicateTo())) {
+          return;
+        }
+        done = true;
+      }
+      sink.success();
+    }
+
+    synchronized boolean track(final PollLoop loop) {
+      if (done) {
+        return false;
+      }
+      loops.add(loop);
+      return true;
+    }
+
+    synchronized void unregister() {
+      done = true;
+      for (PollLoop loop : loops) {
+        loop.unregister(this);
+      }
+      loops.clear();
+    }
+  }
+
+  /**
+   * A waiter registered with a loop, for one of its targets.
+   */
+  private static class Registration {
+
+    private final Waiter waiter;
+    private final int target;
+    private final long joinedAt;
+
+    Registration(final Waiter waiter, final int target, final long joinedAt) {
+      this.waiter = waiter;
+      this.target = target;
+      this.joinedAt = joinedAt;
+    }
+
+    /**
+     * Returns the backoff this waiter would use after the given number of polls if it was polling on its own.
+     */
+    long backoffNanos(final long polls) {
+      long seen = polls - joinedAt;
+      if (seen <= 1) {
+        return MIN_BACKOFF.toNanos();
+      }
+      return seen > 20 ? MAX_BACKOFF.toNanos() : Math.min(MIN_BACKOFF.toNanos() << (seen - 1), MAX_BACKOFF.toNanos());
+    }
+  }
+
+  /**
+   * Polls one vbucket on one node on behalf of all its waiters.
+   */
+  private class PollLoop {
+
+    private final PollKey key;
+    private final Map<Waiter, Registration> waiters = new ConcurrentHashMap<>();
+
+    private boolean running;
+    private boolean closed;
+    private long polls;
+
+    PollLoop(final PollKey key) {
+      this.key = key;
+    }
+
+    synchronized boolean register(final Waiter waiter, final int target) {
+      if (closed) {
+        return false;
+      }
+      waiters.put(waiter, new Registration(waiter, target, polls));
+      if (!running) {
+        running = true;
+        schedule(0);
+      }
+      return true;
+    }
+
+    void unregister(final Waiter waiter) {
+      waiters.remove(waiter);
+    }
+
+    private void poll() {
+      Waiter latest = null;
+      for (Waiter waiter : waiters.keySet()) {
+        if (latest == null || waiter.deadline - latest.deadline > 0) {
+          latest = waiter;
+        }
+      }
+      if (latest == null) {
+        next();
+        return;
+      }
+      synchronized (this) {
+        polls++;
+      }
+
+      ObserveContext ctx = latest.ctx;
+      RequestSpan span = ctx.environment().requestTracer()
+        .requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_OBSERVE, latest.parentSpan);
+      ObserveViaSeqnoRequest request = new ObserveViaSeqnoRequest(
+        Duration.ofNanos(Math.max(latest.deadline - System.nanoTime(), 0)),
+        ctx,
+        ctx.collectionIdentifier(),
+        ctx.retryStrategy(),
+        key.replica,
+        key.replica == 0,
+        key.vbucketUUID,
+        ctx.key(),
+        span
+      );
+      core.send(request);
+      request.response().whenComplete((response, error) -> {
+        request.context().logicallyComplete();
+        if (response != null) {
+          for (Registration registration : waiters.values()) {
+            registration.waiter.update(registration.target, response);
+          }
+        } else {
+          ctx.environment().eventBus().publish(new ObservePollFailedEvent(request.context(), error));
+        }
+        next();
+      });
+    }
+
+    private synchronized void next() {
+      if (waiters.isEmpty()) {
+        running = false;
+        closed = true;
+        loops.remove(key, this);
+        return;
+      }
+      long backoffNanos = MAX_BACKOFF.toNanos();
+      for (Registration registration : waiters.values()) {
+        backoffNanos = Math.min(backoffNanos, registration.backoffNanos(polls));
+      }
+      schedule(backoffNanos);
+    }
+
+    private void schedule(final long delayNanos) {
+      try {
+        core.context().environment().scheduler().schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException ex) {
+        // The environment is shutting down, the waiters are going to time out.
+        running = false;
+        closed = true;
+        loops.remove(key, this);
+      }
+    }
+  }
+
+  /**
+   * Identifies a polling loop: the vbucket (and its uuid) of a bucket on the node holding the given replica.
+   */
+  private static class PollKey {
+
+    private final String bucket;
+    private final short partition;
+    private final int replica;
+    private final long vbucketUUID;
+
+    PollKey(final String bucket, final short partition, final int replica, final long vbucketUUID) {
+      this.bucket = bucket;
+      this.partition = partition;
+      this.replica = replica;
+      this.vbucketUUID = vbucketUUID;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      PollKey pollKey = (PollKey) o;
+      return partition == pollKey.partition
+        && replica == pollKey.replica
+        && vbucketUUID == pollKey.vbucketUUID
+        && bucket.equals(pollKey.bucket);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(bucket, partition, replica, vbucketUUID);
+    }
+  }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.service.EndpointSelectionStrategy;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Selects the endpoint with the lowest load, either out of all endpoints or out of two random ones.
+ * <p>
+ * The cost of a candidate is its number of outstanding requests plus one (so idle candidates can still be told
+ * apart), multiplied by its latency estimate. Candidates without an estimate yet are assumed to be as fast as the
+ * average of the candidates which have one, so new endpoints and nodes are tried early but do not attract all the
+ * traffic. If a candidate has been waiting for a response for longer than its estimate, that time is used instead,
+ * so a candidate which stopped responding (or never responded) is avoided as its requests age.
+ */
+public class LeastLoadedSelectionStrategy implements EndpointSelectionStrategy {
+
+  private static final Predicate<Endpoint> USABLE = endpoint ->
+    endpoint != null && endpoint.state() == EndpointState.CONNECTED && endpoint.freeToWrite();
+
+  private static final Load<Endpoint> LOAD = new Load<Endpoint>() {
+    @Override
+    public long outstandingRequests(final Endpoint endpoint) {
+      return endpoint.outstandingRequests();
+    }
+
+    @Override
+    public long latencyEstimate(final Endpoint endpoint) {
+      return endpoint.latencyEstimate();
+    }
+
+    @Override
+    public long inFlightAge(final Endpoint endpoint) {
+      return endpoint.inFlightAge();
+    }
+  };
+
+  private final boolean powerOfTwoChoices;
+
+  public LeastLoadedSelectionStrategy(final boolean powerOfTwoChoices) {
+    this.powerOfTwoChoices = powerOfTwoChoices;
+  }
+
+  /**
+   * Creates the endpoint selection strategy for the given load balancing strategy.
+   *
+   * @param strategy the configured load balancing strategy.
+   * @return the endpoint selection strategy to use.
+   */
+  public static EndpointSelectionStrategy create(final LoadBalancingStrategy strategy) {
+    switch (strategy) {
+      case LEAST_OUTSTANDING:
+        return new LeastLoadedSelectionStrategy(false);
+      case POWER_OF_TWO_CHOICES:
+        return new LeastLoadedSelectionStrategy(true);
+      default:
+        return new RoundRobinSelectionStrategy();
+    }
+  }
+
+  @Override
+  public <R extends Request<? extends Response>> Endpoint select(final R request, final List<Endpoint> endpoints) {
+    return select(endpoints, USABLE, LOAD, powerOfTwoChoices);
+  }
+
+  /**
+   * Computes the cost of a candidate from its outstanding requests, its latency estimate and the time it has been
+   * waiting for a response.
+   *
+   * @param outstanding the number of outstanding requests.
+   * @param latencyEstimate the latency estimate in nanoseconds, or 0 if unknown.
+   * @param inFlightAge the time waiting for a response in nanoseconds, or 0 if nothing is in flight.
+   * @return the cost, lower is better.
+   */
+  @Stability.Internal
+  public static long cost(final long outstanding, final long latencyEstimate, final long inFlightAge) {
+    return (outstanding + 1) * Math.max(1, Math.max(latencyEstimate, inFlightAge));
+  }
+
+  /**
+   * Selects the usable candidate with the lowest cost.
+   * <p>
+   * With power of two choices only two random candidates are compared, and the others are only scanned if neither
+   * of them is usable. Otherwise all candidates are compared, starting at a random offset so that ties do not always
+   * go to the same one.
+   *
+   * @param candidates the candidates to select from.
+   * @param usable checks if a candidate can be selected at all.
+   * @param load provides the load of a candidate.
+   * @param powerOfTwoChoices if only two random candidates should be compared.
+   * @return the selected candidate, or null if none is usable.
+   */
+  @Stability.Internal
+  public static <T> T select(final List<T> candidates, final Predicate<T> usable, final Load<T> load,
+                             final boolean powerOfTwoChoices) {
+    int size = candidates.size();
+    if (size == 0) {
+      return null;
+    } else if (size == 1) {
+      T candidate = candidates.get(0);
+      return usable.test(candidate) ? candidate : null;
+    }
+
+    long defaultEstimate = averageLatencyEstimate(candidates, load);
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    if (powerOfTwoChoices) {
+      int first = random.nextInt(size);
+      int second = random.nextInt(size - 1);
+      if (second >= first) {
+        second++;
+      }
+      T a = candidates.get(first);
+      T b = candidates.get(second);
+      boolean aUsable = usable.test(a);
+      boolean bUsable = usable.test(b);
+      if (aUsable && bUsable) {
+        return cost(a, load, defaultEstimate) <= cost(b, load, defaultEstimate) ? a : b;
+      } else if (aUsable) {
+        return a;
+      } else if (bUsable) {
+        return b;
+      }
+    }
+
+    int offset = random.nextInt(size);
+    T least = null;
+    long leastCost = Long.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      T candidate = candidates.get((offset + i) % size);
+      if (usable.test(candidate)) {
+        long candidateCost = cost(candidate, load, defaultEstimate);
+        if (candidateCost < leastCost) {
+          least = candidate;
+          leastCost = candidateCost;
+        }
+      }
+    }
+    return least;
+  }
+
+  private static <T> long cost(final T candidate, final Load<T> load, final long defaultEstimate) {
+    long estimate = load.latencyEstimate(candidate);
+    return cost(
+      load.outstandingRequests(candidate),
+      estimate > 0 ? estimate : defaultEstimate,
+      load.inFlightAge(candidate)
+    );
+  }
+
+  /**
+   * Returns the average latency estimate of the candidates which have one, or 0 if none has.
+   */
+  private static <T> long averageLatencyEstimate(final List<T> candidates, final Load<T> load) {
+    long sum = 0;
+    int sampled = 0;
+    for (T candidate : candidates) {
+      long estimate = candidate == null ? 0 : load.latencyEstimate(candidate);
+      if (estimate > 0) {
+        sum += estimate;
+        sampled++;
+      }
+    }
+    return sampled == 0 ? 0 : sum / sampled;
+  }
+
+  /**
+   * Provides the load of a candidate, see {@link #cost(long, long, long)}.
+   *
+   * @param <T> the type of the candidate.
+   */
+  @Stability.Internal
+  public interface Load<T> {
+
+    long outstandingRequests(T candidate);
+
+    long latencyEstimate(T candidate);
+
+    long inFlightAge(T candidate);
+
+  }
+
+}
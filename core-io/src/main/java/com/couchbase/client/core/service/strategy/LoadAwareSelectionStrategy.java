@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.Response;
+import com.couchbase.client.core.msg.kv.SyncDurabilityRequest;
+import com.couchbase.client.core.service.EndpointSelectionStrategy;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects the less loaded of two randomly picked key-value endpoints ("power of two choices").
+ * <p>
+ * The load of an endpoint is its number of in-flight requests, plus its outbound bytes which have not been
+ * flushed yet (counted in units of {@link #PENDING_BYTES_PER_REQUEST}). Since the latency of a connection
+ * directly drives its in-flight depth, slow connections are avoided as well.
+ * <p>
+ * Requests with synchronous durability, and all requests if partition affinity is enabled, are still pinned
+ * to the endpoint of their partition through the {@link PartitionSelectionStrategy} so that their relative
+ * order on the wire is preserved. Note that this only holds while the pool does not resize: if an endpoint is
+ * added or removed, partitions are remapped to other endpoints (see {@link PartitionSelectionStrategy}). A pool
+ * configured with partition affinity is therefore kept at a fixed size.
+ */
+public class LoadAwareSelectionStrategy implements EndpointSelectionStrategy {
+
+  /**
+   * The number of pending outbound bytes which count the same as one in-flight request.
+   */
+  static final long PENDING_BYTES_PER_REQUEST = 1024;
+
+  private final PartitionSelectionStrategy partitionStrategy = new PartitionSelectionStrategy();
+  private final boolean partitionAffinity;
+
+  public LoadAwareSelectionStrategy(final boolean partitionAffinity) {
+    this.partitionAffinity = partitionAffinity;
+  }
+
+  @Override
+  public <R extends Request<? extends Response>> Endpoint select(final R request, final List<Endpoint> endpoints) {
+    if (partitionAffinity || durable(request)) {
+      return partitionStrategy.select(request, endpoints);
+    }
+
+    int size = endpoints.size();
+    if (size == 0) {
+      return null;
+    } else if (size == 1) {
+      Endpoint endpoint = endpoints.get(0);
+      return usable(endpoint) ? endpoint : null;
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int first = random.nextInt(size);
+    int second = random.nextInt(size - 1);
+    if (second >= first) {
+      second++;
+    }
+
+    Endpoint a = endpoints.get(first);
+    Endpoint b = endpoints.get(second);
+    boolean aUsable = usable(a);
+    boolean bUsable = usable(b);
+    if (aUsable && bUsable) {
+      return load(a) <= load(b) ? a : b;
+    } else if (aUsable) {
+      return a;
+    } else if (bUsable) {
+      return b;
+    }
+
+    // Both choices are not usable (i.e. reconnecting), so fall back to the least loaded of the rest.
+    Endpoint least = null;
+    long leastLoad = Long.MAX_VALUE;
+    for (Endpoint endpoint : endpoints) {
+      if (usable(endpoint)) {
+        long load = load(endpoint);
+        if (load < leastLoad) {
+          least = endpoint;
+          leastLoad = load;
+        }
+      }
+    }
+    return least;
+  }
+
+  /**
+   * Returns the load of the given endpoint, expressed in in-flight requests.
+   *
+   * @param endpoint the endpoint to check.
+   * @return the load of the endpoint.
+   */
+  public static long load(final Endpoint endpoint) {
+    return endpoint.outstandingRequests() + endpoint.pendingOutboundBytes() / PENDING_BYTES_PER_REQUEST;
+  }
+
+  private static boolean usable(final Endpoint endpoint) {
+    return endpoint != null && endpoint.state() == EndpointState.CONNECTED && endpoint.freeToWrite();
+  }
+
+  private static boolean durable(final Request<?> request) {
+    return request instanceof SyncDurabilityRequest
+      && ((SyncDurabilityRequest) request).durabilityLevel().isPresent();
+  }
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.annotation.Stability;
+
+/**
+ * Describes how requests are spread across the nodes of a service, and across the endpoints inside each node.
+ */
+@Stability.Volatile
+public enum LoadBalancingStrategy {
+
+  /**
+   * Cycles through the nodes (and endpoints) without considering their load.
+   */
+  ROUND_ROBIN,
+
+  /**
+   * Picks the node (and endpoint) with the lowest load.
+   * <p>
+   * The load is the number of outstanding requests, weighted by the decaying latency estimate.
+   */
+  LEAST_OUTSTANDING,
+
+  /**
+   * Picks two nodes (and endpoints) at random and uses the one with the lower load.
+   * <p>
+   * This avoids that a burst of requests from many threads all pile up on the single least loaded node before
+   * its load goes up, and does not need to look at every node.
+   */
+  POWER_OF_TWO_CHOICES
+
+}
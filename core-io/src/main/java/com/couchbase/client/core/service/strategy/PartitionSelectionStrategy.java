@@ -25,6 +25,13 @@ import com.couchbase.client.core.service.EndpointSelectionStrategy;
 
 import java.util.List;
 
+/**
+ * Selects the endpoint based on the partition of the key-value request.
+ * <p>
+ * The partition is mapped to an endpoint by the number of endpoints, so a partition is only pinned to the same
+ * endpoint as long as the list does not change in size. If the pool grows or shrinks, partitions are remapped and
+ * requests in-flight on the previous endpoint can be overtaken by those sent to the new one.
+ */
 public class PartitionSelectionStrategy implements EndpointSelectionStrategy {
 
   @Override
@@ -28,16 +28,25 @@ import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
 import reactor.core.Disposable;
 import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Hooks;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Consumer;
 
 import static com.couchbase.client.test.Util.waitUntilCondition;
@@ -218,4 +227,186 @@ class ReactorTest {
     verifier.verify();
     assertEquals(0, droppedErrors.get());
   }
-}
\ No newline at end of file
+
+  @Test
+  void fromRequestCompletesWithConvertedValue() {
+    NoopRequest before = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    NoopResponse response = mock(NoopResponse.class);
+    before.succeed(response);
+    StepVerifier.create(Reactor.fromRequest(before, r -> r == response, true)).expectNext(true).verifyComplete();
+    assertTrue(before.context().logicallyCompletedAt() != 0);
+
+    NoopRequest after = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    StepVerifier verifier = StepVerifier
+      .create(Reactor.fromRequest(after, r -> r == response, true))
+      .expectNext(true)
+      .expectComplete();
+    after.succeed(response);
+    verifier.verify();
+    assertTrue(after.context().logicallyCompletedAt() != 0);
+  }
+
+  @Test
+  void fromRequestCompletesWithError() {
+    NoopRequest failed = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    StepVerifier verifier = StepVerifier
+      .create(Reactor.fromRequest(failed, r -> r, true))
+      .expectError(RequestCanceledException.class);
+    failed.fail(mock(RequestCanceledException.class));
+    verifier.verify();
+
+    NoopRequest converterFails = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    converterFails.succeed(mock(NoopResponse.class));
+    StepVerifier
+      .create(Reactor.fromRequest(converterFails, r -> {
+        throw new IllegalArgumentException();
+      }, true))
+      .expectError(IllegalArgumentException.class)
+      .verify();
+    assertTrue(converterFails.context().logicallyCompletedAt() != 0);
+  }
+
+  @Test
+  void fromRequestSupportsMultipleSubscribers() {
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    NoopResponse response = mock(NoopResponse.class);
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, false);
+
+    StepVerifier first = StepVerifier.create(mono).expectNext(response).expectComplete();
+    StepVerifier second = StepVerifier.create(mono).expectNext(response).expectComplete();
+    request.succeed(response);
+    first.verify();
+    second.verify();
+  }
+
+  @Test
+  void fromRequestLogicallyCompletesOnlyOnce() {
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    NoopResponse response = mock(NoopResponse.class);
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, false);
+
+    StepVerifier.create(mono).then(() -> request.succeed(response)).expectNext(response).verifyComplete();
+    long logicallyCompletedAt = request.context().logicallyCompletedAt();
+    assertTrue(logicallyCompletedAt != 0);
+
+    // a resubscription after the listener has been notified must not complete the request again
+    StepVerifier.create(mono).expectNext(response).verifyComplete();
+    assertEquals(logicallyCompletedAt, request.context().logicallyCompletedAt());
+  }
+
+  @Test
+  void fromRequestLogicallyCompletesWhenCompletedBeforeSubscribe() {
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    NoopResponse response = mock(NoopResponse.class);
+    request.succeed(response);
+    assertEquals(0, request.context().logicallyCompletedAt());
+
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, false);
+    StepVerifier.create(mono).expectNext(response).verifyComplete();
+    long logicallyCompletedAt = request.context().logicallyCompletedAt();
+    assertTrue(logicallyCompletedAt != 0);
+
+    StepVerifier.create(mono).expectNext(response).verifyComplete();
+    assertEquals(logicallyCompletedAt, request.context().logicallyCompletedAt());
+  }
+
+  @Test
+  void fromRequestPropagatesCancellation() {
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, true);
+
+    assertThrows(Exception.class, () -> mono.timeout(Duration.ofMillis(10)).block());
+    assertTrue(request.response().isCompletedExceptionally());
+    assertEquals(CancellationReason.STOPPED_LISTENING, request.cancellationReason());
+  }
+
+  @Test
+  void fromRequestIgnoresCancellationPropagation() {
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, false);
+
+    assertThrows(Exception.class, () -> mono.timeout(Duration.ofMillis(10)).block());
+    assertFalse(request.response().isDone());
+  }
+
+  @Test
+  void fromRequestDoesNotDropErrorWhenStoppedListening() {
+    AtomicInteger droppedErrors = new AtomicInteger(0);
+    Hooks.onErrorDropped(v -> droppedErrors.incrementAndGet());
+
+    NoopRequest request = new NoopRequest(Duration.ZERO, mock(RequestContext.class),
+      mock(RetryStrategy.class), mock(CollectionIdentifier.class));
+    Mono<NoopResponse> mono = Reactor.fromRequest(request, r -> r, true);
+
+    Disposable subscriber = mono.subscribe();
+    subscriber.dispose();
+
+    assertTrue(request.response().isCompletedExceptionally());
+    assertEquals(0, droppedErrors.get());
+  }
+
+  @Test
+  void mapsOrderedInParallel() {
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    Flux<Integer> mapped = Reactor.mapOrdered(Flux.range(0, 200), i -> {
+      threads.add(Thread.currentThread().getName());
+      LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextInt(500)));
+      return i * 2;
+    }, Schedulers.parallel(), 8);
+
+    List<Integer> result = mapped.collectList().block();
+    assertEquals(200, result.size());
+    for (int i = 0; i < 200; i++) {
+      assertEquals(i * 2, result.get(i));
+    }
+    assertTrue(threads.stream().allMatch(name -> name.startsWith("parallel")));
+  }
+
+  @Test
+  void mapsOrderedWithinWindowOfDemand() {
+    AtomicLong requested = new AtomicLong();
+    Flux<Integer> source = Flux.range(0, 100).doOnRequest(requested::addAndGet);
+
+    StepVerifier
+      .create(Reactor.mapOrdered(source, i -> i, Schedulers.parallel(), 4), 2)
+      .expectNext(0, 1)
+      .then(() -> assertTrue(requested.get() <= 2 + 4, "requested " + requested.get()))
+      .thenCancel()
+      .verify();
+  }
+
+  @Test
+  void mapsOrderedAndFailsInPlace() {
+    StepVerifier
+      .create(Reactor.mapOrdered(Flux.range(0, 10), i -> {
+        if (i == 5) {
+          throw new IllegalStateException("failed on 5");
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10 - i));
+        return i;
+      }, Schedulers.parallel(), 8))
+      .expectNext(0, 1, 2, 3, 4)
+      .expectErrorMessage("failed on 5")
+      .verify();
+  }
+
+  @Test
+  void mapsInlineWithoutWindow() {
+    String caller = Thread.currentThread().getName();
+    List<String> threads = Reactor
+      .mapOrdered(Flux.range(0, 3), i -> Thread.currentThread().getName(), Schedulers.parallel(), 0)
+      .collectList()
+      .block();
+    assertEquals(Arrays.asList(caller, caller, caller), threads);
+  }
+
+}
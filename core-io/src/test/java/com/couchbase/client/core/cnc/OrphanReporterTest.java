@@ -16,13 +16,25 @@
 
 package com.couchbase.client.core.cnc;
 
+import com.couchbase.client.core.cnc.events.tracing.OrphanRecordDroppedEvent;
 import com.couchbase.client.core.env.OrphanReporterConfig;
-
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.util.HostAndPort;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static com.couchbase.client.core.cnc.OrphanReporter.ORPHAN_TREAD_PREFIX;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /**
  * Verifies basic functionality of the {@link OrphanReporter}.
@@ -79,4 +91,63 @@ class OrphanReporterTest {
     reporter.stop().block();
     assertTrue(orphansAfter <= orphansBefore);
   }
+
+  @Test
+  void dropsRecordsWhenQueueIsFullButKeepsCounting() {
+    SimpleEventBus eventBus = new SimpleEventBus(true);
+    Map<Map<String, String>, AtomicLong> counts = new ConcurrentHashMap<>();
+    Meter meter = new Meter() {
+      @Override
+      public Counter counter(String name, Map<String, String> tags) {
+        AtomicLong count = counts.computeIfAbsent(tags, k -> new AtomicLong());
+        return count::addAndGet;
+      }
+
+      @Override
+      public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        throw new UnsupportedOperationException();
+      }
+    };
+
+    OrphanReporter reporter = new OrphanReporter(
+      eventBus,
+      meter,
+      OrphanReporterConfig.queueLength(2).build()
+    );
+
+    for (int i = 0; i < 5; i++) {
+      reporter.report(mockRequest(ServiceType.KV, "10.0.0.1"));
+    }
+    reporter.report(mockRequest(ServiceType.QUERY, "10.0.0.2"));
+
+    long dropped = eventBus
+      .publishedEvents()
+      .stream()
+      .filter(e -> e instanceof OrphanRecordDroppedEvent)
+      .count();
+    assertEquals(4, dropped);
+
+    assertEquals(2, counts.size());
+    for (Map.Entry<Map<String, String>, AtomicLong> entry : counts.entrySet()) {
+      if (entry.getKey().get("cb.service").equals(ServiceType.KV.ident())) {
+        assertEquals("10.0.0.1", entry.getKey().get("cb.remote_hostname"));
+        assertEquals(5, entry.getValue().get());
+      } else {
+        assertEquals(ServiceType.QUERY.ident(), entry.getKey().get("cb.service"));
+        assertEquals("10.0.0.2", entry.getKey().get("cb.remote_hostname"));
+        assertEquals(1, entry.getValue().get());
+      }
+    }
+  }
+
+  private static Request<?> mockRequest(final ServiceType serviceType, final String hostname) {
+    Request<?> request = mock(Request.class);
+    RequestContext ctx = mock(RequestContext.class);
+    when(request.context()).thenReturn(ctx);
+    when(request.serviceType()).thenReturn(serviceType);
+    when(request.timeout()).thenReturn(Duration.ofSeconds(1));
+    when(ctx.lastDispatchedTo()).thenReturn(new HostAndPort(hostname, 11210));
+    return request;
+  }
+
 }
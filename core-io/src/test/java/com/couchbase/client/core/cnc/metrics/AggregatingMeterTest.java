@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.env.AggregatingMeterConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies the functionality of the {@link AggregatingMeter}.
+ */
+@SuppressWarnings("unchecked")
+class AggregatingMeterTest {
+
+  private final AggregatingMeter meter = AggregatingMeter.create(
+    new SimpleEventBus(true),
+    AggregatingMeterConfig.create()
+  );
+
+  private static Map<String, String> endpointTags() {
+    Map<String, String> tags = new HashMap<>();
+    tags.put("cb.service", "kv");
+    tags.put("cb.remote_hostname", "127.0.0.1");
+    return tags;
+  }
+
+  @Test
+  void aggregatesResponseLatenciesPerServiceAndNode() {
+    Map<String, String> tags = endpointTags();
+    tags.put("cb.request_type", "get");
+    meter.valueRecorder("cb.responses", tags).recordValue(2000);
+    meter.valueRecorder("cb.event_loop.lag", endpointTags()).recordValue(1000);
+
+    Map<String, Map<String, Object>> output = meter.collectLatencyMetrics();
+    assertFalse(output.containsKey("cb.event_loop.lag"));
+    Map<String, Object> host = (Map<String, Object>) output.get("kv").get("127.0.0.1");
+    assertEquals(1L, host.get("total_count"));
+    assertEquals(2.0, (double) ((Map<String, Object>) host.get("percentiles_us")).get("100.0"), 0.05);
+  }
+
+  @Test
+  void aggregatesPendingBytesAndWritabilityChanges() {
+    meter.valueRecorder("cb.endpoint.pending_outbound_bytes", endpointTags()).recordValue(0);
+    meter.valueRecorder("cb.endpoint.pending_outbound_bytes", endpointTags()).recordValue(4096);
+    meter.counter("cb.endpoint.writability_changes", endpointTags()).incrementBy(1);
+    meter.counter("cb.endpoint.writability_changes", endpointTags()).incrementBy(1);
+
+    Map<String, Map<String, Object>> output = meter.collectMetrics();
+    String key = "cb.remote_hostname=127.0.0.1,cb.service=kv";
+
+    Map<String, Object> pending = (Map<String, Object>) output.get("cb.endpoint.pending_outbound_bytes").get(key);
+    assertEquals(2L, pending.get("total_count"));
+    assertEquals(4096.0, (double) ((Map<String, Object>) pending.get("percentiles")).get("100.0"), 4096 * 0.001);
+    assertEquals(2L, output.get("cb.endpoint.writability_changes").get(key));
+
+    // everything is reset once emitted
+    assertNull(meter.collectMetrics());
+  }
+
+  @Test
+  void aggregatesBufferedRows() {
+    Map<String, String> tags = new HashMap<>();
+    tags.put("cb.service", "query");
+    meter.valueRecorder("cb.response.buffered_rows", tags).recordValue(10);
+
+    Map<String, Object> rows = (Map<String, Object>) meter.collectMetrics()
+      .get("cb.response.buffered_rows")
+      .get("cb.service=query");
+    assertEquals(1L, rows.get("total_count"));
+  }
+
+  @Test
+  void skipsHighCardinalityMetrics() {
+    meter.counter("cb.requests", endpointTags()).incrementBy(1);
+    assertNull(meter.collectMetrics());
+    assertFalse(meter.valueRecorder("cb.event_loop.lag", endpointTags()) instanceof NoopValueRecorder);
+  }
+
+  @Test
+  void aggregatesRequestStages() {
+    Map<String, String> tags = new HashMap<>();
+    tags.put("cb.service", "kv");
+    tags.put("cb.request_type", "get");
+    tags.put("cb.stage", "dispatched_to_written");
+    meter.valueRecorder("cb.request_stages", tags).recordValue(2000);
+    meter.valueRecorder("cb.request_stages", tags).recordValue(3000);
+
+    Map<String, Object> row = (Map<String, Object>) meter.collectMetrics()
+      .get("cb.request_stages")
+      .get("cb.request_type=get,cb.service=kv,cb.stage=dispatched_to_written");
+    assertEquals(2L, row.get("total_count"));
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.cnc.metrics;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.deps.io.netty.channel.nio.NioEventLoopGroup;
+import com.couchbase.client.core.env.IoEnvironment;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link EventLoopLagProbe}.
+ */
+class EventLoopLagProbeTest {
+
+  @Test
+  void recordsLagForEveryEventLoop() {
+    NioEventLoopGroup kvGroup = new NioEventLoopGroup(2);
+    NioEventLoopGroup httpGroup = new NioEventLoopGroup(1);
+    IoEnvironment ioEnvironment = IoEnvironment
+      .builder()
+      .managerEventLoopGroup(httpGroup)
+      .kvEventLoopGroup(kvGroup)
+      .queryEventLoopGroup(httpGroup)
+      .analyticsEventLoopGroup(httpGroup)
+      .searchEventLoopGroup(httpGroup)
+      .viewEventLoopGroup(httpGroup)
+      .build();
+
+    Map<Map<String, String>, AtomicLong> recorded = new ConcurrentHashMap<>();
+    Meter meter = new Meter() {
+      @Override
+      public Counter counter(String name, Map<String, String> tags) {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        assertEquals(EventLoopLagProbe.METRIC_EVENT_LOOP_LAG, name);
+        AtomicLong count = recorded.computeIfAbsent(tags, k -> new AtomicLong());
+        return value -> count.incrementAndGet();
+      }
+    };
+
+    try {
+      EventLoopLagProbe probe = new EventLoopLagProbe(ioEnvironment, meter, Schedulers.parallel(), Duration.ZERO);
+      probe.probe();
+      probe.probe();
+
+      // the http group is shared, so it must only be probed once and under the first name found.
+      assertEquals(3, recorded.size());
+      waitUntilCondition(() -> recorded.values().stream().allMatch(c -> c.get() == 2));
+      for (Map<String, String> tags : recorded.keySet()) {
+        String group = tags.get("cb.event_loop_group");
+        if (group.equals("kv")) {
+          assertTrue(tags.get("cb.event_loop").equals("0") || tags.get("cb.event_loop").equals("1"));
+        } else {
+          assertEquals("manager", group);
+        }
+      }
+    } finally {
+      kvGroup.shutdownGracefully();
+      httpGroup.shutdownGracefully();
+    }
+  }
+
+}
@@ -24,7 +24,14 @@ import com.couchbase.client.core.env.IoConfig;
 import com.couchbase.client.core.env.NetworkResolution;
 import com.couchbase.client.core.env.PasswordAuthenticator;
 import com.couchbase.client.core.env.SeedNode;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.GetCollectionIdRequest;
+import com.couchbase.client.core.msg.kv.GetCollectionIdResponse;
+import com.couchbase.client.core.msg.kv.GetCollectionManifestRequest;
+import com.couchbase.client.core.msg.kv.GetCollectionManifestResponse;
 import com.couchbase.client.core.node.NodeIdentifier;
+import com.couchbase.client.core.util.UnsignedLEB128;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
@@ -33,8 +40,10 @@ import reactor.core.publisher.Mono;
 import reactor.core.publisher.MonoProcessor;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
@@ -44,10 +53,13 @@ import java.util.function.Consumer;
 
 import static com.couchbase.client.test.Util.readResource;
 import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -355,6 +367,58 @@ class DefaultConfigurationProviderTest {
     latch.await(5, TimeUnit.SECONDS);
   }
 
+  @Test
+  void deduplicatesInFlightCollectionIdLookups() {
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(new CoreContext(core, 1, ENVIRONMENT, mock(Authenticator.class)));
+    List<GetCollectionIdRequest> sent = new ArrayList<>();
+    doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(core).send(any());
+
+    DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+    CollectionIdentifier identifier = new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("coll"));
+
+    provider.refreshCollectionId(identifier);
+    provider.refreshCollectionId(identifier);
+    assertEquals(1, sent.size());
+    assertTrue(provider.collectionRefreshInProgress(identifier));
+    assertFalse(provider.collectionRefreshInProgress(
+      new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("other"))
+    ));
+
+    sent.get(0).succeed(new GetCollectionIdResponse(ResponseStatus.SUCCESS, Optional.of(9L)));
+    assertFalse(provider.collectionMapRefreshInProgress());
+    assertArrayEquals(UnsignedLEB128.encode(9), provider.collectionMap().get(identifier));
+
+    provider.refreshCollectionId(identifier);
+    assertEquals(2, sent.size());
+  }
+
+  @Test
+  void loadsAllCollectionIdsFromManifest() {
+    Core core = mock(Core.class);
+    when(core.context()).thenReturn(new CoreContext(core, 1, ENVIRONMENT, mock(Authenticator.class)));
+    List<GetCollectionManifestRequest> sent = new ArrayList<>();
+    doAnswer(invocation -> sent.add(invocation.getArgument(0))).when(core).send(any());
+
+    DefaultConfigurationProvider provider = new DefaultConfigurationProvider(core, SeedNode.LOCALHOST);
+    provider.refreshCollectionManifest("bucket");
+    provider.refreshCollectionManifest("bucket");
+    assertEquals(1, sent.size());
+    CollectionIdentifier identifier = new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("coll"));
+    assertTrue(provider.collectionRefreshInProgress(identifier));
+
+    String manifest = "{\"uid\":\"2\",\"scopes\":[{\"name\":\"_default\",\"uid\":\"0\",\"collections\":"
+      + "[{\"name\":\"_default\",\"uid\":\"0\"}]},{\"name\":\"scope\",\"uid\":\"8\",\"collections\":"
+      + "[{\"name\":\"coll\",\"uid\":\"1a\"},{\"name\":\"other\",\"uid\":\"9\"}]}]}";
+    sent.get(0).succeed(new GetCollectionManifestResponse(ResponseStatus.SUCCESS, Optional.of(manifest)));
+
+    assertFalse(provider.collectionRefreshInProgress(identifier));
+    assertArrayEquals(UnsignedLEB128.encode(0x1a), provider.collectionMap().get(identifier));
+    assertArrayEquals(UnsignedLEB128.encode(9), provider.collectionMap().get(
+      new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("other"))
+    ));
+  }
+
   private static Set<SeedNode> getSeedNodesFromConfig(ConfigurationProvider provider) {
     return provider.seedNodes().blockFirst(Duration.ZERO);
   }
@@ -18,7 +18,10 @@ package com.couchbase.client.core.endpoint;
 
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.Counter;
 import com.couchbase.client.core.cnc.Event;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectionAbortedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectionFailedEvent;
 import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectedEvent;
@@ -33,6 +36,7 @@ import com.couchbase.client.core.msg.Response;
 import com.couchbase.client.core.service.ServiceContext;
 import com.couchbase.client.core.service.ServiceType;
 import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.deps.io.netty.channel.Channel;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelException;
 import com.couchbase.client.core.deps.io.netty.channel.ChannelFuture;
@@ -49,9 +53,12 @@ import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import static com.couchbase.client.test.Util.waitUntilCondition;
@@ -366,6 +373,75 @@ class BaseEndpointTest {
     assertEquals(0, endpoint.outstandingRequests());
   }
 
+  /**
+   * Pipelined (KV) endpoints track their in-flight requests from the handler, which must also be reflected in the
+   * endpoint diagnostics.
+   */
+  @Test
+  void reportsPipelinedRequestsInFlightInDiagnostics() {
+    InstrumentedEndpoint endpoint = InstrumentedEndpoint.createPipelined(eventLoopGroup, ctx, null);
+    assertEquals(0, endpoint.diagnostics().inFlight());
+
+    endpoint.pipelinedRequestsInFlight(3);
+    assertEquals(3, endpoint.outstandingRequests());
+    assertEquals(3, endpoint.diagnostics().inFlight());
+
+    endpoint.pipelinedRequestsInFlight(0);
+    assertEquals(0, endpoint.diagnostics().inFlight());
+  }
+
+  /**
+   * Makes sure that once connected, the pending outbound bytes are sampled and writability changes are counted on
+   * the meter of the environment.
+   */
+  @Test
+  void recordsPendingBytesAndWritabilityChanges() {
+    Map<String, AtomicLong> maxValues = new ConcurrentHashMap<>();
+    Map<String, AtomicLong> counts = new ConcurrentHashMap<>();
+    Meter meter = new Meter() {
+      @Override
+      public Counter counter(String name, Map<String, String> tags) {
+        assertEquals("127.0.0.1", tags.get("cb.remote_hostname"));
+        return counts.computeIfAbsent(name, k -> new AtomicLong())::addAndGet;
+      }
+
+      @Override
+      public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        assertEquals("kv", tags.get("cb.service"));
+        AtomicLong max = maxValues.computeIfAbsent(name, k -> new AtomicLong());
+        return value -> max.accumulateAndGet(value, Math::max);
+      }
+    };
+    CoreEnvironment env = CoreEnvironment
+      .builder()
+      .eventBus(eventBus)
+      .meter(meter)
+      .ioConfig(IoConfig.ioMetricsInterval(Duration.ofMillis(1)))
+      .build();
+
+    try {
+      CoreContext coreContext = new CoreContext(mock(Core.class), 1, env, authenticator);
+      ctx = new ServiceContext(coreContext, LOCALHOST, 1234, ServiceType.KV, Optional.empty());
+      EmbeddedChannel channel = new EmbeddedChannel();
+      InstrumentedEndpoint endpoint = connectSuccessfully(channel);
+
+      channel.write(Unpooled.wrappedBuffer(new byte[128]));
+      waitUntilCondition(() -> {
+        channel.runPendingTasks();
+        AtomicLong pending = maxValues.get("cb.endpoint.pending_outbound_bytes");
+        return pending != null && pending.get() == 128;
+      });
+      assertTrue(maxValues.containsKey("cb.endpoint.in_flight"));
+
+      endpoint.notifyChannelWritabilityChanged(false);
+      endpoint.notifyChannelWritabilityChanged(true);
+      assertEquals(2, counts.get("cb.endpoint.writability_changes").get());
+      assertEquals(2, endpoint.diagnostics().writabilityChanges());
+    } finally {
+      env.shutdown();
+    }
+  }
+
   /**
    * Helper method to DRY up the case where we just need to connect properly.
    *
@@ -397,12 +473,18 @@ class BaseEndpointTest {
 
     static InstrumentedEndpoint create(EventLoopGroup eventLoopGroup, ServiceContext ctx,
                                        Supplier<Mono<Channel>> channelSupplier) {
-      return new InstrumentedEndpoint(LOCALHOST, PORT, eventLoopGroup, ctx, channelSupplier);
+      return new InstrumentedEndpoint(LOCALHOST, PORT, eventLoopGroup, ctx, channelSupplier, false);
+    }
+
+    static InstrumentedEndpoint createPipelined(EventLoopGroup eventLoopGroup, ServiceContext ctx,
+                                                Supplier<Mono<Channel>> channelSupplier) {
+      return new InstrumentedEndpoint(LOCALHOST, PORT, eventLoopGroup, ctx, channelSupplier, true);
     }
 
     InstrumentedEndpoint(String hostname, int port, EventLoopGroup eventLoopGroup,
-                         ServiceContext ctx, Supplier<Mono<Channel>> channelSupplier) {
-      super(hostname, port, eventLoopGroup, ctx, CircuitBreakerConfig.enabled(false).build(), ServiceType.KV, false);
+                         ServiceContext ctx, Supplier<Mono<Channel>> channelSupplier, boolean pipelined) {
+      super(hostname, port, eventLoopGroup, ctx, CircuitBreakerConfig.enabled(false).build(), ServiceType.KV,
+        pipelined);
       this.channelSupplier = channelSupplier;
     }
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.env;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the different {@link CompletionDispatch} policies.
+ */
+class CompletionDispatchTest {
+
+  @Test
+  void inlineRunsOnCallingThread() {
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+    CompletionDispatch.inline().dispatch(() -> ranOn.set(Thread.currentThread()));
+    assertSame(Thread.currentThread(), ranOn.get());
+  }
+
+  @Test
+  void dedicatedPreservesOrderPerThread() {
+    CompletionDispatch dispatch = CompletionDispatch.dedicated(2, 1024);
+    try {
+      List<Integer> completed = new CopyOnWriteArrayList<>();
+      List<String> threads = new CopyOnWriteArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        final int value = i;
+        dispatch.dispatch(() -> {
+          completed.add(value);
+          threads.add(Thread.currentThread().getName());
+        });
+      }
+
+      waitUntilCondition(() -> completed.size() == 1000);
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(i, (int) completed.get(i));
+      }
+      assertTrue(threads.stream().allMatch(name -> name.startsWith("cb-completion-")));
+    } finally {
+      dispatch.shutdown();
+    }
+  }
+
+  @Test
+  void dedicatedRunsInlineIfQueueIsFull() throws Exception {
+    CompletionDispatch dispatch = CompletionDispatch.dedicated(1, 1);
+    CountDownLatch blocked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      dispatch.dispatch(() -> {
+        blocked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+      assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+      AtomicReference<Thread> queued = new AtomicReference<>();
+      AtomicReference<Thread> overflow = new AtomicReference<>();
+      dispatch.dispatch(() -> queued.set(Thread.currentThread()));
+      dispatch.dispatch(() -> overflow.set(Thread.currentThread()));
+      assertSame(Thread.currentThread(), overflow.get());
+
+      release.countDown();
+      waitUntilCondition(() -> queued.get() != null);
+      assertTrue(queued.get().getName().startsWith("cb-completion-"));
+    } finally {
+      release.countDown();
+      dispatch.shutdown();
+    }
+  }
+
+  @Test
+  void dedicatedRunsInlineAfterShutdown() {
+    CompletionDispatch dispatch = CompletionDispatch.dedicated(1, 16);
+    dispatch.shutdown();
+
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+    dispatch.dispatch(() -> ranOn.set(Thread.currentThread()));
+    assertSame(Thread.currentThread(), ranOn.get());
+  }
+
+  @Test
+  void callerAffinityUsesExecutorAndFallsBackOnRejection() {
+    List<Runnable> submitted = new CopyOnWriteArrayList<>();
+    CompletionDispatch dispatch = CompletionDispatch.callerAffinity(submitted::add);
+    AtomicReference<Thread> ranOn = new AtomicReference<>();
+    dispatch.dispatch(() -> ranOn.set(Thread.currentThread()));
+    assertEquals(1, submitted.size());
+    assertNull(ranOn.get());
+
+    Executor rejecting = command -> {
+      throw new RejectedExecutionException();
+    };
+    CompletionDispatch.callerAffinity(rejecting).dispatch(() -> ranOn.set(Thread.currentThread()));
+    assertSame(Thread.currentThread(), ranOn.get());
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.error;
+
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.GetResponse;
+import com.couchbase.client.core.retry.RetryStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link DefaultErrorUtil}.
+ */
+class DefaultErrorUtilTest {
+
+  @Test
+  void fillsInStackTraceByDefault() {
+    CouchbaseException ex = DefaultErrorUtil.keyValueStatusToException(request(false), notFound());
+    assertTrue(ex instanceof DocumentNotFoundException);
+    assertTrue(ex.getStackTrace().length > 0);
+  }
+
+  @Test
+  void skipsStackTraceIfStackless() {
+    CouchbaseException ex = DefaultErrorUtil.keyValueStatusToException(request(true), notFound());
+    assertTrue(ex instanceof DocumentNotFoundException);
+    assertEquals(0, ex.getStackTrace().length);
+
+    ex.fillInStackTrace();
+    assertEquals(0, ex.getStackTrace().length);
+    assertEquals(ResponseStatus.NOT_FOUND, ex.context().responseStatus());
+  }
+
+  private static GetRequest request(final boolean stackless) {
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.stacklessKeyValueErrors()).thenReturn(stackless);
+    CoreContext ctx = mock(CoreContext.class);
+    when(ctx.environment()).thenReturn(env);
+    return new GetRequest(
+      "id",
+      Duration.ofSeconds(1),
+      ctx,
+      CollectionIdentifier.fromDefault("bucket"),
+      mock(RetryStrategy.class),
+      null
+    );
+  }
+
+  private static GetResponse notFound() {
+    GetResponse response = mock(GetResponse.class);
+    when(response.status()).thenReturn(ResponseStatus.NOT_FOUND);
+    return response;
+  }
+
+}
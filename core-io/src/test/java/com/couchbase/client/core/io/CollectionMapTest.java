@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io;
+
+import com.couchbase.client.core.util.UnsignedLEB128;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Verifies the functionality of the {@link CollectionMap}.
+ */
+class CollectionMapTest {
+
+  private static final CollectionIdentifier COLLECTION =
+    new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("collection"));
+
+  @Test
+  void cachesIdOnIdentifierUntilMapChanges() {
+    CollectionMap map = new CollectionMap();
+    assertNull(map.get(COLLECTION));
+
+    byte[] first = UnsignedLEB128.encode(8);
+    map.put(COLLECTION, first);
+    assertSame(first, map.get(COLLECTION));
+    assertSame(first, COLLECTION.encodedId().id);
+
+    // an equal identifier from another handle resolves through the map.
+    CollectionIdentifier other = new CollectionIdentifier("bucket", Optional.of("scope"), Optional.of("collection"));
+    assertSame(first, map.get(other));
+
+    byte[] second = UnsignedLEB128.encode(9);
+    map.putAll(Collections.singletonMap(COLLECTION, second));
+    assertSame(second, map.get(COLLECTION));
+  }
+
+  @Test
+  void doesNotShareCacheAcrossMaps() {
+    CollectionMap first = new CollectionMap();
+    CollectionMap second = new CollectionMap();
+    first.put(COLLECTION, UnsignedLEB128.encode(8));
+    second.put(COLLECTION, UnsignedLEB128.encode(10));
+
+    assertArrayEquals(UnsignedLEB128.encode(8), first.get(COLLECTION));
+    assertArrayEquals(UnsignedLEB128.encode(10), second.get(COLLECTION));
+    assertArrayEquals(UnsignedLEB128.encode(8), first.get(COLLECTION));
+  }
+
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.deps.io.netty.bootstrap.Bootstrap;
+import com.couchbase.client.core.deps.io.netty.bootstrap.ServerBootstrap;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
+import com.couchbase.client.core.deps.io.netty.channel.Channel;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInboundHandlerAdapter;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInitializer;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelOutboundHandlerAdapter;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelPromise;
+import com.couchbase.client.core.deps.io.netty.channel.DefaultEventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.local.LocalAddress;
+import com.couchbase.client.core.deps.io.netty.channel.local.LocalChannel;
+import com.couchbase.client.core.deps.io.netty.channel.local.LocalServerChannel;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpContent;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpResponse;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultLastHttpContent;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpClientCodec;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpContentCompressor;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderNames;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpRequest;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponse;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponseStatus;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpServerCodec;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpVersion;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.LastHttpContent;
+import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
+import com.couchbase.client.core.endpoint.BaseEndpoint;
+import com.couchbase.client.core.endpoint.EndpointContext;
+import com.couchbase.client.core.endpoint.NoopCircuitBreaker;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.PasswordAuthenticator;
+import com.couchbase.client.core.env.SeedNode;
+import com.couchbase.client.core.io.netty.query.QueryMessageHandler;
+import com.couchbase.client.core.msg.query.QueryRequest;
+import com.couchbase.client.core.msg.query.QueryResponse;
+import com.couchbase.client.core.retry.BestEffortRetryStrategy;
+import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.util.HostAndPort;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that the {@link HttpCompressionHandler} negotiates compression with a stand-in server and that the
+ * compressed responses are still streamed row by row.
+ */
+class HttpCompressionHandlerTest {
+
+  private static final int ROWS = 2000;
+  private static final int ROWS_PER_CHUNK = 100;
+
+  private static EventLoopGroup eventLoopGroup;
+  private CoreEnvironment environment;
+  private Core core;
+  private RowServer rowServer;
+  private Channel client;
+
+  @BeforeAll
+  static void beforeAll() {
+    eventLoopGroup = new DefaultEventLoopGroup();
+  }
+
+  @BeforeEach
+  void beforeEach() {
+    rowServer = new RowServer(eventLoopGroup);
+    environment = CoreEnvironment.create();
+    core = Core.create(environment, PasswordAuthenticator.create("admin", "password"), SeedNode.LOCALHOST);
+  }
+
+  @AfterEach
+  void afterEach() {
+    if (client != null) {
+      client.close().awaitUninterruptibly();
+    }
+    rowServer.shutdown();
+    core.shutdown().block();
+    environment.shutdown();
+  }
+
+  @AfterAll
+  static void afterAll() {
+    eventLoopGroup.shutdownGracefully(2, 5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void streamsCompressedRows() throws Exception {
+    EndpointContext endpointContext = endpointContext();
+    connect(endpointContext, true);
+
+    assertEquals(expectedRows(), query(endpointContext));
+    assertEquals("gzip,deflate", rowServer.acceptEncodings.get(0));
+    assertTrue(rowServer.wireBytes.get() * 3 < expectedBody().length(),
+      "Expected at least a 3x reduction, but sent " + rowServer.wireBytes.get() + " bytes");
+  }
+
+  @Test
+  void streamsUncompressedRowsWithoutHandler() throws Exception {
+    EndpointContext endpointContext = endpointContext();
+    connect(endpointContext, false);
+
+    assertEquals(expectedRows(), query(endpointContext));
+    assertNull(rowServer.acceptEncodings.get(0));
+    assertTrue(rowServer.wireBytes.get() > expectedBody().length());
+  }
+
+  @Test
+  void advertisesOnEveryRequest() throws Exception {
+    EndpointContext endpointContext = endpointContext();
+    connect(endpointContext, true);
+
+    assertEquals(expectedRows(), query(endpointContext));
+    assertEquals(expectedRows(), query(endpointContext));
+    assertEquals("gzip,deflate", rowServer.acceptEncodings.get(0));
+    assertEquals("gzip,deflate", rowServer.acceptEncodings.get(1));
+  }
+
+  private EndpointContext endpointContext() {
+    return new EndpointContext(
+      core.context(),
+      new HostAndPort("127.0.0.1", 1234),
+      NoopCircuitBreaker.INSTANCE,
+      ServiceType.QUERY,
+      Optional.empty(),
+      Optional.empty(),
+      Optional.empty()
+    );
+  }
+
+  /**
+   * Connects the query pipeline to the server, with or without compression.
+   */
+  private void connect(final EndpointContext endpointContext, final boolean compress) {
+    BaseEndpoint endpoint = mock(BaseEndpoint.class);
+    when(endpoint.pipelined()).thenReturn(false);
+    Bootstrap bootstrap = new Bootstrap()
+      .channel(LocalChannel.class)
+      .group(eventLoopGroup)
+      .remoteAddress(new LocalAddress("compression"))
+      .handler(new ChannelInitializer<LocalChannel>() {
+        @Override
+        protected void initChannel(LocalChannel ch) {
+          ch.pipeline().addLast(new HttpClientCodec());
+          if (compress) {
+            ch.pipeline().addLast(new HttpCompressionHandler());
+          }
+          ch.pipeline().addLast(new QueryMessageHandler(endpoint, endpointContext));
+        }
+      });
+    client = bootstrap.connect().awaitUninterruptibly().channel();
+  }
+
+  private List<String> query(final EndpointContext endpointContext) throws Exception {
+    QueryRequest request = new QueryRequest(
+      Duration.ofSeconds(5),
+      endpointContext,
+      BestEffortRetryStrategy.INSTANCE,
+      endpointContext.authenticator(),
+      "select * from rows",
+      "{\"statement\":\"select * from rows\"}".getBytes(UTF_8),
+      true,
+      null,
+      null,
+      null,
+      null
+    );
+    client.writeAndFlush(request);
+
+    QueryResponse response = request.response().get();
+    return response.rows().map(row -> new String(row.data(), UTF_8)).collectList().block();
+  }
+
+  private static String row(final int i) {
+    return "{\"id\":\"airline_" + i + "\",\"type\":\"airline\",\"name\":\"Airline " + i
+      + "\",\"country\":\"United States\",\"callsign\":\"CALL" + (i % 100) + "\"}";
+  }
+
+  private static List<String> expectedRows() {
+    return IntStream.range(0, ROWS)
+      .mapToObj(HttpCompressionHandlerTest::row)
+      .collect(Collectors.toList());
+  }
+
+  private static String expectedBody() {
+    return "{\"requestID\":\"1234\",\"signature\":{\"*\":\"*\"},\"results\":["
+      + String.join(",", expectedRows()) + "],\"status\":\"success\"}";
+  }
+
+  /**
+   * Streams a large result in many chunks, compressed if the request accepts it, and counts the bytes it writes.
+   */
+  static class RowServer {
+
+    private final Channel channel;
+    final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+    final AtomicLong wireBytes = new AtomicLong();
+
+    RowServer(final EventLoopGroup eventLoopGroup) {
+      ServerBootstrap server = new ServerBootstrap()
+        .channel(LocalServerChannel.class)
+        .group(eventLoopGroup)
+        .localAddress(new LocalAddress("compression"))
+        .childHandler(new ChannelInitializer<LocalChannel>() {
+          @Override
+          protected void initChannel(LocalChannel ch) {
+            ch.pipeline().addLast(new ChannelOutboundHandlerAdapter() {
+              @Override
+              public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                if (msg instanceof ByteBuf) {
+                  wireBytes.addAndGet(((ByteBuf) msg).readableBytes());
+                }
+                ctx.write(msg, promise);
+              }
+            }, new HttpServerCodec(), new HttpContentCompressor(), new ChannelInboundHandlerAdapter() {
+
+              @Override
+              public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                if (msg instanceof HttpRequest) {
+                  acceptEncodings.add(((HttpRequest) msg).headers().get(HttpHeaderNames.ACCEPT_ENCODING));
+                }
+                if (msg instanceof LastHttpContent) {
+                  respond(ctx);
+                }
+                ReferenceCountUtil.release(msg);
+              }
+            });
+          }
+        });
+
+      this.channel = server.bind().awaitUninterruptibly().channel();
+    }
+
+    private void respond(final ChannelHandlerContext ctx) {
+      HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+      response.headers().set(HttpHeaderNames.CONTENT_LENGTH, expectedBody().getBytes(UTF_8).length);
+      ctx.write(response);
+      ctx.write(new DefaultHttpContent(
+        Unpooled.copiedBuffer("{\"requestID\":\"1234\",\"signature\":{\"*\":\"*\"},\"results\":[", UTF_8)
+      ));
+      for (int i = 0; i < ROWS; i += ROWS_PER_CHUNK) {
+        StringBuilder chunk = new StringBuilder();
+        for (int j = i; j < i + ROWS_PER_CHUNK; j++) {
+          chunk.append(j == 0 ? "" : ",").append(row(j));
+        }
+        ctx.writeAndFlush(new DefaultHttpContent(Unpooled.copiedBuffer(chunk, UTF_8)));
+      }
+      ctx.writeAndFlush(new DefaultLastHttpContent(Unpooled.copiedBuffer("],\"status\":\"success\"}", UTF_8)));
+    }
+
+    void shutdown() {
+      channel.close().awaitUninterruptibly();
+    }
+
+  }
+}
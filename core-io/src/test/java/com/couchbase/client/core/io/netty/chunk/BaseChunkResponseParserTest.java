@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.chunk;
+
+import com.couchbase.client.core.cnc.Counter;
+import com.couchbase.client.core.cnc.Meter;
+import com.couchbase.client.core.cnc.ValueRecorder;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
+import com.couchbase.client.core.deps.io.netty.channel.embedded.EmbeddedChannel;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.IoConfig;
+import com.couchbase.client.core.env.RowPrefetchConfig;
+import com.couchbase.client.core.io.netty.query.QueryChunkResponseParser;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.core.msg.query.QueryRequest;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the row buffering and auto-read handling of the {@link BaseChunkResponseParser}.
+ */
+class BaseChunkResponseParserTest {
+
+  private final EmbeddedChannel channel = new EmbeddedChannel();
+  private CoreEnvironment env;
+  private int fedRows;
+
+  @AfterEach
+  void afterEach() {
+    channel.finishAndReleaseAll();
+    if (env != null) {
+      env.shutdown();
+    }
+  }
+
+  @Test
+  void pausesAndResumesOnRowWatermarks() {
+    QueryChunkResponseParser parser = parser(RowPrefetchConfig.rows(1, 4).bytes(0, 0), null);
+    PausedSubscriber subscriber = new PausedSubscriber();
+    parser.rows().subscribe(subscriber);
+
+    feedRows(parser, 10);
+    assertEquals(10, parser.bufferedRows());
+    assertEquals(10 * 7, parser.bufferedBytes());
+    assertFalse(channel.config().isAutoRead());
+
+    subscriber.request(8);
+    assertEquals(2, parser.bufferedRows());
+    assertFalse(channel.config().isAutoRead());
+
+    subscriber.request(1);
+    assertEquals(1, parser.bufferedRows());
+    assertTrue(channel.config().isAutoRead());
+    assertEquals(9, subscriber.received.size());
+  }
+
+  @Test
+  void pausesOnByteWatermarkAndResumesOnCancel() {
+    QueryChunkResponseParser parser = parser(RowPrefetchConfig.bytes(10, 20), null);
+    PausedSubscriber subscriber = new PausedSubscriber();
+    parser.rows().subscribe(subscriber);
+
+    feedRows(parser, 2);
+    assertTrue(channel.config().isAutoRead());
+    feedRows(parser, 1);
+    assertFalse(channel.config().isAutoRead());
+
+    subscriber.cancel();
+    assertTrue(channel.config().isAutoRead());
+  }
+
+  @Test
+  void doesNotPauseWithoutSubscriber() {
+    QueryChunkResponseParser parser = parser(RowPrefetchConfig.rows(1, 4).bytes(0, 0), null);
+
+    feedRows(parser, 10);
+    assertEquals(10, parser.bufferedRows());
+    assertTrue(channel.config().isAutoRead());
+  }
+
+  @Test
+  void resumesAndRecordsPeakOnceResponseIsRead() {
+    List<Long> bufferedRows = new CopyOnWriteArrayList<>();
+    List<Long> bufferedBytes = new CopyOnWriteArrayList<>();
+    Meter meter = new Meter() {
+      @Override
+      public Counter counter(String name, Map<String, String> tags) {
+        return value -> { };
+      }
+
+      @Override
+      public ValueRecorder valueRecorder(String name, Map<String, String> tags) {
+        if (BaseChunkResponseParser.METRIC_BUFFERED_ROWS.equals(name)) {
+          assertEquals("query", tags.get("cb.service"));
+          return bufferedRows::add;
+        } else if (BaseChunkResponseParser.METRIC_BUFFERED_BYTES.equals(name)) {
+          assertEquals("query", tags.get("cb.service"));
+          return bufferedBytes::add;
+        }
+        return value -> { };
+      }
+    };
+
+    QueryChunkResponseParser parser = parser(RowPrefetchConfig.rows(1, 4).bytes(0, 0), meter);
+    PausedSubscriber subscriber = new PausedSubscriber();
+    parser.rows().subscribe(subscriber);
+
+    feedRows(parser, 6);
+    assertFalse(channel.config().isAutoRead());
+
+    parser.feed(Unpooled.copiedBuffer("]}", UTF_8));
+    parser.endOfInput();
+    parser.cleanup();
+    assertTrue(channel.config().isAutoRead());
+    assertEquals(6L, bufferedRows.get(0));
+    assertEquals(6L * 7, bufferedBytes.get(0));
+
+    // the rows read before are still delivered, but no longer toggle auto-read
+    subscriber.request(6);
+    assertEquals(6, subscriber.received.size());
+    assertTrue(channel.config().isAutoRead());
+  }
+
+  @Test
+  void spoolsRowsAboveHighWatermarkAndReplaysInOrder(@TempDir Path spoolDirectory) throws Exception {
+    QueryChunkResponseParser parser = parser(
+      RowPrefetchConfig.rows(1, 4).bytes(0, 0).spoolToDisk(true).spoolDirectory(spoolDirectory),
+      null
+    );
+    PausedSubscriber subscriber = new PausedSubscriber();
+    parser.rows().subscribe(subscriber);
+
+    feedRows(parser, 10);
+    assertTrue(channel.config().isAutoRead());
+    assertEquals(4, parser.bufferedRows());
+    assertEquals(6, parser.spooledRows());
+
+    parser.feed(Unpooled.copiedBuffer("]}", UTF_8));
+    parser.endOfInput();
+    parser.cleanup();
+    assertFalse(subscriber.completed);
+
+    subscriber.request(3);
+    assertEquals(3, subscriber.received.size());
+    assertFalse(subscriber.completed);
+
+    subscriber.request(Long.MAX_VALUE);
+    assertTrue(subscriber.completed);
+    assertEquals(10, subscriber.received.size());
+    for (int i = 0; i < 10; i++) {
+      assertEquals("{\"a\":" + i + "}", new String(subscriber.received.get(i).data(), UTF_8));
+    }
+    assertEquals(0, fileCount(spoolDirectory));
+  }
+
+  @Test
+  void deletesSpoolOnCancel(@TempDir Path spoolDirectory) throws Exception {
+    QueryChunkResponseParser parser = parser(
+      RowPrefetchConfig.rows(1, 4).bytes(0, 0).spoolToDisk(true).spoolDirectory(spoolDirectory),
+      null
+    );
+    PausedSubscriber subscriber = new PausedSubscriber();
+    parser.rows().subscribe(subscriber);
+
+    feedRows(parser, 10);
+    assertEquals(6, parser.spooledRows());
+
+    subscriber.cancel();
+    assertEquals(0, parser.spooledRows());
+    assertEquals(0, fileCount(spoolDirectory));
+  }
+
+  private static long fileCount(final Path directory) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.count();
+    }
+  }
+
+  private QueryChunkResponseParser parser(final RowPrefetchConfig.Builder prefetch, final Meter meter) {
+    CoreEnvironment.Builder<?> builder = CoreEnvironment.builder().ioConfig(IoConfig.rowPrefetchConfig(prefetch));
+    if (meter != null) {
+      builder.meter(meter);
+    }
+    env = builder.build();
+
+    RequestContext ctx = mock(RequestContext.class);
+    when(ctx.environment()).thenReturn(env);
+    QueryRequest request = mock(QueryRequest.class);
+    when(request.serviceType()).thenReturn(ServiceType.QUERY);
+    doReturn(request).when(ctx).request();
+
+    QueryChunkResponseParser parser = new QueryChunkResponseParser();
+    parser.updateRequestContext(ctx);
+    parser.initialize(channel.config());
+    parser.feed(Unpooled.copiedBuffer("{\"requestID\":\"1\",\"results\":[", UTF_8));
+    return parser;
+  }
+
+  /**
+   * Feeds the given number of rows, each of them 7 bytes long.
+   */
+  private void feedRows(final BaseChunkResponseParser<?, ?, ?> parser, final int rows) {
+    StringBuilder content = new StringBuilder();
+    for (int i = 0; i < rows; i++) {
+      content.append(fedRows == 0 ? "" : ",").append("{\"a\":").append(fedRows++ % 10).append("}");
+    }
+    parser.feed(Unpooled.copiedBuffer(content.toString(), UTF_8));
+  }
+
+  /**
+   * Subscribes without requesting anything until told to.
+   */
+  private static class PausedSubscriber extends BaseSubscriber<QueryChunkRow> {
+    final List<QueryChunkRow> received = new CopyOnWriteArrayList<>();
+    volatile boolean completed;
+
+    @Override
+    protected void hookOnSubscribe(Subscription subscription) {
+    }
+
+    @Override
+    protected void hookOnNext(QueryChunkRow value) {
+      received.add(value);
+    }
+
+    @Override
+    protected void hookOnComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.io.netty.chunk;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Verifies the functionality of the {@link RowSpool}.
+ */
+class RowSpoolTest {
+
+  @Test
+  void readsRowsInOrderAcrossSegments(@TempDir Path directory) throws Exception {
+    byte[][] rows = new byte[][] {
+      row(1, RowSpool.SEGMENT_SIZE / 2),
+      row(2, RowSpool.SEGMENT_SIZE / 2),
+      row(3, RowSpool.SEGMENT_SIZE + 10),
+      row(4, 10)
+    };
+
+    try (RowSpool spool = RowSpool.create(directory)) {
+      spool.write(rows[0]);
+      spool.write(rows[1]);
+      assertArrayEquals(rows[0], spool.read());
+      spool.write(rows[2]);
+      spool.write(rows[3]);
+      assertEquals(3, spool.rows());
+      assertEquals(rows[1].length + rows[2].length + rows[3].length, spool.bytes());
+
+      assertArrayEquals(rows[1], spool.read());
+      assertArrayEquals(rows[2], spool.read());
+      assertArrayEquals(rows[3], spool.read());
+      assertNull(spool.read());
+      assertEquals(0, spool.bytes());
+
+      spool.write(rows[3]);
+      assertArrayEquals(rows[3], spool.read());
+    }
+  }
+
+  @Test
+  void reusesSegmentsWhenRefilledAfterDraining(@TempDir Path directory) throws Exception {
+    try (RowSpool spool = RowSpool.create(directory)) {
+      for (int round = 0; round < 5; round++) {
+        for (int i = 0; i < 100; i++) {
+          spool.write(row(round + i, 1000 + i));
+        }
+        for (int i = 0; i < 100; i++) {
+          assertArrayEquals(row(round + i, 1000 + i), spool.read());
+        }
+        assertNull(spool.read());
+        assertEquals(0, spool.bytes());
+      }
+      // one segment to write and one to read, kept across all rounds
+      assertEquals(2, spool.mappings());
+
+      // a backlog larger than a segment maps more, but refilling after it still works
+      spool.write(row(1, RowSpool.SEGMENT_SIZE));
+      spool.write(row(2, 10));
+      assertArrayEquals(row(1, RowSpool.SEGMENT_SIZE), spool.read());
+      assertArrayEquals(row(2, 10), spool.read());
+      for (int round = 0; round < 3; round++) {
+        spool.write(row(round, 10));
+        assertArrayEquals(row(round, 10), spool.read());
+      }
+    }
+  }
+
+  @Test
+  void deletesFileOnClose(@TempDir Path directory) throws Exception {
+    RowSpool spool = RowSpool.create(directory);
+    spool.write(row(1, 100));
+    spool.close();
+    try (Stream<Path> files = Files.list(directory)) {
+      assertEquals(0, files.count());
+    }
+  }
+
+  private static byte[] row(final int value, final int size) {
+    byte[] row = new byte[size];
+    Arrays.fill(row, (byte) value);
+    return row;
+  }
+
+}
@@ -22,8 +22,12 @@ import com.couchbase.client.core.config.ConfigurationProvider;
 import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
 import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
 import com.couchbase.client.core.deps.io.netty.util.ResourceLeakDetector;
+import com.couchbase.client.core.endpoint.CircuitBreaker;
+import com.couchbase.client.core.endpoint.CircuitBreakerConfig;
 import com.couchbase.client.core.endpoint.EndpointContext;
+import com.couchbase.client.core.env.CompletionDispatch;
 import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.IoConfig;
 import com.couchbase.client.core.env.PasswordAuthenticator;
 import com.couchbase.client.core.error.RequestCanceledException;
 import com.couchbase.client.core.io.CollectionIdentifier;
@@ -57,6 +61,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -263,4 +271,139 @@ class KeyValueMessageHandlerTest {
     }
   }
 
-}
\ No newline at end of file
+  /**
+   * With the striped circuit breaker, the handler records the outcomes itself, including requests which timed out
+   * while waiting for their response.
+   */
+  @Test
+  void recordsCircuitBreakerOutcomes() {
+    CoreEnvironment env = stripedCircuitBreakerEnvironment();
+    CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+    EndpointContext ctx = circuitBreakerContext(env, circuitBreaker);
+    KeyValueMessageHandler handler = new KeyValueMessageHandler(null, ctx, Optional.of(BUCKET));
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    try {
+      GetRequest answered = new GetRequest("key", Duration.ofSeconds(1), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(answered);
+      respond(channel, answered, MemcacheProtocol.Status.SUCCESS);
+      verify(circuitBreaker, times(1)).markSuccess();
+
+      // already past its timeout, cancelled like the timer would.
+      GetRequest timedOut = new GetRequest("key", Duration.ZERO, ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(timedOut);
+      timedOut.cancel(CancellationReason.TIMEOUT);
+      verify(circuitBreaker, never()).markFailure();
+
+      handler.recordCompletedWithoutResponse();
+      verify(circuitBreaker, times(1)).markFailure();
+
+      // the late response must not be counted again.
+      respond(channel, timedOut, MemcacheProtocol.Status.SUCCESS);
+      verify(circuitBreaker, times(1)).markFailure();
+      verify(circuitBreaker, times(1)).markSuccess();
+    } finally {
+      channel.finishAndReleaseAll();
+      env.shutdown();
+    }
+  }
+
+  /**
+   * With a completion dispatch other than inline the response future completes on another thread after the request
+   * has been marked as completed, the outcome recorded must still be the one of the response.
+   */
+  @Test
+  void recordsCircuitBreakerOutcomesWithDedicatedCompletionDispatch() {
+    CoreEnvironment env = stripedCircuitBreakerEnvironment(CompletionDispatch.dedicated());
+    CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+    EndpointContext ctx = circuitBreakerContext(env, circuitBreaker);
+    KeyValueMessageHandler handler = new KeyValueMessageHandler(null, ctx, Optional.of(BUCKET));
+    EmbeddedChannel channel = new EmbeddedChannel(handler);
+    try {
+      GetRequest timedOut = new GetRequest("key", Duration.ZERO, ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(timedOut);
+      timedOut.cancel(CancellationReason.TIMEOUT);
+      handler.recordCompletedWithoutResponse();
+      verify(circuitBreaker, timeout(5000)).markFailure();
+
+      GetRequest answered = new GetRequest("key", Duration.ofSeconds(1), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(answered);
+      respond(channel, answered, MemcacheProtocol.Status.SUCCESS);
+      verify(circuitBreaker, timeout(5000)).markSuccess();
+      verify(circuitBreaker, times(1)).markFailure();
+    } finally {
+      channel.finishAndReleaseAll();
+      env.shutdown();
+    }
+  }
+
+  /**
+   * Requests handed to the retry orchestrator are recorded with their final outcome, whether the orchestrator
+   * cancels them right away or they complete later on. With the default completion callback only timeouts count as
+   * failures, so the cancellations for having no more retries are recorded as successes.
+   */
+  @Test
+  void recordsCircuitBreakerOutcomesOfRetriedRequests() {
+    CoreEnvironment env = stripedCircuitBreakerEnvironment();
+    CircuitBreaker circuitBreaker = mock(CircuitBreaker.class);
+    EndpointContext ctx = circuitBreakerContext(env, circuitBreaker);
+    EmbeddedChannel channel = new EmbeddedChannel(new KeyValueMessageHandler(null, ctx, Optional.of(BUCKET)));
+    try {
+      // not my vbucket is always retried, so the outcome is only known once the request completes.
+      GetRequest notMyVbucket = new GetRequest("key", Duration.ofSeconds(1), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(notMyVbucket);
+      respond(channel, notMyVbucket, MemcacheProtocol.Status.NOT_MY_VBUCKET);
+      assertFalse(notMyVbucket.completed());
+      verify(circuitBreaker, never()).markSuccess();
+      verify(circuitBreaker, never()).markFailure();
+      notMyVbucket.cancel(CancellationReason.TIMEOUT);
+      verify(circuitBreaker, times(1)).markFailure();
+
+      // the fail fast strategy does not retry locked documents, so the orchestrator cancels the request.
+      GetRequest locked = new GetRequest("key", Duration.ofSeconds(1), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(locked);
+      respond(channel, locked, MemcacheProtocol.Status.LOCKED);
+      assertTrue(locked.completed());
+      verify(circuitBreaker, times(1)).markSuccess();
+
+      // requests in flight when the channel closes are handed to the orchestrator as well.
+      GetRequest inFlight = new GetRequest("key", Duration.ofSeconds(1), ctx, CID, FailFastRetryStrategy.INSTANCE, null);
+      channel.writeOutbound(inFlight);
+      channel.close();
+      assertTrue(inFlight.completed());
+      verify(circuitBreaker, times(2)).markSuccess();
+      verify(circuitBreaker, times(1)).markFailure();
+    } finally {
+      channel.finishAndReleaseAll();
+      env.shutdown();
+    }
+  }
+
+  private static CoreEnvironment stripedCircuitBreakerEnvironment() {
+    return stripedCircuitBreakerEnvironment(CompletionDispatch.inline());
+  }
+
+  private static CoreEnvironment stripedCircuitBreakerEnvironment(final CompletionDispatch completionDispatch) {
+    return CoreEnvironment
+      .builder()
+      .ioConfig(IoConfig.kvCircuitBreakerConfig(CircuitBreakerConfig.builder().enabled(true).striped(true)))
+      .completionDispatch(completionDispatch)
+      .build();
+  }
+
+  private static EndpointContext circuitBreakerContext(final CoreEnvironment env, final CircuitBreaker circuitBreaker) {
+    Core core = mock(Core.class);
+    CoreContext coreContext = new CoreContext(core, 1, env, PasswordAuthenticator.create("foo", "bar"));
+    ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+    when(configurationProvider.collectionMap()).thenReturn(new CollectionMap());
+    when(core.configurationProvider()).thenReturn(configurationProvider);
+    return new EndpointContext(coreContext, new HostAndPort("127.0.0.1", 1234),
+      circuitBreaker, ServiceType.KV, Optional.empty(), Optional.empty(), Optional.empty());
+  }
+
+  private static void respond(final EmbeddedChannel channel, final GetRequest request,
+                              final MemcacheProtocol.Status status) {
+    channel.writeInbound(MemcacheProtocol.response(channel.alloc(), MemcacheProtocol.Opcode.GET, (byte) 0,
+      status.status(), request.opaque(), 0, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER));
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg;
+
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.env.CompletionDispatch;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.kv.NoopRequest;
+import com.couchbase.client.core.msg.kv.NoopResponse;
+import com.couchbase.client.core.retry.BestEffortRetryStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the completion handling of the {@link BaseRequest}.
+ */
+class BaseRequestTest {
+
+  @Test
+  void completesThroughCompletionDispatch() throws Exception {
+    List<Runnable> dispatched = new ArrayList<>();
+    NoopRequest request = request(CompletionDispatch.callerAffinity(dispatched::add));
+    NoopResponse response = mock(NoopResponse.class);
+    request.succeed(response);
+
+    assertFalse(request.response().isDone());
+    assertEquals(1, dispatched.size());
+    dispatched.get(0).run();
+    assertSame(response, request.response().getNow(null));
+  }
+
+  private static NoopRequest request(final CompletionDispatch completionDispatch) {
+    CoreContext ctx = mock(CoreContext.class);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.completionDispatch()).thenReturn(completionDispatch);
+    when(ctx.environment()).thenReturn(env);
+    return new NoopRequest(
+      Duration.ofSeconds(1),
+      ctx,
+      BestEffortRetryStrategy.INSTANCE,
+      CollectionIdentifier.fromDefault("bucket")
+    );
+  }
+
+}
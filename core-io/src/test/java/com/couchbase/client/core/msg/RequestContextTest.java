@@ -19,16 +19,24 @@ package com.couchbase.client.core.msg;
 
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.ValueRecorder;
 import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.env.CoreEnvironment;
 import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.longThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 /**
  * Verifies the functionality for the {@link RequestContext}.
@@ -61,4 +69,72 @@ class RequestContextTest {
     assertEquals(payload, ctx.clientContext());
   }
 
-}
\ No newline at end of file
+  @Test
+  void recordsStagesWhenSampled() {
+    Request<?> request = mock(Request.class);
+    when(request.createdAt()).thenReturn(System.nanoTime());
+    Core core = mock(Core.class);
+    ValueRecorder recorder = mock(ValueRecorder.class);
+    when(core.requestStageMetric(any(Request.class), any(String.class))).thenReturn(recorder);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.requestStageSampleRate()).thenReturn(1.0);
+
+    RequestContext ctx = new RequestContext(new CoreContext(core, 1, env, mock(Authenticator.class)), request);
+    assertFalse(ctx.stagesSampled());
+
+    for (RequestStage stage : RequestStage.values()) {
+      ctx.markStage(stage);
+    }
+    assertTrue(ctx.stagesSampled());
+    ctx.logicallyComplete();
+
+    for (RequestStage stage : RequestStage.values()) {
+      verify(core, times(1)).requestStageMetric(request, stage.interval());
+    }
+    verify(core, times(1)).requestStageMetric(request, "completed_to_continuation");
+    verify(recorder, times(RequestStage.values().length + 1)).recordValue(anyLong());
+  }
+
+  @Test
+  void attributesSkippedStagesToTheLastReachedStage() {
+    Request<?> request = mock(Request.class);
+    when(request.createdAt()).thenReturn(System.nanoTime());
+    Core core = mock(Core.class);
+    ValueRecorder recorder = mock(ValueRecorder.class);
+    when(core.requestStageMetric(any(Request.class), any(String.class))).thenReturn(recorder);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.requestStageSampleRate()).thenReturn(1.0);
+
+    RequestContext ctx = new RequestContext(new CoreContext(core, 1, env, mock(Authenticator.class)), request);
+    ctx.markStage(RequestStage.DISPATCHED);
+    ctx.markStage(RequestStage.WRITTEN);
+    ctx.markStage(RequestStage.COMPLETED);
+    ctx.logicallyComplete();
+
+    verify(core, times(1)).requestStageMetric(request, RequestStage.DISPATCHED.interval());
+    verify(core, times(1)).requestStageMetric(request, RequestStage.WRITTEN.interval());
+    verify(core, times(1)).requestStageMetric(request, "written_to_completed");
+    verify(core, times(1)).requestStageMetric(request, "completed_to_continuation");
+    verify(core, never()).requestStageMetric(request, RequestStage.RESPONSE_READ.interval());
+    verify(core, never()).requestStageMetric(request, RequestStage.DECODED.interval());
+    verify(core, never()).requestStageMetric(request, RequestStage.COMPLETED.interval());
+    verify(recorder, times(4)).recordValue(longThat(v -> v >= 0));
+  }
+
+  @Test
+  void doesNotRecordStagesWhenNotSampled() {
+    Request<?> request = mock(Request.class);
+    Core core = mock(Core.class);
+    CoreEnvironment env = mock(CoreEnvironment.class);
+    when(env.requestStageSampleRate()).thenReturn(0.0);
+
+    RequestContext ctx = new RequestContext(new CoreContext(core, 1, env, mock(Authenticator.class)), request);
+    assertFalse(ctx.stagesSampled());
+
+    ctx.markStage(RequestStage.DISPATCHED);
+    assertFalse(ctx.stagesSampled());
+    ctx.logicallyComplete();
+    verify(core, never()).requestStageMetric(any(Request.class), eq(RequestStage.DISPATCHED.interval()));
+  }
+
+}
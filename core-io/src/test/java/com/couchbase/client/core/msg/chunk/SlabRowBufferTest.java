@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.msg.chunk;
+
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies the functionality of the {@link SlabRowBuffer}.
+ */
+class SlabRowBufferTest {
+
+  @Test
+  void storesRowsAcrossSlabs() {
+    SlabRowBuffer buffer = new SlabRowBuffer(16);
+    List<byte[]> rows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      byte[] row = ("{\"row\":" + i + "}").getBytes(UTF_8);
+      rows.add(row);
+      buffer.add(row);
+    }
+    byte[] large = new byte[100];
+    rows.add(large);
+    buffer.add(large);
+    buffer.add(new byte[0]);
+    buffer.compact();
+
+    assertEquals(102, buffer.size());
+    for (int i = 0; i < rows.size(); i++) {
+      assertArrayEquals(rows.get(i), buffer.get(i));
+    }
+    assertEquals(0, buffer.get(101).length);
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.get(102));
+  }
+
+  @Test
+  void decodesAllRowsInOrder() {
+    SlabRowBuffer buffer = SlabRowBuffer.collect(Flux.range(0, 1000)
+      .map(i -> new QueryChunkRow(Integer.toString(i).getBytes(UTF_8))))
+      .block();
+
+    assertEquals(1000, buffer.size());
+    List<Integer> decoded = buffer.decodeAll(
+      (slab, offset, length) -> Integer.parseInt(new String(slab, offset, length, UTF_8))
+    );
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i, decoded.get(i));
+    }
+  }
+
+}
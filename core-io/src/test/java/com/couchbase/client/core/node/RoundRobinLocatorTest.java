@@ -23,6 +23,7 @@ import com.couchbase.client.core.msg.TargetedRequest;
 import com.couchbase.client.core.msg.manager.BucketConfigRequest;
 import com.couchbase.client.core.msg.query.QueryRequest;
 import com.couchbase.client.core.service.ServiceType;
+import com.couchbase.client.core.service.strategy.LoadBalancingStrategy;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -157,6 +158,72 @@ class RoundRobinLocatorTest {
     verify(node4Mock, times(2)).send(request);
   }
 
+  @Test
+  void selectsLeastLoadedNode() {
+    for (LoadBalancingStrategy strategy : Arrays.asList(
+      LoadBalancingStrategy.LEAST_OUTSTANDING,
+      LoadBalancingStrategy.POWER_OF_TWO_CHOICES)) {
+      Locator locator = new RoundRobinLocator(ServiceType.QUERY, strategy);
+
+      QueryRequest request = mock(QueryRequest.class);
+      ClusterConfig configMock = mock(ClusterConfig.class);
+      when(configMock.hasClusterOrBucketConfig()).thenReturn(true);
+
+      Node slowMock = mock(Node.class);
+      when(slowMock.identifier()).thenReturn(new NodeIdentifier("192.168.56.101", 8091));
+      when(slowMock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+      when(slowMock.outstandingRequests(ServiceType.QUERY)).thenReturn(4L);
+      when(slowMock.latencyEstimate(ServiceType.QUERY)).thenReturn(50_000_000L);
+      Node fastMock = mock(Node.class);
+      when(fastMock.identifier()).thenReturn(new NodeIdentifier("192.168.56.102", 8091));
+      when(fastMock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+      when(fastMock.outstandingRequests(ServiceType.QUERY)).thenReturn(8L);
+      when(fastMock.latencyEstimate(ServiceType.QUERY)).thenReturn(1_000_000L);
+      List<Node> nodes = new ArrayList<>(Arrays.asList(slowMock, fastMock));
+
+      for (int i = 0; i < 10; i++) {
+        locator.dispatch(request, nodes, configMock, null);
+      }
+      verify(slowMock, never()).send(request);
+      verify(fastMock, times(10)).send(request);
+    }
+  }
+
+  /**
+   * A node which does not respond at all never gets a latency estimate, but must not attract all the requests.
+   */
+  @Test
+  void avoidsSilentNode() {
+    for (LoadBalancingStrategy strategy : Arrays.asList(
+      LoadBalancingStrategy.LEAST_OUTSTANDING,
+      LoadBalancingStrategy.POWER_OF_TWO_CHOICES)) {
+      Locator locator = new RoundRobinLocator(ServiceType.QUERY, strategy);
+
+      QueryRequest request = mock(QueryRequest.class);
+      ClusterConfig configMock = mock(ClusterConfig.class);
+      when(configMock.hasClusterOrBucketConfig()).thenReturn(true);
+
+      Node silentMock = mock(Node.class);
+      when(silentMock.identifier()).thenReturn(new NodeIdentifier("192.168.56.101", 8091));
+      when(silentMock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+      when(silentMock.outstandingRequests(ServiceType.QUERY)).thenReturn(1L);
+      when(silentMock.latencyEstimate(ServiceType.QUERY)).thenReturn(0L);
+      when(silentMock.inFlightAge(ServiceType.QUERY)).thenReturn(100_000_000L);
+      Node respondingMock = mock(Node.class);
+      when(respondingMock.identifier()).thenReturn(new NodeIdentifier("192.168.56.102", 8091));
+      when(respondingMock.serviceEnabled(ServiceType.QUERY)).thenReturn(true);
+      when(respondingMock.outstandingRequests(ServiceType.QUERY)).thenReturn(8L);
+      when(respondingMock.latencyEstimate(ServiceType.QUERY)).thenReturn(1_000_000L);
+      List<Node> nodes = new ArrayList<>(Arrays.asList(silentMock, respondingMock));
+
+      for (int i = 0; i < 10; i++) {
+        locator.dispatch(request, nodes, configMock, null);
+      }
+      verify(silentMock, never()).send(request);
+      verify(respondingMock, times(10)).send(request);
+    }
+  }
+
   @Test
   void cancelsTargetedRequestIfNodeNotInList() {
     Locator locator = new RoundRobinLocator(ServiceType.QUERY);
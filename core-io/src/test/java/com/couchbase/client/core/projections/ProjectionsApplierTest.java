@@ -25,9 +25,11 @@ import com.couchbase.client.core.msg.kv.SubdocCommandType;
 import com.couchbase.client.core.msg.kv.SubdocGetResponse;
 import org.junit.jupiter.api.Test;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.couchbase.client.core.util.CbCollections.listOf;
 import static com.couchbase.client.core.util.CbCollections.mapOf;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -87,6 +89,32 @@ class ProjectionsApplierTest {
     );
   }
 
+  @Test
+  void arrays() {
+    check(
+        mapOf(
+            "a[0]", "1",
+            "b[1].c", "\"v\"",
+            "d.e[0]", "{\"f\":true}"),
+        mapOf(
+            "a", listOf(1),
+            "b", listOf(mapOf("c", "v")),
+            "d", mapOf(
+                "e", listOf(mapOf("f", true))
+            ))
+    );
+  }
+
+  @Test
+  void copiesValuesVerbatimAndEscapesNames() {
+    Map<String, String> fields = new LinkedHashMap<>();
+    fields.put("big", "123456789012345678901234567890.50");
+    fields.put("quo\"te", "[ 1, 2 ]");
+    byte[] result = ProjectionsApplier.reconstructDocument(response(fields));
+
+    assertEquals("{\"big\":123456789012345678901234567890.50,\"quo\\\"te\":[ 1, 2 ]}", new String(result, UTF_8));
+  }
+
   private static void check(Map<String, String> subdocResponseFields,
                             Map<String, Object> expectedJson) {
     byte[] result = ProjectionsApplier.reconstructDocument(response(subdocResponseFields));
@@ -123,6 +123,7 @@ class PooledServiceTest {
     when(mock1.states()).thenReturn(DirectProcessor.create());
     Endpoint mock2 = mock(Endpoint.class);
     when(mock2.state()).thenReturn(EndpointState.CONNECTING);
+    when(mock2.state()).thenReturn(EndpointState.DISCONNECTED);
     when(mock2.states()).thenReturn(DirectProcessor.create());
 
     final List<Endpoint> mocks = Arrays.asList(mock1, mock2);
@@ -679,6 +680,54 @@ class PooledServiceTest {
     verify(mock1, never()).send(request);
   }
 
+  /**
+   * If the selected endpoint is overloaded, the pool opens another endpoint in the background while the request
+   * is still sent to the selected one.
+   */
+  @Test
+  void growsAheadOfTimeIfSelectedEndpointIsOverloaded() {
+    int minEndpoints = 1;
+
+    Endpoint mock1 = mock(Endpoint.class);
+    Endpoint mock2 = mock(Endpoint.class);
+    when(mock1.state()).thenReturn(EndpointState.CONNECTED);
+    when(mock1.states()).thenReturn(DirectProcessor.create());
+    when(mock2.state()).thenReturn(EndpointState.DISCONNECTED);
+    when(mock2.states()).thenReturn(DirectProcessor.create());
+
+    final List<Endpoint> mocks = Arrays.asList(mock1, mock2);
+    final AtomicInteger invocation = new AtomicInteger();
+    MockedService service = new MockedService(
+      new MockedServiceConfig(minEndpoints, 2),
+      () -> mocks.get(invocation.getAndIncrement()),
+      new FirstEndpointSelectionStrategy()
+    ) {
+      @Override
+      protected boolean shouldGrow(final Endpoint selected) {
+        return true;
+      }
+    };
+    service.connect();
+    assertEquals(1, service.trackedEndpoints().size());
+
+    NoopRequest request = new NoopRequest(
+      Duration.ofSeconds(1),
+      serviceContext,
+      BestEffortRetryStrategy.INSTANCE,
+      CollectionIdentifier.fromDefault("bucket")
+    );
+    service.send(request);
+    verify(mock1, times(1)).send(request);
+    assertEquals(2, service.trackedEndpoints().size());
+
+    // the pool is at its maximum, so no more endpoints are opened
+    service.send(request);
+    assertEquals(2, service.trackedEndpoints().size());
+
+    verify(mock2, times(1)).connect();
+    verify(mock2, never()).send(request);
+  }
+
   /**
    * It can happen that while the reserved endpoint connects,
    * the overall pool got the disconnect signal in the meantime.
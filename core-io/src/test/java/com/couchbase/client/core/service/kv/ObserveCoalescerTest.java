@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.kv;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.cnc.events.request.ObservePollFailedEvent;
+import com.couchbase.client.core.env.Authenticator;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.msg.ResponseStatus;
+import com.couchbase.client.core.msg.kv.MutationToken;
+import com.couchbase.client.core.msg.kv.ObserveViaSeqnoRequest;
+import com.couchbase.client.core.msg.kv.ObserveViaSeqnoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link ObserveCoalescer}.
+ */
+class ObserveCoalescerTest {
+
+  private static final CollectionIdentifier COLLECTION = CollectionIdentifier.fromDefault("bucket");
+
+  private SimpleEventBus eventBus;
+  private CoreEnvironment env;
+  private CoreContext coreContext;
+  private ObserveCoalescer coalescer;
+  private final List<ObserveViaSeqnoRequest> sent = new CopyOnWriteArrayList<>();
+  private final AtomicLong persistedSeqno = new AtomicLong();
+  private final AtomicBoolean failPolls = new AtomicBoolean();
+
+  @BeforeEach
+  void setup() {
+    eventBus = new SimpleEventBus(true);
+    env = CoreEnvironment.builder().eventBus(eventBus).build();
+    Core core = mock(Core.class);
+    coreContext = new CoreContext(core, 1, env, mock(Authenticator.class));
+    when(core.context()).thenReturn(coreContext);
+    doAnswer(invocation -> {
+      ObserveViaSeqnoRequest request = invocation.getArgument(0);
+      sent.add(request);
+      if (failPolls.get()) {
+        request.fail(new CouchbaseException("poll failed"));
+        return null;
+      }
+      long seqno = persistedSeqno.get();
+      request.succeed(new ObserveViaSeqnoResponse(ResponseStatus.SUCCESS, request.active(), (short) 12, 1234,
+        seqno, seqno, Optional.empty(), Optional.empty()));
+      return null;
+    }).when(core).send(any());
+    coalescer = new ObserveCoalescer(core);
+  }
+
+  @AfterEach
+  void teardown() {
+    env.shutdown();
+  }
+
+  @Test
+  void pollsOnceForAllMutationsOfAVbucket() {
+    AtomicBoolean first = new AtomicBoolean();
+    AtomicBoolean second = new AtomicBoolean();
+    coalescer.observe(context(10), 1, null).subscribe(v -> { }, e -> { }, () -> first.set(true));
+    coalescer.observe(context(20), 1, null).subscribe(v -> { }, e -> { }, () -> second.set(true));
+    assertEquals(1, coalescer.activeLoops());
+
+    persistedSeqno.set(15);
+    waitUntilCondition(first::get);
+    assertFalse(second.get());
+
+    persistedSeqno.set(20);
+    waitUntilCondition(second::get);
+    waitUntilCondition(() -> coalescer.activeLoops() == 0);
+
+    for (ObserveViaSeqnoRequest request : sent) {
+      assertTrue(request.active());
+      assertEquals(0, request.replica());
+    }
+  }
+
+  @Test
+  void stopsPollingOnceCancelled() throws Exception {
+    Disposable observing = coalescer.observe(context(10), 1, null).subscribe();
+    waitUntilCondition(() -> !sent.isEmpty());
+
+    observing.dispose();
+    waitUntilCondition(() -> coalescer.activeLoops() == 0);
+    int polled = sent.size();
+    Thread.sleep(ObserveCoalescer.MAX_BACKOFF.toMillis() * 2);
+    assertEquals(polled, sent.size());
+  }
+
+  @Test
+  void pollsWithTheLatestDeadlineAndPublishesFailures() {
+    failPolls.set(true);
+    Disposable first = coalescer.observe(context(10), 1, null).subscribe();
+    Disposable second = coalescer.observe(context(20, Duration.ofSeconds(30)), 1, null).subscribe();
+
+    waitUntilCondition(() -> sent.size() > 2);
+    ObserveViaSeqnoRequest last = sent.get(sent.size() - 1);
+    assertTrue(last.timeout().compareTo(Duration.ofSeconds(20)) > 0);
+    waitUntilCondition(() -> eventBus.publishedEvents().stream().anyMatch(e -> e instanceof ObservePollFailedEvent));
+
+    first.dispose();
+    second.dispose();
+    waitUntilCondition(() -> coalescer.activeLoops() == 0);
+  }
+
+  private ObserveContext context(final long seqno) {
+    return context(seqno, Duration.ofSeconds(2));
+  }
+
+  private ObserveContext context(final long seqno, final Duration timeout) {
+    return new ObserveContext(coreContext, Observe.ObservePersistTo.ACTIVE, Observe.ObserveReplicateTo.NONE,
+      Optional.of(new MutationToken((short) 12, 1234, seqno, "bucket")), 0, COLLECTION, "key-" + seqno,
+      false, timeout, null);
+  }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.msg.query.QueryRequest;
+import com.couchbase.client.core.service.EndpointSelectionStrategy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link LeastLoadedSelectionStrategy}.
+ */
+class LeastLoadedSelectionStrategyTest {
+
+  @Test
+  void selectsLeastOutstanding() {
+    EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(false);
+
+    Endpoint least = endpoint(EndpointState.CONNECTED, 1, 0);
+    List<Endpoint> endpoints = Arrays.asList(
+      endpoint(EndpointState.CONNECTED, 3, 0),
+      least,
+      endpoint(EndpointState.CONNECTED, 2, 0)
+    );
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(least, strategy.select(mock(QueryRequest.class), endpoints));
+    }
+  }
+
+  @Test
+  void weighsOutstandingWithLatency() {
+    EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(false);
+
+    Endpoint slow = endpoint(EndpointState.CONNECTED, 0, 100_000_000);
+    Endpoint fast = endpoint(EndpointState.CONNECTED, 3, 1_000_000);
+    List<Endpoint> endpoints = Arrays.asList(slow, fast);
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(fast, strategy.select(mock(QueryRequest.class), endpoints));
+    }
+  }
+
+  @Test
+  void powerOfTwoChoicesNeverPicksMostLoaded() {
+    EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(true);
+
+    Endpoint busiest = endpoint(EndpointState.CONNECTED, 10, 0);
+    List<Endpoint> endpoints = Arrays.asList(
+      endpoint(EndpointState.CONNECTED, 1, 0),
+      busiest,
+      endpoint(EndpointState.CONNECTED, 2, 0)
+    );
+
+    for (int i = 0; i < 100; i++) {
+      Endpoint selected = strategy.select(mock(QueryRequest.class), endpoints);
+      assertTrue(selected != null && selected != busiest);
+    }
+  }
+
+  @Test
+  void spreadsTiesAcrossEndpoints() {
+    EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(false);
+
+    Endpoint first = endpoint(EndpointState.CONNECTED, 0, 0);
+    Endpoint second = endpoint(EndpointState.CONNECTED, 0, 0);
+    List<Endpoint> endpoints = Arrays.asList(first, second);
+
+    int firstSelected = 0;
+    for (int i = 0; i < 1000; i++) {
+      if (strategy.select(mock(QueryRequest.class), endpoints) == first) {
+        firstSelected++;
+      }
+    }
+    assertTrue(firstSelected > 0 && firstSelected < 1000);
+  }
+
+  @Test
+  void skipsUnusableEndpoints() {
+    for (boolean powerOfTwoChoices : new boolean[] { true, false }) {
+      EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(powerOfTwoChoices);
+
+      Endpoint connected = endpoint(EndpointState.CONNECTED, 5, 0);
+      Endpoint busy = endpoint(EndpointState.CONNECTED, 0, 0);
+      when(busy.freeToWrite()).thenReturn(false);
+      List<Endpoint> endpoints = Arrays.asList(
+        busy,
+        endpoint(EndpointState.CONNECTING, 0, 0),
+        connected,
+        endpoint(EndpointState.DISCONNECTED, 0, 0)
+      );
+
+      for (int i = 0; i < 100; i++) {
+        assertSame(connected, strategy.select(mock(QueryRequest.class), endpoints));
+      }
+      assertNull(strategy.select(mock(QueryRequest.class), Collections.emptyList()));
+      assertNull(strategy.select(mock(QueryRequest.class), Collections.singletonList(busy)));
+    }
+  }
+
+  @Test
+  void createsStrategyForConfiguration() {
+    assertTrue(LeastLoadedSelectionStrategy.create(LoadBalancingStrategy.ROUND_ROBIN)
+      instanceof RoundRobinSelectionStrategy);
+    assertTrue(LeastLoadedSelectionStrategy.create(LoadBalancingStrategy.LEAST_OUTSTANDING)
+      instanceof LeastLoadedSelectionStrategy);
+    assertEquals(2 * 5, LeastLoadedSelectionStrategy.cost(1, 5, 0));
+    assertEquals(3, LeastLoadedSelectionStrategy.cost(2, 0, 0));
+    assertEquals(2 * 7, LeastLoadedSelectionStrategy.cost(1, 5, 7));
+  }
+
+  /**
+   * An endpoint without a latency estimate is assumed to be as fast as the others, instead of always winning.
+   */
+  @Test
+  void seedsUnsampledEndpointsWithAverageEstimate() {
+    for (boolean powerOfTwoChoices : new boolean[] { true, false }) {
+      EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(powerOfTwoChoices);
+
+      Endpoint sampled = endpoint(EndpointState.CONNECTED, 1, 1_000_000);
+      Endpoint unsampled = endpoint(EndpointState.CONNECTED, 3, 0);
+      List<Endpoint> endpoints = Arrays.asList(unsampled, sampled);
+
+      for (int i = 0; i < 100; i++) {
+        assertSame(sampled, strategy.select(mock(QueryRequest.class), endpoints));
+      }
+    }
+  }
+
+  /**
+   * An endpoint which never responds has no latency estimate, but is avoided once its request has been in flight
+   * for longer than the others take.
+   */
+  @Test
+  void avoidsSilentEndpoint() {
+    for (boolean powerOfTwoChoices : new boolean[] { true, false }) {
+      EndpointSelectionStrategy strategy = new LeastLoadedSelectionStrategy(powerOfTwoChoices);
+
+      Endpoint responding = endpoint(EndpointState.CONNECTED, 5, 1_000_000);
+      Endpoint silent = endpoint(EndpointState.CONNECTED, 1, 0);
+      when(silent.inFlightAge()).thenReturn(50_000_000L);
+      List<Endpoint> endpoints = Arrays.asList(silent, responding);
+
+      for (int i = 0; i < 100; i++) {
+        assertSame(responding, strategy.select(mock(QueryRequest.class), endpoints));
+      }
+    }
+  }
+
+  private static Endpoint endpoint(final EndpointState state, final long outstanding, final long latency) {
+    Endpoint endpoint = mock(Endpoint.class);
+    when(endpoint.state()).thenReturn(state);
+    when(endpoint.freeToWrite()).thenReturn(true);
+    when(endpoint.outstandingRequests()).thenReturn(outstanding);
+    when(endpoint.latencyEstimate()).thenReturn(latency);
+    return endpoint;
+  }
+
+}
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.core.service.strategy;
+
+import com.couchbase.client.core.Core;
+import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.cnc.SimpleEventBus;
+import com.couchbase.client.core.config.ConfigurationProvider;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
+import com.couchbase.client.core.deps.io.netty.channel.Channel;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelFuture;
+import com.couchbase.client.core.deps.io.netty.channel.embedded.EmbeddedChannel;
+import com.couchbase.client.core.endpoint.Endpoint;
+import com.couchbase.client.core.endpoint.EndpointState;
+import com.couchbase.client.core.endpoint.KeyValueEndpoint;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.env.PasswordAuthenticator;
+import com.couchbase.client.core.io.CollectionIdentifier;
+import com.couchbase.client.core.io.CollectionMap;
+import com.couchbase.client.core.io.netty.kv.KeyValueMessageHandler;
+import com.couchbase.client.core.io.netty.kv.MemcacheProtocol;
+import com.couchbase.client.core.msg.kv.DurabilityLevel;
+import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.UpsertRequest;
+import com.couchbase.client.core.retry.FailFastRetryStrategy;
+import com.couchbase.client.core.service.EndpointSelectionStrategy;
+import com.couchbase.client.core.service.ServiceContext;
+import com.couchbase.client.core.service.ServiceType;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static com.couchbase.client.test.Util.waitUntilCondition;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the functionality of the {@link LoadAwareSelectionStrategy}.
+ */
+class LoadAwareSelectionStrategyTest {
+
+  @Test
+  void selectsLeastLoadedOfTwo() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+    Endpoint idle = endpoint(EndpointState.CONNECTED, 0, 0);
+    Endpoint busy = endpoint(EndpointState.CONNECTED, 10, 0);
+    List<Endpoint> endpoints = Arrays.asList(busy, idle);
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(idle, strategy.select(mock(GetRequest.class), endpoints));
+    }
+  }
+
+  @Test
+  void countsPendingOutboundBytesAsLoad() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+    Endpoint backedUp = endpoint(EndpointState.CONNECTED, 1, 64 * LoadAwareSelectionStrategy.PENDING_BYTES_PER_REQUEST);
+    Endpoint flushed = endpoint(EndpointState.CONNECTED, 5, 0);
+    List<Endpoint> endpoints = Arrays.asList(backedUp, flushed);
+
+    assertEquals(65, LoadAwareSelectionStrategy.load(backedUp));
+    for (int i = 0; i < 100; i++) {
+      assertSame(flushed, strategy.select(mock(GetRequest.class), endpoints));
+    }
+  }
+
+  @Test
+  void skipsEndpointsWhichAreNotConnected() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+    Endpoint connected = endpoint(EndpointState.CONNECTED, 100, 0);
+    List<Endpoint> endpoints = Arrays.asList(
+      endpoint(EndpointState.CONNECTING, 0, 0),
+      endpoint(EndpointState.DISCONNECTED, 0, 0),
+      connected,
+      endpoint(EndpointState.CONNECTING, 0, 0)
+    );
+
+    for (int i = 0; i < 100; i++) {
+      assertSame(connected, strategy.select(mock(GetRequest.class), endpoints));
+    }
+  }
+
+  @Test
+  void returnsNullIfNoneUsable() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+    assertNull(strategy.select(mock(GetRequest.class), Collections.emptyList()));
+    assertNull(strategy.select(mock(GetRequest.class), Collections.singletonList(
+      endpoint(EndpointState.CONNECTING, 0, 0)
+    )));
+    assertNull(strategy.select(mock(GetRequest.class), Arrays.asList(
+      endpoint(EndpointState.CONNECTING, 0, 0),
+      endpoint(EndpointState.DISCONNECTED, 0, 0)
+    )));
+  }
+
+  @Test
+  void keepsPartitionAffinityIfEnabled() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(true);
+
+    Endpoint pinned = endpoint(EndpointState.CONNECTED, 100, 0);
+    Endpoint idle = endpoint(EndpointState.CONNECTED, 0, 0);
+    List<Endpoint> endpoints = Arrays.asList(pinned, idle);
+
+    GetRequest request = mock(GetRequest.class);
+    when(request.partition()).thenReturn((short) 12);
+    assertSame(pinned, strategy.select(request, endpoints));
+  }
+
+  @Test
+  void keepsPartitionAffinityForSyncDurability() {
+    EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+    Endpoint pinned = endpoint(EndpointState.CONNECTED, 100, 0);
+    Endpoint idle = endpoint(EndpointState.CONNECTED, 0, 0);
+    List<Endpoint> endpoints = Arrays.asList(pinned, idle);
+
+    UpsertRequest durable = mock(UpsertRequest.class);
+    when(durable.partition()).thenReturn((short) 12);
+    when(durable.durabilityLevel()).thenReturn(Optional.of(DurabilityLevel.MAJORITY));
+    assertSame(pinned, strategy.select(durable, endpoints));
+
+    UpsertRequest plain = mock(UpsertRequest.class);
+    when(plain.partition()).thenReturn((short) 12);
+    when(plain.durabilityLevel()).thenReturn(Optional.empty());
+    assertSame(idle, strategy.select(plain, endpoints));
+  }
+
+  /**
+   * Pipelined endpoints do not track their outstanding requests themselves, so this makes sure that the requests
+   * in-flight on a real key-value endpoint are reported by its handler and picked up by the strategy.
+   */
+  @Test
+  void selectsPipelinedEndpointWithFewerRequestsInFlight() {
+    CoreEnvironment env = CoreEnvironment.builder().eventBus(new SimpleEventBus(true)).build();
+    try {
+      Core core = mock(Core.class);
+      ConfigurationProvider configurationProvider = mock(ConfigurationProvider.class);
+      when(configurationProvider.collectionMap()).thenReturn(new CollectionMap());
+      when(core.configurationProvider()).thenReturn(configurationProvider);
+      CoreContext coreContext = new CoreContext(core, 1, env, PasswordAuthenticator.create("foo", "bar"));
+      ServiceContext serviceContext = new ServiceContext(coreContext, "127.0.0.1", 1234, ServiceType.KV,
+        Optional.of(PipelinedEndpoint.BUCKET));
+
+      PipelinedEndpoint busy = PipelinedEndpoint.connect(serviceContext);
+      PipelinedEndpoint idle = PipelinedEndpoint.connect(serviceContext);
+      List<Endpoint> endpoints = Arrays.asList(busy, idle);
+      EndpointSelectionStrategy strategy = new LoadAwareSelectionStrategy(false);
+
+      List<GetRequest> requests = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        GetRequest request = new GetRequest("key", Duration.ofSeconds(1), coreContext,
+          CollectionIdentifier.fromDefault(PipelinedEndpoint.BUCKET), FailFastRetryStrategy.INSTANCE, null);
+        requests.add(request);
+        busy.send(request);
+      }
+      assertEquals(5, busy.outstandingRequests());
+      assertEquals(0, idle.outstandingRequests());
+      for (int i = 0; i < 100; i++) {
+        assertSame(idle, strategy.select(mock(GetRequest.class), endpoints));
+      }
+
+      for (GetRequest request : requests) {
+        busy.channel.writeInbound(MemcacheProtocol.response(busy.channel.alloc(), MemcacheProtocol.Opcode.GET,
+          (byte) 0, MemcacheProtocol.Status.SUCCESS.status(), request.opaque(), 0, Unpooled.EMPTY_BUFFER,
+          Unpooled.EMPTY_BUFFER, Unpooled.EMPTY_BUFFER));
+      }
+      assertEquals(0, busy.outstandingRequests());
+
+      busy.channel.finishAndReleaseAll();
+      idle.channel.finishAndReleaseAll();
+    } finally {
+      env.shutdown();
+    }
+  }
+
+  private static Endpoint endpoint(final EndpointState state, final long outstanding, final long pendingBytes) {
+    Endpoint endpoint = mock(Endpoint.class);
+    when(endpoint.state()).thenReturn(state);
+    when(endpoint.freeToWrite()).thenReturn(true);
+    when(endpoint.outstandingRequests()).thenReturn(outstanding);
+    when(endpoint.pendingOutboundBytes()).thenReturn(pendingBytes);
+    return endpoint;
+  }
+
+  /**
+   * A key-value endpoint which connects into an {@link EmbeddedChannel} holding only the message handler.
+   */
+  private static class PipelinedEndpoint extends KeyValueEndpoint {
+
+    static final String BUCKET = "bucket";
+
+    private volatile EmbeddedChannel channel;
+
+    static PipelinedEndpoint connect(final ServiceContext ctx) {
+      PipelinedEndpoint endpoint = new PipelinedEndpoint(ctx);
+      endpoint.connect();
+      waitUntilCondition(() -> endpoint.state() == EndpointState.CONNECTED);
+      return endpoint;
+    }
+
+    PipelinedEndpoint(final ServiceContext ctx) {
+      super(ctx, "127.0.0.1", 1234, Optional.of(BUCKET), PasswordAuthenticator.create("foo", "bar"));
+    }
+
+    @Override
+    protected Mono<Channel> channelFutureIntoMono(final ChannelFuture channelFuture) {
+      channel = new EmbeddedChannel(new KeyValueMessageHandler(this, context(), Optional.of(BUCKET)));
+      return Mono.just(channel);
+    }
+  }
+
+}
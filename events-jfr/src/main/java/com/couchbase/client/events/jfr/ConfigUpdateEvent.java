@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Signals that a new bucket or global config has been applied.
+ */
+@Name("com.couchbase.ConfigUpdate")
+@Label("Config Update")
+@Category({"Couchbase", "Config"})
+@Description("A new bucket or global config has been applied")
+@StackTrace(false)
+public final class ConfigUpdateEvent extends Event {
+
+  @Label("Bucket")
+  @Description("The bucket name, or null for a global config")
+  String bucket;
+
+  @Label("Revision")
+  long revision;
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Covers a single attempt of sending a request to a node and receiving its response.
+ * <p>
+ * Only dispatches which take longer than the threshold (10ms by default, configurable through the recording
+ * settings) are committed.
+ */
+@Name("com.couchbase.Dispatch")
+@Label("Dispatch")
+@Category({"Couchbase", "Request"})
+@Description("A single attempt of sending a request to a node and reading its response")
+@Threshold("10 ms")
+@StackTrace(false)
+public final class DispatchEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Node")
+  String node;
+
+  @Label("Local ID")
+  @Description("The ID of the channel the request has been written to")
+  String localId;
+
+  @Label("Operation ID")
+  String operationId;
+
+  @Label("Server Duration")
+  @Timespan(Timespan.MICROSECONDS)
+  long serverDuration;
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Signals that an endpoint connected, disconnected or failed to connect.
+ */
+@Name("com.couchbase.Endpoint")
+@Label("Endpoint")
+@Category({"Couchbase", "Endpoint"})
+@Description("An endpoint connected, disconnected or failed to connect")
+@StackTrace(false)
+public final class EndpointEvent extends Event {
+
+  @Label("Action")
+  @Description("One of connected, disconnected or connection_failed")
+  String action;
+
+  @Label("Service")
+  String service;
+
+  @Label("Node")
+  String node;
+
+  @Label("Bucket")
+  String bucket;
+
+  @Label("Duration")
+  @Description("How long the connect or disconnect took")
+  @Timespan(Timespan.NANOSECONDS)
+  long latency;
+
+}
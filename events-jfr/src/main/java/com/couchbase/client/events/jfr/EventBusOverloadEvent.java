@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * Periodically reports how many events the event bus had to drop because its queue was full.
+ */
+@Name("com.couchbase.EventBusOverload")
+@Label("Event Bus Overload")
+@Category({"Couchbase", "Event Bus"})
+@Description("Events dropped by the event bus since the last period")
+@Period("1 s")
+@StackTrace(false)
+public final class EventBusOverloadEvent extends Event {
+
+  @Label("Dropped Events")
+  long droppedEvents;
+
+}
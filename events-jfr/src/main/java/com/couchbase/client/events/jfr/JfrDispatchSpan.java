@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.msg.RequestContext;
+
+import java.time.Instant;
+
+/**
+ * A dispatch span which records a {@link DispatchEvent} when it is ended.
+ */
+class JfrDispatchSpan implements RequestSpan {
+
+  private final DispatchEvent event = new DispatchEvent();
+
+  private final RequestSpan delegate;
+
+  private String remoteHost;
+  private long remotePort;
+
+  JfrDispatchSpan(final RequestSpan parent, final RequestSpan delegate) {
+    this.delegate = delegate;
+    if (parent instanceof JfrRequestSpan) {
+      event.operation = ((JfrRequestSpan) parent).name();
+    }
+    event.begin();
+  }
+
+  /**
+   * Returns the span of the delegate tracer, which receives all calls as well.
+   */
+  RequestSpan delegate() {
+    return delegate;
+  }
+
+  @Override
+  public void setAttribute(final String key, final String value) {
+    delegate.setAttribute(key, value);
+    if (TracingIdentifiers.ATTR_REMOTE_HOSTNAME.equals(key)) {
+      remoteHost = value;
+    } else if (TracingIdentifiers.ATTR_LOCAL_ID.equals(key)) {
+      event.localId = value;
+    } else if (TracingIdentifiers.ATTR_OPERATION_ID.equals(key)) {
+      event.operationId = value;
+    }
+  }
+
+  @Override
+  public void setAttribute(final String key, final boolean value) {
+    delegate.setAttribute(key, value);
+  }
+
+  @Override
+  public void setAttribute(final String key, final long value) {
+    delegate.setAttribute(key, value);
+    if (TracingIdentifiers.ATTR_REMOTE_PORT.equals(key)) {
+      remotePort = value;
+    } else if (TracingIdentifiers.ATTR_SERVER_DURATION.equals(key)) {
+      event.serverDuration = value;
+    }
+  }
+
+  @Override
+  public void addEvent(final String name, final Instant timestamp) {
+    delegate.addEvent(name, timestamp);
+  }
+
+  @Override
+  public void end() {
+    event.end();
+    delegate.end();
+    if (event.shouldCommit()) {
+      if (remoteHost != null) {
+        event.node = remotePort == 0 ? remoteHost : remoteHost + ":" + remotePort;
+      }
+      event.commit();
+    }
+  }
+
+  @Override
+  public void requestContext(final RequestContext requestContext) {
+    // only forwarded, the request event covers everything the context provides
+    delegate.requestContext(requestContext);
+  }
+
+}
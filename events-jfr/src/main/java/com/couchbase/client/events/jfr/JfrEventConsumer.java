@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import com.couchbase.client.core.cnc.DefaultEventBus;
+import com.couchbase.client.core.cnc.Event;
+import com.couchbase.client.core.cnc.EventBus;
+import com.couchbase.client.core.cnc.EventSubscription;
+import com.couchbase.client.core.cnc.events.config.BucketConfigUpdatedEvent;
+import com.couchbase.client.core.cnc.events.config.GlobalConfigUpdatedEvent;
+import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectedEvent;
+import com.couchbase.client.core.cnc.events.endpoint.EndpointConnectionFailedEvent;
+import com.couchbase.client.core.cnc.events.endpoint.EndpointDisconnectedEvent;
+import com.couchbase.client.core.cnc.events.request.RequestRetryScheduledEvent;
+import com.couchbase.client.core.endpoint.EndpointContext;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.msg.RequestContext;
+import jdk.jfr.FlightRecorder;
+
+import java.util.function.Consumer;
+
+/**
+ * Subscribes to the {@link EventBus} and turns retries, endpoint and config events into Flight Recorder events.
+ * <p>
+ * If the environment uses the {@link DefaultEventBus}, the number of events it had to drop because it was
+ * overloaded is also reported periodically through the {@link EventBusOverloadEvent}.
+ * <p>
+ * Events are only allocated if a recording is running which has the corresponding event type enabled.
+ */
+public class JfrEventConsumer implements Consumer<Event> {
+
+  /**
+   * Event instances are only used to check if the event type is enabled, so it is safe to share them.
+   */
+  private static final RetryEvent RETRY_PROBE = new RetryEvent();
+  private static final EndpointEvent ENDPOINT_PROBE = new EndpointEvent();
+  private static final ConfigUpdateEvent CONFIG_PROBE = new ConfigUpdateEvent();
+
+  private final EventSubscription subscription;
+  private final Runnable overloadHook;
+
+  /**
+   * Creates a new {@link JfrEventConsumer} and subscribes it to the event bus of the environment.
+   *
+   * @param environment the environment to register with.
+   * @return the registered consumer, which should be {@link #close() closed} once no longer needed.
+   */
+  public static JfrEventConsumer register(final CoreEnvironment environment) {
+    return new JfrEventConsumer(environment.eventBus());
+  }
+
+  private JfrEventConsumer(final EventBus eventBus) {
+    this.subscription = eventBus.subscribe(this);
+
+    if (eventBus instanceof DefaultEventBus) {
+      overloadHook = new OverloadHook((DefaultEventBus) eventBus);
+      FlightRecorder.addPeriodicEvent(EventBusOverloadEvent.class, overloadHook);
+    } else {
+      overloadHook = null;
+    }
+  }
+
+  @Override
+  public void accept(final Event event) {
+    if (event instanceof RequestRetryScheduledEvent) {
+      if (RETRY_PROBE.isEnabled()) {
+        recordRetry((RequestRetryScheduledEvent) event);
+      }
+    } else if (event instanceof EndpointConnectedEvent) {
+      recordEndpoint("connected", event);
+    } else if (event instanceof EndpointDisconnectedEvent) {
+      recordEndpoint("disconnected", event);
+    } else if (event instanceof EndpointConnectionFailedEvent) {
+      recordEndpoint("connection_failed", event);
+    } else if (event instanceof BucketConfigUpdatedEvent) {
+      BucketConfigUpdatedEvent updated = (BucketConfigUpdatedEvent) event;
+      recordConfigUpdate(updated.config().name(), updated.config().rev());
+    } else if (event instanceof GlobalConfigUpdatedEvent) {
+      recordConfigUpdate(null, ((GlobalConfigUpdatedEvent) event).config().rev());
+    }
+  }
+
+  private static void recordRetry(final RequestRetryScheduledEvent event) {
+    RetryEvent jfrEvent = new RetryEvent();
+    jfrEvent.reason = event.retryReason().name();
+    jfrEvent.delay = event.duration().toNanos();
+    if (event.context() instanceof RequestContext) {
+      RequestContext ctx = (RequestContext) event.context();
+      jfrEvent.operation = ctx.request().name();
+      jfrEvent.service = ctx.request().serviceType().ident();
+      jfrEvent.attempt = ctx.retryAttempts();
+    }
+    jfrEvent.commit();
+  }
+
+  private static void recordEndpoint(final String action, final Event event) {
+    if (!ENDPOINT_PROBE.isEnabled()) {
+      return;
+    }
+    EndpointEvent jfrEvent = new EndpointEvent();
+    jfrEvent.action = action;
+    jfrEvent.latency = event.duration().toNanos();
+    if (event.context() instanceof EndpointContext) {
+      EndpointContext ctx = (EndpointContext) event.context();
+      jfrEvent.service = ctx.serviceType().ident();
+      jfrEvent.node = ctx.remoteSocket().hostname() + ":" + ctx.remoteSocket().port();
+      jfrEvent.bucket = ctx.bucket().orElse(null);
+    }
+    jfrEvent.commit();
+  }
+
+  private static void recordConfigUpdate(final String bucket, final long revision) {
+    if (!CONFIG_PROBE.isEnabled()) {
+      return;
+    }
+    ConfigUpdateEvent jfrEvent = new ConfigUpdateEvent();
+    jfrEvent.bucket = bucket;
+    jfrEvent.revision = revision;
+    jfrEvent.commit();
+  }
+
+  /**
+   * Unsubscribes from the event bus and stops reporting event bus overloads.
+   */
+  public void close() {
+    subscription.unsubscribe();
+    if (overloadHook != null) {
+      FlightRecorder.removePeriodicEvent(overloadHook);
+    }
+  }
+
+  /**
+   * Invoked by the flight recorder at the beginning of every period, reports the events dropped since the last
+   * invocation.
+   */
+  private static class OverloadHook implements Runnable {
+
+    private final DefaultEventBus eventBus;
+    private long lastOverloadedEvents;
+
+    OverloadHook(final DefaultEventBus eventBus) {
+      this.eventBus = eventBus;
+      this.lastOverloadedEvents = eventBus.overloadedEvents();
+    }
+
+    @Override
+    public void run() {
+      long overloadedEvents = eventBus.overloadedEvents();
+      long dropped = overloadedEvents - lastOverloadedEvents;
+      lastOverloadedEvents = overloadedEvents;
+      if (dropped > 0) {
+        EventBusOverloadEvent event = new EventBusOverloadEvent();
+        event.droppedEvents = dropped;
+        event.commit();
+      }
+    }
+  }
+
+}
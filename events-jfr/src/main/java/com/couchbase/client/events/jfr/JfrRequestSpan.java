@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.msg.Request;
+import com.couchbase.client.core.msg.RequestContext;
+import com.couchbase.client.core.msg.ScopedRequest;
+import com.couchbase.client.core.util.HostAndPort;
+
+import java.time.Instant;
+
+/**
+ * A request span which records a {@link RequestEvent} when it is ended.
+ */
+class JfrRequestSpan implements RequestSpan {
+
+  private final RequestEvent event = new RequestEvent();
+
+  private final RequestSpan delegate;
+
+  private volatile RequestContext requestContext;
+
+  JfrRequestSpan(final String name, final RequestSpan delegate) {
+    this.delegate = delegate;
+    event.operation = name;
+    event.begin();
+  }
+
+  /**
+   * Returns the span of the delegate tracer, which receives all calls as well.
+   */
+  RequestSpan delegate() {
+    return delegate;
+  }
+
+  /**
+   * Returns the name of the operation this span covers.
+   */
+  String name() {
+    return event.operation;
+  }
+
+  @Override
+  public void setAttribute(final String key, final String value) {
+    delegate.setAttribute(key, value);
+    if (TracingIdentifiers.ATTR_SERVICE.equals(key)) {
+      event.service = value;
+    } else if (TracingIdentifiers.ATTR_NAME.equals(key)) {
+      event.bucket = value;
+    }
+  }
+
+  @Override
+  public void setAttribute(final String key, final boolean value) {
+    delegate.setAttribute(key, value);
+  }
+
+  @Override
+  public void setAttribute(final String key, final long value) {
+    delegate.setAttribute(key, value);
+  }
+
+  @Override
+  public void addEvent(final String name, final Instant timestamp) {
+    delegate.addEvent(name, timestamp);
+  }
+
+  @Override
+  public void end() {
+    event.end();
+    delegate.end();
+    if (!event.shouldCommit()) {
+      return;
+    }
+
+    final RequestContext ctx = requestContext;
+    if (ctx != null) {
+      final Request<?> request = ctx.request();
+      if (event.service == null) {
+        event.service = request.serviceType().ident();
+      }
+      if (event.bucket == null && request instanceof ScopedRequest) {
+        event.bucket = ((ScopedRequest) request).bucket();
+      }
+      final HostAndPort node = ctx.lastDispatchedTo();
+      if (node != null) {
+        event.node = node.hostname() + ":" + node.port();
+      }
+      event.retries = ctx.retryAttempts();
+      if (!ctx.retryReasons().isEmpty()) {
+        event.retryReasons = ctx.retryReasons().toString();
+      }
+      event.dispatchDuration = ctx.totalDispatchLatency();
+      event.serverDuration = ctx.totalServerLatency();
+    }
+    event.commit();
+  }
+
+  @Override
+  public void requestContext(final RequestContext requestContext) {
+    delegate.requestContext(requestContext);
+    this.requestContext = requestContext;
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.tracing.NoopRequestTracer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link RequestTracer} which emits {@link RequestEvent RequestEvents} and {@link DispatchEvent DispatchEvents}
+ * into the JDK Flight Recorder.
+ * <p>
+ * The spans of a delegate tracer are created alongside and receive every call, so the flight recorder can be used
+ * next to the tracer which would be configured otherwise. If no recording is running (or the events are disabled in
+ * its settings) the spans of the delegate are handed out as-is, so the only cost is checking if the event type is
+ * enabled.
+ */
+public class JfrRequestTracer implements RequestTracer {
+
+  /**
+   * Event instances are only used to check if the event type is enabled, so it is safe to share them.
+   */
+  private static final RequestEvent REQUEST_PROBE = new RequestEvent();
+  private static final DispatchEvent DISPATCH_PROBE = new DispatchEvent();
+
+  private final RequestTracer delegate;
+
+  /**
+   * Creates a new {@link JfrRequestTracer} which only records into the flight recorder.
+   *
+   * @return the created tracer, ready to be passed to the environment.
+   */
+  public static JfrRequestTracer create() {
+    return create(NoopRequestTracer.INSTANCE);
+  }
+
+  /**
+   * Creates a new {@link JfrRequestTracer} which records into the flight recorder and forwards all spans to the
+   * given tracer.
+   *
+   * @param delegate the tracer to forward the spans to.
+   * @return the created tracer, ready to be passed to the environment.
+   */
+  public static JfrRequestTracer create(final RequestTracer delegate) {
+    return new JfrRequestTracer(delegate);
+  }
+
+  private JfrRequestTracer(final RequestTracer delegate) {
+    this.delegate = requireNonNull(delegate, "RequestTracer delegate");
+  }
+
+  @Override
+  public RequestSpan requestSpan(final String name, final RequestSpan parent) {
+    final RequestSpan span = delegate.requestSpan(name, unwrap(parent));
+    if (TracingIdentifiers.SPAN_DISPATCH.equals(name)) {
+      return DISPATCH_PROBE.isEnabled() ? new JfrDispatchSpan(parent, span) : span;
+    } else if (TracingIdentifiers.SPAN_REQUEST_ENCODING.equals(name)) {
+      return span;
+    }
+    return REQUEST_PROBE.isEnabled() ? new JfrRequestSpan(name, span) : span;
+  }
+
+  /**
+   * Returns the span of the delegate if the given parent has been created by this tracer.
+   */
+  private static RequestSpan unwrap(final RequestSpan parent) {
+    if (parent instanceof JfrRequestSpan) {
+      return ((JfrRequestSpan) parent).delegate();
+    } else if (parent instanceof JfrDispatchSpan) {
+      return ((JfrDispatchSpan) parent).delegate();
+    }
+    return parent;
+  }
+
+  @Override
+  public Mono<Void> start() {
+    return delegate.start();
+  }
+
+  @Override
+  public Mono<Void> stop(final Duration timeout) {
+    return delegate.stop(timeout);
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Covers a request from its creation until it is completed, including all retries.
+ * <p>
+ * Only requests which take longer than the threshold (10ms by default, configurable through the recording
+ * settings) are committed.
+ */
+@Name("com.couchbase.Request")
+@Label("Request")
+@Category({"Couchbase", "Request"})
+@Description("A request from creation to completion, including retries")
+@Threshold("10 ms")
+@StackTrace(false)
+public final class RequestEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Service")
+  String service;
+
+  @Label("Bucket")
+  String bucket;
+
+  @Label("Node")
+  @Description("The node the request has been dispatched to the last time")
+  String node;
+
+  @Label("Retries")
+  int retries;
+
+  @Label("Retry Reasons")
+  String retryReasons;
+
+  @Label("Dispatch Duration")
+  @Description("The total time spent on the wire, over all attempts")
+  @Timespan(Timespan.NANOSECONDS)
+  long dispatchDuration;
+
+  @Label("Server Duration")
+  @Description("The total time reported by the server, over all attempts")
+  @Timespan(Timespan.MICROSECONDS)
+  long serverDuration;
+
+}
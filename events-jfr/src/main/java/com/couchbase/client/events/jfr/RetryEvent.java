@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Signals that a request has been scheduled for retry.
+ */
+@Name("com.couchbase.Retry")
+@Label("Retry Scheduled")
+@Category({"Couchbase", "Request"})
+@Description("A request has been scheduled for retry")
+@StackTrace(false)
+public final class RetryEvent extends Event {
+
+  @Label("Operation")
+  String operation;
+
+  @Label("Service")
+  String service;
+
+  @Label("Reason")
+  String reason;
+
+  @Label("Attempt")
+  int attempt;
+
+  @Label("Delay")
+  @Timespan(Timespan.NANOSECONDS)
+  long delay;
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.events.jfr;
+
+import com.couchbase.client.core.cnc.RequestSpan;
+import com.couchbase.client.core.cnc.RequestTracer;
+import com.couchbase.client.core.cnc.TracingIdentifiers;
+import com.couchbase.client.core.cnc.tracing.NoopRequestSpan;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Verifies the functionality of the {@link JfrRequestTracer}.
+ */
+class JfrRequestTracerTest {
+
+  @Test
+  void handsOutNoopSpansWithoutRecording() {
+    JfrRequestTracer tracer = JfrRequestTracer.create();
+    assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_GET, null));
+    assertSame(NoopRequestSpan.INSTANCE, tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, null));
+  }
+
+  @Test
+  void recordsRequestAndDispatchEvents() throws IOException {
+    JfrRequestTracer tracer = JfrRequestTracer.create();
+    Path dump = Files.createTempFile("couchbase-jfr", ".jfr");
+
+    try (Recording recording = new Recording()) {
+      recording.enable(RequestEvent.class).withThreshold(Duration.ZERO);
+      recording.enable(DispatchEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+
+      RequestSpan request = tracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_GET, null);
+      assertNotSame(NoopRequestSpan.INSTANCE, request);
+      request.setAttribute(TracingIdentifiers.ATTR_SERVICE, TracingIdentifiers.SERVICE_KV);
+      request.setAttribute(TracingIdentifiers.ATTR_NAME, "travel-sample");
+
+      RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, request);
+      dispatch.setAttribute(TracingIdentifiers.ATTR_REMOTE_HOSTNAME, "127.0.0.1");
+      dispatch.setAttribute(TracingIdentifiers.ATTR_REMOTE_PORT, 11210);
+      dispatch.setAttribute(TracingIdentifiers.ATTR_SERVER_DURATION, 42);
+      dispatch.end();
+      request.end();
+
+      recording.stop();
+      recording.dump(dump);
+    }
+
+    try {
+      Map<String, RecordedEvent> events = RecordingFile.readAllEvents(dump)
+        .stream()
+        .filter(e -> e.getEventType().getName().startsWith("com.couchbase."))
+        .collect(Collectors.toMap(e -> e.getEventType().getName(), e -> e));
+      assertEquals(2, events.size());
+
+      RecordedEvent dispatchEvent = events.get("com.couchbase.Dispatch");
+      assertEquals(TracingIdentifiers.SPAN_REQUEST_KV_GET, dispatchEvent.getString("operation"));
+      assertEquals("127.0.0.1:11210", dispatchEvent.getString("node"));
+      assertEquals(42, dispatchEvent.getLong("serverDuration"));
+
+      RecordedEvent requestEvent = events.get("com.couchbase.Request");
+      assertEquals(TracingIdentifiers.SPAN_REQUEST_KV_GET, requestEvent.getString("operation"));
+      assertEquals(TracingIdentifiers.SERVICE_KV, requestEvent.getString("service"));
+      assertEquals("travel-sample", requestEvent.getString("bucket"));
+    } finally {
+      Files.deleteIfExists(dump);
+    }
+  }
+
+  @Test
+  void forwardsSpansToDelegate() {
+    List<String> calls = new CopyOnWriteArrayList<>();
+    RequestTracer delegate = new RequestTracer() {
+      @Override
+      public RequestSpan requestSpan(final String name, final RequestSpan parent) {
+        calls.add("create " + name + (parent == null ? "" : " child"));
+        RequestSpan span = mock(RequestSpan.class);
+        doAnswer(invocation -> calls.add("end " + name)).when(span).end();
+        return span;
+      }
+
+      @Override
+      public Mono<Void> start() {
+        return Mono.empty();
+      }
+
+      @Override
+      public Mono<Void> stop(final Duration timeout) {
+        return Mono.empty();
+      }
+    };
+    JfrRequestTracer tracer = JfrRequestTracer.create(delegate);
+
+    try (Recording recording = new Recording()) {
+      recording.enable(RequestEvent.class).withThreshold(Duration.ZERO);
+      recording.enable(DispatchEvent.class).withThreshold(Duration.ZERO);
+      recording.start();
+
+      RequestSpan request = tracer.requestSpan(TracingIdentifiers.SPAN_REQUEST_KV_GET, null);
+      RequestSpan dispatch = tracer.requestSpan(TracingIdentifiers.SPAN_DISPATCH, request);
+      dispatch.end();
+      request.end();
+    }
+
+    assertEquals(Arrays.asList(
+      "create " + TracingIdentifiers.SPAN_REQUEST_KV_GET,
+      "create " + TracingIdentifiers.SPAN_DISPATCH + " child",
+      "end " + TracingIdentifiers.SPAN_DISPATCH,
+      "end " + TracingIdentifiers.SPAN_REQUEST_KV_GET
+    ), calls);
+  }
+
+}
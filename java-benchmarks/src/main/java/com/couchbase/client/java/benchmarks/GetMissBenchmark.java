@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.ClusterOptions;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.env.ClusterEnvironment;
+import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.test.standin.StandInCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of a missing document when signaled through a {@link DocumentNotFoundException} (with and
+ * without stack traces) and through {@link Collection#getOptional(String)}.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar GetMissBenchmark -prof gc} to also see the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetMissBenchmark {
+
+  @Param({"false", "true"})
+  public boolean stacklessKeyValueErrors;
+
+  private StandInCluster standIn;
+  private ClusterEnvironment environment;
+  private Cluster cluster;
+  private Collection collection;
+
+  @Setup
+  public void setup() {
+    standIn = StandInCluster.builder().numNodes(1).start();
+    environment = ClusterEnvironment.builder().stacklessKeyValueErrors(stacklessKeyValueErrors).build();
+    cluster = Cluster.connect(
+      standIn.connectionString(),
+      ClusterOptions.clusterOptions(standIn.username(), standIn.password()).environment(environment)
+    );
+    collection = cluster.bucket(standIn.bucketName()).defaultCollection();
+    cluster.bucket(standIn.bucketName()).waitUntilReady(Duration.ofSeconds(10));
+  }
+
+  @TearDown
+  public void teardown() {
+    cluster.disconnect();
+    environment.shutdown();
+    standIn.close();
+  }
+
+  @Benchmark
+  public boolean getThrowing() {
+    try {
+      return collection.get("missing") != null;
+    } catch (DocumentNotFoundException ex) {
+      return false;
+    }
+  }
+
+  @Benchmark
+  public Optional<GetResult> getOptional() {
+    return collection.getOptional("missing");
+  }
+
+}
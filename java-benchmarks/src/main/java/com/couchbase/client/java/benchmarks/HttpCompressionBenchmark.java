@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.core.deps.io.netty.bootstrap.Bootstrap;
+import com.couchbase.client.core.deps.io.netty.bootstrap.ServerBootstrap;
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.buffer.Unpooled;
+import com.couchbase.client.core.deps.io.netty.channel.Channel;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInboundHandlerAdapter;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInitializer;
+import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.nio.NioEventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.socket.SocketChannel;
+import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioServerSocketChannel;
+import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioSocketChannel;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultFullHttpRequest;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpContent;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.DefaultHttpResponse;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.FullHttpRequest;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpClientCodec;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpContent;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpContentCompressor;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpHeaderNames;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpMethod;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponse;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpResponseStatus;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpServerCodec;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpUtil;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.HttpVersion;
+import com.couchbase.client.core.deps.io.netty.handler.codec.http.LastHttpContent;
+import com.couchbase.client.core.deps.io.netty.handler.traffic.ChannelTrafficShapingHandler;
+import com.couchbase.client.core.deps.io.netty.util.ReferenceCountUtil;
+import com.couchbase.client.core.io.netty.HttpCompressionHandler;
+import com.couchbase.client.core.json.stream.JsonStreamParser;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Measures the time until the last row of a large query response has been parsed, with and without compression
+ * negotiated through the {@link HttpCompressionHandler}, against a local stand-in server.
+ * <p>
+ * The server streams the result in chunks and can throttle its writes to simulate a bandwidth limited link, such as
+ * one between availability zones. The bytes read from the socket are reported as the {@code bytesRead} counter, which
+ * is summed up per iteration and needs to be divided by the number of operations to get the bytes per response.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar HttpCompressionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class HttpCompressionBenchmark {
+
+  private static final int ROWS_PER_CHUNK = 100;
+
+  @Param({"false", "true"})
+  public boolean compression;
+
+  @Param({"10000"})
+  public int rows;
+
+  /**
+   * The bytes per second the server writes, 0 for unlimited (the loopback speed).
+   */
+  @Param({"0", "12500000"})
+  public long bandwidth;
+
+  private EventLoopGroup eventLoopGroup;
+  private Channel server;
+  private Channel client;
+  private final AtomicLong wireBytes = new AtomicLong();
+  private volatile CompletableFuture<Integer> lastRow;
+  private JsonStreamParser parser;
+  private int parsedRows;
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class WireBytes {
+    public long bytesRead;
+  }
+
+  @Setup
+  public void setup() {
+    eventLoopGroup = new NioEventLoopGroup(2);
+    byte[][] chunks = responseChunks();
+
+    server = new ServerBootstrap()
+      .channel(NioServerSocketChannel.class)
+      .group(eventLoopGroup)
+      .childHandler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) {
+          if (bandwidth > 0) {
+            ch.pipeline().addLast(new ChannelTrafficShapingHandler(bandwidth, 0, 10));
+          }
+          ch.pipeline().addLast(new HttpServerCodec(), new HttpContentCompressor(), new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+              if (msg instanceof LastHttpContent) {
+                HttpResponse response = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+                HttpUtil.setTransferEncodingChunked(response, true);
+                ctx.write(response);
+                for (int i = 0; i < chunks.length - 1; i++) {
+                  ctx.writeAndFlush(new DefaultHttpContent(Unpooled.wrappedBuffer(chunks[i])));
+                }
+                ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT.replace(
+                  Unpooled.wrappedBuffer(chunks[chunks.length - 1])
+                ));
+              }
+              ReferenceCountUtil.release(msg);
+            }
+          });
+        }
+      })
+      .bind(new InetSocketAddress("127.0.0.1", 0))
+      .syncUninterruptibly()
+      .channel();
+
+    client = new Bootstrap()
+      .channel(NioSocketChannel.class)
+      .group(eventLoopGroup)
+      .handler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(SocketChannel ch) {
+          ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+              if (msg instanceof ByteBuf) {
+                wireBytes.addAndGet(((ByteBuf) msg).readableBytes());
+              }
+              ctx.fireChannelRead(msg);
+            }
+          });
+          ch.pipeline().addLast(new HttpClientCodec());
+          if (compression) {
+            ch.pipeline().addLast(new HttpCompressionHandler());
+          }
+          ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+              try {
+                if (msg instanceof HttpResponse) {
+                  parsedRows = 0;
+                  parser = JsonStreamParser.builder().doOnValue("/results/-", v -> parsedRows++).build();
+                }
+                if (msg instanceof HttpContent) {
+                  parser.feed(((HttpContent) msg).content().retain());
+                }
+                if (msg instanceof LastHttpContent) {
+                  parser.endOfInput();
+                  parser.close();
+                  lastRow.complete(parsedRows);
+                }
+              } finally {
+                ReferenceCountUtil.release(msg);
+              }
+            }
+          });
+        }
+      })
+      .connect(server.localAddress())
+      .syncUninterruptibly()
+      .channel();
+  }
+
+  private byte[][] responseChunks() {
+    byte[][] chunks = new byte[rows / ROWS_PER_CHUNK + 2][];
+    chunks[0] = "{\"requestID\":\"1234\",\"signature\":{\"*\":\"*\"},\"results\":[".getBytes(UTF_8);
+    for (int c = 1; c < chunks.length - 1; c++) {
+      StringBuilder chunk = new StringBuilder();
+      for (int i = (c - 1) * ROWS_PER_CHUNK; i < c * ROWS_PER_CHUNK; i++) {
+        chunk.append(i == 0 ? "" : ",")
+          .append("{\"id\":\"airline_").append(i)
+          .append("\",\"type\":\"airline\",\"name\":\"Airline ").append(i)
+          .append("\",\"iata\":\"").append((char) ('A' + i % 26)).append((char) ('A' + i / 26 % 26))
+          .append("\",\"country\":\"United States\",\"callsign\":\"CALL").append(i % 1000).append("\"}");
+      }
+      chunks[c] = chunk.toString().getBytes(UTF_8);
+    }
+    chunks[chunks.length - 1] = "],\"status\":\"success\",\"metrics\":{\"resultCount\":1}}".getBytes(UTF_8);
+    return chunks;
+  }
+
+  @TearDown
+  public void tearDown() {
+    client.close().syncUninterruptibly();
+    server.close().syncUninterruptibly();
+    eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+  }
+
+  @TearDown(Level.Iteration)
+  public void checkRows() {
+    if (parsedRows != rows) {
+      throw new IllegalStateException("Expected " + rows + " rows but parsed " + parsedRows);
+    }
+  }
+
+  @Benchmark
+  public int timeToLastRow(final WireBytes counters) throws Exception {
+    long before = wireBytes.get();
+    lastRow = new CompletableFuture<>();
+    FullHttpRequest request = new DefaultFullHttpRequest(HttpVersion.HTTP_1_1, HttpMethod.POST, "/query/service");
+    request.headers().setInt(HttpHeaderNames.CONTENT_LENGTH, 0);
+    client.writeAndFlush(request).syncUninterruptibly();
+    int parsed = lastRow.get(1, TimeUnit.MINUTES);
+    counters.bytesRead += wireBytes.get() - before;
+    return parsed;
+  }
+
+}
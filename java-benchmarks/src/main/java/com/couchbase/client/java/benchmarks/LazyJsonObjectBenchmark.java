@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares eagerly and lazily decoded {@link JsonObject}s when reading a few fields of a document, and when
+ * reading all of them.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar LazyJsonObjectBenchmark -prof gc} to also see the allocation
+ * rate. The normalized allocation rate ({@code gc.alloc.rate.norm}) of the read benchmarks is the memory a decoded
+ * document costs, and an upper bound for what it retains.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class LazyJsonObjectBenchmark {
+
+  /**
+   * The number of top-level fields in the document, 100 fields are roughly 5KB.
+   */
+  @Param({"100"})
+  public int fields;
+
+  private final JsonSerializer eager = DefaultJsonSerializer.create(null, false);
+  private final JsonSerializer lazy = DefaultJsonSerializer.create(null, true);
+
+  private byte[] document;
+
+  @Setup
+  public void setup() {
+    JsonObject content = JsonObject.create();
+    for (int i = 0; i < fields; i++) {
+      if (i % 4 == 0) {
+        content.put("field" + i, JsonObject.create().put("name", "value " + i).put("count", i).put("active", true));
+      } else if (i % 4 == 1) {
+        content.put("field" + i, JsonArray.from("a" + i, "b" + i, i));
+      } else {
+        content.put("field" + i, "a string value with some length for field " + i);
+      }
+    }
+    document = content.toBytes();
+  }
+
+  @Benchmark
+  public void readThreeFieldsEager(Blackhole bh) {
+    readThreeFields(eager, bh);
+  }
+
+  @Benchmark
+  public void readThreeFieldsLazy(Blackhole bh) {
+    readThreeFields(lazy, bh);
+  }
+
+  @Benchmark
+  public void readAllFieldsEager(Blackhole bh) {
+    readAllFields(eager, bh);
+  }
+
+  @Benchmark
+  public void readAllFieldsLazy(Blackhole bh) {
+    readAllFields(lazy, bh);
+  }
+
+  private void readThreeFields(JsonSerializer serializer, Blackhole bh) {
+    JsonObject doc = serializer.deserialize(JsonObject.class, document);
+    bh.consume(doc.getString("field2"));
+    bh.consume(doc.getObject("field4").getInt("count"));
+    bh.consume(doc.getString(("field" + (fields - 1))));
+  }
+
+  private void readAllFields(JsonSerializer serializer, Blackhole bh) {
+    JsonObject doc = serializer.deserialize(JsonObject.class, document);
+    for (String name : doc.getNames()) {
+      bh.consume(doc.get(name));
+    }
+  }
+
+}
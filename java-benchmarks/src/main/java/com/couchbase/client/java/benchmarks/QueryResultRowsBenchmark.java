@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.core.msg.chunk.SlabRowBuffer;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import com.couchbase.client.java.json.JsonObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares buffering the rows of a large query result as a list of rows with buffering them in a
+ * {@link SlabRowBuffer}, both for collecting the rows and for decoding them afterwards.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar QueryResultRowsBenchmark -prof gc} to also see the allocation
+ * rate and GC time. Since the collected rows are all retained until the result is discarded, the normalized
+ * allocation rate ({@code gc.alloc.rate.norm}) of the collect benchmarks is an upper bound for the size of a
+ * buffered result.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class QueryResultRowsBenchmark {
+
+  @Param({"1000000"})
+  public int rows;
+
+  private final JsonSerializer serializer = DefaultJsonSerializer.create();
+
+  private Flux<QueryChunkRow> response;
+  private List<QueryChunkRow> rowList;
+  private SlabRowBuffer rowSlabs;
+
+  @Setup
+  public void setup() {
+    response = Flux.range(0, rows).map(i -> new QueryChunkRow(
+      ("{\"id\":\"airline_" + i + "\",\"name\":\"Airline " + i + "\",\"country\":\"United States\"}").getBytes(UTF_8)
+    ));
+    rowList = response.collectList().block();
+    rowSlabs = SlabRowBuffer.collect(response).block();
+  }
+
+  @Benchmark
+  public List<QueryChunkRow> collectList() {
+    return response.collectList().block();
+  }
+
+  @Benchmark
+  public SlabRowBuffer collectSlabs() {
+    return SlabRowBuffer.collect(response).block();
+  }
+
+  @Benchmark
+  public List<JsonObject> decodeList() {
+    List<JsonObject> decoded = new ArrayList<>(rowList.size());
+    for (QueryChunkRow row : rowList) {
+      decoded.add(serializer.deserialize(JsonObject.class, row.data()));
+    }
+    return decoded;
+  }
+
+  @Benchmark
+  public List<JsonObject> decodeSlabs() {
+    return rowSlabs.decodeAll((data, offset, length) -> serializer.deserialize(JsonObject.class, data, offset, length));
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.core.Reactor;
+import com.couchbase.client.java.AsyncCollection;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.kv.GetResult;
+import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.test.standin.StandInCluster;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ReactiveCollection} (which is completed directly by the request) against wrapping the
+ * futures of the {@link AsyncCollection}, with many concurrent operations in flight.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation rate per operation as well.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ReactiveKeyValueBenchmark.CONCURRENCY)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReactiveKeyValueBenchmark {
+
+  static final int CONCURRENCY = 128;
+
+  private static final JsonObject CONTENT = JsonObject.create().put("name", "benchmark").put("value", 42);
+
+  private StandInCluster standIn;
+  private Cluster cluster;
+  private ReactiveCollection reactive;
+  private AsyncCollection async;
+
+  @Setup
+  public void setup() {
+    standIn = StandInCluster.builder().numNodes(1).start();
+    cluster = Cluster.connect(standIn.connectionString(), standIn.username(), standIn.password());
+    cluster.bucket(standIn.bucketName()).waitUntilReady(Duration.ofSeconds(10));
+    reactive = cluster.bucket(standIn.bucketName()).defaultCollection().reactive();
+    async = cluster.bucket(standIn.bucketName()).defaultCollection().async();
+    async.upsert("existing", CONTENT).join();
+  }
+
+  @TearDown
+  public void teardown() {
+    cluster.disconnect();
+    standIn.close();
+  }
+
+  @Benchmark
+  public GetResult getReactive() {
+    return Flux.range(0, CONCURRENCY).flatMap(i -> reactive.get("existing"), CONCURRENCY).blockLast();
+  }
+
+  @Benchmark
+  public GetResult getWrappingFuture() {
+    return Flux
+      .range(0, CONCURRENCY)
+      .flatMap(i -> Reactor.toMono(() -> async.get("existing")), CONCURRENCY)
+      .blockLast();
+  }
+
+  @Benchmark
+  public MutationResult upsertReactive() {
+    return Flux.range(0, CONCURRENCY).flatMap(i -> reactive.upsert("upserted", CONTENT), CONCURRENCY).blockLast();
+  }
+
+  @Benchmark
+  public MutationResult upsertWrappingFuture() {
+    return Flux
+      .range(0, CONCURRENCY)
+      .flatMap(i -> Reactor.toMono(() -> async.upsert("upserted", CONTENT)), CONCURRENCY)
+      .blockLast();
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.benchmarks;
+
+import com.couchbase.client.scala.codec.JsonDeserializer;
+import com.couchbase.client.scala.codec.JsonSerializer;
+import com.couchbase.client.scala.json.JsonObject;
+import com.couchbase.client.scala.transformers.JacksonTransformers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares decoding and encoding the Scala SDK {@link JsonObject} with the previously used Jackson mapper and the
+ * jsoniter codecs which back the default Scala serializers now.
+ * <p>
+ * Run with {@code java -jar target/benchmarks.jar ScalaJsonObjectBenchmark -prof gc} to also see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1)
+@State(Scope.Benchmark)
+public class ScalaJsonObjectBenchmark {
+
+  /**
+   * A small user profile, or a roughly 5KB document with nested objects and arrays.
+   */
+  @Param({"small", "large"})
+  public String document;
+
+  private byte[] encoded;
+  private JsonObject decoded;
+
+  @Setup
+  public void setup() throws Exception {
+    StringBuilder json = new StringBuilder("{\"id\":12345,\"name\":\"John Smith\",\"active\":true,"
+      + "\"score\":98.6,\"email\":null,\"tags\":[\"a\",\"b\"]");
+    if (document.equals("large")) {
+      for (int i = 0; i < 50; i++) {
+        json.append(",\"field").append(i).append("\":{\"text\":\"a string value with some length ").append(i)
+          .append("\",\"count\":").append(i * 1_000_000_007L)
+          .append(",\"ratio\":").append(i / 7.0)
+          .append(",\"items\":[").append(i).append(",\"x\",false]}");
+      }
+    }
+    json.append("}");
+
+    encoded = json.toString().getBytes(UTF_8);
+    decoded = JacksonTransformers.stringToJsonObject(json.toString());
+  }
+
+  @Benchmark
+  public JsonObject decodeJackson() throws Exception {
+    return JacksonTransformers.MAPPER.readValue(encoded, JsonObject.class);
+  }
+
+  @Benchmark
+  public JsonObject decodeJsoniter() {
+    return JsonDeserializer.JsonObjectConvert$.MODULE$.deserialize(encoded).get();
+  }
+
+  @Benchmark
+  public byte[] encodeJackson() throws Exception {
+    return JacksonTransformers.MAPPER.writeValueAsBytes(decoded);
+  }
+
+  @Benchmark
+  public byte[] encodeJsoniter() {
+    return JsonSerializer.JsonObjectConvert$.MODULE$.serialize(decoded).get();
+  }
+
+}
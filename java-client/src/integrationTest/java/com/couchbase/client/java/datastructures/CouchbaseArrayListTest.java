@@ -35,6 +35,7 @@ import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
@@ -438,4 +439,19 @@ class CouchbaseArrayListTest extends JavaIntegrationTest {
         list.clear();
         assertThrows(ConcurrentModificationException.class, () -> it.add(5));
     }
+    @Test
+    void shouldRemoveAllMatchingElements() {
+        List<Integer> list = collection.list(uuid, Integer.class, ArrayListOptions.arrayListOptions());
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            values.add(i % 4);
+        }
+        assertTrue(list.addAll(values));
+        assertEquals(40, list.size());
+        assertTrue(list.removeAll(Arrays.asList(1, 3)));
+        assertEquals(20, list.size());
+        assertFalse(list.contains(1));
+        assertTrue(list.containsAll(Arrays.asList(0, 2)));
+        assertFalse(list.removeAll(Arrays.asList(1, 3)));
+    }
 }
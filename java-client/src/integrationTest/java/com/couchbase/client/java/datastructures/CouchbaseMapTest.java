@@ -30,6 +30,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -228,4 +229,24 @@ class CouchbaseMapTest extends JavaIntegrationTest {
         assertFalse(map.isEmpty());
         assertFalse(map2.isEmpty());
     }
+    @Test
+    void shouldPutAllAcrossBatches() {
+        CouchbaseMap<Integer> map = new CouchbaseMap<>(uuid, collection, Integer.class, options);
+        Map<String, Integer> values = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            values.put("key" + i, i);
+        }
+        map.putAll(values);
+        assertEquals(40, map.size());
+        assertEquals(39, map.get("key39").intValue());
+    }
+    @Test
+    void shouldRemoveAllKeys() {
+        CouchbaseMap<Integer> map = new CouchbaseMap<>(uuid, collection, Integer.class, options);
+        map.putAll(createJavaMap());
+        assertTrue(map.removeAll(Arrays.asList("a", "c", "z")));
+        assertEquals(3, map.size());
+        assertFalse(map.containsKey("a"));
+        assertFalse(map.removeAll(Arrays.asList("a", "z")));
+    }
 }
@@ -30,9 +30,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.UUID;
 
@@ -226,5 +228,34 @@ class CouchbaseQueueTest extends JavaIntegrationTest {
         assertFalse(queue1.contains(5));
         assertFalse(queue2.contains(5));
     }
-}
+    @Test
+    void canOfferAllAndDrainInOrder() {
+        CouchbaseQueue<Integer> queue = new CouchbaseQueue<>(uuid, collection, Integer.class, options);
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            values.add(i);
+        }
+        assertTrue(queue.offerAll(values));
+        assertEquals(40, queue.size());
 
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(20, queue.drainTo(drained, 20));
+        assertEquals(values.subList(0, 20), drained);
+        assertEquals(20, queue.drainTo(drained));
+        assertEquals(values, drained);
+        assertEquals(0, queue.drainTo(drained));
+    }
+    @Test
+    void writeBehindBufferIsFlushedBeforeReads() {
+        CouchbaseQueue<Integer> queue = new CouchbaseQueue<>(uuid, collection, Integer.class,
+                QueueOptions.queueOptions().writeBehindBufferSize(10));
+        queue.offer(1);
+        queue.offer(2);
+        assertThrows(DocumentNotFoundException.class, () -> collection.get(uuid));
+        assertEquals(1, queue.poll().intValue());
+        queue.offer(3);
+        queue.flush();
+        CouchbaseQueue<Integer> sameQueue = new CouchbaseQueue<>(uuid, collection, Integer.class, options);
+        assertEquals(2, sameQueue.size());
+    }
+}
@@ -18,6 +18,7 @@ package com.couchbase.client.java;
 
 import com.couchbase.client.core.Core;
 import com.couchbase.client.core.CoreContext;
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.TracingIdentifiers;
 import com.couchbase.client.core.env.CoreEnvironment;
@@ -34,6 +35,7 @@ import com.couchbase.client.core.msg.kv.PrependRequest;
 import com.couchbase.client.core.retry.RetryStrategy;
 import com.couchbase.client.java.kv.AppendAccessor;
 import com.couchbase.client.java.kv.AppendOptions;
+import com.couchbase.client.java.kv.AsyncCombiningCounter;
 import com.couchbase.client.java.kv.CounterAccessor;
 import com.couchbase.client.java.kv.CounterResult;
 import com.couchbase.client.java.kv.DecrementOptions;
@@ -252,6 +254,24 @@ public class AsyncBinaryCollection {
     return request;
   }
 
+  /**
+   * Creates a counter which combines concurrent increments and decrements of the same documents into single requests.
+   * <p>
+   * The deltas for a document are collected until the window elapses or the maximum number of pending operations
+   * is reached, and then sent as one request. Every caller still gets the counter value right after its own delta.
+   * See {@link AsyncCombiningCounter} for the details.
+   *
+   * @param window how long deltas are collected at most before they are sent, which bounds the staleness.
+   * @param maxPending how many operations are combined at most into a single request.
+   * @return the created {@link AsyncCombiningCounter}, which should be closed once not needed anymore.
+   */
+  @Stability.Volatile
+  public AsyncCombiningCounter combiningCounter(final Duration window, final int maxPending) {
+    return new AsyncCombiningCounter(environment.scheduler(), window, maxPending, (id, delta) -> delta >= 0
+      ? increment(id, incrementOptions().delta(delta))
+      : decrement(id, decrementOptions().delta(-delta)));
+  }
+
   CollectionIdentifier collectionIdentifier() {
     return collectionIdentifier;
   }
@@ -47,6 +47,7 @@ import com.couchbase.client.java.diagnostics.DiagnosticsOptions;
 import com.couchbase.client.java.diagnostics.PingOptions;
 import com.couchbase.client.java.diagnostics.WaitUntilReadyOptions;
 import com.couchbase.client.java.env.ClusterEnvironment;
+import com.couchbase.client.java.json.JsonBodyWriter;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.manager.analytics.AsyncAnalyticsIndexManager;
 import com.couchbase.client.java.manager.bucket.AsyncBucketManager;
@@ -62,7 +63,6 @@ import com.couchbase.client.java.search.SearchQuery;
 import com.couchbase.client.java.search.result.SearchResult;
 import reactor.core.publisher.Mono;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
@@ -337,13 +337,11 @@ public class AsyncCluster {
     Duration timeout = options.timeout().orElse(environment.get().timeoutConfig().queryTimeout());
     RetryStrategy retryStrategy = options.retryStrategy().orElse(environment.get().retryStrategy());
 
-    final JsonObject query = JsonObject.create();
-    query.put("statement", statement);
-    query.put("timeout", encodeDurationToMs(timeout));
-    options.injectParams(query);
-
-    final byte[] queryBytes = query.toString().getBytes(StandardCharsets.UTF_8);
-    final String clientContextId = query.getString("client_context_id");
+    final JsonBodyWriter query = JsonBodyWriter.create(options.rawNames())
+      .put("statement", statement)
+      .put("timeout", encodeDurationToMs(timeout));
+    final String clientContextId = options.injectParams(query);
+    final byte[] queryBytes = query.finish();
     final RequestSpan span = environment()
       .requestTracer()
       .requestSpan(TracingIdentifiers.SPAN_REQUEST_QUERY, options.parentSpan().orElse(null));
@@ -391,13 +389,11 @@ public class AsyncCluster {
     Duration timeout = opts.timeout().orElse(environment.get().timeoutConfig().analyticsTimeout());
     RetryStrategy retryStrategy = opts.retryStrategy().orElse(environment.get().retryStrategy());
 
-    JsonObject query = JsonObject.create();
-    query.put("statement", statement);
-    query.put("timeout", encodeDurationToMs(timeout));
-    opts.injectParams(query);
-
-    final byte[] queryBytes = query.toString().getBytes(StandardCharsets.UTF_8);
-    final String clientContextId = query.getString("client_context_id");
+    final JsonBodyWriter query = JsonBodyWriter.create(opts.rawNames())
+      .put("statement", statement)
+      .put("timeout", encodeDurationToMs(timeout));
+    final String clientContextId = opts.injectParams(query);
+    final byte[] queryBytes = query.finish();
     final RequestSpan span = environment()
       .requestTracer()
       .requestSpan(TracingIdentifiers.SPAN_REQUEST_ANALYTICS, opts.parentSpan().orElse(null));
@@ -437,7 +433,7 @@ public class AsyncCluster {
     notNullOrEmpty(indexName, "IndexName", () -> new ReducedSearchErrorContext(indexName, query.export().toMap()));
     JsonObject params = query.export();
     opts.injectParams(indexName, params);
-    byte[] bytes = params.toString().getBytes(StandardCharsets.UTF_8);
+    byte[] bytes = params.toBytes();
 
     Duration timeout = opts.timeout().orElse(environment.get().timeoutConfig().searchTimeout());
     RetryStrategy retryStrategy = opts.retryStrategy().orElse(environment.get().retryStrategy());
@@ -269,6 +269,40 @@ public class AsyncCollection {
     }
   }
 
+  /**
+   * Fetches a full document (or a projection of it) from a collection with default options, completing with an
+   * empty {@link Optional} if the document does not exist.
+   * <p>
+   * Prefer this over {@link #get(String)} if a missing document is an expected outcome (i.e. for caching
+   * workloads), since no {@link DocumentNotFoundException} needs to be created.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link CompletableFuture} completing once loaded, found missing or failed.
+   */
+  public CompletableFuture<Optional<GetResult>> getOptional(final String id) {
+    return getOptional(id, DEFAULT_GET_OPTIONS);
+  }
+
+  /**
+   * Fetches a full document (or a projection of it) from a collection with custom options, completing with an
+   * empty {@link Optional} if the document does not exist.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param options custom options to change the default behavior.
+   * @return a {@link CompletableFuture} completing once loaded, found missing or failed.
+   */
+  public CompletableFuture<Optional<GetResult>> getOptional(final String id, final GetOptions options) {
+    notNull(options, "GetOptions", () -> ReducedKeyValueErrorContext.create(id, collectionIdentifier));
+    final GetOptions.Built opts = options.build();
+
+    final Transcoder transcoder = opts.transcoder() == null ? environment.transcoder() : opts.transcoder();
+    if (opts.projections().isEmpty() && !opts.withExpiry()) {
+      return GetAccessor.getOptional(core, fullGetRequest(id, opts), transcoder);
+    } else {
+      return GetAccessor.subdocGetOptional(core, subdocGetRequest(id, opts), transcoder);
+    }
+  }
+
   /**
    * Helper method to create a get request for a full doc fetch.
    *
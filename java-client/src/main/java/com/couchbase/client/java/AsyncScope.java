@@ -33,12 +33,11 @@ import com.couchbase.client.java.analytics.AnalyticsOptions;
 import com.couchbase.client.java.analytics.AnalyticsResult;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.env.ClusterEnvironment;
-import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.json.JsonBodyWriter;
 import com.couchbase.client.java.query.QueryAccessor;
 import com.couchbase.client.java.query.QueryOptions;
 import com.couchbase.client.java.query.QueryResult;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Map;
 import java.util.Optional;
@@ -235,14 +234,12 @@ public class AsyncScope {
     Duration timeout = options.timeout().orElse(environment.timeoutConfig().queryTimeout());
     RetryStrategy retryStrategy = options.retryStrategy().orElse(environment.retryStrategy());
 
-    final JsonObject query = JsonObject.create();
-    query.put("statement", statement);
-    query.put("timeout", encodeDurationToMs(timeout));
-    String queryContext = QueryRequest.queryContext(bucketName, scopeName);
-    query.put("query_context", queryContext);
-    options.injectParams(query);
-    final byte[] queryBytes = query.toString().getBytes(StandardCharsets.UTF_8);
-    final String clientContextId = query.getString("client_context_id");
+    final JsonBodyWriter query = JsonBodyWriter.create(options.rawNames())
+      .put("statement", statement)
+      .put("timeout", encodeDurationToMs(timeout))
+      .put("query_context", QueryRequest.queryContext(bucketName, scopeName));
+    final String clientContextId = options.injectParams(query);
+    final byte[] queryBytes = query.finish();
     final RequestSpan span = environment.requestTracer().requestSpan(TracingIdentifiers.SPAN_REQUEST_QUERY,
         options.parentSpan().orElse(null));
 
@@ -290,14 +287,12 @@ public class AsyncScope {
     Duration timeout = opts.timeout().orElse(environment.timeoutConfig().analyticsTimeout());
     RetryStrategy retryStrategy = opts.retryStrategy().orElse(environment.retryStrategy());
 
-    JsonObject query = JsonObject.create();
-    query.put("statement", statement);
-    query.put("timeout", encodeDurationToMs(timeout));
-    query.put("query_context", AnalyticsRequest.queryContext(bucketName, scopeName));
-    opts.injectParams(query);
-
-    final byte[] queryBytes = query.toString().getBytes(StandardCharsets.UTF_8);
-    final String clientContextId = query.getString("client_context_id");
+    final JsonBodyWriter query = JsonBodyWriter.create(opts.rawNames())
+      .put("statement", statement)
+      .put("timeout", encodeDurationToMs(timeout))
+      .put("query_context", AnalyticsRequest.queryContext(bucketName, scopeName));
+    final String clientContextId = opts.injectParams(query);
+    final byte[] queryBytes = query.finish();
     final RequestSpan span = environment()
         .requestTracer()
         .requestSpan(TracingIdentifiers.SPAN_REQUEST_ANALYTICS, opts.parentSpan().orElse(null));
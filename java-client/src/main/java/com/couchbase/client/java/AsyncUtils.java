@@ -41,6 +41,11 @@ public class AsyncUtils {
     } catch (ExecutionException e) {
       final Throwable cause = e.getCause();
       if (cause instanceof RuntimeException) {
+        if (cause.getStackTrace().length == 0) {
+          // The exception has been created without a stack trace on purpose (i.e. stackless KV errors), so
+          // do not pay for filling it in here.
+          throw (RuntimeException) cause;
+        }
         // Rethrow the cause but first adjust the stack trace to point HERE instead of
         // the thread where the exception was actually thrown, otherwise the stack trace
         // does not include the context of the blocking call.
@@ -16,17 +16,21 @@
 
 package com.couchbase.client.java;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.CasMismatchException;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.TimeoutException;
 import com.couchbase.client.java.kv.AppendOptions;
+import com.couchbase.client.java.kv.CombiningCounter;
 import com.couchbase.client.java.kv.CounterResult;
 import com.couchbase.client.java.kv.DecrementOptions;
 import com.couchbase.client.java.kv.IncrementOptions;
 import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.kv.PrependOptions;
 
+import java.time.Duration;
+
 import static com.couchbase.client.java.AsyncUtils.block;
 
 /**
@@ -159,4 +163,18 @@ public class BinaryCollection {
     return block(async.decrement(id, options));
   }
 
+  /**
+   * Creates a counter which combines concurrent increments and decrements of the same documents into single requests.
+   * <p>
+   * See {@link AsyncBinaryCollection#combiningCounter(Duration, int)} for the details.
+   *
+   * @param window how long deltas are collected at most before they are sent, which bounds the staleness.
+   * @param maxPending how many operations are combined at most into a single request.
+   * @return the created {@link CombiningCounter}, which should be closed once not needed anymore.
+   */
+  @Stability.Volatile
+  public CombiningCounter combiningCounter(final Duration window, final int maxPending) {
+    return new CombiningCounter(async.combiningCounter(window, maxPending));
+  }
+
 }
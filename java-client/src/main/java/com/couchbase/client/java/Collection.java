@@ -59,6 +59,7 @@ import com.couchbase.client.java.kv.UpsertOptions;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Stream;
@@ -198,6 +199,35 @@ public class Collection {
     return block(async().get(id, options));
   }
 
+  /**
+   * Fetches the full document from this collection, returning an empty {@link Optional} if it does not exist.
+   * <p>
+   * Prefer this over {@link #get(String)} if a missing document is an expected outcome (i.e. for caching
+   * workloads), since no {@link DocumentNotFoundException} needs to be created and thrown.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return the {@link GetResult} if the document has been found, empty otherwise.
+   * @throws TimeoutException if the operation times out before getting a result.
+   * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
+   */
+  public Optional<GetResult> getOptional(final String id) {
+    return block(async().getOptional(id));
+  }
+
+  /**
+   * Fetches the full document from this collection with custom options, returning an empty {@link Optional} if it
+   * does not exist.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param options options to customize the get request.
+   * @return the {@link GetResult} if the document has been found, empty otherwise.
+   * @throws TimeoutException if the operation times out before getting a result.
+   * @throws CouchbaseException for all other error reasons (acts as a base type and catch-all).
+   */
+  public Optional<GetResult> getOptional(final String id, final GetOptions options) {
+    return block(async().getOptional(id, options));
+  }
+
   /**
    * Fetches a full document and write-locks it for the given duration.
    * <p>
@@ -22,6 +22,7 @@ import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.events.request.IndividualReplicaGetFailedEvent;
+import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.context.ReducedKeyValueErrorContext;
 import com.couchbase.client.core.msg.kv.GetAndLockRequest;
 import com.couchbase.client.core.msg.kv.GetAndTouchRequest;
@@ -61,10 +62,12 @@ import com.couchbase.client.java.kv.MutateInOptions;
 import com.couchbase.client.java.kv.MutateInResult;
 import com.couchbase.client.java.kv.MutateInSpec;
 import com.couchbase.client.java.kv.MutationResult;
+import com.couchbase.client.java.kv.PersistTo;
 import com.couchbase.client.java.kv.RemoveAccessor;
 import com.couchbase.client.java.kv.RemoveOptions;
 import com.couchbase.client.java.kv.ReplaceAccessor;
 import com.couchbase.client.java.kv.ReplaceOptions;
+import com.couchbase.client.java.kv.ReplicateTo;
 import com.couchbase.client.java.kv.StoreSemantics;
 import com.couchbase.client.java.kv.TouchAccessor;
 import com.couchbase.client.java.kv.TouchOptions;
@@ -226,8 +229,7 @@ public class ReactiveCollection {
       final Transcoder transcoder = opts.transcoder() == null ? environment().transcoder() : opts.transcoder();
 
       if (opts.projections().isEmpty() && !opts.withExpiry()) {
-        GetRequest request = asyncCollection.fullGetRequest(id, opts);
-        return Reactor.wrap(request, GetAccessor.get(core, request, transcoder), true);
+        return GetAccessor.getReactive(core, asyncCollection.fullGetRequest(id, opts), transcoder);
       } else {
         SubdocGetRequest request = asyncCollection.subdocGetRequest(id, opts);
         return Reactor.wrap(request, GetAccessor.subdocGet(core, request, transcoder), true);
@@ -235,6 +237,42 @@ public class ReactiveCollection {
     });
   }
 
+  /**
+   * Fetches a Document from a collection with default options, completing empty if it does not exist.
+   * <p>
+   * Prefer this over {@link #get(String)} if a missing document is an expected outcome (i.e. for caching
+   * workloads), since no {@link DocumentNotFoundException} needs to be created.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link Mono} indicating once loaded (empty if not found) or failed.
+   */
+  public Mono<GetResult> getOptional(final String id) {
+    return getOptional(id, DEFAULT_GET_OPTIONS);
+  }
+
+  /**
+   * Fetches a Document from a collection with custom options, completing empty if it does not exist.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param options custom options to change the default behavior.
+   * @return a {@link Mono} indicating once loaded (empty if not found) or failed.
+   */
+  public Mono<GetResult> getOptional(final String id, final GetOptions options) {
+    return Mono.defer(() -> {
+      notNull(options, "GetOptions", () -> ReducedKeyValueErrorContext.create(id, asyncCollection.collectionIdentifier()));
+      GetOptions.Built opts = options.build();
+      final Transcoder transcoder = opts.transcoder() == null ? environment().transcoder() : opts.transcoder();
+
+      if (opts.projections().isEmpty() && !opts.withExpiry()) {
+        GetRequest request = asyncCollection.fullGetRequest(id, opts);
+        return Reactor.wrap(request, GetAccessor.getOptional(core, request, transcoder), true);
+      } else {
+        SubdocGetRequest request = asyncCollection.subdocGetRequest(id, opts);
+        return Reactor.wrap(request, GetAccessor.subdocGetOptional(core, request, transcoder), true);
+      }
+    }).flatMap(Mono::justOrEmpty);
+  }
+
   /**
    * Fetches a full document and write-locks it for the given duration with default options.
    * <p>
@@ -435,6 +473,9 @@ public class ReactiveCollection {
       notNull(options, "RemoveOptions", () -> ReducedKeyValueErrorContext.create(id, asyncCollection.collectionIdentifier()));
       RemoveOptions.Built opts = options.build();
       RemoveRequest request = asyncCollection.removeRequest(id, opts);
+      if (!legacyDurability(opts.persistTo(), opts.replicateTo())) {
+        return RemoveAccessor.removeReactive(core, request);
+      }
       return Reactor.wrap(
         request,
         RemoveAccessor.remove(core, request, id, opts.persistTo(), opts.replicateTo()),
@@ -467,6 +508,9 @@ public class ReactiveCollection {
       notNull(options, "InsertOptions", () -> ReducedKeyValueErrorContext.create(id, asyncCollection.collectionIdentifier()));
       InsertOptions.Built opts = options.build();
       InsertRequest request = asyncCollection.insertRequest(id, content, opts);
+      if (!legacyDurability(opts.persistTo(), opts.replicateTo())) {
+        return InsertAccessor.insertReactive(core, request);
+      }
       return Reactor.wrap(
         request,
         InsertAccessor.insert(core, request, id, opts.persistTo(), opts.replicateTo()),
@@ -499,6 +543,9 @@ public class ReactiveCollection {
       notNull(options, "UpsertOptions", () -> ReducedKeyValueErrorContext.create(id, asyncCollection.collectionIdentifier()));
       UpsertOptions.Built opts = options.build();
       UpsertRequest request = asyncCollection.upsertRequest(id, content, opts);
+      if (!legacyDurability(opts.persistTo(), opts.replicateTo())) {
+        return UpsertAccessor.upsertReactive(core, request);
+      }
       return Reactor.wrap(
         request,
         UpsertAccessor.upsert(core, request, id, opts.persistTo(), opts.replicateTo()),
@@ -531,6 +578,9 @@ public class ReactiveCollection {
       notNull(options, "ReplaceOptions", () -> ReducedKeyValueErrorContext.create(id, asyncCollection.collectionIdentifier()));
       ReplaceOptions.Built opts = options.build();
       ReplaceRequest request = asyncCollection.replaceRequest(id, content, opts);
+      if (!legacyDurability(opts.persistTo(), opts.replicateTo())) {
+        return ReplaceAccessor.replaceReactive(core, request);
+      }
       return Reactor.wrap(
         request,
         ReplaceAccessor.replace(core, request, id, opts.persistTo(), opts.replicateTo()),
@@ -657,4 +707,11 @@ public class ReactiveCollection {
     });
   }
 
+  /**
+   * Returns true if observe based durability is requested, which is only supported through the future based path.
+   */
+  static boolean legacyDurability(final PersistTo persistTo, final ReplicateTo replicateTo) {
+    return persistTo != PersistTo.NONE || replicateTo != ReplicateTo.NONE;
+  }
+
 }
@@ -20,6 +20,7 @@ import com.couchbase.client.core.Core;
 import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.msg.analytics.AnalyticsRequest;
 import com.couchbase.client.core.msg.analytics.AnalyticsResponse;
+import com.couchbase.client.core.msg.chunk.SlabRowBuffer;
 import com.couchbase.client.java.codec.JsonSerializer;
 import reactor.core.publisher.Mono;
 
@@ -36,9 +37,8 @@ public class AnalyticsAccessor {
                                                                        final AnalyticsRequest request,
                                                                        final JsonSerializer serializer) {
     return analyticsQueryInternal(core, request)
-      .flatMap(response -> response
-        .rows()
-        .collectList()
+      .flatMap(response -> SlabRowBuffer
+        .collect(response.rows())
         .flatMap(rows -> response
           .trailer()
           .map(trailer -> new AnalyticsResult(response.header(), rows, trailer, serializer))
@@ -48,7 +48,8 @@ public class AnalyticsAccessor {
   }
 
   public static Mono<ReactiveAnalyticsResult> analyticsQueryReactive(final Core core, final AnalyticsRequest request, final JsonSerializer serializer) {
-    return analyticsQueryInternal(core, request).map(r -> new ReactiveAnalyticsResult(r, serializer));
+    return analyticsQueryInternal(core, request)
+      .map(r -> new ReactiveAnalyticsResult(r, serializer, core.context().environment()));
   }
 
   private static Mono<AnalyticsResponse> analyticsQueryInternal(final Core core, final AnalyticsRequest request) {
@@ -17,16 +17,21 @@
 package com.couchbase.client.java.analytics;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.java.Cluster;
 import com.couchbase.client.java.CommonOptions;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.env.ClusterEnvironment;
 import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonBodyWriter;
 import com.couchbase.client.java.json.JsonObject;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import static com.couchbase.client.core.util.Validators.notNull;
 import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
@@ -224,9 +229,50 @@ public class AnalyticsOptions extends CommonOptions<AnalyticsOptions> {
       input.put("client_context_id", clientContextId == null
           ? UUID.randomUUID().toString()
           : clientContextId);
+      writeParams(input::put);
 
+      if (raw != null) {
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+          input.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
+    /**
+     * Writes the same parameters as {@link #injectParams(JsonObject)} straight into a request body.
+     *
+     * @param body the body, which must have been created with {@link #rawNames()} as its overridden names.
+     * @return the client context ID of the request.
+     */
+    @Stability.Internal
+    public String injectParams(final JsonBodyWriter body) {
+      String contextId = clientContextId == null ? UUID.randomUUID().toString() : clientContextId;
+      body.put("client_context_id", contextId);
+      writeParams(body::put);
+
+      if (raw != null) {
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+          body.override(entry.getKey(), entry.getValue());
+        }
+        Object rawContextId = raw.get("client_context_id");
+        if (rawContextId instanceof String) {
+          contextId = (String) rawContextId;
+        }
+      }
+      return contextId;
+    }
+
+    /**
+     * Returns the names of the raw parameters, which override any other parameter with the same name.
+     */
+    @Stability.Internal
+    public Set<String> rawNames() {
+      return raw == null ? Collections.emptySet() : raw.keySet();
+    }
+
+    private void writeParams(final BiConsumer<String, Object> params) {
       if (scanConsistency != null) {
-        input.put("scan_consistency", scanConsistency.toString());
+        params.accept("scan_consistency", scanConsistency.toString());
       }
 
       boolean positionalPresent = positionalParameters != null && !positionalParameters.isEmpty();
@@ -234,25 +280,23 @@ public class AnalyticsOptions extends CommonOptions<AnalyticsOptions> {
         namedParameters.getNames().forEach(key -> {
           Object value = namedParameters.get(key);
           if (key.charAt(0) != '$') {
-            input.put('$' + key, value);
+            if (namedParameters.containsKey('$' + key)) {
+              throw InvalidArgumentException.fromMessage("Named parameter \"" + key + "\" is present both with and "
+                + "without the $ prefix!");
+            }
+            params.accept('$' + key, value);
           } else {
-            input.put(key, value);
+            params.accept(key, value);
           }
         });
       }
 
       if (positionalPresent) {
-        input.put("args", positionalParameters);
+        params.accept("args", positionalParameters);
       }
 
       if (readonly) {
-        input.put("readonly", true);
-      }
-
-      if (raw != null) {
-        for (Map.Entry<String, Object> entry : raw.entrySet()) {
-          input.put(entry.getKey(), entry.getValue());
-        }
+        params.accept("readonly", true);
       }
     }
 
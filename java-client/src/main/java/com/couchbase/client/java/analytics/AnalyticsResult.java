@@ -19,13 +19,12 @@ package com.couchbase.client.java.analytics;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.DecodingFailureException;
 import com.couchbase.client.core.msg.analytics.AnalyticsChunkHeader;
-import com.couchbase.client.core.msg.analytics.AnalyticsChunkRow;
 import com.couchbase.client.core.msg.analytics.AnalyticsChunkTrailer;
+import com.couchbase.client.core.msg.chunk.SlabRowBuffer;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.TypeRef;
 import com.couchbase.client.java.json.JsonObject;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -39,7 +38,7 @@ public class AnalyticsResult {
   /**
    * Stores the encoded rows from the analytics response.
    */
-  private final List<AnalyticsChunkRow> rows;
+  private final SlabRowBuffer rows;
 
   /**
    * The header holds associated metadata that came back before the rows streamed.
@@ -63,7 +62,7 @@ public class AnalyticsResult {
    * @param rows the analytics rows.
    * @param trailer the analytics trailer.
    */
-  AnalyticsResult(final AnalyticsChunkHeader header, final List<AnalyticsChunkRow> rows,
+  AnalyticsResult(final AnalyticsChunkHeader header, final SlabRowBuffer rows,
                   final AnalyticsChunkTrailer trailer, final JsonSerializer serializer) {
     this.rows = rows;
     this.header = header;
@@ -78,11 +77,7 @@ public class AnalyticsResult {
    * @throws DecodingFailureException if any row could not be successfully deserialized.
    */
   public <T> List<T> rowsAs(final Class<T> target) {
-    final List<T> converted = new ArrayList<>(rows.size());
-    for (AnalyticsChunkRow row : rows) {
-      converted.add(serializer.deserialize(target, row.data()));
-    }
-    return converted;
+    return rows.decodeAll((data, offset, length) -> serializer.deserialize(target, data, offset, length));
   }
 
   /**
@@ -92,11 +87,7 @@ public class AnalyticsResult {
    * @throws DecodingFailureException if any row could not be successfully deserialized.
    */
   public <T> List<T> rowsAs(final TypeRef<T> target) {
-    final List<T> converted = new ArrayList<>(rows.size());
-    for (AnalyticsChunkRow row : rows) {
-      converted.add(serializer.deserialize(target, row.data()));
-    }
-    return converted;
+    return rows.decodeAll((data, offset, length) -> serializer.deserialize(target, data, offset, length));
   }
 
   /**
@@ -16,6 +16,9 @@
 
 package com.couchbase.client.java.analytics;
 
+import com.couchbase.client.core.Reactor;
+import com.couchbase.client.core.env.CoreEnvironment;
+import com.couchbase.client.core.msg.analytics.AnalyticsChunkRow;
 import com.couchbase.client.core.msg.analytics.AnalyticsResponse;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.TypeRef;
@@ -23,6 +26,8 @@ import com.couchbase.client.java.json.JsonObject;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 public class ReactiveAnalyticsResult {
 
     private final AnalyticsResponse response;
@@ -32,9 +37,16 @@ public class ReactiveAnalyticsResult {
      */
     private final JsonSerializer serializer;
 
-    ReactiveAnalyticsResult(final AnalyticsResponse response, final JsonSerializer serializer) {
+    /**
+     * The environment which decides where the rows are decoded.
+     */
+    private final CoreEnvironment environment;
+
+    ReactiveAnalyticsResult(final AnalyticsResponse response, final JsonSerializer serializer,
+                            final CoreEnvironment environment) {
         this.response = response;
         this.serializer = serializer;
+        this.environment = environment;
     }
 
     /**
@@ -48,11 +60,18 @@ public class ReactiveAnalyticsResult {
     }
 
     public <T> Flux<T> rowsAs(final Class<T> target) {
-        return response.rows().map(row -> serializer.deserialize(target, row.data()));
+        return decodeRows(row -> serializer.deserialize(target, row.data()));
     }
 
     public <T> Flux<T> rowsAs(final TypeRef<T> target) {
-        return response.rows().map(row -> serializer.deserialize(target, row.data()));
+        return decodeRows(row -> serializer.deserialize(target, row.data()));
+    }
+
+    /**
+     * Decodes the rows inline or in parallel, depending on the {@link CoreEnvironment#rowDecodingWindow()}.
+     */
+    private <T> Flux<T> decodeRows(final Function<AnalyticsChunkRow, T> decoder) {
+        return Reactor.mapOrdered(response.rows(), decoder, environment.scheduler(), environment.rowDecodingWindow());
     }
 
     public Mono<AnalyticsMetaData> metaData() {
@@ -16,14 +16,18 @@
 
 package com.couchbase.client.java.codec;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JavaType;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectMapper;
 import com.couchbase.client.core.error.DecodingFailureException;
 import com.couchbase.client.core.error.EncodingFailureException;
+import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.json.RepackagedJsonValueModule;
 import com.couchbase.client.core.encryption.CryptoManager;
 import com.couchbase.client.java.encryption.databind.jackson.repackaged.RepackagedEncryptionModule;
 
+import java.util.Arrays;
+
 import static com.couchbase.client.core.logging.RedactableArgument.redactUser;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
@@ -40,6 +44,8 @@ public class DefaultJsonSerializer implements JsonSerializer {
 
   private final ObjectMapper mapper = new ObjectMapper();
 
+  private final boolean lazyJsonObjects;
+
   /**
    * Creates an instance without encryption support.
    */
@@ -54,10 +60,29 @@ public class DefaultJsonSerializer implements JsonSerializer {
    * {@code Encrypted} annotation, or null to disable encryption support.
    */
   public static DefaultJsonSerializer create(CryptoManager cryptoManager) {
-    return new DefaultJsonSerializer(cryptoManager);
+    return new DefaultJsonSerializer(cryptoManager, false);
+  }
+
+  /**
+   * Creates an instance with optional encryption support, which optionally decodes {@link JsonObject}s lazily.
+   * <p>
+   * If enabled, a {@link JsonObject} keeps the encoded content and only decodes the fields that are read (see
+   * {@link JsonObject#fromJsonLazily(byte[])}). This is much cheaper if only a few fields of larger documents are
+   * read, but slightly more expensive if all of them are. When decoding a range of a larger array, only that range
+   * is copied and kept. Malformed content is reported as a {@link DecodingFailureException} by the read which finds
+   * it, rather than by the serializer.
+   *
+   * @param cryptoManager (nullable) The manager to use for activating the
+   * {@code Encrypted} annotation, or null to disable encryption support.
+   * @param lazyJsonObjects whether {@link JsonObject}s should be decoded lazily.
+   */
+  @Stability.Volatile
+  public static DefaultJsonSerializer create(CryptoManager cryptoManager, boolean lazyJsonObjects) {
+    return new DefaultJsonSerializer(cryptoManager, lazyJsonObjects);
   }
 
-  private DefaultJsonSerializer(CryptoManager cryptoManager) {
+  private DefaultJsonSerializer(CryptoManager cryptoManager, boolean lazyJsonObjects) {
+    this.lazyJsonObjects = lazyJsonObjects;
     mapper.registerModule(new RepackagedJsonValueModule());
     if (cryptoManager != null) {
       mapper.registerModule(new RepackagedEncryptionModule(cryptoManager));
@@ -84,6 +109,9 @@ public class DefaultJsonSerializer implements JsonSerializer {
     }
 
     try {
+      if (lazyJsonObjects && target == JsonObject.class) {
+        return (T) JsonObject.fromJsonLazily(input);
+      }
       return mapper.readValue(input, target);
     } catch (Throwable e) {
       throw new DecodingFailureException("Deserialization of content into target " + target
@@ -102,4 +130,33 @@ public class DefaultJsonSerializer implements JsonSerializer {
     }
   }
 
+  @Override
+  public <T> T deserialize(final Class<T> target, final byte[] input, final int offset, final int length) {
+    if (target.isAssignableFrom(byte[].class)) {
+      return (T) Arrays.copyOfRange(input, offset, offset + length);
+    }
+
+    try {
+      if (lazyJsonObjects && target == JsonObject.class) {
+        // the range is usually a row in a slab shared with other rows, which must not be retained by the object
+        return (T) JsonObject.fromJsonLazily(Arrays.copyOfRange(input, offset, offset + length));
+      }
+      return mapper.readValue(input, offset, length, target);
+    } catch (Throwable e) {
+      throw new DecodingFailureException("Deserialization of content into target " + target
+          + " failed; encoded = " + redactUser(new String(input, offset, length, UTF_8)), e);
+    }
+  }
+
+  @Override
+  public <T> T deserialize(final TypeRef<T> target, final byte[] input, final int offset, final int length) {
+    try {
+      JavaType type = mapper.getTypeFactory().constructType(target.type());
+      return mapper.readValue(input, offset, length, type);
+    } catch (Throwable e) {
+      throw new DecodingFailureException("Deserialization of content into target " + target
+          + " failed; encoded = " + redactUser(new String(input, offset, length, UTF_8)), e);
+    }
+  }
+
 }
@@ -28,6 +28,8 @@ import com.couchbase.client.java.encryption.databind.jackson.EncryptionModule;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.Arrays;
+
 import static com.couchbase.client.core.logging.RedactableArgument.redactUser;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
@@ -146,4 +148,30 @@ public class JacksonJsonSerializer implements JsonSerializer {
           + " failed; encoded = " + redactUser(new String(input, UTF_8)), e);
     }
   }
+
+  @Override
+  public <T> T deserialize(final Class<T> target, final byte[] input, final int offset, final int length) {
+    if (target.isAssignableFrom(byte[].class)) {
+      return (T) Arrays.copyOfRange(input, offset, offset + length);
+    }
+
+    try {
+      return mapper.readValue(input, offset, length, target);
+    } catch (Throwable e) {
+      throw new DecodingFailureException("Deserialization of content into target " + target
+          + " failed; encoded = " + redactUser(new String(input, offset, length, UTF_8)), e);
+    }
+  }
+
+  @Override
+  public <T> T deserialize(final TypeRef<T> target, final byte[] input, final int offset, final int length) {
+    try {
+      JavaType type = mapper.getTypeFactory().constructType(target.type());
+      return mapper.readValue(input, offset, length, type);
+    } catch (Throwable e) {
+      throw new DecodingFailureException("Deserialization of content into target " + target
+          + " failed; encoded = " + redactUser(new String(input, offset, length, UTF_8)), e);
+    }
+  }
+
 }
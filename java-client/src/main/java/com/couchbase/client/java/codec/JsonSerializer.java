@@ -16,8 +16,11 @@
 
 package com.couchbase.client.java.codec;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.DecodingFailureException;
 
+import java.util.Arrays;
+
 /**
  * The {@link JsonSerializer} handles the serialization and deserialization of raw json data into java objects.
  */
@@ -52,4 +55,40 @@ public interface JsonSerializer {
   default <T> T deserialize(TypeRef<T> target, byte[] input) {
     throw new DecodingFailureException(getClass().getSimpleName() + " does not support decoding via TypeRef.");
   }
+
+  /**
+   * Deserializes a range of the raw input into the target class.
+   * <p>
+   * The default implementation copies the range and calls {@link #deserialize(Class, byte[])}, implementations
+   * should override it if they can decode the range in place.
+   *
+   * @param target the target class.
+   * @param input the raw input.
+   * @param offset the offset of the encoded value in the input.
+   * @param length the length of the encoded value.
+   * @param <T> the generic type to deserialize into.
+   * @return the deserialized output.
+   */
+  @Stability.Uncommitted
+  default <T> T deserialize(Class<T> target, byte[] input, int offset, int length) {
+    return deserialize(target, Arrays.copyOfRange(input, offset, offset + length));
+  }
+
+  /**
+   * Deserializes a range of the raw input into the target type.
+   * <p>
+   * The default implementation copies the range and calls {@link #deserialize(TypeRef, byte[])}, implementations
+   * should override it if they can decode the range in place.
+   *
+   * @param target the target type.
+   * @param input the raw input.
+   * @param offset the offset of the encoded value in the input.
+   * @param length the length of the encoded value.
+   * @param <T> the type to deserialize into.
+   * @return the deserialized output.
+   */
+  @Stability.Uncommitted
+  default <T> T deserialize(TypeRef<T> target, byte[] input, int offset, int length) {
+    return deserialize(target, Arrays.copyOfRange(input, offset, offset + length));
+  }
 }
@@ -28,6 +28,7 @@ import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.context.ReducedKeyValueErrorContext;
 import com.couchbase.client.core.error.subdoc.PathNotFoundException;
+import com.couchbase.client.core.msg.kv.SubdocMutateRequest;
 import com.couchbase.client.core.retry.reactor.RetryExhaustedException;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.json.JsonArray;
@@ -222,6 +223,36 @@ public class CouchbaseArrayList<E> extends AbstractList<E> {
         }
     }
 
+    /**
+     * Appends all the given elements to the end of this list with a single mutation.
+     *
+     * @param c the elements to add.
+     * @return true if the list changed as a result of the call.
+     */
+    @Override
+    public boolean addAll(java.util.Collection<? extends E> c) {
+        if (c.isEmpty()) {
+            return false;
+        }
+        List<E> values = new ArrayList<>(c);
+        int retry = 0;
+        while (retry < 2) {
+            try {
+                collection.mutateIn(
+                  id,
+                  Collections.singletonList(MutateInSpec.arrayAppend("", values)),
+                  arrayListOptions.mutateInOptions()
+                );
+                return true;
+            } catch (DocumentNotFoundException e) {
+                // empty list, create empty one and try again
+                createEmptyList();
+                retry += 1;
+            }
+        }
+        throw new CouchbaseException("CouchbaseArrayList addAll failed, the document was removed concurrently");
+    }
+
     @Override
     public E remove(int index) {
         //fail fast on negative values, as they are interpreted as "starting from the back of the array" otherwise
@@ -261,12 +292,77 @@ public class CouchbaseArrayList<E> extends AbstractList<E> {
         );
     }
 
+    /**
+     * Removes all elements of this list that are contained in the given collection.
+     *
+     * The list is fetched once and the matching elements are removed from the back in batches of up to
+     * {@value SubdocMutateRequest#SUBDOC_MAX_FIELDS}, each CAS-guarded against the previous one. If the list is
+     * modified concurrently, it is fetched again and the remaining matches are removed.
+     *
+     * @param c the elements to remove.
+     * @return true if the list changed as a result of the call.
+     */
+    @Override
+    public boolean removeAll(java.util.Collection<?> c) {
+        notNull(c, "Collection");
+        boolean changed = false;
+        for(int i = 0; i < arrayListOptions.casMismatchRetries(); i++) {
+            try {
+                GetResult result = collection.get(id, getOptions);
+                JsonArray current = result.contentAs(JsonArray.class);
+                // remove from the back, so the indexes of the other matches don't shift
+                List<String> paths = new ArrayList<>();
+                for (int j = current.size() - 1; j >= 0; j--) {
+                    if (c.contains(current.get(j))) {
+                        paths.add("[" + j + "]");
+                    }
+                }
+                long cas = result.cas();
+                for (int from = 0; from < paths.size(); from += SubdocMutateRequest.SUBDOC_MAX_FIELDS) {
+                    int to = Math.min(from + SubdocMutateRequest.SUBDOC_MAX_FIELDS, paths.size());
+                    List<MutateInSpec> removes = new ArrayList<>(to - from);
+                    for (String path : paths.subList(from, to)) {
+                        removes.add(MutateInSpec.remove(path));
+                    }
+                    cas = collection.mutateIn(id, removes, arrayListOptions.mutateInOptions().cas(cas)).cas();
+                    changed = true;
+                }
+                return changed;
+            } catch (DocumentNotFoundException e) {
+                return changed;
+            } catch (CasMismatchException ex) {
+                //will have to fetch again and remove what is left
+            }
+        }
+        throw new CouchbaseException("CouchbaseArrayList removeAll failed",
+          new RetryExhaustedException("Couldn't perform removeAll in less than "
+            +  arrayListOptions.casMismatchRetries()
+            + " iterations. It is likely concurrent modifications of this document are the reason")
+        );
+    }
+
     @Override
     public boolean contains(Object o) {
         // This grabs entire list locally, to search for o
         return super.contains(o);
     }
 
+    @Override
+    public boolean containsAll(java.util.Collection<?> c) {
+        // check against a single fetch instead of one per element
+        return snapshot().containsAll(c);
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
     @Override
     public Iterator<E> iterator() {
         // This grabs entire list to create iterator
@@ -437,6 +533,15 @@ public class CouchbaseArrayList<E> extends AbstractList<E> {
         }
     }
 
+    /**
+     * Fetches the content of the list once.
+     */
+    private List<E> snapshot() {
+        List<E> snapshot = new ArrayList<>();
+        new CouchbaseListIterator(0).forEachRemaining(snapshot::add);
+        return snapshot;
+    }
+
     /**
      * Helper method to create an empty list (an empty document with a toplevel array).
      */
@@ -16,8 +16,11 @@
 package com.couchbase.client.java.datastructures;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -26,6 +29,7 @@ import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.context.ReducedKeyValueErrorContext;
+import com.couchbase.client.core.msg.kv.SubdocMutateRequest;
 import com.couchbase.client.core.retry.reactor.RetryExhaustedException;
 import com.couchbase.client.java.Bucket;
 
@@ -42,6 +46,7 @@ import com.couchbase.client.java.kv.LookupInResult;
 import com.couchbase.client.java.kv.LookupInSpec;
 import com.couchbase.client.java.kv.MapOptions;
 import com.couchbase.client.java.kv.MutateInSpec;
+import com.couchbase.client.java.kv.StoreSemantics;
 
 import static com.couchbase.client.core.util.Validators.notNull;
 import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
@@ -138,6 +143,28 @@ public class CouchbaseMap<E> extends AbstractMap<String, E> {
         );
     }
 
+    /**
+     * Copies all of the mappings from the given map into this map, packing up to
+     * {@value SubdocMutateRequest#SUBDOC_MAX_FIELDS} of them into a single mutation.
+     *
+     * Unlike {@link #put(String, Object)} the previous values are not needed, so no lookup is performed.
+     * Each batch is applied atomically, but a failure may leave earlier batches applied.
+     *
+     * @param m the mappings to store in this map.
+     */
+    @Override
+    public void putAll(Map<? extends String, ? extends E> m) {
+        List<MutateInSpec> specs = new ArrayList<>(m.size());
+        for (Map.Entry<? extends String, ? extends E> entry : m.entrySet()) {
+            specs.add(MutateInSpec.upsert(checkKey(entry.getKey()), entry.getValue()));
+        }
+        for (int from = 0; from < specs.size(); from += SubdocMutateRequest.SUBDOC_MAX_FIELDS) {
+            int to = Math.min(from + SubdocMutateRequest.SUBDOC_MAX_FIELDS, specs.size());
+            collection.mutateIn(id, specs.subList(from, to),
+                    mapOptions.mutateInOptions().storeSemantics(StoreSemantics.UPSERT));
+        }
+    }
+
     @Override
     public E get(Object key) {
         String idx = checkKey(key);
@@ -180,6 +207,62 @@ public class CouchbaseMap<E> extends AbstractMap<String, E> {
         );
     }
 
+    /**
+     * Removes the mappings for all the given keys from this map.
+     *
+     * Keys are checked and removed in batches of up to {@value SubdocMutateRequest#SUBDOC_MAX_FIELDS}, each with
+     * one lookup and one CAS-guarded mutation, instead of two round trips per key with {@link #remove(Object)}.
+     *
+     * @param keys the keys to remove.
+     * @return true if at least one mapping was removed.
+     */
+    public boolean removeAll(java.util.Collection<?> keys) {
+        List<String> paths = new ArrayList<>(keys.size());
+        for (Object key : new LinkedHashSet<>(keys)) {
+            paths.add(checkKey(key));
+        }
+        boolean changed = false;
+        for (int from = 0; from < paths.size(); from += SubdocMutateRequest.SUBDOC_MAX_FIELDS) {
+            int to = Math.min(from + SubdocMutateRequest.SUBDOC_MAX_FIELDS, paths.size());
+            try {
+                changed |= removeBatch(paths.subList(from, to));
+            } catch (DocumentNotFoundException e) {
+                return changed;
+            }
+        }
+        return changed;
+    }
+
+    private boolean removeBatch(List<String> paths) {
+        List<LookupInSpec> lookups = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            lookups.add(LookupInSpec.exists(path));
+        }
+        for(int i = 0; i < mapOptions.casMismatchRetries(); i++) {
+            try {
+                LookupInResult current = collection.lookupIn(id, lookups, lookupInOptions);
+                List<MutateInSpec> removes = new ArrayList<>(paths.size());
+                for (int j = 0; j < paths.size(); j++) {
+                    if (current.exists(j)) {
+                        removes.add(MutateInSpec.remove(paths.get(j)));
+                    }
+                }
+                if (removes.isEmpty()) {
+                    return false;
+                }
+                collection.mutateIn(id, removes, mapOptions.mutateInOptions().cas(current.cas()));
+                return true;
+            } catch (CasMismatchException ex) {
+                //will have to retry get-and-remove
+            }
+        }
+        throw new CouchbaseException("CouchbaseMap removeAll failed",
+          new RetryExhaustedException("Couldn't perform removeAll in less than "
+            +  mapOptions.casMismatchRetries()
+            + " iterations. It is likely concurrent modifications of this document are the reason")
+        );
+    }
+
     @Override
     public void clear() {
         //optimized version over AbstractMap's (which uses the entry set)
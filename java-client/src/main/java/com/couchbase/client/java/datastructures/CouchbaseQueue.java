@@ -16,9 +16,11 @@
 package com.couchbase.client.java.datastructures;
 
 import java.util.AbstractQueue;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 
 import com.couchbase.client.core.annotation.Stability;
@@ -28,12 +30,14 @@ import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.error.context.ReducedKeyValueErrorContext;
 import com.couchbase.client.core.error.subdoc.PathNotFoundException;
+import com.couchbase.client.core.msg.kv.SubdocMutateRequest;
 import com.couchbase.client.core.retry.reactor.RetryExhaustedException;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.json.JsonArray;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.core.error.CasMismatchException;
 import com.couchbase.client.java.kv.CommonDatastructureOptions;
+import com.couchbase.client.java.kv.GetOptions;
 import com.couchbase.client.java.kv.GetResult;
 import com.couchbase.client.java.kv.LookupInOptions;
 import com.couchbase.client.java.kv.LookupInResult;
@@ -67,7 +71,10 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
     private final Collection collection;
     private final Class<E> entityTypeClass;
     private final QueueOptions.Built queueOptions;
+    private final GetOptions getOptions;
     private final LookupInOptions lookupInOptions;
+    private final int writeBehindBufferSize;
+    private final List<E> writeBehindBuffer;
 
     /**
      * Create a new {@link Collection Couchbase-backed} Queue, backed by the document identified by <code>id</code>
@@ -93,14 +100,37 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
         QueueOptions opts = QueueOptions.queueOptions();
         optionsIn.copyInto(opts);
         this.queueOptions = opts.build();
+        this.getOptions = optionsIn.getOptions();
         this.lookupInOptions = optionsIn.lookupInOptions();
+        this.writeBehindBufferSize = optionsIn.writeBehindBufferSize();
+        this.writeBehindBuffer = new ArrayList<>();
     }
 
     @Override
-    public Iterator<E> iterator() { return new CouchbaseQueueIterator<>(); }
+    public Iterator<E> iterator() {
+        flush();
+        return new CouchbaseQueueIterator<>();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return snapshot().toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return snapshot().toArray(a);
+    }
+
+    @Override
+    public boolean containsAll(java.util.Collection<?> c) {
+        // check against a single fetch instead of one per element
+        return snapshot().containsAll(c);
+    }
 
     @Override
     public int size() {
+        flush();
         try {
             LookupInResult result = collection.lookupIn(id,
                     Collections.singletonList(LookupInSpec.count("")),
@@ -113,6 +143,9 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
 
     @Override
     public void clear() {
+        synchronized (writeBehindBuffer) {
+            writeBehindBuffer.clear();
+        }
         collection.remove(id);
     }
 
@@ -121,14 +154,167 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
         if (e == null) {
             throw new NullPointerException("Unsupported null value");
         }
+        if (writeBehindBufferSize > 0) {
+            synchronized (writeBehindBuffer) {
+                writeBehindBuffer.add(e);
+                if (writeBehindBuffer.size() >= writeBehindBufferSize) {
+                    flush();
+                }
+            }
+            return true;
+        }
         collection.mutateIn(id,
                 Collections.singletonList(MutateInSpec.arrayPrepend("", Collections.singletonList(e))),
                 queueOptions.mutateInOptions().storeSemantics(StoreSemantics.UPSERT));
         return true;
     }
 
+    /**
+     * Inserts all the given elements into the queue with a single mutation, in iteration order.
+     *
+     * The result is the same as calling {@link #offer(Object)} for each element, but all of them become
+     * visible at once. Elements still held in the write-behind buffer are written before.
+     *
+     * @param elements the elements to add.
+     * @return true if the queue changed as a result of the call.
+     */
+    public boolean offerAll(java.util.Collection<? extends E> elements) {
+        List<E> values = new ArrayList<>(elements);
+        for (E e : values) {
+            if (e == null) {
+                throw new NullPointerException("Unsupported null value");
+            }
+        }
+        flush();
+        if (values.isEmpty()) {
+            return false;
+        }
+        prepend(values);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(java.util.Collection<? extends E> c) {
+        if (c == this) {
+            throw new IllegalArgumentException("Cannot add a queue to itself");
+        }
+        return offerAll(c);
+    }
+
+    /**
+     * Writes all elements held in the write-behind buffer to the queue with a single mutation.
+     *
+     * This is a no-op if buffering is disabled (see {@link QueueOptions#writeBehindBufferSize(int)}) or
+     * the buffer is empty. If the write fails the elements are kept in the buffer.
+     */
+    public void flush() {
+        if (writeBehindBufferSize == 0) {
+            return;
+        }
+        synchronized (writeBehindBuffer) {
+            if (!writeBehindBuffer.isEmpty()) {
+                prepend(writeBehindBuffer);
+                writeBehindBuffer.clear();
+            }
+        }
+    }
+
+    /**
+     * Prepends the elements in reverse order, so that they are polled in the order given.
+     */
+    private void prepend(List<E> values) {
+        List<E> reversed = new ArrayList<>(values);
+        Collections.reverse(reversed);
+        collection.mutateIn(id,
+                Collections.singletonList(MutateInSpec.arrayPrepend("", reversed)),
+                queueOptions.mutateInOptions().storeSemantics(StoreSemantics.UPSERT));
+    }
+
+    /**
+     * Removes all available elements from this queue and adds them to the given collection.
+     *
+     * @param target the collection to transfer elements into.
+     * @return the number of elements transferred.
+     * @see #drainTo(java.util.Collection, int)
+     */
+    public int drainTo(java.util.Collection<? super E> target) {
+        return drainTo(target, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of elements from this queue and adds them to the given collection.
+     *
+     * Elements are removed in batches of up to {@value SubdocMutateRequest#SUBDOC_MAX_FIELDS}, each with one
+     * lookup and one CAS-guarded mutation, instead of two round trips for every {@link #poll()}. Each batch is
+     * atomic, but concurrent consumers may take elements in between batches.
+     *
+     * @param target the collection to transfer elements into.
+     * @param maxElements the maximum number of elements to transfer.
+     * @return the number of elements transferred.
+     */
+    public int drainTo(java.util.Collection<? super E> target, int maxElements) {
+        notNull(target, "Target");
+        if (target == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        flush();
+        int drained = 0;
+        while (drained < maxElements) {
+            int batchSize = Math.min(maxElements - drained, SubdocMutateRequest.SUBDOC_MAX_FIELDS);
+            List<E> batch = pollBatch(batchSize);
+            target.addAll(batch);
+            drained += batch.size();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return drained;
+    }
+
+    private List<E> pollBatch(int batchSize) {
+        List<LookupInSpec> lookups = new ArrayList<>(batchSize);
+        for (int i = 1; i <= batchSize; i++) {
+            lookups.add(LookupInSpec.get("[-" + i + "]"));
+        }
+        for(int i = 0; i < queueOptions.casMismatchRetries(); i++) {
+            try {
+                LookupInResult result = collection.lookupIn(id, lookups, lookupInOptions);
+                List<E> polled = new ArrayList<>(batchSize);
+                List<MutateInSpec> removes = new ArrayList<>(batchSize);
+                for (int j = 0; j < batchSize && result.exists(j); j++) {
+                    polled.add(result.contentAs(j, entityTypeClass));
+                    //every remove shifts the next element to the end
+                    removes.add(MutateInSpec.remove("[-1]"));
+                }
+                if (!polled.isEmpty()) {
+                    collection.mutateIn(id, removes, queueOptions.mutateInOptions().cas(result.cas()));
+                }
+                return polled;
+            } catch (DocumentNotFoundException ex) {
+                return Collections.emptyList();
+            } catch (CasMismatchException ex) {
+                //will have to retry get-and-remove
+            }
+        }
+        throw new CouchbaseException("CouchbaseQueue drainTo failed",
+          new RetryExhaustedException("Couldn't perform drainTo in less than "
+            +  queueOptions.casMismatchRetries()
+            + " iterations. It is likely concurrent modifications of this document are the reason")
+        );
+    }
+
+    /**
+     * Fetches the content of the queue once, in iteration order.
+     */
+    private List<E> snapshot() {
+        List<E> snapshot = new ArrayList<>();
+        iterator().forEachRemaining(snapshot::add);
+        return snapshot;
+    }
+
     @Override
     public E poll() {
+        flush();
         String idx = "[-1]"; //FIFO queue as offer uses ARRAY_PREPEND
         for(int i = 0; i < queueOptions.casMismatchRetries(); i++) {
             try {
@@ -156,6 +342,7 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
 
     @Override
     public E peek() {
+        flush();
         try {
             LookupInResult result = collection.lookupIn(
               id,
@@ -180,7 +367,7 @@ public class CouchbaseQueue<E> extends AbstractQueue<E> {
         CouchbaseQueueIterator() {
             JsonArray content;
             try {
-                GetResult result = collection.get(id);
+                GetResult result = collection.get(id, getOptions);
                 this.cas = result.cas();
                 content = result.contentAsArray();
             } catch (DocumentNotFoundException e) {
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.json;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonEncoding;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonGenerator;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.SerializableString;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.io.SerializedString;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.ObjectWriter;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.SerializationFeature;
+import com.couchbase.client.core.error.EncodingFailureException;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Writes a JSON object, like the body of a query request, field by field straight into its encoded form.
+ * <p>
+ * This avoids building a {@link JsonObject}, turning it into a string and encoding that again for every request.
+ * The output is collected in a buffer recycled by Jackson, so only the final byte array is allocated per body.
+ * <p>
+ * Since a name must only appear once, names which are overridden by the user (through the raw options) are skipped
+ * by {@link #put(String, Object)} and must be written with {@link #override(String, Object)} instead.
+ */
+@Stability.Internal
+public class JsonBodyWriter {
+
+  private static final ObjectWriter VALUE_WRITER = JacksonTransformers.MAPPER
+    .writer()
+    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+  private final Set<String> overridden;
+  private final ByteArrayBuilder output;
+  private final JsonGenerator generator;
+
+  private JsonBodyWriter(final Set<String> overridden) {
+    this.overridden = overridden;
+    this.output = new ByteArrayBuilder(JacksonTransformers.MAPPER.getFactory()._getBufferRecycler());
+    try {
+      this.generator = JacksonTransformers.MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8);
+      generator.writeStartObject();
+    } catch (IOException e) {
+      output.release();
+      throw new EncodingFailureException("Could not start encoding the request body", e);
+    }
+  }
+
+  /**
+   * Creates a writer and starts the object.
+   */
+  public static JsonBodyWriter create() {
+    return create(Collections.emptySet());
+  }
+
+  /**
+   * Creates a writer and starts the object.
+   *
+   * @param overridden the names which are only written through {@link #override(String, Object)}.
+   */
+  public static JsonBodyWriter create(final Set<String> overridden) {
+    return new JsonBodyWriter(overridden);
+  }
+
+  /**
+   * Encodes the given string as a JSON value once, so it can be written repeatedly with
+   * {@link #putEncoded(String, SerializableString)}.
+   *
+   * @param value the string to encode.
+   * @return the encoded value, including the quotes.
+   */
+  public static SerializableString encodeString(final String value) {
+    try {
+      return new SerializedString(JacksonTransformers.MAPPER.writeValueAsString(value));
+    } catch (IOException e) {
+      throw new EncodingFailureException("Could not encode " + value, e);
+    }
+  }
+
+  /**
+   * Writes a field, unless its name is overridden.
+   *
+   * @param name the name of the field.
+   * @param value the value, any value supported by a {@link JsonObject} or the default JSON serializer.
+   * @return this writer for chaining purposes.
+   */
+  public JsonBodyWriter put(final String name, final Object value) {
+    if (!overridden.contains(name)) {
+      write(name, value);
+    }
+    return this;
+  }
+
+  /**
+   * Writes a field whose value has been encoded upfront, unless its name is overridden.
+   *
+   * @param name the name of the field.
+   * @param encodedValue the encoded JSON value, see {@link #encodeString(String)}.
+   * @return this writer for chaining purposes.
+   */
+  public JsonBodyWriter putEncoded(final String name, final SerializableString encodedValue) {
+    if (!overridden.contains(name)) {
+      try {
+        generator.writeFieldName(name);
+        generator.writeRawValue(encodedValue);
+      } catch (IOException e) {
+        throw new EncodingFailureException("Could not encode field " + name, e);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Writes a field whose name has been passed as overridden when creating this writer.
+   *
+   * @param name the name of the field.
+   * @param value the value, any value supported by a {@link JsonObject} or the default JSON serializer.
+   * @return this writer for chaining purposes.
+   */
+  public JsonBodyWriter override(final String name, final Object value) {
+    write(name, value);
+    return this;
+  }
+
+  private void write(final String name, final Object value) {
+    try {
+      generator.writeFieldName(name);
+      if (value == null) {
+        generator.writeNull();
+      } else if (value instanceof String) {
+        generator.writeString((String) value);
+      } else if (value instanceof Boolean) {
+        generator.writeBoolean((Boolean) value);
+      } else if (value instanceof Integer) {
+        generator.writeNumber((Integer) value);
+      } else if (value instanceof Long) {
+        generator.writeNumber((Long) value);
+      } else {
+        VALUE_WRITER.writeValue(generator, value);
+      }
+    } catch (IOException e) {
+      throw new EncodingFailureException("Could not encode field " + name, e);
+    }
+  }
+
+  /**
+   * Ends the object and returns the encoded body, the writer must not be used afterwards.
+   *
+   * @return the encoded JSON object.
+   */
+  public byte[] finish() {
+    try {
+      generator.writeEndObject();
+      generator.close();
+      return output.toByteArray();
+    } catch (IOException e) {
+      throw new EncodingFailureException("Could not finish encoding the request body", e);
+    } finally {
+      output.release();
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ package com.couchbase.client.java.json;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonProcessingException;
 import com.couchbase.client.core.encryption.CryptoManager;
+import com.couchbase.client.core.error.DecodingFailureException;
 import com.couchbase.client.core.error.InvalidArgumentException;
 import com.couchbase.client.java.Collection;
 import com.couchbase.client.java.env.ClusterEnvironment;
@@ -70,6 +71,13 @@ public class JsonObject extends JsonValue implements Serializable {
         content = new HashMap<>(initialCapacity);
     }
 
+    /**
+     * Private constructor to create the object around already existing content.
+     */
+    private JsonObject(Map<String, Object> content) {
+        this.content = content;
+    }
+
     /**
      * Creates a empty {@link JsonObject}.
      *
@@ -154,6 +162,46 @@ public class JsonObject extends JsonValue implements Serializable {
         }
     }
 
+    /**
+     * Creates a {@link JsonObject} which is backed by the given encoded JSON and only decodes the fields that are read.
+     *
+     * On first access the top-level fields are indexed, and each value is decoded when it is read for the first time.
+     * Nested objects are lazy as well, arrays are decoded as a whole. Any modification, or a method which needs all
+     * the content (like {@link #toMap()} or {@link #equals(Object)}), decodes the remaining fields and turns it into
+     * a regular object. This saves a lot of work if only a few fields of a large document are read.
+     *
+     * The bytes must not be modified afterwards, and are retained as long as the object (or any nested object read
+     * from it) is. Since they are only validated as they are read, a {@link DecodingFailureException} for malformed
+     * JSON may be thrown by any later read instead of by this method.
+     *
+     * @param s the encoded JSON object.
+     * @return the corresponding {@link JsonObject}.
+     * @throws InvalidArgumentException if the bytes do not start with a JSON object.
+     */
+    @Stability.Volatile
+    public static JsonObject fromJsonLazily(final byte[] s) {
+        return fromJsonLazily(s, 0, s.length);
+    }
+
+    /**
+     * Creates a lazily decoded {@link JsonObject} from a slice of the given bytes.
+     *
+     * The whole array is retained (not just the slice), so copy the slice first if it is part of a larger buffer.
+     *
+     * @see #fromJsonLazily(byte[])
+     */
+    @Stability.Internal
+    public static JsonObject fromJsonLazily(final byte[] s, final int offset, final int length) {
+        int i = offset;
+        while (i < offset + length && Character.isWhitespace(s[i])) {
+            i++;
+        }
+        if (i == offset + length || s[i] != '{') {
+            throw InvalidArgumentException.fromMessage("Cannot convert byte array to JsonObject, it is not a JSON object");
+        }
+        return new JsonObject(new LazyJsonObjectContent(s, offset, length));
+    }
+
     /**
      * Returns a view of the object for reading and writing encrypted fields.
      * <p>
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.json;
+
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonParser;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.JsonToken;
+import com.couchbase.client.core.error.DecodingFailureException;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The content of a {@link JsonObject} which is backed by its encoded JSON and only decodes what is read.
+ * <p>
+ * On first access the object is scanned once to find the name and byte range of every top-level field. Values are
+ * decoded (and cached) only when they are read, nested objects are again backed by the same bytes. As soon as the
+ * object is modified or iterated as a whole, all fields are decoded into a {@link HashMap} which is used from then on.
+ * <p>
+ * Reads modify internal state, so all methods are synchronized to keep concurrent reads safe. Malformed content is
+ * only detected once it is read, and reported as a {@link DecodingFailureException} by the read which found it.
+ */
+class LazyJsonObjectContent extends AbstractMap<String, Object> implements Serializable {
+
+    private static final long serialVersionUID = -2405012497393521873L;
+
+    private static final RepackagedJsonValueModule DECODER = new RepackagedJsonValueModule();
+
+    /**
+     * Marks a value slot which has not been decoded yet.
+     */
+    private static final Object UNDECODED = new Object();
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    /**
+     * Maps each field name to its slot in {@link #bounds} and {@link #values}, null until indexed.
+     */
+    private Map<String, Integer> slots;
+
+    /**
+     * The start (inclusive) and end (exclusive) offset of each value, two entries per slot.
+     */
+    private int[] bounds;
+
+    private Object[] values;
+
+    /**
+     * Holds the decoded content once the object has been materialized.
+     */
+    private Map<String, Object> materialized;
+
+    LazyJsonObjectContent(final byte[] bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public synchronized Object get(final Object key) {
+        if (materialized != null) {
+            return materialized.get(key);
+        }
+        Integer slot = index().get(key);
+        return slot == null ? null : value(slot);
+    }
+
+    @Override
+    public synchronized boolean containsKey(final Object key) {
+        return materialized != null ? materialized.containsKey(key) : index().containsKey(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return materialized != null ? materialized.size() : index().size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public synchronized Object put(final String key, final Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public synchronized Object remove(final Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public synchronized void clear() {
+        materialize().clear();
+    }
+
+    @Override
+    public synchronized Set<String> keySet() {
+        return materialized != null ? materialized.keySet() : new KeySet(index().keySet().toArray(new String[0]));
+    }
+
+    @Override
+    public synchronized Set<Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    private Map<String, Integer> index() {
+        if (slots == null) {
+            try {
+                scan();
+            } catch (IOException e) {
+                throw new DecodingFailureException("Failed to decode the content of a lazily decoded JsonObject", e);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Walks over the top-level fields once and records where each value starts and ends.
+     */
+    private void scan() throws IOException {
+        Map<String, Integer> foundSlots = new HashMap<>();
+        int[] foundBounds = new int[16];
+        int count = 0;
+
+        try (JsonParser parser = JacksonTransformers.MAPPER.getFactory().createParser(bytes, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected " + JsonToken.START_OBJECT + " but got " + parser.currentToken());
+            }
+            while (true) {
+                JsonToken token = parser.nextToken();
+                if (count > 0 && (token == JsonToken.FIELD_NAME || token == JsonToken.END_OBJECT)) {
+                    foundBounds[2 * count - 1] = valueEnd(tokenStart(parser));
+                }
+                if (token == JsonToken.END_OBJECT) {
+                    break;
+                } else if (token != JsonToken.FIELD_NAME) {
+                    throw new IOException("Expected " + JsonToken.FIELD_NAME + " but got " + token);
+                }
+
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == null) {
+                    throw new IOException("Unexpected end of input");
+                }
+                if (2 * count + 1 >= foundBounds.length) {
+                    foundBounds = Arrays.copyOf(foundBounds, foundBounds.length * 2);
+                }
+                // a duplicate name keeps its last value, like the eagerly decoded object does
+                foundSlots.put(name, count);
+                foundBounds[2 * count] = tokenStart(parser);
+                count++;
+                parser.skipChildren();
+            }
+        }
+
+        Object[] foundValues = new Object[count];
+        Arrays.fill(foundValues, UNDECODED);
+        this.bounds = foundBounds;
+        this.values = foundValues;
+        this.slots = foundSlots;
+    }
+
+    private int tokenStart(final JsonParser parser) {
+        return offset + (int) parser.getTokenLocation().getByteOffset();
+    }
+
+    /**
+     * Returns the end of a value, given the start of the token which follows it.
+     */
+    private int valueEnd(int nextToken) {
+        int end = skipWhitespaceBackwards(nextToken);
+        if (bytes[end - 1] == ',') {
+            end = skipWhitespaceBackwards(end - 1);
+        }
+        return end;
+    }
+
+    private int skipWhitespaceBackwards(int end) {
+        while (end > offset) {
+            byte b = bytes[end - 1];
+            if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                break;
+            }
+            end--;
+        }
+        return end;
+    }
+
+    private Object value(final int slot) {
+        Object value = values[slot];
+        if (value == UNDECODED) {
+            value = decode(bounds[2 * slot], bounds[2 * slot + 1]);
+            values[slot] = value;
+        }
+        return value;
+    }
+
+    private Object decode(final int start, final int end) {
+        if (bytes[start] == '{') {
+            return JsonObject.fromJsonLazily(bytes, start, end - start);
+        }
+        try (JsonParser parser = JacksonTransformers.MAPPER.getFactory().createParser(bytes, start, end - start)) {
+            parser.nextToken();
+            return DECODER.decodeValue(parser);
+        } catch (IOException e) {
+            throw new DecodingFailureException("Failed to decode the content of a lazily decoded JsonObject", e);
+        }
+    }
+
+    /**
+     * Decodes all remaining fields into a regular map, which backs this object from now on.
+     */
+    private Map<String, Object> materialize() {
+        if (materialized == null) {
+            Map<String, Integer> index = index();
+            Map<String, Object> decoded = new HashMap<>(Math.max(16, (int) (index.size() / 0.75f) + 1));
+            for (Map.Entry<String, Integer> field : index.entrySet()) {
+                decoded.put(field.getKey(), value(field.getValue()));
+            }
+            materialized = decoded;
+            slots = null;
+            bounds = null;
+            values = null;
+        }
+        return materialized;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+        synchronized (this) {
+            return new HashMap<>(materialize());
+        }
+    }
+
+    /**
+     * The names of a not yet materialized object, removing a name materializes it.
+     */
+    private class KeySet extends AbstractSet<String> {
+
+        private final String[] names;
+
+        KeySet(final String[] names) {
+            this.names = names;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < names.length;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return names[next++];
+                }
+
+                @Override
+                public void remove() {
+                    if (next == 0) {
+                        throw new IllegalStateException();
+                    }
+                    LazyJsonObjectContent.this.remove(names[next - 1]);
+                }
+            };
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(final Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            LazyJsonObjectContent.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public int size() {
+            return LazyJsonObjectContent.this.size();
+        }
+    }
+
+}
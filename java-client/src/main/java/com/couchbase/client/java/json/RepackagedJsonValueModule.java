@@ -35,6 +35,8 @@ public class RepackagedJsonValueModule extends SimpleModule {
   private final boolean decimalForFloat = Boolean.parseBoolean(
       System.getProperty("com.couchbase.json.decimalForFloat", "false"));
 
+  private final JsonObjectDeserializer valueDecoder = new JsonObjectDeserializer();
+
   public RepackagedJsonValueModule() {
     super(new Version(1, 0, 0, null, "com.couchbase", "JsonValueModule"));
 
@@ -45,6 +47,13 @@ public class RepackagedJsonValueModule extends SimpleModule {
     addDeserializer(JsonArray.class, new JsonArrayDeserializer());
   }
 
+  /**
+   * Decodes the value the parser is currently positioned at into one of the supported JSON value types.
+   */
+  Object decodeValue(final JsonParser parser) throws IOException {
+    return valueDecoder.decodeValue(parser);
+  }
+
   static class JsonObjectSerializer extends JsonSerializer<JsonObject> {
     @Override
     public void serialize(JsonObject value, JsonGenerator jgen,
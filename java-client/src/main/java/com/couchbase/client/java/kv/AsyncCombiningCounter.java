@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiFunction;
+
+import static com.couchbase.client.core.util.Validators.notNull;
+import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
+
+/**
+ * Combines many increments and decrements of the same counter documents into fewer requests.
+ * <p>
+ * The deltas for a document are collected locally until either the window elapses (measured from the first
+ * pending delta) or the maximum number of pending operations is reached. Then their sum is sent to the server with
+ * a single increment (or decrement, if the sum is negative), and every caller is completed with the value the counter
+ * had right after its own delta was applied, as if the operations had been sent one after the other in the order
+ * they were combined.
+ * <p>
+ * The window is the bound on staleness: no delta is held back locally for longer than the window. Note that
+ * counters are not allowed to go below zero on the server, so if a combined decrement is clamped at zero the values
+ * handed to the individual callers are approximate. The counter documents must exist, since there is no initial
+ * value which could be applied consistently across the combined operations.
+ * <p>
+ * Call {@link #close()} to flush all pending deltas once the counter is not needed anymore.
+ */
+@Stability.Volatile
+public class AsyncCombiningCounter {
+
+  private final Scheduler scheduler;
+  private final Duration window;
+  private final int maxPending;
+  private final BiFunction<String, Long, CompletableFuture<CounterResult>> sender;
+  private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+
+  /**
+   * Completes once the callers of a sent batch have been completed, for every batch which is still in flight.
+   */
+  private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Adding to a batch and taking a batch out to send it hold this lock for reading, closing holds it for writing.
+   * <p>
+   * This way closing waits for the operations being combined right now, and afterwards neither misses a batch nor
+   * a request in flight.
+   */
+  private final StampedLock closeLock = new StampedLock();
+
+  /**
+   * Set once closed (guarded by the close lock).
+   */
+  private boolean closed;
+
+  /**
+   * Creates a new {@link AsyncCombiningCounter}, usually through the binary collection.
+   *
+   * @param scheduler the scheduler to time the windows on.
+   * @param window how long deltas are collected at most before they are sent.
+   * @param maxPending how many operations are combined at most into a single request.
+   * @param sender sends the combined delta (negative for a decrement) for a document id.
+   */
+  @Stability.Internal
+  public AsyncCombiningCounter(final Scheduler scheduler, final Duration window, final int maxPending,
+                               final BiFunction<String, Long, CompletableFuture<CounterResult>> sender) {
+    notNull(window, "Window");
+    if (window.isNegative() || window.isZero()) {
+      throw InvalidArgumentException.fromMessage("The window must be positive");
+    }
+    if (maxPending < 1) {
+      throw InvalidArgumentException.fromMessage("The maximum number of pending operations must be at least 1");
+    }
+    this.scheduler = scheduler;
+    this.window = window;
+    this.maxPending = maxPending;
+    this.sender = sender;
+  }
+
+  /**
+   * Increments the counter document by one.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link CounterResult} with the value right after this increment, once the combined request completed.
+   */
+  public CompletableFuture<CounterResult> increment(final String id) {
+    return increment(id, 1);
+  }
+
+  /**
+   * Increments the counter document by the given delta.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param delta the amount to increment, which must not be negative.
+   * @return a {@link CounterResult} with the value right after this increment, once the combined request completed.
+   */
+  public CompletableFuture<CounterResult> increment(final String id, final long delta) {
+    if (delta < 0) {
+      throw InvalidArgumentException.fromMessage("The delta cannot be less than 0");
+    }
+    return combine(id, delta);
+  }
+
+  /**
+   * Decrements the counter document by one.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link CounterResult} with the value right after this decrement, once the combined request completed.
+   */
+  public CompletableFuture<CounterResult> decrement(final String id) {
+    return decrement(id, 1);
+  }
+
+  /**
+   * Decrements the counter document by the given delta.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param delta the amount to decrement, which must not be negative.
+   * @return a {@link CounterResult} with the value right after this decrement, once the combined request completed.
+   */
+  public CompletableFuture<CounterResult> decrement(final String id, final long delta) {
+    if (delta < 0) {
+      throw InvalidArgumentException.fromMessage("The delta cannot be less than 0");
+    }
+    return combine(id, Math.negateExact(delta));
+  }
+
+  /**
+   * Sends all pending deltas right away and rejects further operations.
+   * <p>
+   * Operations which are being combined concurrently are either sent with the last batches or rejected, none of them
+   * is left behind.
+   *
+   * @return a future which completes once all the requests sent by this counter and their callers completed.
+   */
+  public CompletableFuture<Void> close() {
+    final List<Batch> sent = new ArrayList<>();
+    final CompletableFuture<?>[] pending;
+    long stamp = closeLock.writeLock();
+    try {
+      closed = true;
+      for (Map.Entry<String, Batch> batch : batches.entrySet()) {
+        if (send(batch.getKey(), batch.getValue())) {
+          sent.add(batch.getValue());
+        }
+      }
+      pending = inFlight.toArray(new CompletableFuture<?>[0]);
+    } finally {
+      closeLock.unlockWrite(stamp);
+    }
+
+    for (Batch batch : sent) {
+      complete(batch);
+    }
+    return CompletableFuture.allOf(pending);
+  }
+
+  private CompletableFuture<CounterResult> combine(final String id, final long delta) {
+    notNullOrEmpty(id, "Id");
+
+    final Waiter waiter = new Waiter(delta);
+    final Batch[] created = new Batch[1];
+    final boolean[] full = new boolean[1];
+    final Batch batch;
+    boolean sent = false;
+    long stamp = closeLock.readLock();
+    try {
+      if (closed) {
+        waiter.result.completeExceptionally(new IllegalStateException("The combining counter is already closed"));
+        return waiter.result;
+      }
+
+      batch = batches.compute(id, (k, existing) -> {
+        Batch b = existing;
+        if (b == null) {
+          b = new Batch();
+          created[0] = b;
+        }
+        b.waiters.add(waiter);
+        full[0] = b.waiters.size() >= maxPending;
+        return b;
+      });
+      if (full[0]) {
+        sent = send(id, batch);
+      }
+    } finally {
+      closeLock.unlockRead(stamp);
+    }
+
+    if (sent) {
+      complete(batch);
+    } else if (created[0] != null && !full[0]) {
+      scheduler.schedule(() -> flush(id, batch), window.toNanos(), TimeUnit.NANOSECONDS);
+    }
+    return waiter.result;
+  }
+
+  /**
+   * Sends the combined delta of the batch once its window elapsed, unless it has already been sent.
+   */
+  private void flush(final String id, final Batch batch) {
+    boolean sent;
+    long stamp = closeLock.readLock();
+    try {
+      sent = send(id, batch);
+    } finally {
+      closeLock.unlockRead(stamp);
+    }
+    if (sent) {
+      complete(batch);
+    }
+  }
+
+  /**
+   * Takes the batch out and sends its combined delta, unless it has already been sent (must hold the close lock).
+   * <p>
+   * The callers are not completed here, but in {@link #complete(Batch)} once the lock has been released, so that
+   * their callbacks never run while holding it. If the combined delta does not fit into a single increment or
+   * decrement, the batch is not sent and all of its callers fail with an {@link InvalidArgumentException}.
+   *
+   * @return true if the batch has been sent and needs to be completed.
+   */
+  private boolean send(final String id, final Batch batch) {
+    if (!batches.remove(id, batch)) {
+      return false;
+    }
+
+    inFlight.add(batch.done);
+    try {
+      batch.combined = combinedDelta(batch);
+    } catch (ArithmeticException ex) {
+      batch.response = new CompletableFuture<>();
+      batch.response.completeExceptionally(InvalidArgumentException.fromMessage(
+        "The combined delta of " + batch.waiters.size() + " operations overflows", ex
+      ));
+      return true;
+    }
+
+    try {
+      batch.response = sender.apply(id, batch.combined);
+    } catch (Throwable t) {
+      batch.response = new CompletableFuture<>();
+      batch.response.completeExceptionally(t);
+    }
+    return true;
+  }
+
+  /**
+   * Sums up the deltas of the batch.
+   *
+   * @throws ArithmeticException if the sum overflows or cannot be negated to be sent as a decrement.
+   */
+  private static long combinedDelta(final Batch batch) {
+    long total = 0;
+    for (Waiter waiter : batch.waiters) {
+      total = Math.addExact(total, waiter.delta);
+    }
+    // a negative sum is sent as a decrement of its negation, which must not overflow either
+    Math.negateExact(total);
+    return total;
+  }
+
+  /**
+   * Completes the callers of a sent batch once its response arrived.
+   */
+  private void complete(final Batch batch) {
+    batch.response.whenComplete((result, throwable) -> {
+      try {
+        if (throwable != null) {
+          batch.fail(throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable);
+          return;
+        }
+
+        long value = result.content() - batch.combined;
+        for (Waiter waiter : batch.waiters) {
+          value += waiter.delta;
+          waiter.result.complete(new CounterResult(result.cas(), value, result.mutationToken()));
+        }
+      } finally {
+        inFlight.remove(batch.done);
+        batch.done.complete(null);
+      }
+    });
+  }
+
+  /**
+   * The operations pending for one document, in the order they have been added.
+   */
+  private static class Batch {
+
+    final List<Waiter> waiters = new ArrayList<>();
+
+    /**
+     * Completes once all callers have been completed, after the batch has been sent.
+     */
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    long combined;
+    CompletableFuture<CounterResult> response;
+
+    void fail(final Throwable t) {
+      for (Waiter waiter : waiters) {
+        waiter.result.completeExceptionally(t);
+      }
+    }
+  }
+
+  private static class Waiter {
+
+    final long delta;
+    final CompletableFuture<CounterResult> result = new CompletableFuture<>();
+
+    Waiter(final long delta) {
+      this.delta = delta;
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.annotation.Stability;
+
+import static com.couchbase.client.java.AsyncUtils.block;
+
+/**
+ * The blocking variant of the {@link AsyncCombiningCounter}.
+ * <p>
+ * Since every call blocks until its combined request completed, operations are only combined across threads which
+ * update the same counters concurrently.
+ */
+@Stability.Volatile
+public class CombiningCounter implements AutoCloseable {
+
+  private final AsyncCombiningCounter async;
+
+  @Stability.Internal
+  public CombiningCounter(final AsyncCombiningCounter async) {
+    this.async = async;
+  }
+
+  /**
+   * Returns the underlying async combining counter.
+   */
+  public AsyncCombiningCounter async() {
+    return async;
+  }
+
+  /**
+   * Increments the counter document by one.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link CounterResult} with the value right after this increment.
+   */
+  public CounterResult increment(final String id) {
+    return block(async.increment(id));
+  }
+
+  /**
+   * Increments the counter document by the given delta.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param delta the amount to increment, which must not be negative.
+   * @return a {@link CounterResult} with the value right after this increment.
+   */
+  public CounterResult increment(final String id, final long delta) {
+    return block(async.increment(id, delta));
+  }
+
+  /**
+   * Decrements the counter document by one.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @return a {@link CounterResult} with the value right after this decrement.
+   */
+  public CounterResult decrement(final String id) {
+    return block(async.decrement(id));
+  }
+
+  /**
+   * Decrements the counter document by the given delta.
+   *
+   * @param id the document id which is used to uniquely identify it.
+   * @param delta the amount to decrement, which must not be negative.
+   * @return a {@link CounterResult} with the value right after this decrement.
+   */
+  public CounterResult decrement(final String id, final long delta) {
+    return block(async.decrement(id, delta));
+  }
+
+  /**
+   * Sends all pending deltas and waits until they completed, rejecting further operations.
+   */
+  @Override
+  public void close() {
+    block(async.close());
+  }
+
+}
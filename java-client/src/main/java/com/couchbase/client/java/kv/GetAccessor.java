@@ -17,18 +17,22 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.CouchbaseException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.CodecFlags;
 import com.couchbase.client.core.msg.kv.GetAndLockRequest;
 import com.couchbase.client.core.msg.kv.GetAndTouchRequest;
 import com.couchbase.client.core.msg.kv.GetRequest;
+import com.couchbase.client.core.msg.kv.GetResponse;
 import com.couchbase.client.core.msg.kv.SubDocumentField;
 import com.couchbase.client.core.msg.kv.SubdocGetRequest;
 import com.couchbase.client.core.msg.kv.SubdocGetResponse;
 import com.couchbase.client.core.projections.ProjectionsApplier;
 import com.couchbase.client.java.codec.Transcoder;
+import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -62,6 +66,55 @@ public enum GetAccessor {
       .whenComplete((t, e) -> request.context().logicallyComplete());
   }
 
+  /**
+   * Dispatches the {@link GetRequest} and returns a {@link Mono} which is completed directly by the request,
+   * without going through its response future.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch.
+   * @param transcoder the transcoder used to decode the response body.
+   * @return a {@link Mono} completing with the fetched and decoded document.
+   */
+  public static Mono<GetResult> getReactive(final Core core, final GetRequest request, final Transcoder transcoder) {
+    core.send(request);
+    return Reactor.fromRequest(request, response -> convert(request, response, transcoder), true);
+  }
+
+  private static GetResult convert(final GetRequest request, final GetResponse response,
+                                   final Transcoder transcoder) {
+    if (response.status().success()) {
+      return new GetResult(response.content(), response.flags(), response.cas(), Optional.empty(), transcoder);
+    }
+    throw keyValueStatusToException(request, response);
+  }
+
+  /**
+   * Takes a {@link GetRequest} and dispatches, converts and returns the result, signaling a missing document
+   * through an empty {@link Optional} instead of a {@link DocumentNotFoundException}.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch and convert once a response arrives.
+   * @param transcoder the transcoder used to decode the response body.
+   * @return a {@link CompletableFuture} once the document is fetched and decoded (or found missing).
+   */
+  public static CompletableFuture<Optional<GetResult>> getOptional(final Core core, final GetRequest request,
+                                                                   final Transcoder transcoder) {
+    core.send(request);
+    return request
+      .response()
+      .thenApply(response -> {
+        if (response.status().success()) {
+          return Optional.of(
+            new GetResult(response.content(), response.flags(), response.cas(), Optional.empty(), transcoder)
+          );
+        } else if (response.status() == ResponseStatus.NOT_FOUND) {
+          return Optional.<GetResult>empty();
+        }
+        throw keyValueStatusToException(request, response);
+      })
+      .whenComplete((t, e) -> request.context().logicallyComplete());
+  }
+
   /**
    * Takes a {@link GetAndLockRequest} and dispatches, converts and returns the result.
    *
@@ -111,6 +164,26 @@ public enum GetAccessor {
       }).whenComplete((t, e) -> request.context().logicallyComplete());
   }
 
+  /**
+   * Same as {@link #subdocGet(Core, SubdocGetRequest, Transcoder)}, but signals a missing document through an
+   * empty {@link Optional} instead of a {@link DocumentNotFoundException}.
+   */
+  public static CompletableFuture<Optional<GetResult>> subdocGetOptional(final Core core,
+                                                                         final SubdocGetRequest request,
+                                                                         final Transcoder transcoder) {
+    core.send(request);
+    return request
+      .response()
+      .thenApply(response -> {
+        if (response.status().success() || response.status() == ResponseStatus.SUBDOC_FAILURE) {
+          return Optional.of(parseSubdocGet(response, transcoder));
+        } else if (response.status() == ResponseStatus.NOT_FOUND) {
+          return Optional.<GetResult>empty();
+        }
+        throw keyValueStatusToException(request, response);
+      }).whenComplete((t, e) -> request.context().logicallyComplete());
+  }
+
   private static GetResult parseSubdocGet(final SubdocGetResponse response, final Transcoder transcoder) {
     if (response.error().isPresent()) {
       throw response.error().get();
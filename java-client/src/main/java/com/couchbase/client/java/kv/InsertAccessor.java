@@ -17,11 +17,14 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.*;
 import com.couchbase.client.core.error.context.KeyValueErrorContext;
 import com.couchbase.client.core.msg.ResponseStatus;
 import com.couchbase.client.core.msg.kv.InsertRequest;
+import com.couchbase.client.core.msg.kv.InsertResponse;
+import reactor.core.publisher.Mono;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -49,4 +52,28 @@ public enum InsertAccessor {
     return wrapWithDurability(mutationResult, key, persistTo, replicateTo, core, request, false);
   }
 
+  /**
+   * Dispatches the {@link InsertRequest} and returns a {@link Mono} which is completed directly by the request,
+   * without going through its response future.
+   * <p>
+   * Must only be used if no (legacy) observe based durability is requested.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch.
+   * @return a {@link Mono} completing with the result of the mutation.
+   */
+  public static Mono<MutationResult> insertReactive(final Core core, final InsertRequest request) {
+    core.send(request);
+    return Reactor.fromRequest(request, response -> convert(request, response), true);
+  }
+
+  private static MutationResult convert(final InsertRequest request, final InsertResponse response) {
+    if (response.status().success()) {
+      return new MutationResult(response.cas(), response.mutationToken());
+    } else if (response.status() == ResponseStatus.EXISTS) {
+      throw new DocumentExistsException(KeyValueErrorContext.completedRequest(request, response.status()));
+    }
+    throw keyValueStatusToException(request, response);
+  }
+
 }
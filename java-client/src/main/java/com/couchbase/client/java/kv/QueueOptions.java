@@ -16,14 +16,36 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.error.InvalidArgumentException;
 
 public class QueueOptions extends CommonDatastructureOptions<QueueOptions> {
     public static QueueOptions queueOptions() { return new QueueOptions(); }
 
+    private int writeBehindBufferSize;
+
     private QueueOptions() {
 
     }
 
+    /**
+     * Buffers up to the given number of offered elements locally and writes them with a single mutation.
+     *
+     * The buffer is written once it is full, when {@code flush()} is called on the queue and before any
+     * other operation on the same queue instance. Elements still in the buffer are lost if the
+     * application exits without flushing. Defaults to 0, which writes every element right away.
+     *
+     * @param writeBehindBufferSize the maximum number of buffered elements, or 0 to disable buffering.
+     * @return this options class for chaining purposes.
+     */
+    @Stability.Volatile
+    public QueueOptions writeBehindBufferSize(int writeBehindBufferSize) {
+        if (writeBehindBufferSize < 0) {
+            throw InvalidArgumentException.fromMessage("The write-behind buffer size cannot be less than 0");
+        }
+        this.writeBehindBufferSize = writeBehindBufferSize;
+        return this;
+    }
+
     @Stability.Internal
     public QueueOptions.Built build() {
         return new QueueOptions.Built();
@@ -33,5 +55,9 @@ public class QueueOptions extends CommonDatastructureOptions<QueueOptions> {
 
         Built() { }
 
+        public int writeBehindBufferSize() {
+            return writeBehindBufferSize;
+        }
+
     }
 }
@@ -17,10 +17,13 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.*;
 import com.couchbase.client.core.msg.kv.DurabilityLevel;
 import com.couchbase.client.core.msg.kv.RemoveRequest;
+import com.couchbase.client.core.msg.kv.RemoveResponse;
+import reactor.core.publisher.Mono;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -46,4 +49,26 @@ public enum RemoveAccessor {
     return wrapWithDurability(mutationResult, key, persistTo, replicateTo, core, request, true);
   }
 
+  /**
+   * Dispatches the {@link RemoveRequest} and returns a {@link Mono} which is completed directly by the request,
+   * without going through its response future.
+   * <p>
+   * Must only be used if no (legacy) observe based durability is requested.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch.
+   * @return a {@link Mono} completing with the result of the mutation.
+   */
+  public static Mono<MutationResult> removeReactive(final Core core, final RemoveRequest request) {
+    core.send(request);
+    return Reactor.fromRequest(request, response -> convert(request, response), true);
+  }
+
+  private static MutationResult convert(final RemoveRequest request, final RemoveResponse response) {
+    if (response.status().success()) {
+      return new MutationResult(response.cas(), response.mutationToken());
+    }
+    throw keyValueStatusToException(request, response);
+  }
+
 }
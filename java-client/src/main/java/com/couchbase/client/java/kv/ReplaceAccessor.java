@@ -17,9 +17,12 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.*;
 import com.couchbase.client.core.msg.kv.ReplaceRequest;
+import com.couchbase.client.core.msg.kv.ReplaceResponse;
+import reactor.core.publisher.Mono;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -46,4 +49,26 @@ public enum ReplaceAccessor {
 
   }
 
+  /**
+   * Dispatches the {@link ReplaceRequest} and returns a {@link Mono} which is completed directly by the request,
+   * without going through its response future.
+   * <p>
+   * Must only be used if no (legacy) observe based durability is requested.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch.
+   * @return a {@link Mono} completing with the result of the mutation.
+   */
+  public static Mono<MutationResult> replaceReactive(final Core core, final ReplaceRequest request) {
+    core.send(request);
+    return Reactor.fromRequest(request, response -> convert(request, response), true);
+  }
+
+  private static MutationResult convert(final ReplaceRequest request, final ReplaceResponse response) {
+    if (response.status().success()) {
+      return new MutationResult(response.cas(), response.mutationToken());
+    }
+    throw keyValueStatusToException(request, response);
+  }
+
 }
@@ -17,8 +17,11 @@
 package com.couchbase.client.java.kv;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.msg.kv.UpsertRequest;
+import com.couchbase.client.core.msg.kv.UpsertResponse;
+import reactor.core.publisher.Mono;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -44,4 +47,26 @@ public enum UpsertAccessor {
     return wrapWithDurability(mutationResult, key, persistTo, replicateTo, core, request, false);
   }
 
+  /**
+   * Dispatches the {@link UpsertRequest} and returns a {@link Mono} which is completed directly by the request,
+   * without going through its response future.
+   * <p>
+   * Must only be used if no (legacy) observe based durability is requested.
+   *
+   * @param core the core reference to dispatch into.
+   * @param request the request to dispatch.
+   * @return a {@link Mono} completing with the result of the mutation.
+   */
+  public static Mono<MutationResult> upsertReactive(final Core core, final UpsertRequest request) {
+    core.send(request);
+    return Reactor.fromRequest(request, response -> convert(request, response), true);
+  }
+
+  private static MutationResult convert(final UpsertRequest request, final UpsertResponse response) {
+    if (response.status().success()) {
+      return new MutationResult(response.cas(), response.mutationToken());
+    }
+    throw keyValueStatusToException(request, response);
+  }
+
 }
@@ -23,10 +23,12 @@ import com.couchbase.client.core.cnc.RequestSpan;
 import com.couchbase.client.core.cnc.events.request.PreparedStatementRetriedEvent;
 import com.couchbase.client.core.config.ClusterCapabilities;
 import com.couchbase.client.core.config.ClusterConfig;
+import com.couchbase.client.core.deps.com.fasterxml.jackson.core.SerializableString;
 import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.CouchbaseException;
 import com.couchbase.client.core.error.PreparedStatementFailureException;
 import com.couchbase.client.core.error.context.ReducedQueryErrorContext;
+import com.couchbase.client.core.msg.chunk.SlabRowBuffer;
 import com.couchbase.client.core.msg.query.QueryRequest;
 import com.couchbase.client.core.msg.query.QueryResponse;
 import com.couchbase.client.core.msg.query.TargetedQueryRequest;
@@ -36,11 +38,10 @@ import com.couchbase.client.core.retry.RetryStrategy;
 import com.couchbase.client.core.service.ServiceType;
 import com.couchbase.client.core.util.LRUCache;
 import com.couchbase.client.java.codec.JsonSerializer;
-import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.java.json.JsonBodyWriter;
 import reactor.core.publisher.Mono;
 import reactor.util.annotation.Nullable;
 
-import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
@@ -123,9 +124,8 @@ public class QueryAccessor {
     public CompletableFuture<QueryResult> queryAsync(final QueryRequest request, final QueryOptions.Built options,
                                                      final JsonSerializer serializer) {
         return queryInternal(request, options, options.adhoc(), serializer)
-          .flatMap(response -> response
-            .rows()
-            .collectList()
+          .flatMap(response -> SlabRowBuffer
+            .collect(response.rows())
             .flatMap(rows -> response
                 .trailer()
                 .map(trailer -> new QueryResult(response.header(), rows, trailer, serializer))
@@ -143,7 +143,8 @@ public class QueryAccessor {
      */
     public Mono<ReactiveQueryResult> queryReactive(final QueryRequest request, final QueryOptions.Built options,
                                                    final JsonSerializer serializer) {
-        return queryInternal(request, options, options.adhoc(), serializer).map(r -> new ReactiveQueryResult(r, serializer));
+        return queryInternal(request, options, options.adhoc(), serializer)
+          .map(r -> new ReactiveQueryResult(r, serializer, core.context().environment()));
     }
 
     /**
@@ -231,23 +232,26 @@ public class QueryAccessor {
     private QueryRequest buildPrepareRequest(final QueryRequest original, final QueryOptions.Built options) {
         String statement = "PREPARE " + original.statement();
 
-        JsonObject query = JsonObject.create();
+        JsonBodyWriter query = JsonBodyWriter.create(
+          enhancedPreparedEnabled ? options.rawNames() : Collections.emptySet()
+        );
         query.put("statement", statement);
         query.put("timeout", encodeDurationToMs(original.timeout()));
-        query.put(
-          "client_context_id",
-          options.clientContextId() != null ? options.clientContextId() : UUID.randomUUID().toString()
-        );
         if (original.scope() != null) {
             query.put("query_context", QueryRequest.queryContext(original.bucket(), original.scope()));
         }
 
+        final String clientContextId;
         if (enhancedPreparedEnabled) {
             query.put("auto_execute", true);
-            options.injectParams(query);
+            clientContextId = options.injectParams(query);
+        } else {
+            clientContextId = options.clientContextId() != null
+              ? options.clientContextId()
+              : UUID.randomUUID().toString();
+            query.put("client_context_id", clientContextId);
         }
 
-
         RequestSpan span = core.context().environment().requestTracer()
           .requestSpan("prepare", original.requestSpan());
 
@@ -257,9 +261,9 @@ public class QueryAccessor {
           original.retryStrategy(),
           original.credentials(),
           statement,
-          query.toString().getBytes(StandardCharsets.UTF_8),
+          query.finish(),
           true,
-          query.getString("client_context_id"),
+          clientContextId,
           span,
           original.bucket(),
           original.scope()
@@ -276,12 +280,13 @@ public class QueryAccessor {
      */
     private QueryRequest buildExecuteRequest(final QueryCacheEntry cacheEntry, final QueryRequest original,
                                              final QueryOptions.Built originalOptions) {
-        JsonObject query = cacheEntry.export();
+        JsonBodyWriter query = JsonBodyWriter.create(originalOptions.rawNames());
+        cacheEntry.writeTo(query);
         query.put("timeout", encodeDurationToMs(original.timeout()));
         if (original.scope() != null) {
             query.put("query_context", QueryRequest.queryContext(original.bucket(), original.scope()));
         }
-        originalOptions.injectParams(query);
+        String clientContextId = originalOptions.injectParams(query);
 
         RequestSpan span = core.context().environment().requestTracer()
           .requestSpan("execute", original.requestSpan());
@@ -292,9 +297,9 @@ public class QueryAccessor {
           original.retryStrategy(),
           original.credentials(),
           original.statement(),
-          query.toString().getBytes(StandardCharsets.UTF_8),
+          query.finish(),
           originalOptions.readonly(),
-          query.getString("client_context_id"),
+          clientContextId,
           span,
           original.bucket(),
           original.scope()
@@ -318,23 +323,25 @@ public class QueryAccessor {
      */
     private static class QueryCacheEntry {
 
-        private final String name;
         private final boolean fullPlan;
-        private final String value;
+
+        /**
+         * The prepared name and the plan are encoded once, since they are part of every execute request.
+         */
+        private final SerializableString name;
+        private final SerializableString value;
 
         QueryCacheEntry(final boolean fullPlan, final String value, final String name) {
             this.fullPlan = fullPlan;
-            this.value = value;
-            this.name = name;
+            this.value = fullPlan ? JsonBodyWriter.encodeString(value) : null;
+            this.name = JsonBodyWriter.encodeString(name);
         }
 
-        JsonObject export() {
-            JsonObject result = JsonObject.create();
-            result.put("prepared", name);
+        void writeTo(final JsonBodyWriter body) {
+            body.putEncoded("prepared", name);
             if (fullPlan) {
-                result.put("encoded_plan", value);
+                body.putEncoded("encoded_plan", value);
             }
-            return result;
         }
     }
 
@@ -25,14 +25,18 @@ import com.couchbase.client.java.CommonOptions;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.env.ClusterEnvironment;
 import com.couchbase.client.java.json.JsonArray;
+import com.couchbase.client.java.json.JsonBodyWriter;
 import com.couchbase.client.java.json.JsonObject;
 import com.couchbase.client.java.kv.MutationResult;
 import com.couchbase.client.java.kv.MutationState;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 import static com.couchbase.client.core.util.Validators.notNull;
 import static com.couchbase.client.core.util.Validators.notNullOrEmpty;
@@ -403,7 +407,51 @@ public class QueryOptions extends CommonOptions<QueryOptions> {
     @Stability.Internal
     public void injectParams(final JsonObject queryJson) {
       queryJson.put("client_context_id", clientContextId == null ? UUID.randomUUID().toString() : clientContextId);
+      writeParams(queryJson::put);
 
+      if (raw != null) {
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+          queryJson.put(entry.getKey(), entry.getValue());
+        }
+      }
+    }
+
+    /**
+     * Writes the same parameters as {@link #injectParams(JsonObject)} straight into a request body.
+     *
+     * @param body the body, which must have been created with {@link #rawNames()} as its overridden names.
+     * @return the client context ID of the request.
+     */
+    @Stability.Internal
+    public String injectParams(final JsonBodyWriter body) {
+      String contextId = clientContextId == null ? UUID.randomUUID().toString() : clientContextId;
+      body.put("client_context_id", contextId);
+      writeParams(body::put);
+
+      if (raw != null) {
+        for (Map.Entry<String, Object> entry : raw.entrySet()) {
+          body.override(entry.getKey(), entry.getValue());
+        }
+        Object rawContextId = raw.get("client_context_id");
+        if (rawContextId instanceof String) {
+          contextId = (String) rawContextId;
+        }
+      }
+      return contextId;
+    }
+
+    /**
+     * Returns the names of the raw parameters, which override any other parameter with the same name.
+     */
+    @Stability.Internal
+    public Set<String> rawNames() {
+      return raw == null ? Collections.emptySet() : raw.keySet();
+    }
+
+    /**
+     * Writes all parameters apart from the client context ID and the raw ones, each name at most once.
+     */
+    private void writeParams(final BiConsumer<String, Object> params) {
       boolean positionalPresent = positionalParameters != null && !positionalParameters.isEmpty();
       if (namedParameters != null && !namedParameters.isEmpty()) {
         if (positionalPresent) {
@@ -413,19 +461,19 @@ public class QueryOptions extends CommonOptions<QueryOptions> {
         namedParameters.getNames().forEach(key -> {
           Object value = namedParameters.get(key);
           if (key.charAt(0) != '$') {
-            queryJson.put('$' + key, value);
+            if (namedParameters.containsKey('$' + key)) {
+              throw InvalidArgumentException.fromMessage("Named parameter \"" + key + "\" is present both with and "
+                + "without the $ prefix!");
+            }
+            params.accept('$' + key, value);
           } else {
-            queryJson.put(key, value);
+            params.accept(key, value);
           }
         });
       }
 
       if (positionalPresent) {
-        queryJson.put("args", positionalParameters);
-      }
-
-      if (scanConsistency != null && scanConsistency != QueryScanConsistency.NOT_BOUNDED) {
-        queryJson.put("scan_consistency", scanConsistency.toString());
+        params.accept("args", positionalParameters);
       }
 
       if (consistentWith != null) {
@@ -442,52 +490,48 @@ public class QueryOptions extends CommonOptions<QueryOptions> {
             JsonArray.from(token.sequenceNumber(), String.valueOf(token.partitionUUID()))
           );
         }
-        queryJson.put("scan_vectors", mutationState);
-        queryJson.put("scan_consistency", "at_plus");
+        params.accept("scan_vectors", mutationState);
+        params.accept("scan_consistency", "at_plus");
+      } else if (scanConsistency != null && scanConsistency != QueryScanConsistency.NOT_BOUNDED) {
+        params.accept("scan_consistency", scanConsistency.toString());
       }
 
       if (profile != null && profile != QueryProfile.OFF) {
-        queryJson.put("profile", profile.toString());
+        params.accept("profile", profile.toString());
       }
 
       if (scanWait != null && !scanWait.isEmpty()) {
         if (scanConsistency == null || QueryScanConsistency.NOT_BOUNDED != scanConsistency) {
-          queryJson.put("scan_wait", scanWait);
+          params.accept("scan_wait", scanWait);
         }
       }
 
       if (maxParallelism != null) {
-        queryJson.put("max_parallelism", maxParallelism.toString());
+        params.accept("max_parallelism", maxParallelism.toString());
       }
 
       if (pipelineCap != null) {
-        queryJson.put("pipeline_cap", pipelineCap.toString());
+        params.accept("pipeline_cap", pipelineCap.toString());
       }
 
       if (pipelineBatch != null) {
-        queryJson.put("pipeline_batch", pipelineBatch.toString());
+        params.accept("pipeline_batch", pipelineBatch.toString());
       }
 
       if (scanCap != null) {
-        queryJson.put("scan_cap", scanCap.toString());
+        params.accept("scan_cap", scanCap.toString());
       }
 
       if (!metrics) {
-        queryJson.put("metrics", false);
+        params.accept("metrics", false);
       }
 
       if (readonly) {
-        queryJson.put("readonly", true);
+        params.accept("readonly", true);
       }
 
       if (flexIndex) {
-        queryJson.put("use_fts", true);
-      }
-
-      if (raw != null) {
-        for (Map.Entry<String, Object> entry : raw.entrySet()) {
-          queryJson.put(entry.getKey(), entry.getValue());
-        }
+        params.accept("use_fts", true);
       }
     }
   }
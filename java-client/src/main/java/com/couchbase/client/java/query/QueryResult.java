@@ -17,14 +17,13 @@
 package com.couchbase.client.java.query;
 
 import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.msg.chunk.SlabRowBuffer;
 import com.couchbase.client.core.msg.query.QueryChunkHeader;
-import com.couchbase.client.core.msg.query.QueryChunkRow;
 import com.couchbase.client.core.msg.query.QueryChunkTrailer;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.TypeRef;
 import com.couchbase.client.java.json.JsonObject;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -37,7 +36,7 @@ public class QueryResult {
     /**
      * Stores the encoded rows from the query response.
      */
-    private final List<QueryChunkRow> rows;
+    private final SlabRowBuffer rows;
 
     /**
      * The header holds associated metadata that came back before the rows streamed.
@@ -61,7 +60,7 @@ public class QueryResult {
      * @param rows the query rows.
      * @param trailer the query trailer.
      */
-    QueryResult(final QueryChunkHeader header, final List<QueryChunkRow> rows, final QueryChunkTrailer trailer,
+    QueryResult(final QueryChunkHeader header, final SlabRowBuffer rows, final QueryChunkTrailer trailer,
                 final JsonSerializer serializer) {
         this.rows = rows;
         this.header = header;
@@ -85,11 +84,7 @@ public class QueryResult {
      * @throws DecodingFailureException if any row could not be successfully deserialized.
      */
     public <T> List<T> rowsAs(final Class<T> target) {
-        final List<T> converted = new ArrayList<>(rows.size());
-        for (QueryChunkRow row : rows) {
-            converted.add(serializer.deserialize(target, row.data()));
-        }
-        return converted;
+        return rows.decodeAll((data, offset, length) -> serializer.deserialize(target, data, offset, length));
     }
 
     /**
@@ -99,11 +94,7 @@ public class QueryResult {
      * @throws DecodingFailureException if any row could not be successfully deserialized.
      */
     public <T> List<T> rowsAs(final TypeRef<T> target) {
-        final List<T> converted = new ArrayList<>(rows.size());
-        for (QueryChunkRow row : rows) {
-            converted.add(serializer.deserialize(target, row.data()));
-        }
-        return converted;
+        return rows.decodeAll((data, offset, length) -> serializer.deserialize(target, data, offset, length));
     }
 
     /**
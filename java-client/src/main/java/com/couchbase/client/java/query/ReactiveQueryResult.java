@@ -16,8 +16,11 @@
 
 package com.couchbase.client.java.query;
 
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.msg.query.QueryChunkRow;
 import com.couchbase.client.core.msg.query.QueryResponse;
 import com.couchbase.client.java.codec.JsonSerializer;
 import com.couchbase.client.java.codec.TypeRef;
@@ -25,6 +28,8 @@ import com.couchbase.client.java.json.JsonObject;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.function.Function;
+
 /**
  * Reactive result that fetch parts of the N1ql Query responses reactively
  *
@@ -40,9 +45,16 @@ public class ReactiveQueryResult {
 	 */
 	private final JsonSerializer serializer;
 
-	ReactiveQueryResult(final QueryResponse response, final JsonSerializer serializer) {
+	/**
+	 * The environment which decides where the rows are decoded.
+	 */
+	private final CoreEnvironment environment;
+
+	ReactiveQueryResult(final QueryResponse response, final JsonSerializer serializer,
+											final CoreEnvironment environment) {
 		this.response = response;
 		this.serializer = serializer;
+		this.environment = environment;
 	}
 
 	/**
@@ -64,7 +76,7 @@ public class ReactiveQueryResult {
    * @throws DecodingFailureException (async) if the decoding cannot be completed successfully
 	 */
 	public <T> Flux<T> rowsAs(Class<T> target) {
-		return response.rows().map(n -> serializer.deserialize(target, n.data()));
+		return decodeRows(n -> serializer.deserialize(target, n.data()));
 	}
 
   /**
@@ -76,7 +88,14 @@ public class ReactiveQueryResult {
    * @throws DecodingFailureException (async) if the decoding cannot be completed successfully
    */
 	public <T> Flux<T> rowsAs(TypeRef<T> target) {
-		return response.rows().map(n -> serializer.deserialize(target, n.data()));
+		return decodeRows(n -> serializer.deserialize(target, n.data()));
+	}
+
+	/**
+	 * Decodes the rows inline or in parallel, depending on the {@link CoreEnvironment#rowDecodingWindow()}.
+	 */
+	private <T> Flux<T> decodeRows(final Function<QueryChunkRow, T> decoder) {
+		return Reactor.mapOrdered(response.rows(), decoder, environment.scheduler(), environment.rowDecodingWindow());
 	}
 
 	/**
@@ -17,10 +17,12 @@
 package com.couchbase.client.java.search;
 
 import com.couchbase.client.core.Core;
+import com.couchbase.client.core.Reactor;
 import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.JsonNode;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.ObjectNode;
 import com.couchbase.client.core.deps.com.fasterxml.jackson.databind.node.TextNode;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.json.Mapper;
 import com.couchbase.client.core.msg.search.SearchChunkTrailer;
 import com.couchbase.client.core.msg.search.SearchRequest;
@@ -79,7 +81,13 @@ public class SearchAccessor {
         return Mono
           .fromFuture(request.response())
           .map(response -> {
-            Flux<SearchRow> rows = response.rows().map(row -> SearchRow.fromResponse(row, serializer));
+            CoreEnvironment environment = core.context().environment();
+            Flux<SearchRow> rows = Reactor.mapOrdered(
+              response.rows(),
+              row -> SearchRow.fromResponse(row, serializer),
+              environment.scheduler(),
+              environment.rowDecodingWindow()
+            );
             Mono<SearchMetaData> meta = response.trailer().map(trailer -> parseMeta(response, trailer));
             Mono<Map<String, SearchFacetResult>> facets = response.trailer().map(SearchAccessor::parseFacets);
             return new ReactiveSearchResult(rows, facets, meta);
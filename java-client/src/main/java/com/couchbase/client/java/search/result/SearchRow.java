@@ -15,6 +15,7 @@
  */
 package com.couchbase.client.java.search.result;
 
+import com.couchbase.client.core.annotation.Stability;
 import com.couchbase.client.core.error.DecodingFailureException;
 import com.couchbase.client.core.msg.search.SearchChunkRow;
 import com.couchbase.client.java.codec.JsonSerializer;
@@ -163,8 +164,24 @@ public class SearchRow {
     }
 
     public static SearchRow fromResponse(final SearchChunkRow row, final JsonSerializer serializer) {
+        return fromResponse(row.data(), 0, row.data().length, serializer);
+    }
+
+    /**
+     * Decodes a row from the given range of the raw response data.
+     *
+     * @param data the array holding the encoded row.
+     * @param offset the offset of the encoded row in the array.
+     * @param length the length of the encoded row.
+     * @param serializer the serializer to use for the fields.
+     * @return the decoded row.
+     * @throws DecodingFailureException if the row could not be decoded.
+     */
+    @Stability.Internal
+    public static SearchRow fromResponse(final byte[] data, final int offset, final int length,
+                                         final JsonSerializer serializer) {
         try {
-            JsonObject hit = JacksonTransformers.MAPPER.readValue(row.data(), JsonObject.class);
+            JsonObject hit = JacksonTransformers.MAPPER.readValue(data, offset, length, JsonObject.class);
 
             String index = hit.getString("index");
             String id = hit.getString("id");
@@ -202,7 +219,7 @@ public class SearchRow {
             }
             return new SearchRow(index, id, score, explanationJson, locations, fragments, fields, serializer);
         } catch (IOException e) {
-            throw new DecodingFailureException("Failed to decode row '" + new String(row.data(), UTF_8) + "'", e);
+            throw new DecodingFailureException("Failed to decode row '" + new String(data, offset, length, UTF_8) + "'", e);
         }
 
     }
@@ -16,6 +16,8 @@
 
 package com.couchbase.client.java.view;
 
+import com.couchbase.client.core.Reactor;
+import com.couchbase.client.core.env.CoreEnvironment;
 import com.couchbase.client.core.msg.view.ViewResponse;
 import com.couchbase.client.java.codec.JsonSerializer;
 import reactor.core.publisher.Flux;
@@ -35,14 +37,21 @@ public class ReactiveViewResult {
 
     private final JsonSerializer serializer;
 
+    /**
+     * The environment which decides where the rows are decoded.
+     */
+    private final CoreEnvironment environment;
+
     /**
      * Creates a new {@link ReactiveViewResult}.
      *
      * @param response the core response.
      */
-    ReactiveViewResult(final ViewResponse response, final JsonSerializer serializer) {
+    ReactiveViewResult(final ViewResponse response, final JsonSerializer serializer,
+                       final CoreEnvironment environment) {
         this.response = response;
         this.serializer = serializer;
+        this.environment = environment;
     }
 
     /**
@@ -51,7 +60,12 @@ public class ReactiveViewResult {
      * @return the {@link Flux} of {@link ViewRow ViewRows}.
      */
     public Flux<ViewRow> rows() {
-        return response.rows().map(r -> new ViewRow(r.data(), serializer));
+        return Reactor.mapOrdered(
+          response.rows(),
+          r -> new ViewRow(r.data(), serializer),
+          environment.scheduler(),
+          environment.rowDecodingWindow()
+        );
     }
 
     /**
@@ -51,7 +51,8 @@ public class ViewAccessor {
 
     public static Mono<ReactiveViewResult> viewQueryReactive(final Core core, final ViewRequest request,
                                                              final JsonSerializer serializer) {
-        return viewQueryInternal(core, request).map(r -> new ReactiveViewResult(r, serializer));
+        return viewQueryInternal(core, request)
+          .map(r -> new ReactiveViewResult(r, serializer, core.context().environment()));
     }
 
     private static Mono<ViewResponse> viewQueryInternal(final Core core, final ViewRequest request) {
@@ -60,6 +60,19 @@ abstract class JsonSerializerTestBase {
     assertEquals(decoded, decodedWithTypeRef);
   }
 
+  @Test
+  void decodesRange() {
+    byte[] input = "[{\"foo\":\"bar\"},{\"foo\":\"baz\"}]".getBytes(UTF_8);
+    JsonObject decoded = serializer().deserialize(JsonObject.class, input, 15, 13);
+    assertEquals(JsonObject.create().put("foo", "baz"), decoded);
+
+    JsonObject decodedWithTypeRef = serializer().deserialize(new TypeRef<JsonObject>() {
+    }, input, 15, 13);
+    assertEquals(decoded, decodedWithTypeRef);
+
+    assertArrayEquals("{\"foo\":\"baz\"}".getBytes(UTF_8), serializer().deserialize(byte[].class, input, 15, 13));
+  }
+
   @Test
   void encodesJsonArray() {
     JsonArray input = JsonArray.from("1", true, 2);
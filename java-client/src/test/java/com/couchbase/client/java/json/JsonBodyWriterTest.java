@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.json;
+
+import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.java.analytics.AnalyticsOptions;
+import com.couchbase.client.java.query.QueryOptions;
+import com.couchbase.client.java.query.QueryProfile;
+import com.couchbase.client.java.query.QueryScanConsistency;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static com.couchbase.client.core.util.CbCollections.setOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifies that request bodies written field by field match the ones built as a {@link JsonObject}.
+ */
+class JsonBodyWriterTest {
+
+  @Test
+  void writesSupportedValues() {
+    JsonObject nested = JsonObject.create().put("a", JsonArray.from(1, "b", true));
+    byte[] body = JsonBodyWriter.create()
+      .put("string", "quote\" and é")
+      .put("int", 1)
+      .put("long", Long.MAX_VALUE)
+      .put("bool", false)
+      .put("null", null)
+      .put("decimal", new BigDecimal("1.5"))
+      .put("object", nested)
+      .putEncoded("encoded", JsonBodyWriter.encodeString("pre\nencoded"))
+      .finish();
+
+    JsonObject expected = JsonObject.create()
+      .put("string", "quote\" and é")
+      .put("int", 1)
+      .put("long", Long.MAX_VALUE)
+      .put("bool", false)
+      .putNull("null")
+      .put("decimal", 1.5)
+      .put("object", nested)
+      .put("encoded", "pre\nencoded");
+    assertEquals(expected, JsonObject.fromJson(body));
+  }
+
+  @Test
+  void skipsOverriddenNames() {
+    byte[] body = JsonBodyWriter.create(setOf("timeout", "encoded"))
+      .put("timeout", "75s")
+      .putEncoded("encoded", JsonBodyWriter.encodeString("ignored"))
+      .put("statement", "select 1")
+      .override("timeout", "1s")
+      .finish();
+
+    assertEquals(JsonObject.create().put("statement", "select 1").put("timeout", "1s"), JsonObject.fromJson(body));
+  }
+
+  @Test
+  void writesSameQueryParamsAsJsonObject() {
+    QueryOptions.Built options = QueryOptions.queryOptions()
+      .clientContextId("ctx")
+      .parameters(JsonObject.create().put("name", "value").put("$other", 2))
+      .scanConsistency(QueryScanConsistency.REQUEST_PLUS)
+      .scanWait(Duration.ofMillis(100))
+      .profile(QueryProfile.TIMINGS)
+      .maxParallelism(4)
+      .metrics(false)
+      .readonly(true)
+      .raw("scan_cap", 10)
+      .raw("client_context_id", "raw-ctx")
+      .build();
+
+    JsonObject expected = JsonObject.create().put("statement", "select 1");
+    options.injectParams(expected);
+
+    JsonBodyWriter body = JsonBodyWriter.create(options.rawNames()).put("statement", "select 1");
+    assertEquals("raw-ctx", options.injectParams(body));
+    assertEquals(expected, JsonObject.fromJson(body.finish()));
+  }
+
+  @Test
+  void rejectsNamedAndPositionalParams() {
+    QueryOptions.Built options = QueryOptions.queryOptions()
+      .parameters(JsonObject.create().put("name", "value"))
+      .parameters(JsonArray.from(1))
+      .build();
+
+    assertThrows(InvalidArgumentException.class, () -> options.injectParams(JsonBodyWriter.create()));
+  }
+
+  @Test
+  void rejectsNamedParamsWithAndWithoutPrefix() {
+    QueryOptions.Built options = QueryOptions.queryOptions()
+      .parameters(JsonObject.create().put("x", 1).put("$x", 2))
+      .build();
+
+    assertThrows(InvalidArgumentException.class, () -> options.injectParams(JsonBodyWriter.create()));
+    assertThrows(InvalidArgumentException.class, () -> options.injectParams(JsonObject.create()));
+
+    AnalyticsOptions.Built analyticsOptions = AnalyticsOptions.analyticsOptions()
+      .parameters(JsonObject.create().put("x", 1).put("$x", 2))
+      .build();
+    assertThrows(InvalidArgumentException.class, () -> analyticsOptions.injectParams(JsonBodyWriter.create()));
+  }
+
+}
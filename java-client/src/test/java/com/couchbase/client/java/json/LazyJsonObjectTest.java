@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.json;
+
+import com.couchbase.client.core.error.DecodingFailureException;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import com.couchbase.client.java.codec.DefaultJsonSerializer;
+import com.couchbase.client.java.codec.JsonSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+
+import static com.couchbase.client.core.util.CbCollections.setOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that lazily decoded {@link JsonObject}s behave like eagerly decoded ones.
+ */
+class LazyJsonObjectTest {
+
+  private static final String JSON = " { \"name\" : \"Couchbase\\n\", \"count\":42, \"big\":123456789012345678901234567890,"
+    + "\"pi\":3.14, \"ok\":true, \"none\":null, \"tags\":[\"a\",{\"b\":1}],"
+    + "\"nested\":{\"inner\":{\"deep\":\"yes\"},\"x\":[]} , \"dup\":1, \"dup\":2 } ";
+
+  @Test
+  void readsFieldsLikeEagerObject() {
+    JsonObject lazy = JsonObject.fromJsonLazily(JSON.getBytes(UTF_8));
+    JsonObject eager = JsonObject.fromJson(JSON);
+
+    assertEquals("Couchbase\n", lazy.getString("name"));
+    assertEquals(42, (int) lazy.getInt("count"));
+    assertEquals(new BigInteger("123456789012345678901234567890"), lazy.getBigInteger("big"));
+    assertEquals(3.14, lazy.getDouble("pi"), 0.0);
+    assertTrue(lazy.getBoolean("ok"));
+    assertTrue(lazy.containsKey("none"));
+    assertNull(lazy.get("none"));
+    assertNull(lazy.get("missing"));
+    assertEquals(eager.getArray("tags"), lazy.getArray("tags"));
+    assertEquals("yes", lazy.getObject("nested").getObject("inner").getString("deep"));
+    assertEquals(2, (int) lazy.getInt("dup"));
+    assertEquals(eager.size(), lazy.size());
+    assertEquals(eager.getNames(), lazy.getNames());
+
+    assertEquals(eager, lazy);
+    assertEquals(lazy, eager);
+    assertEquals(eager.hashCode(), lazy.hashCode());
+    assertEquals(eager.toString(), lazy.toString());
+  }
+
+  @Test
+  void materializesOnMutation() {
+    JsonObject lazy = JsonObject.fromJsonLazily(JSON.getBytes(UTF_8));
+    assertEquals(42, (int) lazy.getInt("count"));
+
+    lazy.put("count", 43).removeKey("big");
+    assertEquals(43, (int) lazy.getInt("count"));
+    assertFalse(lazy.containsKey("big"));
+    assertEquals("Couchbase\n", lazy.getString("name"));
+    assertEquals(JsonObject.fromJson(JSON).put("count", 43).removeKey("big"), lazy);
+  }
+
+  @Test
+  void removesThroughNames() {
+    JsonObject lazy = JsonObject.fromJsonLazily("{\"a\":1,\"b\":2,\"c\":3}".getBytes(UTF_8));
+    Iterator<String> names = lazy.getNames().iterator();
+    assertEquals(setOf("a", "b", "c"), new HashSet<>(lazy.getNames()));
+    while (names.hasNext()) {
+      if (names.next().equals("b")) {
+        names.remove();
+      }
+    }
+    assertEquals(setOf("a", "c"), lazy.getNames());
+    assertTrue(lazy.getNames().remove("a"));
+    assertEquals(JsonObject.create().put("c", 3), lazy);
+  }
+
+  @Test
+  void decodesSlices() {
+    byte[] framed = ("xx" + JSON + "yy").getBytes(UTF_8);
+    JsonObject lazy = JsonObject.fromJsonLazily(framed, 2, framed.length - 4);
+    assertEquals(JsonObject.fromJson(JSON), lazy);
+  }
+
+  @Test
+  void rejectsNonObjects() {
+    assertThrows(InvalidArgumentException.class, () -> JsonObject.fromJsonLazily("[1]".getBytes(UTF_8)));
+    assertThrows(InvalidArgumentException.class, () -> JsonObject.fromJsonLazily("  ".getBytes(UTF_8)));
+
+    JsonObject malformed = JsonObject.fromJsonLazily("{\"a\":1,".getBytes(UTF_8));
+    assertThrows(DecodingFailureException.class, () -> malformed.get("a"));
+  }
+
+  @Test
+  void isSerializable() throws Exception {
+    JsonObject lazy = JsonObject.fromJsonLazily(JSON.getBytes(UTF_8));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(lazy);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertEquals(JsonObject.fromJson(JSON), in.readObject());
+    }
+  }
+
+  @Test
+  void serializerCanDecodeLazily() {
+    JsonSerializer serializer = DefaultJsonSerializer.create(null, true);
+    JsonObject decoded = serializer.deserialize(JsonObject.class, JSON.getBytes(UTF_8));
+    assertEquals(JsonObject.fromJson(JSON), decoded);
+    assertEquals(JsonObject.fromJson(JSON), JsonObject.fromJson(serializer.serialize(decoded)));
+  }
+  @Test
+  void serializerCopiesRangeAndWrapsDeferredFailures() {
+    JsonSerializer serializer = DefaultJsonSerializer.create(null, true);
+    byte[] slab = ("xx" + JSON + "{\"a\":1,").getBytes(UTF_8);
+    int length = JSON.getBytes(UTF_8).length;
+
+    JsonObject decoded = serializer.deserialize(JsonObject.class, slab, 2, length);
+    Arrays.fill(slab, (byte) ' ');
+    assertEquals(JsonObject.fromJson(JSON), decoded);
+
+    byte[] malformed = ("xx" + "{\"a\":1,").getBytes(UTF_8);
+    JsonObject truncated = serializer.deserialize(JsonObject.class, malformed, 2, malformed.length - 2);
+    assertThrows(DecodingFailureException.class, () -> truncated.get("a"));
+  }
+
+
+}
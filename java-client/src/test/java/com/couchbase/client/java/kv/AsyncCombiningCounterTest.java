@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.core.error.InvalidArgumentException;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the functionality of the {@link AsyncCombiningCounter}.
+ */
+class AsyncCombiningCounterTest {
+
+  private final List<Long> sent = new CopyOnWriteArrayList<>();
+  private long serverValue = 100;
+
+  private CompletableFuture<CounterResult> send(final String id, final long delta) {
+    sent.add(delta);
+    serverValue = Math.max(0, serverValue + delta);
+    return CompletableFuture.completedFuture(new CounterResult(1, serverValue, Optional.empty()));
+  }
+
+  @Test
+  void combinesDeltasWithinWindow() throws Exception {
+    VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(scheduler, Duration.ofMillis(10), 100, this::send);
+
+    CompletableFuture<CounterResult> first = counter.increment("key");
+    CompletableFuture<CounterResult> second = counter.increment("key", 5);
+    CompletableFuture<CounterResult> third = counter.decrement("key", 2);
+    assertFalse(first.isDone());
+    assertTrue(sent.isEmpty());
+
+    scheduler.advanceTimeBy(Duration.ofMillis(10));
+    assertEquals(1, sent.size());
+    assertEquals(4, sent.get(0));
+    assertEquals(101, first.get().content());
+    assertEquals(106, second.get().content());
+    assertEquals(104, third.get().content());
+  }
+
+  @Test
+  void flushesOnceMaxPendingReached() throws Exception {
+    VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(scheduler, Duration.ofSeconds(10), 2, this::send);
+
+    CompletableFuture<CounterResult> first = counter.decrement("key", 3);
+    CompletableFuture<CounterResult> second = counter.decrement("key", 3);
+    assertEquals(1, sent.size());
+    assertEquals(-6, sent.get(0));
+    assertEquals(97, first.get().content());
+    assertEquals(94, second.get().content());
+
+    // the window of the flushed batch must not flush anything else
+    CompletableFuture<CounterResult> third = counter.increment("key");
+    scheduler.advanceTimeBy(Duration.ofSeconds(10));
+    assertEquals(2, sent.size());
+    assertEquals(95, third.get().content());
+  }
+
+  @Test
+  void keepsDocumentsApart() {
+    VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(scheduler, Duration.ofMillis(10), 100, this::send);
+
+    counter.increment("a");
+    counter.increment("b");
+    counter.increment("a");
+    scheduler.advanceTimeBy(Duration.ofMillis(10));
+    assertEquals(2, sent.size());
+    assertTrue(sent.contains(2L));
+    assertTrue(sent.contains(1L));
+  }
+
+  @Test
+  void failsAllCombinedOperations() {
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(Schedulers.parallel(), Duration.ofMillis(1), 2,
+      (id, delta) -> {
+        CompletableFuture<CounterResult> response = new CompletableFuture<>();
+        response.completeExceptionally(new DocumentNotFoundException(null));
+        return response;
+      });
+
+    CompletableFuture<CounterResult> first = counter.increment("key");
+    CompletableFuture<CounterResult> second = counter.increment("key");
+    ExecutionException ex = assertThrows(ExecutionException.class, first::get);
+    assertTrue(ex.getCause() instanceof DocumentNotFoundException);
+    ex = assertThrows(ExecutionException.class, second::get);
+    assertTrue(ex.getCause() instanceof DocumentNotFoundException);
+  }
+
+  @Test
+  void failsBatchIfCombinedDeltaOverflows() {
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(Schedulers.parallel(), Duration.ofSeconds(10), 2,
+      this::send);
+
+    CompletableFuture<CounterResult> first = counter.increment("key", Long.MAX_VALUE);
+    CompletableFuture<CounterResult> second = counter.increment("key", 1);
+    ExecutionException ex = assertThrows(ExecutionException.class, first::get);
+    assertTrue(ex.getCause() instanceof InvalidArgumentException);
+    ex = assertThrows(ExecutionException.class, second::get);
+    assertTrue(ex.getCause() instanceof InvalidArgumentException);
+
+    CompletableFuture<CounterResult> third = counter.decrement("key", Long.MAX_VALUE);
+    CompletableFuture<CounterResult> fourth = counter.decrement("key", 1);
+    ex = assertThrows(ExecutionException.class, third::get);
+    assertTrue(ex.getCause() instanceof InvalidArgumentException);
+    ex = assertThrows(ExecutionException.class, fourth::get);
+    assertTrue(ex.getCause() instanceof InvalidArgumentException);
+    assertTrue(sent.isEmpty());
+  }
+
+  @Test
+  void flushesOnClose() throws Exception {
+    VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(scheduler, Duration.ofSeconds(10), 100, this::send);
+
+    CompletableFuture<CounterResult> pending = counter.increment("key", 7);
+    counter.close().get();
+    assertEquals(107, pending.get().content());
+
+    ExecutionException ex = assertThrows(ExecutionException.class, () -> counter.increment("key").get());
+    assertTrue(ex.getCause() instanceof IllegalStateException);
+  }
+
+  /**
+   * Operations racing with close must either be sent before close completes or be rejected, none of them may be
+   * left pending.
+   */
+  @Test
+  void closeLeavesNoConcurrentOperationBehind() throws Exception {
+    AtomicLong serverTotal = new AtomicLong();
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(Schedulers.parallel(), Duration.ofSeconds(10), 16,
+      (id, delta) -> {
+        long value = serverTotal.addAndGet(delta);
+        return CompletableFuture.supplyAsync(() -> new CounterResult(1, value, Optional.empty()));
+      });
+
+    int threads = 4;
+    AtomicInteger started = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<CompletableFuture<CounterResult>>>> workers = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        workers.add(executor.submit(() -> {
+          List<CompletableFuture<CounterResult>> results = new ArrayList<>();
+          for (int i = 0; i < 20_000; i++) {
+            results.add(counter.increment("key" + (i % 3)));
+            started.incrementAndGet();
+          }
+          return results;
+        }));
+      }
+      while (started.get() < 1000) {
+        Thread.yield();
+      }
+      CompletableFuture<Void> closed = counter.close();
+
+      long accepted = 0;
+      List<CompletableFuture<CounterResult>> results = new ArrayList<>();
+      for (Future<List<CompletableFuture<CounterResult>>> worker : workers) {
+        results.addAll(worker.get(30, TimeUnit.SECONDS));
+      }
+      closed.get(30, TimeUnit.SECONDS);
+      for (CompletableFuture<CounterResult> result : results) {
+        assertTrue(result.isDone());
+        if (result.isCompletedExceptionally()) {
+          ExecutionException ex = assertThrows(ExecutionException.class, result::get);
+          assertTrue(ex.getCause() instanceof IllegalStateException);
+        } else {
+          accepted++;
+        }
+      }
+      assertTrue(accepted > 0);
+      assertEquals(accepted, serverTotal.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void rejectsInvalidArguments() {
+    assertThrows(InvalidArgumentException.class,
+      () -> new AsyncCombiningCounter(Schedulers.parallel(), Duration.ZERO, 1, this::send));
+    assertThrows(InvalidArgumentException.class,
+      () -> new AsyncCombiningCounter(Schedulers.parallel(), Duration.ofMillis(1), 0, this::send));
+    AsyncCombiningCounter counter = new AsyncCombiningCounter(Schedulers.parallel(), Duration.ofMillis(1), 1,
+      this::send);
+    assertThrows(InvalidArgumentException.class, () -> counter.increment("key", -1));
+    assertThrows(InvalidArgumentException.class, () -> counter.decrement("key", -1));
+    assertThrows(InvalidArgumentException.class, () -> counter.decrement("key", Long.MIN_VALUE));
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.java.kv;
+
+import com.couchbase.client.core.env.CompletionDispatch;
+import com.couchbase.client.core.error.CasMismatchException;
+import com.couchbase.client.core.error.DocumentExistsException;
+import com.couchbase.client.core.error.DocumentNotFoundException;
+import com.couchbase.client.java.Bucket;
+import com.couchbase.client.java.Cluster;
+import com.couchbase.client.java.Collection;
+import com.couchbase.client.java.ReactiveCollection;
+import com.couchbase.client.java.env.ClusterEnvironment;
+import com.couchbase.client.java.json.JsonObject;
+import com.couchbase.client.test.standin.StandInCluster;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static com.couchbase.client.java.ClusterOptions.clusterOptions;
+import static com.couchbase.client.java.kv.GetOptions.getOptions;
+import static com.couchbase.client.java.kv.LookupInSpec.get;
+import static com.couchbase.client.java.kv.MutateInSpec.arrayAppend;
+import static com.couchbase.client.java.kv.MutateInSpec.increment;
+import static com.couchbase.client.java.kv.MutateInSpec.upsert;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the KV path of the client end to end against the in-process {@link StandInCluster}.
+ */
+class StandInClusterTest {
+
+  private static StandInCluster standIn;
+  private static Cluster cluster;
+  private static Collection collection;
+
+  @BeforeAll
+  static void beforeAll() {
+    standIn = StandInCluster.builder().numNodes(3).collection("inventory", "airline").start();
+    cluster = Cluster.connect(standIn.connectionString(), standIn.username(), standIn.password());
+    Bucket bucket = cluster.bucket(standIn.bucketName());
+    bucket.waitUntilReady(Duration.ofSeconds(10));
+    collection = bucket.defaultCollection();
+  }
+
+  @AfterAll
+  static void afterAll() {
+    cluster.disconnect();
+    standIn.close();
+  }
+
+  @Test
+  void upsertGetAndRemove() {
+    JsonObject content = JsonObject.create().put("name", "stand-in");
+    MutationResult upserted = collection.upsert("upsertGetAndRemove", content);
+
+    GetResult found = collection.get("upsertGetAndRemove");
+    assertEquals(upserted.cas(), found.cas());
+    assertEquals(content, found.contentAsObject());
+
+    assertThrows(DocumentExistsException.class, () -> collection.insert("upsertGetAndRemove", content));
+    collection.remove("upsertGetAndRemove");
+    assertThrows(DocumentNotFoundException.class, () -> collection.get("upsertGetAndRemove"));
+  }
+
+  @Test
+  void getOptionalSignalsMissWithoutException() {
+    assertFalse(collection.getOptional("getOptional").isPresent());
+    assertFalse(collection.reactive().getOptional("getOptional").blockOptional().isPresent());
+
+    collection.upsert("getOptional", JsonObject.create().put("foo", "bar"));
+    assertEquals("bar", collection.getOptional("getOptional").get().contentAsObject().getString("foo"));
+    assertTrue(collection.getOptional("getOptional", getOptions().project("foo")).isPresent());
+    assertTrue(collection.async().getOptional("getOptional").join().isPresent());
+  }
+
+  @Test
+  void reactiveKeyValueOperations() {
+    ReactiveCollection reactive = collection.reactive();
+    JsonObject content = JsonObject.create().put("name", "reactive");
+
+    MutationResult inserted = reactive.insert("reactive", content).block();
+    StepVerifier.create(reactive.insert("reactive", content)).expectError(DocumentExistsException.class).verify();
+    assertEquals(inserted.cas(), reactive.get("reactive").block().cas());
+
+    MutationResult replaced = reactive.replace("reactive", content.put("name", "replaced")).block();
+    StepVerifier
+      .create(reactive.get("reactive").map(r -> r.contentAsObject().getString("name")))
+      .expectNext("replaced")
+      .verifyComplete();
+
+    reactive.upsert("reactive", content).block();
+    StepVerifier.create(reactive.replace("reactive", content, ReplaceOptions.replaceOptions().cas(replaced.cas())))
+      .expectError(CasMismatchException.class)
+      .verify();
+
+    reactive.remove("reactive").block();
+    StepVerifier.create(reactive.get("reactive")).expectError(DocumentNotFoundException.class).verify();
+  }
+
+  @Test
+  void completesOnDedicatedThreads() {
+    ClusterEnvironment env = ClusterEnvironment
+      .builder()
+      .completionDispatch(CompletionDispatch.dedicated(1, 16))
+      .build();
+    Cluster dedicated = Cluster.connect(
+      standIn.connectionString(),
+      clusterOptions(standIn.username(), standIn.password()).environment(env)
+    );
+    try {
+      Collection collection = dedicated.bucket(standIn.bucketName()).defaultCollection();
+      String thread = collection.async()
+        .upsert("completesOnDedicatedThreads", JsonObject.create())
+        .thenApply(r -> Thread.currentThread().getName())
+        .join();
+      assertEquals("cb-completion-0", thread);
+      assertTrue(collection.get("completesOnDedicatedThreads").contentAsObject().isEmpty());
+    } finally {
+      dedicated.disconnect();
+      env.shutdown();
+    }
+  }
+
+  @Test
+  void subdocLookupAndMutate() {
+    collection.upsert("subdoc", JsonObject.create().put("count", 1));
+
+    MutateInResult mutated = collection.mutateIn("subdoc", Arrays.asList(
+      increment("count", 2),
+      upsert("nested.name", "foo").createPath(),
+      arrayAppend("list", Arrays.asList(1, 2)).createPath()
+    ));
+    assertEquals(3, mutated.contentAs(0, Integer.class));
+
+    LookupInResult found = collection.lookupIn("subdoc", Arrays.asList(get("nested.name"), get("missing")));
+    assertEquals("foo", found.contentAs(0, String.class));
+    assertFalse(found.exists(1));
+    assertEquals("[1,2]", collection.get("subdoc").contentAsObject().getArray("list").toString());
+  }
+
+  @Test
+  void namedCollections() {
+    Collection airline = cluster.bucket(standIn.bucketName()).scope("inventory").collection("airline");
+    airline.upsert("namedCollections", JsonObject.create());
+    assertTrue(airline.get("namedCollections").contentAsObject().isEmpty());
+    assertThrows(DocumentNotFoundException.class, () -> collection.get("namedCollections"));
+  }
+
+  @Test
+  void retriesNotMyVbucket() {
+    collection.upsert("retriesNotMyVbucket", JsonObject.create());
+    standIn.injectNotMyVbucket(3);
+    assertTrue(collection.get("retriesNotMyVbucket").contentAsObject().isEmpty());
+  }
+
+  @Test
+  void followsFailover() {
+    for (int i = 0; i < 32; i++) {
+      collection.upsert("failover-" + i, JsonObject.create().put("i", i));
+    }
+    standIn.failover(standIn.numNodes() - 1);
+    for (int i = 0; i < 32; i++) {
+      assertEquals(i, collection.get("failover-" + i).contentAsObject().getInt("i"));
+    }
+  }
+
+}
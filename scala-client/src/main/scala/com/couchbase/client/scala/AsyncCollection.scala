@@ -19,7 +19,7 @@ import java.time.Instant
 import java.util.Optional
 import java.util.concurrent.TimeUnit
 
-import com.couchbase.client.core.Core
+import com.couchbase.client.core.{Core, Reactor}
 import com.couchbase.client.core.cnc.RequestSpan
 import com.couchbase.client.core.error._
 import com.couchbase.client.core.error.context.KeyValueErrorContext
@@ -152,8 +152,40 @@ class AsyncCollection(
   )(implicit serializer: JsonSerializer[T]): Future[MutationResult] = {
     val timeoutActual =
       if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
+    wrapWithDurability(
+      insertRequest(id, content, options, timeoutActual),
+      id,
+      insertHandler,
+      options.durability,
+      false,
+      timeoutActual
+    )
+  }
 
-    val req = insertHandler.request(
+  /** Same as `insert`, but completes the `SMono` directly from the request, without converting
+    * through a `Future`.  Must not be used with `ClientVerified` durability. */
+  private[scala] def insertReactive[T](
+      id: String,
+      content: T,
+      options: InsertOptions
+  )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
+    val timeoutActual =
+      if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
+    AsyncCollection.wrapReactive(
+      insertRequest(id, content, options, timeoutActual),
+      id,
+      insertHandler,
+      core
+    )
+  }
+
+  private def insertRequest[T](
+      id: String,
+      content: T,
+      options: InsertOptions,
+      timeoutActual: Duration
+  )(implicit serializer: JsonSerializer[T]): Try[InsertRequest] = {
+    insertHandler.request(
       id,
       content,
       options.durability,
@@ -164,7 +196,6 @@ class AsyncCollection(
       serializer,
       options.parentSpan
     )
-    wrapWithDurability(req, id, insertHandler, options.durability, false, timeoutActual)
   }
 
   /** Replaces the contents of a full document in this collection, if it already exists.
@@ -191,7 +222,40 @@ class AsyncCollection(
   )(implicit serializer: JsonSerializer[T]): Future[MutationResult] = {
     val timeoutActual =
       if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
-    val req = replaceHandler.request(
+    wrapWithDurability(
+      replaceRequest(id, content, options, timeoutActual),
+      id,
+      replaceHandler,
+      options.durability,
+      false,
+      timeoutActual
+    )
+  }
+
+  /** Same as `replace`, but completes the `SMono` directly from the request, without converting
+    * through a `Future`.  Must not be used with `ClientVerified` durability. */
+  private[scala] def replaceReactive[T](
+      id: String,
+      content: T,
+      options: ReplaceOptions
+  )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
+    val timeoutActual =
+      if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
+    AsyncCollection.wrapReactive(
+      replaceRequest(id, content, options, timeoutActual),
+      id,
+      replaceHandler,
+      core
+    )
+  }
+
+  private def replaceRequest[T](
+      id: String,
+      content: T,
+      options: ReplaceOptions,
+      timeoutActual: Duration
+  )(implicit serializer: JsonSerializer[T]): Try[ReplaceRequest] = {
+    replaceHandler.request(
       id,
       content,
       options.cas,
@@ -203,7 +267,6 @@ class AsyncCollection(
       serializer,
       options.parentSpan
     )
-    wrapWithDurability(req, id, replaceHandler, options.durability, false, timeoutActual)
   }
 
   /** Upserts the contents of a full document in this collection.
@@ -229,7 +292,40 @@ class AsyncCollection(
   )(implicit serializer: JsonSerializer[T]): Future[MutationResult] = {
     val timeoutActual =
       if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
-    val req = upsertHandler.request(
+    wrapWithDurability(
+      upsertRequest(id, content, options, timeoutActual),
+      id,
+      upsertHandler,
+      options.durability,
+      false,
+      timeoutActual
+    )
+  }
+
+  /** Same as `upsert`, but completes the `SMono` directly from the request, without converting
+    * through a `Future`.  Must not be used with `ClientVerified` durability. */
+  private[scala] def upsertReactive[T](
+      id: String,
+      content: T,
+      options: UpsertOptions
+  )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
+    val timeoutActual =
+      if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
+    AsyncCollection.wrapReactive(
+      upsertRequest(id, content, options, timeoutActual),
+      id,
+      upsertHandler,
+      core
+    )
+  }
+
+  private def upsertRequest[T](
+      id: String,
+      content: T,
+      options: UpsertOptions,
+      timeoutActual: Duration
+  )(implicit serializer: JsonSerializer[T]): Try[UpsertRequest] = {
+    upsertHandler.request(
       id,
       content,
       options.durability,
@@ -240,7 +336,6 @@ class AsyncCollection(
       serializer,
       options.parentSpan
     )
-    wrapWithDurability(req, id, upsertHandler, options.durability, false, timeoutActual)
   }
 
   /** Removes a document from this collection, if it exists.
@@ -265,7 +360,38 @@ class AsyncCollection(
   ): Future[MutationResult] = {
     val timeoutActual =
       if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
-    val req = removeHandler.request(
+    wrapWithDurability(
+      removeRequest(id, options, timeoutActual),
+      id,
+      removeHandler,
+      options.durability,
+      true,
+      timeoutActual
+    )
+  }
+
+  /** Same as `remove`, but completes the `SMono` directly from the request, without converting
+    * through a `Future`.  Must not be used with `ClientVerified` durability. */
+  private[scala] def removeReactive(
+      id: String,
+      options: RemoveOptions
+  ): SMono[MutationResult] = {
+    val timeoutActual =
+      if (options.timeout == Duration.MinusInf) kvTimeout(options.durability) else options.timeout
+    AsyncCollection.wrapReactive(
+      removeRequest(id, options, timeoutActual),
+      id,
+      removeHandler,
+      core
+    )
+  }
+
+  private def removeRequest(
+      id: String,
+      options: RemoveOptions,
+      timeoutActual: Duration
+  ): Try[RemoveRequest] = {
+    removeHandler.request(
       id,
       options.cas,
       options.durability,
@@ -273,7 +399,6 @@ class AsyncCollection(
       options.retryStrategy.getOrElse(environment.retryStrategy),
       options.parentSpan
     )
-    wrapWithDurability(req, id, removeHandler, options.durability, true, timeoutActual)
   }
 
   /** Fetches a full document from this collection.
@@ -347,6 +472,19 @@ class AsyncCollection(
     }
   }
 
+  /** Same as `get`, but completes the `SMono` directly from the request, without converting
+    * through a `Future`.  Must only be used to fetch the full document without expiry. */
+  private[scala] def getFullDocReactive(
+      id: String,
+      options: GetOptions
+  ): SMono[GetResult] = {
+    val timeout       = if (options.timeout == Duration.MinusInf) kvReadTimeout else options.timeout
+    val retryStrategy = options.retryStrategy.getOrElse(environment.retryStrategy)
+    val transcoder    = options.transcoder.getOrElse(environment.transcoder)
+    val req           = getFullDocHandler.request(id, timeout, retryStrategy, options.parentSpan)
+    AsyncCollection.wrapGetReactive(req, id, getFullDocHandler, transcoder, core)
+  }
+
   private def getFullDoc(
       id: String,
       timeout: Duration,
@@ -821,6 +959,57 @@ object AsyncCollection {
     }
   }
 
+  private def wrapReactive[Resp <: Response, Res](
+      in: Try[KeyValueRequest[Resp]],
+      id: String,
+      handler: KeyValueRequestHandler[Resp, Res],
+      core: Core
+  ): SMono[Res] = {
+    in match {
+      case Success(request) =>
+        core.send[Resp](request)
+
+        // The request is logically completed by Reactor.fromRequest once converted
+        SMono(
+          Reactor.fromRequest(
+            request,
+            new java.util.function.Function[Resp, Res] {
+              override def apply(response: Resp): Res = handler.response(request, id, response)
+            },
+            true
+          )
+        )
+
+      case Failure(err) => SMono.raiseError(err)
+    }
+  }
+
+  private def wrapGetReactive[Resp <: Response, Res](
+      in: Try[KeyValueRequest[Resp]],
+      id: String,
+      handler: KeyValueRequestHandlerWithTranscoder[Resp, Res],
+      transcoder: Transcoder,
+      core: Core
+  ): SMono[Res] = {
+    in match {
+      case Success(request) =>
+        core.send[Resp](request)
+
+        SMono(
+          Reactor.fromRequest(
+            request,
+            new java.util.function.Function[Resp, Res] {
+              override def apply(response: Resp): Res =
+                handler.response(request, id, response, transcoder)
+            },
+            true
+          )
+        )
+
+      case Failure(err) => SMono.raiseError(err)
+    }
+  }
+
   private def wrapWithDurability[Resp <: Response, Res <: HasDurabilityTokens](
       in: Try[KeyValueRequest[Resp]],
       id: String,
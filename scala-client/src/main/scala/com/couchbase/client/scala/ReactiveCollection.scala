@@ -61,7 +61,7 @@ class ReactiveCollection(async: AsyncCollection) {
       durability: Durability = Disabled,
       timeout: Duration = Duration.MinusInf
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.insert(id, content, durability, timeout)))
+    insert(id, content, InsertOptions().durability(durability).timeout(timeout))
   }
 
   /** Inserts a full document into this collection, if it does not exist already.
@@ -72,7 +72,12 @@ class ReactiveCollection(async: AsyncCollection) {
       content: T,
       options: InsertOptions
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.insert(id, content, options)))
+    options.durability match {
+      case _: ClientVerified =>
+        SMono.defer(() => SMono.fromFuture(async.insert(id, content, options)))
+      case _ =>
+        SMono.defer(() => async.insertReactive(id, content, options))
+    }
   }
 
   /** Replaces the contents of a full document in this collection, if it already exists.
@@ -85,7 +90,7 @@ class ReactiveCollection(async: AsyncCollection) {
       durability: Durability = Disabled,
       timeout: Duration = Duration.MinusInf
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.replace(id, content, cas, durability, timeout)))
+    replace(id, content, ReplaceOptions().cas(cas).durability(durability).timeout(timeout))
   }
 
   /** Replaces the contents of a full document in this collection, if it already exists.
@@ -96,7 +101,12 @@ class ReactiveCollection(async: AsyncCollection) {
       content: T,
       options: ReplaceOptions
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.replace(id, content, options)))
+    options.durability match {
+      case _: ClientVerified =>
+        SMono.defer(() => SMono.fromFuture(async.replace(id, content, options)))
+      case _ =>
+        SMono.defer(() => async.replaceReactive(id, content, options))
+    }
   }
 
   /** Upserts the contents of a full document in this collection.
@@ -108,7 +118,7 @@ class ReactiveCollection(async: AsyncCollection) {
       durability: Durability = Disabled,
       timeout: Duration = Duration.MinusInf
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.upsert(id, content, durability, timeout)))
+    upsert(id, content, UpsertOptions().durability(durability).timeout(timeout))
   }
 
   /** Upserts the contents of a full document in this collection.
@@ -119,7 +129,12 @@ class ReactiveCollection(async: AsyncCollection) {
       content: T,
       options: UpsertOptions
   )(implicit serializer: JsonSerializer[T]): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.upsert(id, content, options)))
+    options.durability match {
+      case _: ClientVerified =>
+        SMono.defer(() => SMono.fromFuture(async.upsert(id, content, options)))
+      case _ =>
+        SMono.defer(() => async.upsertReactive(id, content, options))
+    }
   }
 
   /** Removes a document from this collection, if it exists.
@@ -131,7 +146,7 @@ class ReactiveCollection(async: AsyncCollection) {
       durability: Durability = Disabled,
       timeout: Duration = Duration.MinusInf
   ): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.remove(id, cas, durability, timeout)))
+    remove(id, RemoveOptions().cas(cas).durability(durability).timeout(timeout))
   }
 
   /** Removes a document from this collection, if it exists.
@@ -141,7 +156,12 @@ class ReactiveCollection(async: AsyncCollection) {
       id: String,
       options: RemoveOptions
   ): SMono[MutationResult] = {
-    SMono.defer(() => SMono.fromFuture(async.remove(id, options)))
+    options.durability match {
+      case _: ClientVerified =>
+        SMono.defer(() => SMono.fromFuture(async.remove(id, options)))
+      case _ =>
+        SMono.defer(() => async.removeReactive(id, options))
+    }
   }
 
   /** Fetches a full document from this collection.
@@ -151,7 +171,7 @@ class ReactiveCollection(async: AsyncCollection) {
       id: String,
       timeout: Duration = kvReadTimeout
   ): SMono[GetResult] = {
-    SMono.defer(() => SMono.fromFuture(async.get(id, timeout)))
+    get(id, GetOptions().timeout(timeout))
   }
 
   /** Fetches a full document from this collection.
@@ -161,7 +181,11 @@ class ReactiveCollection(async: AsyncCollection) {
       id: String,
       options: GetOptions
   ): SMono[GetResult] = {
-    SMono.defer(() => SMono.fromFuture(async.get(id, options)))
+    if (options.project.isEmpty && !options.withExpiry) {
+      SMono.defer(() => async.getFullDocReactive(id, options))
+    } else {
+      SMono.defer(() => SMono.fromFuture(async.get(id, options)))
+    }
   }
 
   /** SubDocument mutations allow modifying parts of a JSON document directly, which can be more efficiently than
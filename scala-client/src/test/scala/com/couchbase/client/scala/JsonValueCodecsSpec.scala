@@ -0,0 +1,89 @@
+package com.couchbase.client.scala
+
+import java.nio.charset.StandardCharsets
+
+import com.couchbase.client.core.error.DecodingFailureException
+import com.couchbase.client.scala.codec.Conversions
+import com.couchbase.client.scala.json.{JsonArray, JsonArraySafe, JsonObject, JsonObjectSafe}
+import com.couchbase.client.scala.transformers.JacksonTransformers
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class JsonValueCodecsSpec {
+
+  private val raw =
+    """{ "name": "John \"Smith\"\n", "age": 29, "big": 12345678901, "huge": 123456789012345678901234567890,
+      |"neg": -7, "pi": 3.14, "exp": 1e3, "ok": true, "no": false, "none": null, "empty": {}, "list": [],
+      |"address": [{"address": "123 Fake Street", "regional": {"county": "essex"}}, 1, [2.5, null]] }""".stripMargin
+
+  private def jackson(in: String): JsonObject = JacksonTransformers.stringToJsonObject(in)
+
+  @Test
+  def decodes_like_jackson(): Unit = {
+    val decoded = Conversions.decode[JsonObject](raw.getBytes(StandardCharsets.UTF_8)).get
+    val expected = jackson(raw)
+
+    assertEquals(expected, decoded)
+    assertEquals(classOf[Integer], decoded.get("age").getClass)
+    assertEquals(classOf[java.lang.Long], decoded.get("big").getClass)
+    assertEquals(classOf[java.math.BigInteger], decoded.get("huge").getClass)
+    assertEquals(classOf[java.lang.Double], decoded.get("exp").getClass)
+    assertEquals("John \"Smith\"\n", decoded.str("name"))
+  }
+
+  @Test
+  def round_trips(): Unit = {
+    val json    = jackson(raw)
+    val encoded = Conversions.encode(json).get
+    assertEquals(json, jackson(new String(encoded, StandardCharsets.UTF_8)))
+    assertEquals(json, Conversions.decode[JsonObject](encoded).get)
+  }
+
+  @Test
+  def encodes_safe_and_nested_values(): Unit = {
+    val json = JsonObject.create
+      .put("safe", JsonObject.create.put("a", 1).safe)
+      .put("arr", JsonArray(1L, 2.5f, "x").safe)
+      .put("dec", new java.math.BigDecimal("1.25"))
+
+    val encoded = new String(Conversions.encode(json.safe).get, StandardCharsets.UTF_8)
+    assertEquals(
+      jackson("""{"safe":{"a":1},"arr":[1,2.5,"x"],"dec":1.25}"""),
+      jackson(encoded)
+    )
+  }
+
+  @Test
+  def decodes_arrays(): Unit = {
+    val bytes = """[1, "two", {"three": 3}]""".getBytes(StandardCharsets.UTF_8)
+    assertEquals(JacksonTransformers.bytesToJsonArray(bytes), Conversions.decode[JsonArray](bytes).get)
+    assertEquals(3, Conversions.decode[JsonArraySafe](bytes).get.size)
+  }
+
+  @Test
+  def fails_on_invalid_json(): Unit = {
+    val invalid = Seq(
+      """[1]""",
+      """{"a":1""",
+      """{"a":01x}""",
+      """{"a" 1}""",
+      """{"a":007}""",
+      """{"a":-01}""",
+      """{"a":1.}""",
+      """{"a":1.e5}""",
+      """{"a":1e}""",
+      """{"a":-}"""
+    )
+    for (in <- invalid) {
+      val out = Conversions.decode[JsonObjectSafe](in.getBytes(StandardCharsets.UTF_8))
+      assert(out.failed.get.isInstanceOf[DecodingFailureException], in)
+    }
+  }
+
+  @Test
+  def decodes_strings_longer_than_default_buffers(): Unit = {
+    val long  = "x" * (5 * 1024 * 1024)
+    val bytes = s"""{"long":"$long"}""".getBytes(StandardCharsets.UTF_8)
+    assertEquals(long, Conversions.decode[JsonObject](bytes).get.str("long"))
+  }
+}
@@ -17,8 +17,16 @@ package com.couchbase.client.scala.codec
 import java.nio.charset.StandardCharsets
 
 import com.couchbase.client.core.error.DecodingFailureException
-import com.couchbase.client.scala.json.{JsonArray, JsonArraySafe, JsonObject, JsonObjectSafe}
+import com.couchbase.client.scala.json.{
+  JsonArray,
+  JsonArraySafe,
+  JsonObject,
+  JsonObjectSafe,
+  JsonValueCodecs
+}
+import com.couchbase.client.scala.json.JsonValueCodecs.DocumentReaderConfig
 import com.couchbase.client.scala.transformers.JacksonTransformers
+import com.github.plokhotnyuk.jsoniter_scala.core.readFromArray
 import io.circe.Json
 import org.json4s.JValue
 import org.typelevel.jawn.ast
@@ -79,44 +87,28 @@ object JsonDeserializer {
   /** `JsonDeserializer` converting a binary representation of a document into a `JsonObject`. */
   implicit object JsonObjectConvert extends JsonDeserializer[JsonObject] {
     override def deserialize(bytes: Array[Byte]): Try[JsonObject] = {
-      val out = Try(JacksonTransformers.MAPPER.readValue(bytes, classOf[JsonObject]))
-      out match {
-        case Success(_)   => out
-        case Failure(err) => Failure(new DecodingFailureException(err))
-      }
+      tryDecode(readFromArray(bytes, DocumentReaderConfig)(JsonValueCodecs.jsonObjectCodec))
     }
   }
 
   /** `JsonDeserializer` converting a binary representation of a document into a `JsonObjectSafe`. */
   implicit object JsonObjectSafeConvert extends JsonDeserializer[JsonObjectSafe] {
     override def deserialize(bytes: Array[Byte]): Try[JsonObjectSafe] = {
-      val out = Try(JacksonTransformers.MAPPER.readValue(bytes, classOf[JsonObject]))
-      out match {
-        case Success(v)   => Success(v.safe)
-        case Failure(err) => Failure(new DecodingFailureException(err))
-      }
+      tryDecode(readFromArray(bytes, DocumentReaderConfig)(JsonValueCodecs.jsonObjectSafeCodec))
     }
   }
 
   /** `JsonDeserializer` converting a binary representation of a document into a `JsonArray`. */
   implicit object JsonArrayConvert extends JsonDeserializer[JsonArray] {
     override def deserialize(bytes: Array[Byte]): Try[JsonArray] = {
-      val out = Try(JacksonTransformers.MAPPER.readValue(bytes, classOf[JsonArray]))
-      out match {
-        case Success(_)   => out
-        case Failure(err) => Failure(new DecodingFailureException(err))
-      }
+      tryDecode(readFromArray(bytes, DocumentReaderConfig)(JsonValueCodecs.jsonArrayCodec))
     }
   }
 
   /** `JsonDeserializer` converting a binary representation of a document into a `JsonArraySafe`. */
   implicit object JsonArraySafeConvert extends JsonDeserializer[JsonArraySafe] {
     override def deserialize(bytes: Array[Byte]): Try[JsonArraySafe] = {
-      val out = Try(JacksonTransformers.MAPPER.readValue(bytes, classOf[JsonArray]))
-      out match {
-        case Success(v)   => Success(v.safe)
-        case Failure(err) => Failure(new DecodingFailureException(err))
-      }
+      tryDecode(readFromArray(bytes, DocumentReaderConfig)(JsonValueCodecs.jsonArraySafeCodec))
     }
   }
 
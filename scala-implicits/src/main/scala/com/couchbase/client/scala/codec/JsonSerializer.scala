@@ -16,9 +16,16 @@
 package com.couchbase.client.scala.codec
 
 import com.couchbase.client.core.deps.io.netty.util.CharsetUtil
-import com.couchbase.client.scala.json.{JsonArray, JsonArraySafe, JsonObject, JsonObjectSafe}
+import com.couchbase.client.scala.json.{
+  JsonArray,
+  JsonArraySafe,
+  JsonObject,
+  JsonObjectSafe,
+  JsonValueCodecs
+}
 import com.couchbase.client.scala.kv.MutateInMacro
 import com.couchbase.client.scala.transformers.JacksonTransformers
+import com.github.plokhotnyuk.jsoniter_scala.core.writeToArray
 
 import scala.util.Try
 
@@ -72,28 +79,28 @@ object JsonSerializer {
   /** `JsonSerializer` that can convert a `JsonObject` into `Array[Byte]` for sending to the server. */
   implicit object JsonObjectConvert extends JsonSerializer[JsonObject] {
     override def serialize(content: JsonObject): Try[Array[Byte]] = {
-      Try(JacksonTransformers.MAPPER.writeValueAsBytes(content))
+      Try(writeToArray(content)(JsonValueCodecs.jsonObjectCodec))
     }
   }
 
   /** `JsonSerializer` that can convert a `JsonObjectSafe` into `Array[Byte]` for sending to the server. */
   implicit object JsonObjectSafeConvert extends JsonSerializer[JsonObjectSafe] {
     override def serialize(content: JsonObjectSafe): Try[Array[Byte]] = {
-      Try(JacksonTransformers.MAPPER.writeValueAsBytes(content.o))
+      Try(writeToArray(content)(JsonValueCodecs.jsonObjectSafeCodec))
     }
   }
 
   /** `JsonSerializer` that can convert a `JsonArray` into `Array[Byte]` for sending to the server. */
   implicit object JsonArrayConvert extends JsonSerializer[JsonArray] {
     override def serialize(content: JsonArray): Try[Array[Byte]] = {
-      Try(JacksonTransformers.MAPPER.writeValueAsBytes(content))
+      Try(writeToArray(content)(JsonValueCodecs.jsonArrayCodec))
     }
   }
 
   /** `JsonSerializer` that can convert a `JsonArraySafe` into `Array[Byte]` for sending to the server. */
   implicit object JsonArraySafeConvert extends JsonSerializer[JsonArraySafe] {
     override def serialize(content: JsonArraySafe): Try[Array[Byte]] = {
-      Try(JacksonTransformers.MAPPER.writeValueAsBytes(content.a))
+      Try(writeToArray(content)(JsonValueCodecs.jsonArraySafeCodec))
     }
   }
 
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.scala.json
+
+import java.math.BigInteger
+import java.nio.charset.StandardCharsets
+import java.util
+
+import com.couchbase.client.scala.transformers.JacksonTransformers
+import com.github.plokhotnyuk.jsoniter_scala.core.{
+  JsonReader,
+  JsonValueCodec,
+  JsonWriter,
+  ReaderConfig
+}
+
+/** Jsoniter codecs for [[JsonObject]], [[JsonArray]] and their safe variants.
+  *
+  * They decode straight into the `java.util.HashMap` and `java.util.ArrayList` backing the objects, producing the same
+  * value types as the Jackson deserializers in `JacksonTransformers` (Int, Long or BigInteger for integers depending
+  * on their size, Double - or BigDecimal with `com.couchbase.json.decimalForFloat` - for fractions).  Values of types
+  * which are not natively supported are encoded with Jackson, as before.
+  *
+  * Like the rest of the jsoniter usage, this is an implementation detail and should not be relied upon.
+  */
+private[scala] object JsonValueCodecs {
+  private val DecimalForFloat = java.lang.Boolean.parseBoolean(
+    System.getProperty("com.couchbase.json.decimalForFloat", "false")
+  )
+
+  /** The maximum size of a document stored on Couchbase Server. */
+  private[scala] val MaxDocumentSize: Int = 20 * 1024 * 1024
+
+  /** The reader configuration to decode whole documents with.
+    *
+    * Any string which fits into a document must decode.  The char buffer of this jsoniter version
+    * grows without an upper bound, so no limit is set here; once it offers a `maxCharBufSize` (4M
+    * chars by default), it must be raised to [[MaxDocumentSize]].
+    */
+  private[scala] val DocumentReaderConfig: ReaderConfig = ReaderConfig.withCheckForEndOfInput(true)
+
+  implicit val jsonObjectCodec: JsonValueCodec[JsonObject] = new JsonValueCodec[JsonObject] {
+    override def decodeValue(in: JsonReader, default: JsonObject): JsonObject = {
+      if (in.isNextToken('{')) decodeObject(in)
+      else in.decodeError("expected '{'")
+    }
+
+    override def encodeValue(x: JsonObject, out: JsonWriter): Unit = encodeObject(x, out)
+
+    override def nullValue: JsonObject = null
+  }
+
+  implicit val jsonArrayCodec: JsonValueCodec[JsonArray] = new JsonValueCodec[JsonArray] {
+    override def decodeValue(in: JsonReader, default: JsonArray): JsonArray = {
+      if (in.isNextToken('[')) decodeArray(in)
+      else in.decodeError("expected '['")
+    }
+
+    override def encodeValue(x: JsonArray, out: JsonWriter): Unit = encodeArray(x, out)
+
+    override def nullValue: JsonArray = null
+  }
+
+  implicit val jsonObjectSafeCodec: JsonValueCodec[JsonObjectSafe] =
+    new JsonValueCodec[JsonObjectSafe] {
+      override def decodeValue(in: JsonReader, default: JsonObjectSafe): JsonObjectSafe =
+        JsonObjectSafe(jsonObjectCodec.decodeValue(in, null))
+
+      override def encodeValue(x: JsonObjectSafe, out: JsonWriter): Unit = encodeObject(x.o, out)
+
+      override def nullValue: JsonObjectSafe = null
+    }
+
+  implicit val jsonArraySafeCodec: JsonValueCodec[JsonArraySafe] =
+    new JsonValueCodec[JsonArraySafe] {
+      override def decodeValue(in: JsonReader, default: JsonArraySafe): JsonArraySafe =
+        JsonArraySafe(jsonArrayCodec.decodeValue(in, null))
+
+      override def encodeValue(x: JsonArraySafe, out: JsonWriter): Unit = encodeArray(x.a, out)
+
+      override def nullValue: JsonArraySafe = null
+    }
+
+  /** Decodes the fields of an object, after its opening brace has been read. */
+  private def decodeObject(in: JsonReader): JsonObject = {
+    val content = new util.HashMap[String, Any]()
+    if (!in.isNextToken('}')) {
+      in.rollbackToken()
+      do {
+        val name = in.readKeyAsString()
+        content.put(name, decodeValue(in))
+      } while (in.isNextToken(','))
+      if (!in.isCurrentToken('}')) in.objectEndOrCommaError()
+    }
+    new JsonObject(content)
+  }
+
+  /** Decodes the values of an array, after its opening bracket has been read. */
+  private def decodeArray(in: JsonReader): JsonArray = {
+    val values = new util.ArrayList[Any]()
+    if (!in.isNextToken(']')) {
+      in.rollbackToken()
+      do {
+        values.add(decodeValue(in))
+      } while (in.isNextToken(','))
+      if (!in.isCurrentToken(']')) in.arrayEndOrCommaError()
+    }
+    new JsonArray(values)
+  }
+
+  private def decodeValue(in: JsonReader): Any = {
+    in.nextToken() match {
+      case '"' =>
+        in.rollbackToken()
+        in.readString(null)
+      case '{' => decodeObject(in)
+      case '[' => decodeArray(in)
+      case 't' | 'f' =>
+        in.rollbackToken()
+        in.readBoolean()
+      case 'n' => in.readNullOrError(null, "expected value")
+      case _ =>
+        in.rollbackToken()
+        decodeNumber(in)
+    }
+  }
+
+  /** Numbers are decoded from their raw bytes, integers into the smallest fitting type. */
+  private def decodeNumber(in: JsonReader): Any = {
+    val raw = in.readRawValAsBytes()
+    validateNumber(in, raw)
+    if (isFraction(raw)) {
+      val text = new String(raw, StandardCharsets.US_ASCII)
+      if (DecimalForFloat) new java.math.BigDecimal(text)
+      else java.lang.Double.parseDouble(text)
+    } else {
+      decodeInteger(raw)
+    }
+  }
+
+  /** Checks the raw bytes against the JSON number grammar,
+    * `-?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?`.
+    */
+  private def validateNumber(in: JsonReader, raw: Array[Byte]): Unit = {
+    var i = 0
+    if (i < raw.length && raw(i) == '-') i += 1
+    if (i < raw.length && raw(i) == '0') i += 1
+    else i = skipDigits(in, raw, i)
+    if (i < raw.length && raw(i) == '.') i = skipDigits(in, raw, i + 1)
+    if (i < raw.length && (raw(i) == 'e' || raw(i) == 'E')) {
+      i += 1
+      if (i < raw.length && (raw(i) == '+' || raw(i) == '-')) i += 1
+      i = skipDigits(in, raw, i)
+    }
+    if (i != raw.length) in.decodeError("illegal number")
+  }
+
+  /** Skips one or more digits, returning the index after the last one. */
+  private def skipDigits(in: JsonReader, raw: Array[Byte], start: Int): Int = {
+    var i = start
+    while (i < raw.length && raw(i) >= '0' && raw(i) <= '9') i += 1
+    if (i == start) in.decodeError("illegal number")
+    i
+  }
+
+  private def isFraction(raw: Array[Byte]): Boolean = {
+    var i = 0
+    while (i < raw.length) {
+      val b = raw(i)
+      if (b == '.' || b == 'e' || b == 'E') return true
+      i += 1
+    }
+    false
+  }
+
+  /** Decodes an integer from its raw bytes, which have been validated by [[validateNumber]]. */
+  private def decodeInteger(raw: Array[Byte]): Any = {
+    val start  = if (raw(0) == '-') 1 else 0
+    val digits = raw.length - start
+
+    if (digits <= 18) {
+      var value = 0L
+      var i     = start
+      while (i < raw.length) {
+        value = value * 10 + (raw(i) - '0')
+        i += 1
+      }
+      if (start == 1) value = -value
+      // ascribed to Any, as Int would otherwise be widened to Long
+      if (value == value.toInt) (value.toInt: Any) else value
+    } else {
+      val value = new BigInteger(new String(raw, StandardCharsets.US_ASCII))
+      if (value.bitLength < 64) value.longValue else value
+    }
+  }
+
+  private def encodeObject(x: JsonObject, out: JsonWriter): Unit = {
+    out.writeObjectStart()
+    val it = x.content.entrySet.iterator
+    while (it.hasNext) {
+      val field = it.next()
+      out.writeKey(field.getKey)
+      encodeValue(field.getValue, out)
+    }
+    out.writeObjectEnd()
+  }
+
+  private def encodeArray(x: JsonArray, out: JsonWriter): Unit = {
+    out.writeArrayStart()
+    val it = x.values.iterator
+    while (it.hasNext) {
+      encodeValue(it.next(), out)
+    }
+    out.writeArrayEnd()
+  }
+
+  private def encodeValue(value: Any, out: JsonWriter): Unit = {
+    value match {
+      case null                    => out.writeNull()
+      case v: String               => out.writeVal(v)
+      case v: Int                  => out.writeVal(v)
+      case v: Long                 => out.writeVal(v)
+      case v: Double               => out.writeVal(v)
+      case v: Boolean              => out.writeVal(v)
+      case v: JsonObject           => encodeObject(v, out)
+      case v: JsonArray            => encodeArray(v, out)
+      case v: JsonObjectSafe       => encodeObject(v.o, out)
+      case v: JsonArraySafe        => encodeArray(v.a, out)
+      case v: Float                => out.writeVal(v)
+      case v: Short                => out.writeVal(v)
+      case v: Byte                 => out.writeVal(v)
+      case v: BigInteger           => out.writeVal(BigInt(v))
+      case v: java.math.BigDecimal => out.writeVal(BigDecimal(v))
+      case v: BigInt               => out.writeVal(v)
+      case v: BigDecimal           => out.writeVal(v)
+      case v =>
+        out.writeRawVal(JacksonTransformers.MAPPER.writeValueAsBytes(v))
+    }
+  }
+}
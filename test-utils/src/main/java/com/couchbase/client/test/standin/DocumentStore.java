@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds all documents of the stand-in bucket, shared across all nodes.
+ * <p>
+ * Since the store is shared, a failover or vbucket move does not lose data.
+ */
+class DocumentStore {
+
+  private final ConcurrentMap<Key, Document> documents = new ConcurrentHashMap<>();
+  private final AtomicLong cas = new AtomicLong(System.currentTimeMillis() * 1000000);
+
+  Document get(final int collectionId, final byte[] key) {
+    return documents.get(new Key(collectionId, key));
+  }
+
+  ConcurrentMap<Key, Document> documents() {
+    return documents;
+  }
+
+  long nextCas() {
+    return cas.incrementAndGet();
+  }
+
+  int size() {
+    return documents.size();
+  }
+
+  void clear() {
+    documents.clear();
+  }
+
+  static class Key {
+
+    private final int collectionId;
+    private final byte[] key;
+    private final int hash;
+
+    Key(final int collectionId, final byte[] key) {
+      this.collectionId = collectionId;
+      this.key = key;
+      this.hash = 31 * collectionId + Arrays.hashCode(key);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key other = (Key) o;
+      return collectionId == other.collectionId && Arrays.equals(key, other.key);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  static class Document {
+
+    final byte[] value;
+    final int flags;
+    final byte datatype;
+    final long cas;
+
+    Document(final byte[] value, final int flags, final byte datatype, final long cas) {
+      this.value = value;
+      this.flags = flags;
+      this.datatype = datatype;
+      this.cas = cas;
+    }
+  }
+
+}
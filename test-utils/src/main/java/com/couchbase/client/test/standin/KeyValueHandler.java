@@ -0,0 +1,464 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+import com.couchbase.client.core.deps.io.netty.buffer.ByteBuf;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.SimpleChannelInboundHandler;
+import com.couchbase.client.test.standin.DocumentStore.Document;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.couchbase.client.test.standin.Protocol.DATATYPE_JSON;
+import static com.couchbase.client.test.standin.Protocol.DATATYPE_RAW;
+import static com.couchbase.client.test.standin.Protocol.FEATURE_COLLECTIONS;
+import static com.couchbase.client.test.standin.Protocol.FEATURE_JSON;
+import static com.couchbase.client.test.standin.Protocol.FEATURE_SELECT_BUCKET;
+import static com.couchbase.client.test.standin.Protocol.FEATURE_TCPNODELAY;
+import static com.couchbase.client.test.standin.Protocol.FEATURE_XERROR;
+import static com.couchbase.client.test.standin.Protocol.FLAGS_JSON;
+import static com.couchbase.client.test.standin.Protocol.HEADER_SIZE;
+import static com.couchbase.client.test.standin.Protocol.MAGIC_FLEXIBLE_REQUEST;
+import static com.couchbase.client.test.standin.Protocol.MAGIC_RESPONSE;
+import static com.couchbase.client.test.standin.Protocol.OP_ADD;
+import static com.couchbase.client.test.standin.Protocol.OP_COLLECTIONS_GET_CID;
+import static com.couchbase.client.test.standin.Protocol.OP_COLLECTIONS_GET_MANIFEST;
+import static com.couchbase.client.test.standin.Protocol.OP_DELETE;
+import static com.couchbase.client.test.standin.Protocol.OP_ERROR_MAP;
+import static com.couchbase.client.test.standin.Protocol.OP_GET;
+import static com.couchbase.client.test.standin.Protocol.OP_GET_CONFIG;
+import static com.couchbase.client.test.standin.Protocol.OP_HELLO;
+import static com.couchbase.client.test.standin.Protocol.OP_NOOP;
+import static com.couchbase.client.test.standin.Protocol.OP_REPLACE;
+import static com.couchbase.client.test.standin.Protocol.OP_SASL_AUTH;
+import static com.couchbase.client.test.standin.Protocol.OP_SASL_LIST_MECHS;
+import static com.couchbase.client.test.standin.Protocol.OP_SASL_STEP;
+import static com.couchbase.client.test.standin.Protocol.OP_SELECT_BUCKET;
+import static com.couchbase.client.test.standin.Protocol.OP_SET;
+import static com.couchbase.client.test.standin.Protocol.OP_SUBDOC_MULTI_LOOKUP;
+import static com.couchbase.client.test.standin.Protocol.OP_SUBDOC_MULTI_MUTATE;
+import static com.couchbase.client.test.standin.Protocol.STATUS_ACCESS_ERROR;
+import static com.couchbase.client.test.standin.Protocol.STATUS_AUTH_CONTINUE;
+import static com.couchbase.client.test.standin.Protocol.STATUS_AUTH_ERROR;
+import static com.couchbase.client.test.standin.Protocol.STATUS_EXISTS;
+import static com.couchbase.client.test.standin.Protocol.STATUS_INVALID_REQUEST;
+import static com.couchbase.client.test.standin.Protocol.STATUS_NOT_FOUND;
+import static com.couchbase.client.test.standin.Protocol.STATUS_NOT_MY_VBUCKET;
+import static com.couchbase.client.test.standin.Protocol.STATUS_NO_BUCKET;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUCCESS;
+import static com.couchbase.client.test.standin.Protocol.STATUS_UNKNOWN_COLLECTION;
+import static com.couchbase.client.test.standin.Protocol.STATUS_UNKNOWN_COMMAND;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_DOC_FLAG_ADD;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_DOC_FLAG_MKDOC;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Handles the memcached binary protocol for one client connection of a {@link StandInNode}.
+ * <p>
+ * Responses are flushed once per read batch (or, with latency configured, scheduled on the event loop), so that
+ * pipelined requests from the client are answered with as few syscalls as possible.
+ */
+class KeyValueHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private final StandInCluster cluster;
+  private final StandInNode node;
+  private final DocumentStore store;
+
+  private boolean collections;
+  private boolean json;
+  private boolean authenticated;
+  private boolean bucketSelected;
+  private SaslServer saslServer;
+
+  KeyValueHandler(final StandInCluster cluster, final StandInNode node) {
+    this.cluster = cluster;
+    this.node = node;
+    this.store = cluster.store();
+  }
+
+  @Override
+  protected void channelRead0(final ChannelHandlerContext ctx, final ByteBuf msg) throws Exception {
+    Request request = new Request(msg);
+    switch (request.opcode) {
+      case OP_HELLO:
+        handleHello(ctx, request);
+        break;
+      case OP_ERROR_MAP:
+        respond(ctx, request, STATUS_SUCCESS, 0, DATATYPE_JSON, EMPTY, cluster.errorMap());
+        break;
+      case OP_SASL_LIST_MECHS:
+        respond(ctx, request, STATUS_SUCCESS, SaslServer.MECHANISMS.getBytes(UTF_8));
+        break;
+      case OP_SASL_AUTH:
+      case OP_SASL_STEP:
+        handleSasl(ctx, request);
+        break;
+      case OP_SELECT_BUCKET:
+        handleSelectBucket(ctx, request);
+        break;
+      case OP_GET_CONFIG:
+        byte[] config = bucketSelected ? cluster.bucketConfig(node) : cluster.globalConfig(node);
+        respond(ctx, request, STATUS_SUCCESS, 0, DATATYPE_JSON, EMPTY, config);
+        break;
+      case OP_COLLECTIONS_GET_MANIFEST:
+        respond(ctx, request, STATUS_SUCCESS, 0, DATATYPE_JSON, EMPTY, cluster.manifest());
+        break;
+      case OP_COLLECTIONS_GET_CID:
+        handleGetCollectionId(ctx, request);
+        break;
+      case OP_NOOP:
+        respond(ctx, request, STATUS_SUCCESS, EMPTY);
+        break;
+      case OP_GET:
+      case OP_SET:
+      case OP_ADD:
+      case OP_REPLACE:
+      case OP_DELETE:
+      case OP_SUBDOC_MULTI_LOOKUP:
+      case OP_SUBDOC_MULTI_MUTATE:
+        handleDataOperation(ctx, request);
+        break;
+      default:
+        respond(ctx, request, STATUS_UNKNOWN_COMMAND, EMPTY);
+    }
+  }
+
+  @Override
+  public void channelReadComplete(final ChannelHandlerContext ctx) {
+    ctx.flush();
+  }
+
+  private void handleHello(final ChannelHandlerContext ctx, final Request request) {
+    ByteBuffer requested = ByteBuffer.wrap(request.value);
+    ByteBuffer accepted = ByteBuffer.allocate(request.value.length);
+    while (requested.remaining() >= 2) {
+      short feature = requested.getShort();
+      switch (feature) {
+        case FEATURE_COLLECTIONS:
+          collections = true;
+          accepted.putShort(feature);
+          break;
+        case FEATURE_JSON:
+          json = true;
+          accepted.putShort(feature);
+          break;
+        case FEATURE_TCPNODELAY:
+        case FEATURE_XERROR:
+        case FEATURE_SELECT_BUCKET:
+          accepted.putShort(feature);
+          break;
+        default:
+          break;
+      }
+    }
+    respond(ctx, request, STATUS_SUCCESS, Arrays.copyOf(accepted.array(), accepted.position()));
+  }
+
+  private void handleSasl(final ChannelHandlerContext ctx, final Request request) throws GeneralSecurityException {
+    byte[] challenge;
+    if (request.opcode == OP_SASL_AUTH) {
+      saslServer = cluster.saslServer();
+      challenge = saslServer.start(new String(request.key, UTF_8), request.value);
+    } else {
+      challenge = saslServer == null ? null : saslServer.step(request.value);
+    }
+
+    if (challenge == null) {
+      respond(ctx, request, STATUS_AUTH_ERROR, "Auth failure".getBytes(UTF_8));
+    } else if (request.opcode == OP_SASL_AUTH && challenge.length > 0) {
+      respond(ctx, request, STATUS_AUTH_CONTINUE, challenge);
+    } else {
+      authenticated = true;
+      saslServer = null;
+      respond(ctx, request, STATUS_SUCCESS, challenge);
+    }
+  }
+
+  private void handleSelectBucket(final ChannelHandlerContext ctx, final Request request) {
+    if (!authenticated) {
+      respond(ctx, request, STATUS_ACCESS_ERROR, EMPTY);
+    } else if (!cluster.bucketName().equals(new String(request.key, UTF_8))) {
+      respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+    } else {
+      bucketSelected = true;
+      respond(ctx, request, STATUS_SUCCESS, EMPTY);
+    }
+  }
+
+  private void handleGetCollectionId(final ChannelHandlerContext ctx, final Request request) {
+    String name = new String(request.key.length > 0 ? request.key : request.value, UTF_8);
+    if (name.startsWith(".")) {
+      name = "_default" + name;
+    }
+    Optional<Integer> collectionId = cluster.collectionId(name);
+    if (collectionId.isPresent()) {
+      byte[] extras = ByteBuffer.allocate(12).putLong(cluster.manifestUid()).putInt(collectionId.get()).array();
+      respond(ctx, request, STATUS_SUCCESS, 0, DATATYPE_RAW, extras, EMPTY);
+    } else {
+      respond(ctx, request, STATUS_UNKNOWN_COLLECTION, EMPTY);
+    }
+  }
+
+  private void handleDataOperation(final ChannelHandlerContext ctx, final Request request) {
+    if (!bucketSelected) {
+      respond(ctx, request, STATUS_NO_BUCKET, EMPTY);
+      return;
+    }
+    if (!cluster.acceptsDataOperation(node, request.partition)) {
+      respond(ctx, request, STATUS_NOT_MY_VBUCKET, 0, DATATYPE_JSON, EMPTY, cluster.bucketConfig(node));
+      return;
+    }
+
+    int collectionId = 0;
+    byte[] key = request.key;
+    if (collections) {
+      int shift = 0;
+      int i = 0;
+      byte b;
+      do {
+        if (i >= key.length) {
+          respond(ctx, request, STATUS_INVALID_REQUEST, EMPTY);
+          return;
+        }
+        b = key[i++];
+        collectionId |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      key = Arrays.copyOfRange(key, i, key.length);
+      if (!cluster.collectionExists(collectionId)) {
+        respond(ctx, request, STATUS_UNKNOWN_COLLECTION, EMPTY);
+        return;
+      }
+    }
+    DocumentStore.Key documentKey = new DocumentStore.Key(collectionId, key);
+
+    switch (request.opcode) {
+      case OP_GET:
+        handleGet(ctx, request, documentKey);
+        break;
+      case OP_DELETE:
+        handleDelete(ctx, request, documentKey);
+        break;
+      case OP_SUBDOC_MULTI_LOOKUP:
+        handleLookupIn(ctx, request, documentKey);
+        break;
+      case OP_SUBDOC_MULTI_MUTATE:
+        handleMutateIn(ctx, request, documentKey);
+        break;
+      default:
+        handleStore(ctx, request, documentKey);
+    }
+  }
+
+  private void handleGet(final ChannelHandlerContext ctx, final Request request, final DocumentStore.Key key) {
+    Document document = store.documents().get(key);
+    if (document == null) {
+      respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+    } else {
+      byte[] extras = ByteBuffer.allocate(4).putInt(document.flags).array();
+      respond(ctx, request, STATUS_SUCCESS, document.cas, datatype(document), extras, document.value);
+    }
+  }
+
+  private void handleStore(final ChannelHandlerContext ctx, final Request request, final DocumentStore.Key key) {
+    int flags = request.extras.length >= 4 ? ByteBuffer.wrap(request.extras).getInt() : 0;
+    ConcurrentMap<DocumentStore.Key, Document> documents = store.documents();
+    while (true) {
+      Document existing = documents.get(key);
+      if (request.opcode == OP_ADD && existing != null) {
+        respond(ctx, request, STATUS_EXISTS, EMPTY);
+        return;
+      }
+      if ((request.opcode == OP_REPLACE || request.cas != 0) && existing == null) {
+        respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+        return;
+      }
+      if (request.cas != 0 && existing.cas != request.cas) {
+        respond(ctx, request, STATUS_EXISTS, EMPTY);
+        return;
+      }
+      Document updated = new Document(request.value, flags, request.datatype, store.nextCas());
+      if (existing == null ? documents.putIfAbsent(key, updated) == null : documents.replace(key, existing, updated)) {
+        respond(ctx, request, STATUS_SUCCESS, updated.cas, DATATYPE_RAW, EMPTY, EMPTY);
+        return;
+      }
+    }
+  }
+
+  private void handleDelete(final ChannelHandlerContext ctx, final Request request, final DocumentStore.Key key) {
+    ConcurrentMap<DocumentStore.Key, Document> documents = store.documents();
+    while (true) {
+      Document existing = documents.get(key);
+      if (existing == null) {
+        respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+        return;
+      }
+      if (request.cas != 0 && existing.cas != request.cas) {
+        respond(ctx, request, STATUS_EXISTS, EMPTY);
+        return;
+      }
+      if (documents.remove(key, existing)) {
+        respond(ctx, request, STATUS_SUCCESS, store.nextCas(), DATATYPE_RAW, EMPTY, EMPTY);
+        return;
+      }
+    }
+  }
+
+  private void handleLookupIn(final ChannelHandlerContext ctx, final Request request, final DocumentStore.Key key) {
+    Document document = store.documents().get(key);
+    if (document == null) {
+      respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+      return;
+    }
+    Subdoc.Result result = Subdoc.lookup(document.value, ByteBuffer.wrap(request.value));
+    respond(ctx, request, result.status, document.cas, DATATYPE_RAW, EMPTY, result.body);
+  }
+
+  private void handleMutateIn(final ChannelHandlerContext ctx, final Request request, final DocumentStore.Key key) {
+    byte docFlags = 0;
+    if (request.extras.length == 1 || request.extras.length == 5) {
+      docFlags = request.extras[request.extras.length - 1];
+    }
+    boolean insert = (docFlags & SUBDOC_DOC_FLAG_ADD) != 0;
+    boolean upsert = (docFlags & SUBDOC_DOC_FLAG_MKDOC) != 0;
+
+    ConcurrentMap<DocumentStore.Key, Document> documents = store.documents();
+    while (true) {
+      Document existing = documents.get(key);
+      if (insert && existing != null) {
+        respond(ctx, request, STATUS_EXISTS, EMPTY);
+        return;
+      }
+      if (existing == null && !insert && !upsert) {
+        respond(ctx, request, STATUS_NOT_FOUND, EMPTY);
+        return;
+      }
+      if (request.cas != 0 && (existing == null || existing.cas != request.cas)) {
+        respond(ctx, request, existing == null ? STATUS_NOT_FOUND : STATUS_EXISTS, EMPTY);
+        return;
+      }
+
+      Subdoc.Result result = Subdoc.mutate(existing == null ? null : existing.value, ByteBuffer.wrap(request.value));
+      if (result.status != STATUS_SUCCESS) {
+        respond(ctx, request, result.status, 0, DATATYPE_RAW, EMPTY, result.body);
+        return;
+      }
+
+      long cas = store.nextCas();
+      boolean applied;
+      if (result.document == null) {
+        applied = existing == null || documents.remove(key, existing);
+      } else {
+        Document updated = new Document(
+          result.document,
+          existing == null ? FLAGS_JSON : existing.flags,
+          DATATYPE_JSON,
+          cas
+        );
+        applied = existing == null
+          ? documents.putIfAbsent(key, updated) == null
+          : documents.replace(key, existing, updated);
+      }
+      if (applied) {
+        respond(ctx, request, STATUS_SUCCESS, cas, DATATYPE_RAW, EMPTY, result.body);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Only returns the JSON datatype if the client negotiated it.
+   */
+  private byte datatype(final Document document) {
+    return json ? (byte) (document.datatype & DATATYPE_JSON) : DATATYPE_RAW;
+  }
+
+  private void respond(final ChannelHandlerContext ctx, final Request request, final short status,
+                       final byte[] value) {
+    respond(ctx, request, status, 0, DATATYPE_RAW, EMPTY, value);
+  }
+
+  private void respond(final ChannelHandlerContext ctx, final Request request, final short status, final long cas,
+                       final byte datatype, final byte[] extras, final byte[] value) {
+    ByteBuf response = ctx.alloc().buffer(HEADER_SIZE + extras.length + value.length);
+    response
+      .writeByte(MAGIC_RESPONSE)
+      .writeByte(request.opcode)
+      .writeShort(0)
+      .writeByte(extras.length)
+      .writeByte(datatype)
+      .writeShort(status)
+      .writeInt(extras.length + value.length)
+      .writeInt(request.opaque)
+      .writeLong(cas)
+      .writeBytes(extras)
+      .writeBytes(value);
+
+    long latency = cluster.latencyNanos();
+    if (latency > 0) {
+      ctx.executor().schedule(() -> ctx.writeAndFlush(response), latency, TimeUnit.NANOSECONDS);
+    } else {
+      ctx.write(response);
+    }
+  }
+
+  /**
+   * A decoded request frame.
+   */
+  private static class Request {
+
+    final byte opcode;
+    final byte datatype;
+    final int partition;
+    final int opaque;
+    final long cas;
+    final byte[] extras;
+    final byte[] key;
+    final byte[] value;
+
+    Request(final ByteBuf frame) {
+      byte magic = frame.getByte(0);
+      opcode = frame.getByte(1);
+      int framingExtrasLength = magic == MAGIC_FLEXIBLE_REQUEST ? frame.getUnsignedByte(2) : 0;
+      int keyLength = magic == MAGIC_FLEXIBLE_REQUEST ? frame.getUnsignedByte(3) : frame.getUnsignedShort(2);
+      int extrasLength = frame.getUnsignedByte(4);
+      datatype = frame.getByte(5);
+      partition = frame.getUnsignedShort(6);
+      int bodyLength = frame.getInt(8);
+      opaque = frame.getInt(12);
+      cas = frame.getLong(16);
+
+      int offset = HEADER_SIZE + framingExtrasLength;
+      extras = new byte[extrasLength];
+      frame.getBytes(offset, extras);
+      offset += extrasLength;
+      key = new byte[keyLength];
+      frame.getBytes(offset, key);
+      offset += keyLength;
+      value = new byte[bodyLength - framingExtrasLength - extrasLength - keyLength];
+      frame.getBytes(offset, value);
+    }
+  }
+
+}
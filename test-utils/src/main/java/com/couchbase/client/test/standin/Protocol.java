@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+/**
+ * Constants of the memcached binary protocol which are understood by the stand-in server.
+ */
+final class Protocol {
+
+  static final int HEADER_SIZE = 24;
+
+  static final byte MAGIC_REQUEST = (byte) 0x80;
+  static final byte MAGIC_FLEXIBLE_REQUEST = (byte) 0x08;
+  static final byte MAGIC_RESPONSE = (byte) 0x81;
+
+  static final byte DATATYPE_RAW = 0x00;
+  static final byte DATATYPE_JSON = 0x01;
+
+  /**
+   * The "common flags" the SDKs use to mark a JSON document.
+   */
+  static final int FLAGS_JSON = 0x02000000;
+
+  static final byte OP_GET = 0x00;
+  static final byte OP_SET = 0x01;
+  static final byte OP_ADD = 0x02;
+  static final byte OP_REPLACE = 0x03;
+  static final byte OP_DELETE = 0x04;
+  static final byte OP_NOOP = 0x0a;
+  static final byte OP_HELLO = 0x1f;
+  static final byte OP_SASL_LIST_MECHS = 0x20;
+  static final byte OP_SASL_AUTH = 0x21;
+  static final byte OP_SASL_STEP = 0x22;
+  static final byte OP_SELECT_BUCKET = (byte) 0x89;
+  static final byte OP_GET_CONFIG = (byte) 0xb5;
+  static final byte OP_COLLECTIONS_GET_MANIFEST = (byte) 0xba;
+  static final byte OP_COLLECTIONS_GET_CID = (byte) 0xbb;
+  static final byte OP_SUBDOC_MULTI_LOOKUP = (byte) 0xd0;
+  static final byte OP_SUBDOC_MULTI_MUTATE = (byte) 0xd1;
+  static final byte OP_ERROR_MAP = (byte) 0xfe;
+
+  static final byte SUBDOC_GET = (byte) 0xc5;
+  static final byte SUBDOC_EXISTS = (byte) 0xc6;
+  static final byte SUBDOC_DICT_ADD = (byte) 0xc7;
+  static final byte SUBDOC_DICT_UPSERT = (byte) 0xc8;
+  static final byte SUBDOC_DELETE = (byte) 0xc9;
+  static final byte SUBDOC_REPLACE = (byte) 0xca;
+  static final byte SUBDOC_ARRAY_PUSH_LAST = (byte) 0xcb;
+  static final byte SUBDOC_ARRAY_PUSH_FIRST = (byte) 0xcc;
+  static final byte SUBDOC_COUNTER = (byte) 0xcf;
+  static final byte SUBDOC_GET_COUNT = (byte) 0xd2;
+
+  static final byte SUBDOC_PATH_FLAG_MKDIR_P = 0x01;
+  static final byte SUBDOC_PATH_FLAG_XATTR = 0x04;
+
+  static final byte SUBDOC_DOC_FLAG_MKDOC = 0x01;
+  static final byte SUBDOC_DOC_FLAG_ADD = 0x02;
+
+  static final short STATUS_SUCCESS = 0x00;
+  static final short STATUS_NOT_FOUND = 0x01;
+  static final short STATUS_EXISTS = 0x02;
+  static final short STATUS_INVALID_REQUEST = 0x04;
+  static final short STATUS_NOT_MY_VBUCKET = 0x07;
+  static final short STATUS_NO_BUCKET = 0x08;
+  static final short STATUS_AUTH_ERROR = 0x20;
+  static final short STATUS_AUTH_CONTINUE = 0x21;
+  static final short STATUS_ACCESS_ERROR = 0x24;
+  static final short STATUS_UNKNOWN_COMMAND = 0x81;
+  static final short STATUS_NOT_SUPPORTED = 0x83;
+  static final short STATUS_UNKNOWN_COLLECTION = 0x88;
+  static final short STATUS_SUBDOC_PATH_NOT_FOUND = 0xc0;
+  static final short STATUS_SUBDOC_PATH_MISMATCH = 0xc1;
+  static final short STATUS_SUBDOC_PATH_INVALID = 0xc2;
+  static final short STATUS_SUBDOC_DOC_NOT_JSON = 0xc6;
+  static final short STATUS_SUBDOC_DELTA_RANGE = 0xc8;
+  static final short STATUS_SUBDOC_PATH_EXISTS = 0xc9;
+  static final short STATUS_SUBDOC_MULTI_PATH_FAILURE = 0xcc;
+
+  static final short FEATURE_TCPNODELAY = 0x03;
+  static final short FEATURE_XERROR = 0x07;
+  static final short FEATURE_SELECT_BUCKET = 0x08;
+  static final short FEATURE_JSON = 0x0b;
+  static final short FEATURE_COLLECTIONS = 0x12;
+
+  private Protocol() {
+  }
+
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Server side of the PLAIN and SCRAM-SHA* SASL mechanisms, one instance per connection.
+ */
+class SaslServer {
+
+  static final String MECHANISMS = "SCRAM-SHA512 SCRAM-SHA256 SCRAM-SHA1 PLAIN";
+
+  private static final int ITERATIONS = 4096;
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final String username;
+  private final String password;
+
+  private String hash;
+  private String clientFirstMessageBare;
+  private String serverFirstMessage;
+  private byte[] saltedPassword;
+
+  SaslServer(final String username, final String password) {
+    this.username = username;
+    this.password = password;
+  }
+
+  /**
+   * Handles the SASL_AUTH command.
+   *
+   * @return the challenge to send back for SCRAM, an empty array if PLAIN succeeded or null if authentication failed.
+   */
+  byte[] start(final String mechanism, final byte[] payload) throws GeneralSecurityException {
+    if ("PLAIN".equals(mechanism)) {
+      String[] parts = new String(payload, UTF_8).split("\u0000", -1);
+      return parts.length == 3 && username.equals(parts[1]) && password.equals(parts[2]) ? new byte[0] : null;
+    }
+    if (!mechanism.startsWith("SCRAM-SHA")) {
+      return null;
+    }
+
+    hash = mechanism.substring("SCRAM-".length());
+    String clientFirstMessage = new String(payload, UTF_8);
+    if (!clientFirstMessage.startsWith("n,,")) {
+      return null;
+    }
+    clientFirstMessageBare = clientFirstMessage.substring(3);
+    Map<String, String> attributes = decodeAttributes(clientFirstMessageBare);
+    if (!username.equals(attributes.get("n")) || !attributes.containsKey("r")) {
+      return null;
+    }
+
+    byte[] salt = new byte[16];
+    byte[] serverNonce = new byte[18];
+    RANDOM.nextBytes(salt);
+    RANDOM.nextBytes(serverNonce);
+    saltedPassword = pbkdf2(salt);
+    serverFirstMessage = "r=" + attributes.get("r") + Base64.getEncoder().encodeToString(serverNonce)
+      + ",s=" + Base64.getEncoder().encodeToString(salt) + ",i=" + ITERATIONS;
+    return serverFirstMessage.getBytes(UTF_8);
+  }
+
+  /**
+   * Handles the SASL_STEP command of a SCRAM exchange.
+   *
+   * @return the server final message if the proof is valid, null otherwise.
+   */
+  byte[] step(final byte[] payload) throws GeneralSecurityException {
+    if (serverFirstMessage == null) {
+      return null;
+    }
+    String clientFinalMessage = new String(payload, UTF_8);
+    int proofStart = clientFinalMessage.lastIndexOf(",p=");
+    if (proofStart < 0) {
+      return null;
+    }
+    String clientFinalMessageNoProof = clientFinalMessage.substring(0, proofStart);
+    byte[] proof = Base64.getDecoder().decode(clientFinalMessage.substring(proofStart + 3));
+    byte[] authMessage = (clientFirstMessageBare + "," + serverFirstMessage + "," + clientFinalMessageNoProof)
+      .getBytes(UTF_8);
+
+    byte[] storedKey = MessageDigest
+      .getInstance(hash.replace("SHA", "SHA-"))
+      .digest(hmac(saltedPassword, "Client Key".getBytes(UTF_8)));
+    byte[] clientSignature = hmac(storedKey, authMessage);
+    if (proof.length != clientSignature.length) {
+      return null;
+    }
+    byte[] clientKey = new byte[proof.length];
+    for (int i = 0; i < proof.length; i++) {
+      clientKey[i] = (byte) (proof[i] ^ clientSignature[i]);
+    }
+    if (!MessageDigest.isEqual(storedKey, MessageDigest.getInstance(hash.replace("SHA", "SHA-")).digest(clientKey))) {
+      return null;
+    }
+
+    byte[] serverSignature = hmac(hmac(saltedPassword, "Server Key".getBytes(UTF_8)), authMessage);
+    return ("v=" + Base64.getEncoder().encodeToString(serverSignature)).getBytes(UTF_8);
+  }
+
+  private byte[] pbkdf2(final byte[] salt) throws GeneralSecurityException {
+    int keyLength = MessageDigest.getInstance(hash.replace("SHA", "SHA-")).getDigestLength() * 8;
+    PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, ITERATIONS, keyLength);
+    return SecretKeyFactory.getInstance("PBKDF2WithHmac" + hash).generateSecret(spec).getEncoded();
+  }
+
+  private byte[] hmac(final byte[] key, final byte[] data) throws GeneralSecurityException {
+    Mac mac = Mac.getInstance("Hmac" + hash);
+    mac.init(new SecretKeySpec(key, mac.getAlgorithm()));
+    return mac.doFinal(data);
+  }
+
+  private static Map<String, String> decodeAttributes(final String message) {
+    Map<String, String> attributes = new HashMap<>();
+    for (String attribute : message.split(",")) {
+      int idx = attribute.indexOf('=');
+      if (idx > 0) {
+        attributes.put(attribute.substring(0, idx), attribute.substring(idx + 1));
+      }
+    }
+    return attributes;
+  }
+
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+// CHECKSTYLE:OFF IllegalImport - Allow unbundled Jackson
+
+import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.nio.NioEventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.DefaultThreadFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An in-process stand-in for a couchbase bucket which speaks the memcached binary protocol.
+ * <p>
+ * Unlike the CouchbaseMock this server is built for throughput, so it can be used to load test and benchmark the
+ * KV path of the client without a real cluster or containers. It serves a synthetic cluster map across several
+ * nodes (each listening on its own port) and supports the bootstrap commands (HELLO, error map, SASL PLAIN and
+ * SCRAM-SHA*, select bucket, cluster config), get/upsert/insert/replace/remove, subdocument lookups and mutations
+ * and collections.
+ * <p>
+ * To exercise the locator and retry paths, artificial latency can be added to every response, "not my vbucket"
+ * responses can be injected and nodes can be failed over, which rebalances their partitions to the remaining
+ * nodes and publishes a new cluster map revision.
+ * <p>
+ * Expiry, locking, durability and extended attributes are not supported, documents of all nodes are kept in
+ * one shared store.
+ */
+public class StandInCluster implements Closeable {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String ERROR_MAP = "{\"version\":1,\"revision\":1,\"errors\":{}}";
+
+  private final String host;
+  private final String bucketName;
+  private final String username;
+  private final String password;
+  private final String bucketUuid;
+  private final int numPartitions;
+  private final Map<String, Integer> collectionIds;
+  private final long manifestUid;
+  private final byte[] manifest;
+  private final DocumentStore store = new DocumentStore();
+  private final AtomicInteger pendingNotMyVbucket = new AtomicInteger();
+  private final EventLoopGroup eventLoopGroup;
+  private final List<StandInNode> nodes;
+
+  private volatile Topology topology;
+  private volatile long latencyNanos;
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  private StandInCluster(final Builder builder) {
+    host = builder.host;
+    bucketName = builder.bucketName;
+    username = builder.username;
+    password = builder.password;
+    bucketUuid = UUID.randomUUID().toString().replace("-", "");
+    numPartitions = builder.numPartitions;
+    latencyNanos = builder.latency.toNanos();
+    collectionIds = Collections.unmodifiableMap(new LinkedHashMap<>(builder.collectionIds));
+    manifestUid = collectionIds.size();
+    manifest = encodeManifest();
+
+    eventLoopGroup = new NioEventLoopGroup(builder.eventLoopThreads, new DefaultThreadFactory("cb-stand-in", true));
+    List<StandInNode> nodes = new ArrayList<>(builder.numNodes);
+    for (int i = 0; i < builder.numNodes; i++) {
+      nodes.add(new StandInNode(this, i, host, eventLoopGroup));
+    }
+    this.nodes = Collections.unmodifiableList(nodes);
+
+    int[] owners = new int[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      owners[i] = i % nodes.size();
+    }
+    topology = new Topology(1, this.nodes, owners);
+  }
+
+  /**
+   * Returns a connection string which contains the KV port of every node.
+   */
+  public String connectionString() {
+    return nodes
+      .stream()
+      .map(n -> host + ":" + n.kvPort() + "=kv")
+      .collect(Collectors.joining(",", "couchbase://", ""));
+  }
+
+  public String host() {
+    return host;
+  }
+
+  public String bucketName() {
+    return bucketName;
+  }
+
+  public String username() {
+    return username;
+  }
+
+  public String password() {
+    return password;
+  }
+
+  public int numNodes() {
+    return nodes.size();
+  }
+
+  public int numPartitions() {
+    return numPartitions;
+  }
+
+  public int kvPort(final int node) {
+    return nodes.get(node).kvPort();
+  }
+
+  public int managerPort(final int node) {
+    return nodes.get(node).managerPort();
+  }
+
+  /**
+   * Returns the revision of the current cluster map.
+   */
+  public long revision() {
+    return topology.revision;
+  }
+
+  /**
+   * Returns the number of documents currently stored.
+   */
+  public int size() {
+    return store.size();
+  }
+
+  /**
+   * Removes all documents.
+   */
+  public void flush() {
+    store.clear();
+  }
+
+  /**
+   * Sets the latency which is added to every response from now on.
+   *
+   * @param latency the latency, zero to disable.
+   */
+  public void latency(final Duration latency) {
+    latencyNanos = latency.toNanos();
+  }
+
+  /**
+   * Makes the next data operations (on any node) fail with "not my vbucket", independent of the partition.
+   *
+   * @param responses the number of responses which should be turned into "not my vbucket".
+   */
+  public void injectNotMyVbucket(final int responses) {
+    pendingNotMyVbucket.addAndGet(responses);
+  }
+
+  /**
+   * Fails over the given node: its partitions are moved to the remaining nodes, it is removed from the cluster map
+   * and the revision is increased.
+   * <p>
+   * The node itself keeps running, but answers every data operation with "not my vbucket" and the new cluster map
+   * so that clients pick up the change just like with a real failover.
+   *
+   * @param node the index of the node to fail over.
+   */
+  public synchronized void failover(final int node) {
+    Topology current = topology;
+    StandInNode failed = nodes.get(node);
+    if (!current.activeNodes.contains(failed)) {
+      return;
+    }
+    if (current.activeNodes.size() == 1) {
+      throw new IllegalStateException("The last active node cannot be failed over");
+    }
+
+    List<StandInNode> active = new ArrayList<>(current.activeNodes);
+    active.remove(failed);
+    int[] owners = new int[numPartitions];
+    int next = 0;
+    for (int i = 0; i < numPartitions; i++) {
+      StandInNode owner = current.activeNodes.get(current.owners[i]);
+      owners[i] = owner == failed ? next++ % active.size() : active.indexOf(owner);
+    }
+    topology = new Topology(current.revision + 1, Collections.unmodifiableList(active), owners);
+  }
+
+  /**
+   * Closes all client connections to the given node, which keeps accepting new ones.
+   *
+   * @param node the index of the node.
+   */
+  public void dropConnections(final int node) {
+    nodes.get(node).dropConnections();
+  }
+
+  @Override
+  public void close() {
+    for (StandInNode node : nodes) {
+      node.close();
+    }
+    eventLoopGroup.shutdownGracefully(0, 1, TimeUnit.SECONDS).syncUninterruptibly();
+  }
+
+  DocumentStore store() {
+    return store;
+  }
+
+  long latencyNanos() {
+    return latencyNanos;
+  }
+
+  byte[] errorMap() {
+    return ERROR_MAP.getBytes(UTF_8);
+  }
+
+  byte[] manifest() {
+    return manifest;
+  }
+
+  long manifestUid() {
+    return manifestUid;
+  }
+
+  boolean checkCredentials(final String username, final String password) {
+    return this.username.equals(username) && this.password.equals(password);
+  }
+
+  SaslServer saslServer() {
+    return new SaslServer(username, password);
+  }
+
+  /**
+   * Returns the collection ID for a "scope.collection" name.
+   */
+  Optional<Integer> collectionId(final String name) {
+    return Optional.ofNullable(collectionIds.get(name));
+  }
+
+  boolean collectionExists(final int collectionId) {
+    return collectionIds.containsValue(collectionId);
+  }
+
+  /**
+   * Returns true if the node is currently active for the partition and no "not my vbucket" is pending.
+   */
+  boolean acceptsDataOperation(final StandInNode node, final int partition) {
+    if (pendingNotMyVbucket.get() > 0 && pendingNotMyVbucket.getAndDecrement() > 0) {
+      return false;
+    }
+    Topology current = topology;
+    return partition >= 0 && partition < numPartitions && current.activeNodes.get(current.owners[partition]) == node;
+  }
+
+  byte[] bucketConfig(final StandInNode node) {
+    Topology current = topology;
+    return current.bucketConfigs.computeIfAbsent(node, n -> encode(encodeBucketConfig(current, n)));
+  }
+
+  byte[] globalConfig(final StandInNode node) {
+    Topology current = topology;
+    return current.globalConfigs.computeIfAbsent(node, n -> encode(encodeGlobalConfig(current, n)));
+  }
+
+  private ObjectNode encodeGlobalConfig(final Topology topology, final StandInNode thisNode) {
+    ObjectNode config = MAPPER.createObjectNode();
+    config.put("rev", topology.revision);
+    ArrayNode nodesExt = config.putArray("nodesExt");
+    for (StandInNode node : topology.activeNodes) {
+      ObjectNode nodeExt = nodesExt.addObject();
+      ObjectNode services = nodeExt.putObject("services");
+      services.put("mgmt", node.managerPort());
+      services.put("kv", node.kvPort());
+      nodeExt.put("hostname", "$HOST");
+      if (node == thisNode) {
+        nodeExt.put("thisNode", true);
+      }
+    }
+    config.putArray("clusterCapabilitiesVer").add(1).add(0);
+    config.putObject("clusterCapabilities");
+    return config;
+  }
+
+  private ObjectNode encodeBucketConfig(final Topology topology, final StandInNode thisNode) {
+    ObjectNode config = encodeGlobalConfig(topology, thisNode);
+    config.put("name", bucketName);
+    config.put("uuid", bucketUuid);
+    config.put("uri", "/pools/default/buckets/" + bucketName + "?bucket_uuid=" + bucketUuid);
+    config.put("nodeLocator", "vbucket");
+    ArrayNode nodes = config.putArray("nodes");
+    for (StandInNode node : topology.activeNodes) {
+      ObjectNode n = nodes.addObject();
+      n.put("hostname", "$HOST:" + node.managerPort());
+      n.putObject("ports").put("direct", node.kvPort());
+    }
+    config.put("bucketCapabilitiesVer", "");
+    config.putArray("bucketCapabilities")
+      .add("collections")
+      .add("cbhello")
+      .add("touch")
+      .add("cccp")
+      .add("nodesExt");
+
+    ObjectNode serverMap = config.putObject("vBucketServerMap");
+    serverMap.put("hashAlgorithm", "CRC");
+    serverMap.put("numReplicas", 0);
+    ArrayNode serverList = serverMap.putArray("serverList");
+    for (StandInNode node : topology.activeNodes) {
+      serverList.add("$HOST:" + node.kvPort());
+    }
+    ArrayNode partitions = serverMap.putArray("vBucketMap");
+    for (int owner : topology.owners) {
+      partitions.addArray().add(owner);
+    }
+    return config;
+  }
+
+  private byte[] encodeManifest() {
+    ObjectNode manifest = MAPPER.createObjectNode();
+    manifest.put("uid", Long.toHexString(manifestUid));
+    Map<String, ArrayNode> scopes = new LinkedHashMap<>();
+    ArrayNode scopeNodes = manifest.putArray("scopes");
+    for (Map.Entry<String, Integer> collection : collectionIds.entrySet()) {
+      String[] parts = collection.getKey().split("\\.", 2);
+      ArrayNode collections = scopes.computeIfAbsent(parts[0], name -> {
+        ObjectNode scope = scopeNodes.addObject();
+        scope.put("name", name);
+        scope.put("uid", Integer.toHexString(scopes.size()));
+        return scope.putArray("collections");
+      });
+      collections.addObject().put("name", parts[1]).put("uid", Integer.toHexString(collection.getValue()));
+    }
+    return encode(manifest);
+  }
+
+  private static byte[] encode(final ObjectNode node) {
+    try {
+      return MAPPER.writeValueAsBytes(node);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
+  /**
+   * An immutable revision of the cluster map, with the encoded configs cached per node.
+   */
+  private static class Topology {
+
+    final long revision;
+    final List<StandInNode> activeNodes;
+
+    /**
+     * For each partition, the index of the owning node in {@link #activeNodes}.
+     */
+    final int[] owners;
+
+    final Map<StandInNode, byte[]> bucketConfigs = new ConcurrentHashMap<>();
+    final Map<StandInNode, byte[]> globalConfigs = new ConcurrentHashMap<>();
+
+    Topology(final long revision, final List<StandInNode> activeNodes, final int[] owners) {
+      this.revision = revision;
+      this.activeNodes = activeNodes;
+      this.owners = owners;
+    }
+  }
+
+  public static class Builder {
+
+    private String host = "127.0.0.1";
+    private int numNodes = 3;
+    private int numPartitions = 64;
+    private int eventLoopThreads = 0;
+    private String bucketName = "default";
+    private String username = "Administrator";
+    private String password = "password";
+    private Duration latency = Duration.ZERO;
+    private final Map<String, Integer> collectionIds = new LinkedHashMap<>();
+
+    Builder() {
+      collectionIds.put("_default._default", 0);
+    }
+
+    public Builder host(final String host) {
+      this.host = host;
+      return this;
+    }
+
+    public Builder numNodes(final int numNodes) {
+      if (numNodes < 1) {
+        throw new IllegalArgumentException("At least one node is needed");
+      }
+      this.numNodes = numNodes;
+      return this;
+    }
+
+    public Builder numPartitions(final int numPartitions) {
+      if (numPartitions < 1 || numPartitions > 1024) {
+        throw new IllegalArgumentException("The number of partitions must be between 1 and 1024");
+      }
+      this.numPartitions = numPartitions;
+      return this;
+    }
+
+    /**
+     * Sets the number of event loop threads shared by all nodes (0 uses the netty default).
+     */
+    public Builder eventLoopThreads(final int eventLoopThreads) {
+      this.eventLoopThreads = eventLoopThreads;
+      return this;
+    }
+
+    public Builder bucketName(final String bucketName) {
+      this.bucketName = bucketName;
+      return this;
+    }
+
+    public Builder credentials(final String username, final String password) {
+      this.username = username;
+      this.password = password;
+      return this;
+    }
+
+    public Builder latency(final Duration latency) {
+      this.latency = latency;
+      return this;
+    }
+
+    /**
+     * Adds a collection; collection IDs are assigned in order starting from 8, like the server does.
+     */
+    public Builder collection(final String scope, final String collection) {
+      collectionIds.putIfAbsent(scope + "." + collection, 7 + collectionIds.size());
+      return this;
+    }
+
+    /**
+     * Creates the cluster and binds all nodes.
+     */
+    public StandInCluster start() {
+      return new StandInCluster(this);
+    }
+  }
+
+}
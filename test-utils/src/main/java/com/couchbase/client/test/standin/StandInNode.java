@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+import com.couchbase.client.core.deps.io.netty.bootstrap.ServerBootstrap;
+import com.couchbase.client.core.deps.io.netty.channel.Channel;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelHandlerContext;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInboundHandlerAdapter;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelInitializer;
+import com.couchbase.client.core.deps.io.netty.channel.ChannelOption;
+import com.couchbase.client.core.deps.io.netty.channel.EventLoopGroup;
+import com.couchbase.client.core.deps.io.netty.channel.group.ChannelGroup;
+import com.couchbase.client.core.deps.io.netty.channel.group.DefaultChannelGroup;
+import com.couchbase.client.core.deps.io.netty.channel.socket.SocketChannel;
+import com.couchbase.client.core.deps.io.netty.channel.socket.nio.NioServerSocketChannel;
+import com.couchbase.client.core.deps.io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import com.couchbase.client.core.deps.io.netty.util.concurrent.GlobalEventExecutor;
+
+import java.net.InetSocketAddress;
+
+/**
+ * A single node of the {@link StandInCluster}, listening on its own KV and manager ports.
+ * <p>
+ * The manager port only exists so that every node has a unique identity in the cluster map, connections to it
+ * are accepted and closed right away.
+ */
+class StandInNode {
+
+  /**
+   * The maximum frame size accepted, a bit over the 20MB document limit of the server.
+   */
+  private static final int MAX_FRAME_SIZE = 21 * 1024 * 1024;
+
+  private final int index;
+  private final ChannelGroup clientChannels = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+  private final Channel kvChannel;
+  private final Channel managerChannel;
+
+  StandInNode(final StandInCluster cluster, final int index, final String host, final EventLoopGroup group) {
+    this.index = index;
+
+    kvChannel = new ServerBootstrap()
+      .group(group)
+      .channel(NioServerSocketChannel.class)
+      .childOption(ChannelOption.TCP_NODELAY, true)
+      .childHandler(new ChannelInitializer<SocketChannel>() {
+        @Override
+        protected void initChannel(final SocketChannel ch) {
+          clientChannels.add(ch);
+          ch.pipeline()
+            .addLast(new LengthFieldBasedFrameDecoder(MAX_FRAME_SIZE, 8, 4, 12, 0))
+            .addLast(new KeyValueHandler(cluster, StandInNode.this));
+        }
+      })
+      .bind(host, 0)
+      .syncUninterruptibly()
+      .channel();
+
+    managerChannel = new ServerBootstrap()
+      .group(group)
+      .channel(NioServerSocketChannel.class)
+      .childHandler(new ChannelInboundHandlerAdapter() {
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) {
+          ctx.close();
+        }
+      })
+      .bind(host, 0)
+      .syncUninterruptibly()
+      .channel();
+  }
+
+  int index() {
+    return index;
+  }
+
+  int kvPort() {
+    return ((InetSocketAddress) kvChannel.localAddress()).getPort();
+  }
+
+  int managerPort() {
+    return ((InetSocketAddress) managerChannel.localAddress()).getPort();
+  }
+
+  /**
+   * Closes all currently open client connections, but keeps listening for new ones.
+   */
+  void dropConnections() {
+    clientChannels.close().syncUninterruptibly();
+  }
+
+  void close() {
+    kvChannel.close().syncUninterruptibly();
+    managerChannel.close().syncUninterruptibly();
+    dropConnections();
+  }
+
+}
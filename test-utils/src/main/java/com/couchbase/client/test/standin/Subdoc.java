@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2020 Couchbase, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.couchbase.client.test.standin;
+
+// CHECKSTYLE:OFF IllegalImport - Allow unbundled Jackson
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.couchbase.client.test.standin.Protocol.OP_DELETE;
+import static com.couchbase.client.test.standin.Protocol.OP_GET;
+import static com.couchbase.client.test.standin.Protocol.OP_SET;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_DELTA_RANGE;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_DOC_NOT_JSON;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_MULTI_PATH_FAILURE;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_PATH_EXISTS;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_PATH_INVALID;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_PATH_MISMATCH;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUBDOC_PATH_NOT_FOUND;
+import static com.couchbase.client.test.standin.Protocol.STATUS_SUCCESS;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_ARRAY_PUSH_FIRST;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_ARRAY_PUSH_LAST;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_COUNTER;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_DELETE;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_DICT_ADD;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_DICT_UPSERT;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_EXISTS;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_GET;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_GET_COUNT;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_PATH_FLAG_MKDIR_P;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_PATH_FLAG_XATTR;
+import static com.couchbase.client.test.standin.Protocol.SUBDOC_REPLACE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Implements the subdocument multi lookup and multi mutation commands on top of a Jackson tree.
+ * <p>
+ * Extended attributes are not supported, specs which target them fail with "path not found" on lookups and
+ * "path invalid" on mutations.
+ */
+final class Subdoc {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private Subdoc() {
+  }
+
+  /**
+   * Executes all lookup specs against the document.
+   */
+  static Result lookup(final byte[] document, final ByteBuffer specs) {
+    JsonNode root = parseOrNull(document);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    boolean allSucceeded = true;
+
+    while (specs.hasRemaining()) {
+      byte opcode = specs.get();
+      byte flags = specs.get();
+      String path = readString(specs, specs.getShort() & 0xFFFF);
+
+      short status = STATUS_SUCCESS;
+      byte[] value = new byte[0];
+      try {
+        if ((flags & SUBDOC_PATH_FLAG_XATTR) != 0) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_NOT_FOUND);
+        } else if (opcode == OP_GET) {
+          value = document;
+        } else {
+          if (root == null) {
+            throw new SubdocException(STATUS_SUBDOC_DOC_NOT_JSON);
+          }
+          JsonNode node = resolve(root, parsePath(path), false);
+          if (opcode == SUBDOC_GET) {
+            value = MAPPER.writeValueAsBytes(node);
+          } else if (opcode == SUBDOC_GET_COUNT) {
+            if (!node.isContainerNode()) {
+              throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+            }
+            value = Integer.toString(node.size()).getBytes(UTF_8);
+          } else if (opcode != SUBDOC_EXISTS) {
+            throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+          }
+        }
+      } catch (SubdocException ex) {
+        status = ex.status;
+      } catch (IOException ex) {
+        status = STATUS_SUBDOC_DOC_NOT_JSON;
+      }
+
+      allSucceeded &= status == STATUS_SUCCESS;
+      writeShort(body, status);
+      writeInt(body, value.length);
+      body.write(value, 0, value.length);
+    }
+
+    return new Result(allSucceeded ? STATUS_SUCCESS : STATUS_SUBDOC_MULTI_PATH_FAILURE, body.toByteArray(), null);
+  }
+
+  /**
+   * Applies all mutation specs to the document, atomically.
+   *
+   * @param document the current document, or null if it should be created.
+   */
+  static Result mutate(final byte[] document, final ByteBuffer specs) {
+    JsonNode root = document == null ? JsonNodeFactory.instance.objectNode() : parseOrNull(document);
+    byte[] rawDocument = null;
+    boolean deleteDocument = false;
+    ByteArrayOutputStream results = new ByteArrayOutputStream();
+
+    int index = 0;
+    while (specs.hasRemaining()) {
+      byte opcode = specs.get();
+      byte flags = specs.get();
+      int pathLength = specs.getShort() & 0xFFFF;
+      int valueLength = specs.getInt();
+      String path = readString(specs, pathLength);
+      byte[] value = new byte[valueLength];
+      specs.get(value);
+
+      try {
+        if ((flags & SUBDOC_PATH_FLAG_XATTR) != 0) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+        } else if (opcode == OP_SET) {
+          root = parseOrNull(value);
+          rawDocument = root == null ? value : null;
+          continue;
+        } else if (opcode == OP_DELETE) {
+          deleteDocument = true;
+          continue;
+        } else if (root == null) {
+          throw new SubdocException(STATUS_SUBDOC_DOC_NOT_JSON);
+        }
+
+        byte[] result = apply(root, opcode, (flags & SUBDOC_PATH_FLAG_MKDIR_P) != 0, parsePath(path), value);
+        if (result != null) {
+          results.write(index);
+          writeShort(results, STATUS_SUCCESS);
+          writeInt(results, result.length);
+          results.write(result, 0, result.length);
+        }
+      } catch (SubdocException ex) {
+        ByteArrayOutputStream failure = new ByteArrayOutputStream();
+        failure.write(index);
+        writeShort(failure, ex.status);
+        return new Result(STATUS_SUBDOC_MULTI_PATH_FAILURE, failure.toByteArray(), null);
+      } finally {
+        index++;
+      }
+    }
+
+    byte[] updated;
+    if (deleteDocument) {
+      updated = null;
+    } else if (rawDocument != null) {
+      updated = rawDocument;
+    } else {
+      try {
+        updated = MAPPER.writeValueAsBytes(root);
+      } catch (IOException ex) {
+        throw new IllegalStateException(ex);
+      }
+    }
+    return new Result(STATUS_SUCCESS, results.toByteArray(), updated);
+  }
+
+  /**
+   * Applies a single mutation spec, returning the result value if the operation produces one.
+   */
+  private static byte[] apply(final JsonNode root, final byte opcode, final boolean createParents,
+                              final List<Object> path, final byte[] value) throws SubdocException {
+    if (opcode == SUBDOC_ARRAY_PUSH_LAST || opcode == SUBDOC_ARRAY_PUSH_FIRST) {
+      JsonNode target = root;
+      if (!path.isEmpty()) {
+        JsonNode parent = resolve(root, path.subList(0, path.size() - 1), createParents);
+        target = child(parent, path.get(path.size() - 1));
+        if (target == null) {
+          if (!createParents) {
+            throw new SubdocException(STATUS_SUBDOC_PATH_NOT_FOUND);
+          }
+          target = JsonNodeFactory.instance.arrayNode();
+          set(parent, path.get(path.size() - 1), target, false);
+        }
+      }
+      if (!target.isArray()) {
+        throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+      }
+      JsonNode values = parseValue(("[" + new String(value, UTF_8) + "]").getBytes(UTF_8));
+      ArrayNode array = (ArrayNode) target;
+      int i = 0;
+      for (JsonNode element : values) {
+        if (opcode == SUBDOC_ARRAY_PUSH_LAST) {
+          array.add(element);
+        } else {
+          array.insert(i++, element);
+        }
+      }
+      return null;
+    }
+
+    if (path.isEmpty()) {
+      throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+    }
+    Object last = path.get(path.size() - 1);
+    JsonNode parent = resolve(root, path.subList(0, path.size() - 1), createParents);
+    JsonNode existing = child(parent, last);
+
+    switch (opcode) {
+      case SUBDOC_DICT_ADD:
+      case SUBDOC_DICT_UPSERT:
+        if (!parent.isObject() || !(last instanceof String)) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+        }
+        if (opcode == SUBDOC_DICT_ADD && existing != null) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_EXISTS);
+        }
+        ((ObjectNode) parent).set((String) last, parseValue(value));
+        return null;
+      case SUBDOC_REPLACE:
+        if (existing == null) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_NOT_FOUND);
+        }
+        set(parent, last, parseValue(value), true);
+        return null;
+      case SUBDOC_DELETE:
+        if (existing == null) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_NOT_FOUND);
+        }
+        if (parent.isObject()) {
+          ((ObjectNode) parent).remove((String) last);
+        } else {
+          ((ArrayNode) parent).remove(arrayIndex((ArrayNode) parent, (Integer) last));
+        }
+        return null;
+      case SUBDOC_COUNTER:
+        long delta;
+        try {
+          delta = Long.parseLong(new String(value, UTF_8));
+        } catch (NumberFormatException ex) {
+          throw new SubdocException(STATUS_SUBDOC_DELTA_RANGE);
+        }
+        long current = 0;
+        if (existing != null) {
+          if (!existing.isIntegralNumber() || !existing.canConvertToLong()) {
+            throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+          }
+          current = existing.longValue();
+        }
+        long updated;
+        try {
+          updated = Math.addExact(current, delta);
+        } catch (ArithmeticException ex) {
+          throw new SubdocException(STATUS_SUBDOC_DELTA_RANGE);
+        }
+        set(parent, last, JsonNodeFactory.instance.numberNode(updated), existing != null);
+        return Long.toString(updated).getBytes(UTF_8);
+      default:
+        throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+    }
+  }
+
+  private static void set(final JsonNode parent, final Object field, final JsonNode value, final boolean replace)
+    throws SubdocException {
+    if (parent.isObject() && field instanceof String) {
+      ((ObjectNode) parent).set((String) field, value);
+    } else if (parent.isArray() && field instanceof Integer) {
+      ArrayNode array = (ArrayNode) parent;
+      if (replace) {
+        array.set(arrayIndex(array, (Integer) field), value);
+      } else {
+        array.add(value);
+      }
+    } else {
+      throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+    }
+  }
+
+  private static JsonNode resolve(final JsonNode root, final List<Object> path, final boolean createParents)
+    throws SubdocException {
+    JsonNode node = resolveOrNull(root, path, createParents);
+    if (node == null) {
+      throw new SubdocException(STATUS_SUBDOC_PATH_NOT_FOUND);
+    }
+    return node;
+  }
+
+  private static JsonNode resolveOrNull(final JsonNode root, final List<Object> path, final boolean createParents)
+    throws SubdocException {
+    JsonNode current = root;
+    for (Object element : path) {
+      JsonNode next = child(current, element);
+      if (next == null) {
+        if (createParents && current.isObject() && element instanceof String) {
+          next = ((ObjectNode) current).putObject((String) element);
+        } else {
+          return null;
+        }
+      }
+      current = next;
+    }
+    return current;
+  }
+
+  private static JsonNode child(final JsonNode node, final Object element) throws SubdocException {
+    if (element instanceof String) {
+      if (!node.isObject()) {
+        throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+      }
+      return node.get((String) element);
+    }
+    if (!node.isArray()) {
+      throw new SubdocException(STATUS_SUBDOC_PATH_MISMATCH);
+    }
+    int index = (Integer) element;
+    int resolved = index < 0 ? node.size() + index : index;
+    return resolved >= 0 && resolved < node.size() ? node.get(resolved) : null;
+  }
+
+  private static int arrayIndex(final ArrayNode array, final int index) {
+    return index < 0 ? array.size() + index : index;
+  }
+
+  /**
+   * Parses a path like {@code foo.bar[2].baz} into field names and array indexes.
+   */
+  static List<Object> parsePath(final String path) throws SubdocException {
+    List<Object> elements = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    int i = 0;
+    while (i < path.length()) {
+      char c = path.charAt(i);
+      if (c == '`') {
+        int end = path.indexOf('`', i + 1);
+        if (end < 0) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+        }
+        field.append(path, i + 1, end);
+        i = end + 1;
+      } else if (c == '.') {
+        flushField(elements, field);
+        i++;
+      } else if (c == '[') {
+        flushField(elements, field);
+        int end = path.indexOf(']', i);
+        if (end < 0) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+        }
+        try {
+          elements.add(Integer.parseInt(path.substring(i + 1, end)));
+        } catch (NumberFormatException ex) {
+          throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+        }
+        i = end + 1;
+      } else {
+        field.append(c);
+        i++;
+      }
+    }
+    flushField(elements, field);
+    return elements;
+  }
+
+  private static void flushField(final List<Object> elements, final StringBuilder field) {
+    if (field.length() > 0) {
+      elements.add(field.toString());
+      field.setLength(0);
+    }
+  }
+
+  private static JsonNode parseOrNull(final byte[] document) {
+    try {
+      return MAPPER.readTree(document);
+    } catch (IOException ex) {
+      return null;
+    }
+  }
+
+  private static JsonNode parseValue(final byte[] value) throws SubdocException {
+    JsonNode node = parseOrNull(value);
+    if (node == null) {
+      throw new SubdocException(STATUS_SUBDOC_PATH_INVALID);
+    }
+    return node;
+  }
+
+  private static String readString(final ByteBuffer buffer, final int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private static void writeShort(final ByteArrayOutputStream out, final short value) {
+    out.write((value >> 8) & 0xFF);
+    out.write(value & 0xFF);
+  }
+
+  private static void writeInt(final ByteArrayOutputStream out, final int value) {
+    out.write((value >> 24) & 0xFF);
+    out.write((value >> 16) & 0xFF);
+    out.write((value >> 8) & 0xFF);
+    out.write(value & 0xFF);
+  }
+
+  /**
+   * The outcome of a subdocument command.
+   */
+  static class Result {
+
+    final short status;
+    final byte[] body;
+
+    /**
+     * For mutations, the new document content (null if the document has been deleted).
+     */
+    final byte[] document;
+
+    Result(final short status, final byte[] body, final byte[] document) {
+      this.status = status;
+      this.body = body;
+      this.document = document;
+    }
+  }
+
+  static class SubdocException extends Exception {
+
+    final short status;
+
+    SubdocException(final short status) {
+      super(null, null, false, false);
+      this.status = status;
+    }
+  }
+
+}